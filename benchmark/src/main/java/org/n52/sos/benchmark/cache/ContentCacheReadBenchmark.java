@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.cache;
+
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.n52.sos.cache.InMemoryCacheImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the throughput of the {@link InMemoryCacheImpl} getters
+ * used by the request handlers, read by several threads at once. The
+ * {@code readWrite} group measures the readers while another thread
+ * concurrently applies the updates of an observation insertion.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar ContentCacheReadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ContentCacheReadBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    private int procedures;
+
+    private InMemoryCacheImpl cache;
+
+    @Setup
+    public void setup() {
+        cache = SyntheticContentCache.create(procedures);
+    }
+
+    @State(Scope.Thread)
+    public static class Index {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Benchmark
+    public Set<String> getOfferings() {
+        return cache.getOfferings();
+    }
+
+    @Benchmark
+    public Set<String> getPublishedProcedures() {
+        return cache.getPublishedProcedures();
+    }
+
+    @Benchmark
+    public boolean hasQueryableProcedure(Index index) {
+        return cache.hasQueryableProcedure(SyntheticContentCache.procedure(index.next(procedures)), false, false);
+    }
+
+    @Benchmark
+    public boolean hasQueryableProcedureInstancesOnly(Index index) {
+        return cache.hasQueryableProcedure(SyntheticContentCache.procedure(index.next(procedures)), true, false);
+    }
+
+    @Benchmark
+    public Set<String> getOfferingsForProcedure(Index index) {
+        return cache.getOfferingsForProcedure(SyntheticContentCache.procedure(index.next(procedures)));
+    }
+
+    @Benchmark
+    public Set<String> getProceduresForOffering(Index index) {
+        return cache.getProceduresForOffering(SyntheticContentCache.offering(index.next(procedures)));
+    }
+
+    @Benchmark
+    public Set<String> getObservablePropertiesForOffering(Index index) {
+        return cache.getObservablePropertiesForOffering(SyntheticContentCache.offering(index.next(procedures)));
+    }
+
+    @Benchmark
+    public Set<String> getOfferingsForObservableProperty(Index index) {
+        return cache.getOfferingsForObservableProperty(
+                SyntheticContentCache.observableProperty(index.next(SyntheticContentCache.OBSERVABLE_PROPERTIES), 0));
+    }
+
+    @Benchmark
+    public Set<String> getFeaturesOfInterestForOffering(Index index) {
+        return cache.getFeaturesOfInterestForOffering(SyntheticContentCache.offering(index.next(procedures)));
+    }
+
+    @Benchmark
+    public Set<String> getProceduresForFeatureOfInterest(Index index) {
+        return cache.getProceduresForFeatureOfInterest(SyntheticContentCache.feature(index.next(procedures),
+                index.next(SyntheticContentCache.FEATURES_PER_PROCEDURE)));
+    }
+
+    @Benchmark
+    public ReferencedEnvelope getEnvelopeForOffering(Index index) {
+        return cache.getEnvelopeForOffering(SyntheticContentCache.offering(index.next(procedures)));
+    }
+
+    @Benchmark
+    public DateTime getMaxPhenomenonTimeForOffering(Index index) {
+        return cache.getMaxPhenomenonTimeForOffering(SyntheticContentCache.offering(index.next(procedures)));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public Set<String> readWhileWriting(Index index) {
+        return cache.getFeaturesOfInterestForOffering(SyntheticContentCache.offering(index.next(procedures)));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void writeWhileReading(Index index) {
+        int procedure = index.next(procedures);
+        String offering = SyntheticContentCache.offering(procedure);
+        String feature = SyntheticContentCache.feature(procedure, 0);
+        cache.addFeatureOfInterestForOffering(offering, feature);
+        cache.addProcedureForFeatureOfInterest(feature, SyntheticContentCache.procedure(procedure));
+        cache.setMaxPhenomenonTimeForOffering(offering, cache.getMaxPhenomenonTimeForOffering(offering));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ContentCacheReadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
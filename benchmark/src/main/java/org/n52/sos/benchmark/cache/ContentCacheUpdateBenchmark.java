@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.n52.iceland.convert.ConverterRepository;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.shetland.ogc.sos.request.InsertSensorRequest;
+import org.n52.shetland.ogc.sos.response.InsertSensorResponse;
+import org.n52.sos.cache.InMemoryCacheImpl;
+import org.n52.sos.cache.ctrl.action.ObservationInsertionUpdate;
+import org.n52.sos.cache.ctrl.action.SensorInsertionUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the cost to apply the cache updates of the transactional
+ * operations to a populated {@link InMemoryCacheImpl}. The requests are
+ * created in advance, so only the application of the update is measured.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar ContentCacheUpdateBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentCacheUpdateBenchmark {
+
+    private static final int REQUESTS = 100;
+
+    @Param({ "100", "1000", "10000" })
+    private int procedures;
+
+    @Param({ "1", "100" })
+    private int observations;
+
+    private InMemoryCacheImpl cache;
+
+    private ConverterRepository converterRepository;
+
+    private InsertObservationRequest[] insertObservations;
+
+    private InsertSensorRequest[] insertSensors;
+
+    private InsertSensorResponse[] insertSensorResponses;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws OwsExceptionReport {
+        converterRepository = new ConverterRepository();
+        converterRepository.init();
+        int requests = Math.min(REQUESTS, procedures);
+        insertObservations = new InsertObservationRequest[requests];
+        insertSensors = new InsertSensorRequest[requests];
+        insertSensorResponses = new InsertSensorResponse[requests];
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < requests; i++) {
+            // spread the requests over the procedures of the cache
+            int procedure = i * (procedures / requests);
+            insertObservations[i] = SyntheticContentCache.insertObservation(procedure, observations, time);
+            insertSensors[i] = SyntheticContentCache.insertSensor(procedure);
+            insertSensorResponses[i] = SyntheticContentCache.insertSensorResponse(procedure);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createCache() {
+        cache = SyntheticContentCache.create(procedures);
+    }
+
+    @Benchmark
+    public InMemoryCacheImpl observationInsertion() {
+        ObservationInsertionUpdate update = new ObservationInsertionUpdate(insertObservations[next()]);
+        update.setCache(cache);
+        update.execute();
+        return cache;
+    }
+
+    @Benchmark
+    public InMemoryCacheImpl sensorInsertion() {
+        int i = next();
+        SensorInsertionUpdate update =
+                new SensorInsertionUpdate(insertSensors[i], insertSensorResponses[i], converterRepository);
+        update.setCache(cache);
+        update.execute();
+        return cache;
+    }
+
+    private int next() {
+        next = (next + 1) % insertObservations.length;
+        return next;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ContentCacheUpdateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
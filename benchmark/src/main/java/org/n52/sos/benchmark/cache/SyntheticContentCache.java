@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.cache;
+
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.locationtech.jts.geom.Envelope;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.features.SfConstants;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.shetland.ogc.sos.request.InsertSensorRequest;
+import org.n52.shetland.ogc.sos.response.InsertSensorResponse;
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.n52.sos.cache.InMemoryCacheImpl;
+import org.n52.sos.util.builder.InsertObservationRequestBuilder;
+import org.n52.sos.util.builder.InsertSensorRequestBuilder;
+import org.n52.sos.util.builder.InsertSensorResponseBuilder;
+import org.n52.sos.util.builder.ObservablePropertyBuilder;
+import org.n52.sos.util.builder.ObservationBuilder;
+import org.n52.sos.util.builder.ObservationConstellationBuilder;
+import org.n52.sos.util.builder.ProcedureDescriptionBuilder;
+import org.n52.sos.util.builder.QuantityObservationValueBuilder;
+import org.n52.sos.util.builder.QuantityValueBuilder;
+import org.n52.sos.util.builder.SamplingFeatureBuilder;
+
+/**
+ * Generates content caches and transactional requests of a given size. Every
+ * procedure has its own offering, observes {@value #PROPERTIES_PER_PROCEDURE}
+ * of {@value #OBSERVABLE_PROPERTIES} observable properties at
+ * {@value #FEATURES_PER_PROCEDURE} sampling points, which resembles a typical
+ * station network. The generated content only depends on the size.
+ */
+public final class SyntheticContentCache {
+
+    public static final int OBSERVABLE_PROPERTIES = 50;
+
+    public static final int PROPERTIES_PER_PROCEDURE = 5;
+
+    public static final int FEATURES_PER_PROCEDURE = 4;
+
+    public static final int EPSG = 4326;
+
+    private static final String PREFIX = "http://www.52north.org/benchmark/";
+
+    private static final DateTime START = new DateTime(2010, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    private static final DateTime END = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    private SyntheticContentCache() {
+    }
+
+    public static String procedure(int procedure) {
+        return PREFIX + "procedure/" + procedure;
+    }
+
+    public static String offering(int procedure) {
+        return PREFIX + "offering/" + procedure;
+    }
+
+    public static String observableProperty(int procedure, int property) {
+        return PREFIX + "observableProperty/" + (procedure + property * 7) % OBSERVABLE_PROPERTIES;
+    }
+
+    public static String feature(int procedure, int feature) {
+        return PREFIX + "feature/" + procedure + "/" + feature;
+    }
+
+    /**
+     * @param procedures
+     *            the number of procedures
+     * @return a cache with the procedures and their related entities
+     */
+    public static InMemoryCacheImpl create(int procedures) {
+        InMemoryCacheImpl cache = new InMemoryCacheImpl();
+        Random random = new Random(procedures);
+        Envelope global = new Envelope();
+        for (int i = 0; i < procedures; i++) {
+            String procedure = procedure(i);
+            String offering = offering(i);
+            cache.addProcedure(procedure);
+            cache.addPublishedProcedure(procedure);
+            cache.addProcedureIdentifierHumanReadableName(procedure, "Procedure " + i);
+            cache.addOffering(offering);
+            cache.addPublishedOffering(offering);
+            cache.addOfferingIdentifierHumanReadableName(offering, "Offering " + i);
+            cache.addProcedureForOffering(offering, procedure);
+            cache.addOfferingForProcedure(procedure, offering);
+            cache.addObservationTypesForOffering(offering, OmConstants.OBS_TYPE_MEASUREMENT);
+            cache.addAllowedObservationTypeForOffering(offering, OmConstants.OBS_TYPE_MEASUREMENT);
+            for (int p = 0; p < PROPERTIES_PER_PROCEDURE; p++) {
+                String observableProperty = observableProperty(i, p);
+                cache.addPublishedObservableProperty(observableProperty);
+                cache.addObservablePropertyForOffering(offering, observableProperty);
+                cache.addOfferingForObservableProperty(observableProperty, offering);
+                cache.addObservablePropertyForProcedure(procedure, observableProperty);
+                cache.addProcedureForObservableProperty(observableProperty, procedure);
+            }
+            Envelope envelope = new Envelope();
+            for (int f = 0; f < FEATURES_PER_PROCEDURE; f++) {
+                String feature = feature(i, f);
+                cache.addFeatureOfInterest(feature);
+                cache.addPublishedFeatureOfInterest(feature);
+                cache.addFeatureOfInterestForOffering(offering, feature);
+                cache.addRelatedFeatureForOffering(offering, feature);
+                cache.addProcedureForFeatureOfInterest(feature, procedure);
+                envelope.expandToInclude(longitude(random), latitude(random));
+            }
+            global.expandToInclude(envelope);
+            cache.setEnvelopeForOffering(offering, new ReferencedEnvelope(envelope, EPSG));
+            DateTime begin = START.plusHours(random.nextInt(24 * 365));
+            cache.setMinPhenomenonTimeForOffering(offering, begin);
+            cache.setMaxPhenomenonTimeForOffering(offering, END);
+            cache.setMinResultTimeForOffering(offering, begin);
+            cache.setMaxResultTimeForOffering(offering, END);
+            cache.setMinPhenomenonTimeForProcedure(procedure, begin);
+            cache.setMaxPhenomenonTimeForProcedure(procedure, END);
+        }
+        cache.setGlobalEnvelope(new ReferencedEnvelope(global, EPSG));
+        cache.setMinPhenomenonTime(START);
+        cache.setMaxPhenomenonTime(END);
+        cache.setMinResultTime(START);
+        cache.setMaxResultTime(END);
+        return cache;
+    }
+
+    /**
+     * @param procedure
+     *            the index of the procedure
+     * @param observations
+     *            the number of observations per observable property
+     * @param time
+     *            the phenomenon time of the first observation
+     * @return a request with observations of all observable properties of the
+     *         procedure at its first feature
+     */
+    public static InsertObservationRequest insertObservation(int procedure, int observations, long time)
+            throws OwsExceptionReport {
+        Random random = new Random(procedure);
+        InsertObservationRequestBuilder builder = InsertObservationRequestBuilder.aInsertObservationRequest()
+                .setProcedureId(procedure(procedure)).addOffering(offering(procedure));
+        for (int p = 0; p < PROPERTIES_PER_PROCEDURE; p++) {
+            for (int o = 0; o < observations; o++) {
+                builder.addObservation(ObservationBuilder.anObservation()
+                        .setObservationConstellation(ObservationConstellationBuilder.anObservationConstellation()
+                                .setFeature(SamplingFeatureBuilder.aSamplingFeature()
+                                        .setIdentifier(feature(procedure, 0))
+                                        .setFeatureType(SfConstants.FT_SAMPLINGPOINT)
+                                        .setGeometry(latitude(random), longitude(random), EPSG).build())
+                                .setProcedure(ProcedureDescriptionBuilder.aSensorMLProcedureDescription()
+                                        .setIdentifier(procedure(procedure)).build())
+                                .setObservationType(OmConstants.OBS_TYPE_MEASUREMENT)
+                                .setObservableProperty(ObservablePropertyBuilder.aObservableProperty()
+                                        .setIdentifier(observableProperty(procedure, p)).build())
+                                .build())
+                        .setValue(QuantityObservationValueBuilder.aQuantityValue()
+                                .setValue(QuantityValueBuilder.aQuantitiy().setValue(random.nextDouble())
+                                        .setUnit("m").build())
+                                .setPhenomenonTime(time + o * 60000L).build())
+                        .build());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param procedure
+     *            the index of the procedure
+     * @return a request to insert the procedure
+     */
+    public static InsertSensorRequest insertSensor(int procedure) {
+        InsertSensorRequestBuilder builder = InsertSensorRequestBuilder.anInsertSensorRequest()
+                .setProcedure(ProcedureDescriptionBuilder.aSensorMLProcedureDescription()
+                        .setIdentifier(procedure(procedure))
+                        .setOffering(offering(procedure), "Offering " + procedure).build())
+                .addObservationType(OmConstants.OBS_TYPE_MEASUREMENT)
+                .addFeatureOfInterestType(SfConstants.SAMPLING_FEAT_TYPE_SF_SAMPLING_POINT);
+        for (int p = 0; p < PROPERTIES_PER_PROCEDURE; p++) {
+            builder.addObservableProperty(observableProperty(procedure, p));
+        }
+        return builder.build();
+    }
+
+    public static InsertSensorResponse insertSensorResponse(int procedure) {
+        return InsertSensorResponseBuilder.anInsertSensorResponse().setOffering(offering(procedure))
+                .setProcedure(procedure(procedure)).build();
+    }
+
+    private static double longitude(Random random) {
+        return 6.0 + random.nextDouble() * 9.0;
+    }
+
+    private static double latitude(Random random) {
+        return 47.0 + random.nextDouble() * 8.0;
+    }
+}
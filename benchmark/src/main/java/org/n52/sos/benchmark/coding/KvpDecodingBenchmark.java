@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.coding;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.n52.shetland.ogc.sos.request.DescribeSensorRequest;
+import org.n52.shetland.ogc.sos.request.GetFeatureOfInterestRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.sos.decode.kvp.AbstractSosKvpDecoder;
+import org.n52.sos.decode.kvp.v2.DescribeSensorKvpDecoderv20;
+import org.n52.sos.decode.kvp.v2.GetFeatureOfInterestKvpDecoderv20;
+import org.n52.sos.decode.kvp.v2.GetObservationKvpDecoderv20;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the SOS 2.0 KVP decoders of the read operations. The list
+ * parameters contain {@code identifiers} values to show how the decoding
+ * scales with the request size.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar KvpDecodingBenchmark -prof gc} to report the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KvpDecodingBenchmark {
+
+    private static final String NAMESPACES =
+            "xmlns(sams,http://www.opengis.net/sams/2.0),xmlns(om,http://www.opengis.net/om/2.0)";
+
+    private static final String SPATIAL_FILTER =
+            "om:featureOfInterest/*/sams:shape,47.0,6.0,55.0,15.0,urn:ogc:def:crs:EPSG::4326";
+
+    private static final String PERIOD = "2020-01-01T00:00:00Z/2020-01-31T23:59:59Z";
+
+    @Param({ "1", "100" })
+    private int identifiers;
+
+    private GetObservationKvpDecoderv20 getObservationDecoder;
+
+    private GetFeatureOfInterestKvpDecoderv20 getFeatureOfInterestDecoder;
+
+    private DescribeSensorKvpDecoderv20 describeSensorDecoder;
+
+    private Map<String, String> getObservation;
+
+    private Map<String, String> getFeatureOfInterest;
+
+    private Map<String, String> describeSensor;
+
+    @Setup
+    public void setup() {
+        getObservationDecoder = configure(new GetObservationKvpDecoderv20());
+        getFeatureOfInterestDecoder = configure(new GetFeatureOfInterestKvpDecoderv20());
+        describeSensorDecoder = configure(new DescribeSensorKvpDecoderv20());
+
+        getObservation = request("GetObservation");
+        getObservation.put("offering", list("offering"));
+        getObservation.put("procedure", list("procedure"));
+        getObservation.put("observedProperty", list("observableProperty"));
+        getObservation.put("featureOfInterest", list("feature"));
+        getObservation.put("temporalFilter", "om:phenomenonTime," + PERIOD);
+        getObservation.put("spatialFilter", SPATIAL_FILTER);
+        getObservation.put("namespaces", NAMESPACES);
+        getObservation.put("responseFormat", "http://www.opengis.net/om/2.0");
+
+        getFeatureOfInterest = request("GetFeatureOfInterest");
+        getFeatureOfInterest.put("procedure", list("procedure"));
+        getFeatureOfInterest.put("observedProperty", list("observableProperty"));
+        getFeatureOfInterest.put("featureOfInterest", list("feature"));
+        getFeatureOfInterest.put("spatialFilter", SPATIAL_FILTER);
+        getFeatureOfInterest.put("namespaces", NAMESPACES);
+
+        describeSensor = request("DescribeSensor");
+        describeSensor.put("procedure", SyntheticObservations.PROCEDURE);
+        describeSensor.put("procedureDescriptionFormat", "http://www.opengis.net/sensorml/2.0");
+        describeSensor.put("validTime", PERIOD);
+    }
+
+    @Benchmark
+    public GetObservationRequest decodeGetObservation() throws DecodingException {
+        return getObservationDecoder.decode(getObservation);
+    }
+
+    @Benchmark
+    public GetFeatureOfInterestRequest decodeGetFeatureOfInterest() throws DecodingException {
+        return getFeatureOfInterestDecoder.decode(getFeatureOfInterest);
+    }
+
+    @Benchmark
+    public DescribeSensorRequest decodeDescribeSensor() throws DecodingException {
+        return describeSensorDecoder.decode(describeSensor);
+    }
+
+    private String list(String type) {
+        return IntStream.range(0, identifiers).mapToObj(i -> "http://www.52north.org/benchmark/" + type + "/" + i)
+                .collect(Collectors.joining(","));
+    }
+
+    private static Map<String, String> request(String operation) {
+        Map<String, String> request = new HashMap<>();
+        request.put("service", "SOS");
+        request.put("version", "2.0.0");
+        request.put("request", operation);
+        return request;
+    }
+
+    private static <T extends AbstractSosKvpDecoder<?>> T configure(T decoder) {
+        decoder.setStorageEPSG(SyntheticObservations.EPSG);
+        decoder.setSrsUrlNamePrefix("http://www.opengis.net/def/crs/EPSG/0/");
+        decoder.setSrsUrnNamePrefix("urn:ogc:def:crs:EPSG::");
+        return decoder;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KvpDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
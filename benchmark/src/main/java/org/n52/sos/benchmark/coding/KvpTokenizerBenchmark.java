@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.coding;
+
+import static java.util.stream.Collectors.toMap;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.n52.sos.decode.kvp.KvpTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the {@link KvpTokenizer} against the regular expressions
+ * previously used by the KVP decoders. The decoding of complete requests is
+ * measured by {@link KvpDecodingBenchmark}.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar KvpTokenizerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KvpTokenizerBenchmark {
+
+    private static final Pattern SPATIAL_FILTER_REGEX =
+            Pattern.compile("^om:featureOfInterest.*(,\\s*[-+]?\\d*\\.?\\d+){4}(,.*)?$");
+
+    private static final String FOI = "om:featureOfInterest";
+
+    private static final String NAMESPACES =
+            "xmlns(sams,http://www.opengis.net/sams/2.0),xmlns(om,http://www.opengis.net/om/2.0)";
+
+    private static final String SPATIAL_FILTER = "om:featureOfInterest/*/sams:shape,0.0,0.0,60.0,60.0";
+
+    private static final String PERIOD = "2020-01-01T00:00:00Z/2020-01-31T23:59:59Z";
+
+    @Benchmark
+    public Map<String, String> namespacesRegex() {
+        return Arrays.stream(NAMESPACES.replaceAll("\\),", "").replaceAll("\\)", "").split("xmlns\\("))
+                .filter(string -> !string.isEmpty()).map(string -> string.split(","))
+                .collect(toMap(s -> s[0], s -> s[1]));
+    }
+
+    @Benchmark
+    public Map<String, String> namespacesTokenizer() {
+        return KvpTokenizer.namespaces(NAMESPACES);
+    }
+
+    @Benchmark
+    public boolean spatialFilterRegex() {
+        return SPATIAL_FILTER_REGEX.matcher(SPATIAL_FILTER).matches();
+    }
+
+    @Benchmark
+    public boolean spatialFilterTokenizer() {
+        return KvpTokenizer.isBBoxFilter(SPATIAL_FILTER, FOI);
+    }
+
+    @Benchmark
+    public int timeSplitRegex() {
+        return PERIOD.split("/").length;
+    }
+
+    @Benchmark
+    public int timeSplitTokenizer() {
+        return KvpTokenizer.count(PERIOD, '/');
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KvpTokenizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
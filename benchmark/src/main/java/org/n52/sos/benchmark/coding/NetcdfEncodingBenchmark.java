@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.coding;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.shetland.iso.CodeList.CiRoleCodes;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.n52.sos.coding.encode.FileAttachmentResponse;
+import org.n52.sos.encode.AbstractNetcdfEncoder;
+import org.n52.sos.encode.NetcdfEncoder;
+import org.n52.sos.encode.OceanSITESEncoder;
+import org.n52.sos.netcdf.NetcdfHelper;
+import org.n52.sos.netcdf.oceansites.OceanSITESHelper;
+import org.n52.sos.util.GeometryHandler;
+import org.n52.svalbard.encode.exception.EncodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the netCDF and OceanSITES encoding of a GetObservation
+ * response with a single time series. The encoders write netCDF 3 files, which
+ * do not need the native netCDF 4 library, into the temporary directory. The
+ * measured time includes writing and deleting the file.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar NetcdfEncodingBenchmark -prof gc} to report the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetcdfEncodingBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int observations;
+
+    private List<OmObservation> timeSeries;
+
+    private GeometryHandler geometryHandler;
+
+    private NetcdfEncoder netcdfEncoder;
+
+    private OceanSITESEncoder oceanSitesEncoder;
+
+    @Setup
+    public void setup() {
+        timeSeries = SyntheticObservations.measurements(observations);
+        geometryHandler = SyntheticObservations.geometryHandler();
+        netcdfEncoder = configure(new NetcdfEncoder());
+        oceanSitesEncoder = configure(new OceanSITESEncoder());
+        oceanSitesEncoder.setOceanSITESHelper(oceanSitesHelper());
+    }
+
+    @TearDown
+    public void tearDown() {
+        geometryHandler.destroy();
+    }
+
+    @Benchmark
+    public long encodeNetcdf() throws EncodingException, IOException {
+        return size(netcdfEncoder.encode(response()));
+    }
+
+    @Benchmark
+    public long encodeOceanSites() throws EncodingException, IOException {
+        return size(oceanSitesEncoder.encode(response()));
+    }
+
+    private GetObservationResponse response() {
+        // the stream is consumed by the encoder
+        GetObservationResponse response = new GetObservationResponse();
+        response.setObservationCollection(ObservationStream.of(timeSeries));
+        return response;
+    }
+
+    private <T extends AbstractNetcdfEncoder> T configure(T encoder) {
+        encoder.setNetcdfHelper(netcdfHelper());
+        encoder.setGeometryHandler(geometryHandler);
+        return encoder;
+    }
+
+    private static long size(BinaryAttachmentResponse response) throws IOException {
+        try (FileAttachmentResponse file = (FileAttachmentResponse) response) {
+            return file.getSize();
+        }
+    }
+
+    /**
+     * @return the defaults of the netCDF settings with netCDF 3 files
+     */
+    private static NetcdfHelper netcdfHelper() {
+        NetcdfHelper helper = new NetcdfHelper();
+        helper.setNetcdfVersion("netcdf3");
+        helper.setChunkSizeTime(1000);
+        helper.setFillValue(-9999.9);
+        helper.setHeightDepth("height");
+        helper.setVariableType("Double");
+        helper.setUpperCaseNames(false);
+        helper.setPublisher(CiRoleCodes.CI_RoleCode_publisher.name());
+        helper.setContributor(CiRoleCodes.CI_RoleCode_principalInvestigator.name());
+        return helper;
+    }
+
+    /**
+     * @return the defaults of the OceanSITES settings
+     */
+    private static OceanSITESHelper oceanSitesHelper() {
+        String definitions = "http://www.nexosproject.eu/dictionary/definitions.html#";
+        OceanSITESHelper helper = new OceanSITESHelper();
+        helper.setLicense("Data available free of charge.");
+        helper.setCitation("These data were collected and made freely available by the OceanSITES project.");
+        helper.setAcknowledgement("");
+        helper.setProject("");
+        helper.setProjectDefinition(definitions + "PROJECT_ID");
+        helper.setArrayDefinition(definitions + "ARRAY_ID");
+        helper.setNetworkDefinition(definitions + "NETWORK_ID");
+        helper.setWmoPlatformCodeDefinition(definitions + "WMO_ID");
+        helper.setSiteDefinition(definitions + "SITE_ID");
+        helper.setPlatformDefinition(definitions + "PLATFORM_ID");
+        helper.setDataModeDefinition("WMO_PLATFORM_CODE_DEFINITION");
+        helper.setDataMode("R");
+        helper.setFormatVersion("1.3");
+        helper.setPrincipalInvestigator(CiRoleCodes.CI_RoleCode_principalInvestigator.name());
+        helper.setReferences("http://www.oceansites.org");
+        helper.setAreaDefinition(definitions + "AREA");
+        return helper;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NetcdfEncodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
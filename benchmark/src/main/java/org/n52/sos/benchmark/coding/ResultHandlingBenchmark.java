@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.coding;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.series.db.beans.DataEntity;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.SosResultEncoding;
+import org.n52.shetland.ogc.sos.SosResultStructure;
+import org.n52.sos.ds.hibernate.util.ResultHandlingHelper;
+import org.n52.sos.ds.hibernate.util.observation.ObservationUnfolder;
+import org.n52.sos.util.GeometryHandler;
+import org.n52.svalbard.decode.DecoderRepository;
+import org.n52.svalbard.util.SweHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the result handling of the SOS 2.0 result handling
+ * operations: the encoding of database entities to the text encoded values of
+ * a GetResult response by the {@link ResultHandlingHelper} and the unfolding
+ * of SWE array observations of InsertObservation and InsertResult requests to
+ * single value observations by the {@link ObservationUnfolder}. The entities
+ * are detached, so no database is involved.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar ResultHandlingBenchmark -prof gc} to report the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultHandlingBenchmark {
+
+    @Param({ "100", "10000" })
+    private int observations;
+
+    private List<DataEntity<?>> entities;
+
+    private OmObservation arrayObservation;
+
+    private SosResultEncoding resultEncoding;
+
+    private SosResultStructure resultStructure;
+
+    private GeometryHandler geometryHandler;
+
+    private SweHelper sweHelper;
+
+    private ResultHandlingHelper resultHandlingHelper;
+
+    @Setup
+    public void setup() {
+        entities = SyntheticObservations.entities(observations);
+        arrayObservation = SyntheticObservations.arrayObservation(observations);
+        resultEncoding = SyntheticObservations.sosResultEncoding();
+        resultStructure = SyntheticObservations.sosResultStructure();
+        geometryHandler = SyntheticObservations.geometryHandler();
+        sweHelper = new SweHelper();
+        resultHandlingHelper = new ResultHandlingHelper(geometryHandler, sweHelper, new DecoderRepository());
+    }
+
+    @TearDown
+    public void tearDown() {
+        geometryHandler.destroy();
+    }
+
+    @Benchmark
+    public String createResultValues() throws OwsExceptionReport {
+        return resultHandlingHelper.createResultValuesFromObservations(entities, resultEncoding, resultStructure,
+                "noData", null);
+    }
+
+    @Benchmark
+    public List<OmObservation> unfold() throws OwsExceptionReport {
+        return new ObservationUnfolder(arrayObservation, sweHelper, geometryHandler).unfold();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResultHandlingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.coding;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.series.db.beans.QuantityDataEntity;
+import org.n52.shetland.iso.CodeList.CiRoleCodes;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.SingleObservationValue;
+import org.n52.shetland.ogc.om.features.SfConstants;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.sensorML.SmlContact;
+import org.n52.shetland.ogc.sensorML.SmlResponsibleParty;
+import org.n52.shetland.ogc.sensorML.System;
+import org.n52.shetland.ogc.sos.SosProcedureDescription;
+import org.n52.shetland.ogc.sos.SosResultEncoding;
+import org.n52.shetland.ogc.sos.SosResultStructure;
+import org.n52.shetland.ogc.swe.SweDataArray;
+import org.n52.shetland.ogc.swe.SweDataRecord;
+import org.n52.shetland.ogc.swe.SweField;
+import org.n52.shetland.ogc.swe.encoding.SweTextEncoding;
+import org.n52.shetland.ogc.swe.simpleType.SweQuantity;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.util.GeometryHandler;
+import org.n52.sos.util.builder.ObservationBuilder;
+import org.n52.sos.util.builder.ObservationConstellationBuilder;
+import org.n52.sos.util.builder.SamplingFeatureBuilder;
+import org.n52.sos.util.builder.SweDataArrayBuilder;
+import org.n52.sos.util.builder.SweDataArrayValueBuilder;
+import org.n52.sos.util.builder.SweTimeBuilder;
+
+/**
+ * Generates the observations of a single time series in the representations
+ * of the encoding paths: O&amp;M observations with single values, a SWE
+ * array observation and the database entities of a GetResult query. The
+ * values only depend on the number of observations.
+ */
+public final class SyntheticObservations {
+
+    public static final String PROCEDURE = "http://www.52north.org/benchmark/procedure/1";
+
+    public static final String OFFERING = "http://www.52north.org/benchmark/offering/1";
+
+    public static final String FEATURE = "http://www.52north.org/benchmark/feature/1";
+
+    /**
+     * A CF standard name, the netCDF encoders use the observable property as
+     * variable name.
+     */
+    public static final String OBSERVABLE_PROPERTY = "sea_water_temperature";
+
+    public static final String UNIT = "degC";
+
+    public static final int EPSG = 4326;
+
+    public static final double LATITUDE = 52.7;
+
+    public static final double LONGITUDE = 7.52;
+
+    public static final String TOKEN_SEPARATOR = ",";
+
+    public static final String BLOCK_SEPARATOR = "@@";
+
+    private static final long START = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+
+    private static final long INTERVAL = 60000L;
+
+    private SyntheticObservations() {
+    }
+
+    /**
+     * @param count
+     *            the number of observations
+     * @return measurements of the time series with a SensorML description of
+     *         the procedure
+     */
+    public static List<OmObservation> measurements(int count) {
+        SosProcedureDescription<?> procedure = new SosProcedureDescription<>(sensorDescription());
+        OmObservableProperty observableProperty = new OmObservableProperty(OBSERVABLE_PROPERTY);
+        observableProperty.setUnit(UNIT);
+        ObservationConstellationBuilder constellation = ObservationConstellationBuilder.anObservationConstellation()
+                .setProcedure(procedure).setObservableProperty(observableProperty)
+                .setObservationType(OmConstants.OBS_TYPE_MEASUREMENT).addOffering(OFFERING)
+                .setFeature(SamplingFeatureBuilder.aSamplingFeature().setIdentifier(FEATURE)
+                        .setFeatureType(SfConstants.FT_SAMPLINGPOINT).setGeometry(LATITUDE, LONGITUDE, EPSG)
+                        .build());
+        Random random = new Random(count);
+        List<OmObservation> observations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            QuantityValue value = new QuantityValue(value(random));
+            value.setUnit(UNIT);
+            observations.add(ObservationBuilder.anObservation().setObservationConstellation(constellation.build())
+                    .setValue(new SingleObservationValue<>(new TimeInstant(new DateTime(time(i), DateTimeZone.UTC)),
+                            value))
+                    .build());
+        }
+        return observations;
+    }
+
+    /**
+     * @param count
+     *            the number of blocks
+     * @return a SWE array observation with a phenomenon time and a value per
+     *         block, as inserted by InsertObservation or InsertResult
+     */
+    public static OmObservation arrayObservation(int count) {
+        SweDataArrayBuilder dataArray = SweDataArrayBuilder.aSweDataArray().setElementType(resultStructure())
+                .setEncoding("text", BLOCK_SEPARATOR, TOKEN_SEPARATOR, ".");
+        Random random = new Random(count);
+        for (int i = 0; i < count; i++) {
+            dataArray.addBlock(DateTimeHelper.formatDateTime2IsoString(new DateTime(time(i), DateTimeZone.UTC)),
+                    Double.toString(value(random)));
+        }
+        return ObservationBuilder.anObservation()
+                .setObservationConstellation(ObservationConstellationBuilder.anObservationConstellation()
+                        .setProcedure(new SosProcedureDescription<>(sensorDescription()))
+                        .setObservableProperty(new OmObservableProperty(OBSERVABLE_PROPERTY))
+                        .setObservationType(OmConstants.OBS_TYPE_SWE_ARRAY_OBSERVATION).addOffering(OFFERING)
+                        .setFeature(SamplingFeatureBuilder.aSamplingFeature().setIdentifier(FEATURE)
+                                .setFeatureType(SfConstants.FT_SAMPLINGPOINT).setGeometry(LATITUDE, LONGITUDE, EPSG)
+                                .build())
+                        .build())
+                .setValue(SweDataArrayValueBuilder.aSweDataArrayValue().setSweDataArray(dataArray.build()).build())
+                .build();
+    }
+
+    /**
+     * @param count
+     *            the number of observations
+     * @return detached quantity entities of a single dataset
+     */
+    public static List<DataEntity<?>> entities(int count) {
+        PhenomenonEntity phenomenon = new PhenomenonEntity();
+        phenomenon.setIdentifier(OBSERVABLE_PROPERTY);
+        ProcedureEntity procedure = new ProcedureEntity();
+        procedure.setIdentifier(PROCEDURE);
+        FeatureEntity feature = new FeatureEntity();
+        feature.setIdentifier(FEATURE);
+        DatasetEntity dataset = new DatasetEntity();
+        dataset.setObservableProperty(phenomenon);
+        dataset.setProcedure(procedure);
+        dataset.setFeature(feature);
+        Random random = new Random(count);
+        List<DataEntity<?>> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            QuantityDataEntity entity = new QuantityDataEntity();
+            Date time = new Date(time(i));
+            entity.setSamplingTimeStart(time);
+            entity.setSamplingTimeEnd(time);
+            entity.setResultTime(time);
+            entity.setValue(BigDecimal.valueOf(value(random)));
+            entity.setDataset(dataset);
+            entity.setDeleted(false);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * @return the record of a phenomenon time and the observable property
+     */
+    public static SweDataRecord resultStructure() {
+        SweQuantity quantity = new SweQuantity();
+        quantity.setDefinition(OBSERVABLE_PROPERTY);
+        quantity.setUom(UNIT);
+        SweDataRecord record = new SweDataRecord();
+        record.addField(new SweField("phenomenonTime", SweTimeBuilder.aSweTime().build()));
+        record.addField(new SweField(OBSERVABLE_PROPERTY, quantity));
+        return record;
+    }
+
+    public static SosResultStructure sosResultStructure() {
+        SweDataArray dataArray = new SweDataArray();
+        dataArray.setElementType(resultStructure());
+        return new SosResultStructure(dataArray);
+    }
+
+    public static SosResultEncoding sosResultEncoding() {
+        SweTextEncoding encoding = new SweTextEncoding();
+        encoding.setTokenSeparator(TOKEN_SEPARATOR);
+        encoding.setBlockSeparator(BLOCK_SEPARATOR);
+        encoding.setDecimalSeparator(".");
+        return new SosResultEncoding(encoding);
+    }
+
+    /**
+     * @return a handler storing the geometries in {@value #EPSG} with the
+     *         default axis order settings
+     */
+    public static GeometryHandler geometryHandler() {
+        GeometryHandler geometryHandler = new GeometryHandler();
+        geometryHandler.setAuthority("EPSG");
+        geometryHandler.setStorageEpsg(EPSG);
+        geometryHandler.setDefaultResponseEpsg(EPSG);
+        geometryHandler.setSupportedCRS("4326,4258,3857,31467");
+        geometryHandler.setEpsgCodesWithNorthingFirstAxisOrder("4326;4258;31467");
+        geometryHandler.setDatasourceNorthingFirst(false);
+        geometryHandler.init();
+        return geometryHandler;
+    }
+
+    /**
+     * The description contains the responsible parties the netCDF encoders
+     * look for, so the encoders do not have to fall back to the service
+     * provider.
+     */
+    private static System sensorDescription() {
+        System system = new System();
+        system.setIdentifier(PROCEDURE);
+        system.setContact(Arrays.asList(contact(CiRoleCodes.CI_RoleCode_principalInvestigator),
+                contact(CiRoleCodes.CI_RoleCode_publisher)));
+        return system;
+    }
+
+    private static SmlContact contact(CiRoleCodes role) {
+        SmlResponsibleParty party = new SmlResponsibleParty();
+        party.setOrganizationName("52°North");
+        party.setRole(role.getIdentifier());
+        return party;
+    }
+
+    private static long time(int index) {
+        return START + index * INTERVAL;
+    }
+
+    private static double value(Random random) {
+        return Math.round((10.0 + random.nextGaussian() * 2.0) * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.benchmark.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.util.JTSHelper;
+import org.n52.sos.benchmark.coding.SyntheticObservations;
+import org.n52.sos.util.GeometryHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the coordinate transformations of the
+ * {@link GeometryHandler}: the transformation of the points of a feature
+ * response from the storage CRS to a projected CRS one by one and as a batch,
+ * the transformation of a bounding box and the axis order switch applied to
+ * every geometry read from the datasource.
+ *
+ * Run with {@code java -jar benchmark/target/benchmarks.jar GeometryHandlerBenchmark -prof gc} to report the
+ * allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryHandlerBenchmark {
+
+    private static final int TARGET_EPSG = 31467;
+
+    @Param({ "1", "1000" })
+    private int points;
+
+    private GeometryHandler geometryHandler;
+
+    private List<Geometry> geometries;
+
+    private Envelope envelope;
+
+    @Setup
+    public void setup() {
+        geometryHandler = SyntheticObservations.geometryHandler();
+        GeometryFactory factory = JTSHelper.getGeometryFactoryForSRID(SyntheticObservations.EPSG);
+        Random random = new Random(points);
+        geometries = new ArrayList<>(points);
+        envelope = new Envelope();
+        for (int i = 0; i < points; i++) {
+            // northing first as defined by EPSG:4326
+            Coordinate coordinate = new Coordinate(47.0 + random.nextDouble() * 8.0, 6.0 + random.nextDouble() * 9.0);
+            geometries.add(factory.createPoint(coordinate));
+            envelope.expandToInclude(coordinate);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        geometryHandler.destroy();
+    }
+
+    @Benchmark
+    public List<Geometry> transformEach() throws OwsExceptionReport {
+        List<Geometry> transformed = new ArrayList<>(geometries.size());
+        for (Geometry geometry : geometries) {
+            transformed.add(geometryHandler.transform(geometry, TARGET_EPSG));
+        }
+        return transformed;
+    }
+
+    @Benchmark
+    public List<Geometry> transformBatch() throws OwsExceptionReport {
+        return geometryHandler.transform(geometries, TARGET_EPSG);
+    }
+
+    @Benchmark
+    public Envelope transformEnvelope() throws OwsExceptionReport {
+        return geometryHandler.transformEnvelope(envelope, SyntheticObservations.EPSG, TARGET_EPSG);
+    }
+
+    @Benchmark
+    public List<Geometry> switchAxisOrder() throws OwsExceptionReport {
+        List<Geometry> switched = new ArrayList<>(geometries.size());
+        for (Geometry geometry : geometries) {
+            switched.add(geometryHandler.switchCoordinateAxisFromToDatasourceIfNeeded(geometry));
+        }
+        return switched;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GeometryHandlerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -28,19 +28,16 @@
  */
 package org.n52.sos.decode.kvp;
 
-import static java.util.stream.Collectors.toMap;
-
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.RandomAccess;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import org.joda.time.DateTime;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -82,8 +79,6 @@ import org.n52.svalbard.decode.DecoderKey;
 import org.n52.svalbard.decode.exception.DecodingException;
 import org.n52.svalbard.odata.ODataFesParser;
 
-import com.google.common.base.Strings;
-
 /**
  * TODO JavaDoc
  *
@@ -169,9 +164,7 @@ public abstract class AbstractSosKvpDecoder<R extends OwsServiceRequest> extends
     }
 
     protected Map<String, String> decodeNamespaces(String value) {
-        return Arrays.stream(value.replaceAll("\\),", "").replaceAll("\\)", "").split("xmlns\\("))
-                .map(Strings::emptyToNull).filter(Objects::nonNull).map(string -> string.split(","))
-                .collect(toMap(s -> s[0], s -> s[1]));
+        return KvpTokenizer.namespaces(value);
     }
 
     protected ThrowingTriConsumer<R, String, List<String>, DecodingException> decodeTemporalFilter(
@@ -208,21 +201,22 @@ public abstract class AbstractSosKvpDecoder<R extends OwsServiceRequest> extends
     }
 
     protected Time decodeTime(String name, String value) throws DecodingException {
-        String[] times = name.split("/");
-        switch (times.length) {
-            case 1:
+        switch (KvpTokenizer.count(value, '/')) {
+            case 0:
                 return decodeTimeInstant(name, value);
-            case 2:
-                return decodeTimePeriod(name, times);
+            case 1:
+                return decodeTimePeriod(name, value);
             default:
                 throw new DecodingException(value, "The time parameter value is not valid!");
         }
     }
 
-    private TimePeriod decodeTimePeriod(String name, String[] times) throws DecodingException {
+    private TimePeriod decodeTimePeriod(String name, String period) throws DecodingException {
+        int separator = period.indexOf('/');
         try {
-            return new TimePeriod(DateTimeHelper.parseIsoString2DateTime(times[0]),
-                    DateTimeHelper.setDateTime2EndOfMostPreciseUnit4RequestedEndPosition(times[1]));
+            return new TimePeriod(parseDateTime(period.substring(0, separator)),
+                    DateTimeHelper.setDateTime2EndOfMostPreciseUnit4RequestedEndPosition(
+                            period.substring(separator + 1)));
         } catch (DateTimeParseException ex) {
             throw new DecodingException(ex, name);
         }
@@ -230,19 +224,24 @@ public abstract class AbstractSosKvpDecoder<R extends OwsServiceRequest> extends
 
     private TimeInstant decodeTimeInstant(String name, String time) throws DecodingException {
         try {
-            return new TimeInstant(DateTimeHelper.parseIsoString2DateTime(time),
+            return new TimeInstant(parseDateTime(time),
                     DateTimeHelper.getTimeLengthBeforeTimeZone(time));
         } catch (DateTimeParseException ex) {
             return new TimeInstant(new IndeterminateValue(time));
         }
     }
 
+    private static DateTime parseDateTime(String value) throws DateTimeParseException {
+        DateTime dateTime = KvpTokenizer.dateTime(value);
+        return dateTime != null ? dateTime : DateTimeHelper.parseIsoString2DateTime(value);
+    }
+
     private TemporalFilter createTemporalFilter(String value, String name, String valueReference)
             throws DecodingException {
-        switch (value.split("/").length) {
-            case 1:
+        switch (KvpTokenizer.count(value, '/')) {
+            case 0:
                 return createTemporalFilter(name, value, TimeOperator.TM_Equals, valueReference);
-            case 2:
+            case 1:
                 return createTemporalFilter(name, value, TimeOperator.TM_During, valueReference);
             default:
                 throw new DecodingException(name, "The paramter value '%s' is invalid!", value);
@@ -266,12 +265,12 @@ public abstract class AbstractSosKvpDecoder<R extends OwsServiceRequest> extends
 
     private TemporalFilter createTemporalFilter(String name, String value, TimeOperator timeOperator,
             String valueReference) throws DecodingException {
-        String[] times = value.split("/");
+        int separators = KvpTokenizer.count(value, '/');
         final Time time;
-        if (times.length == 1 && timeOperator != TimeOperator.TM_During) {
-            time = decodeTimeInstant(name, times[0]);
-        } else if (times.length == 2 & timeOperator == TimeOperator.TM_During) {
-            time = decodeTimePeriod(name, times);
+        if (separators == 0 && timeOperator != TimeOperator.TM_During) {
+            time = decodeTimeInstant(name, value);
+        } else if (separators == 1 && timeOperator == TimeOperator.TM_During) {
+            time = decodeTimePeriod(name, value);
         } else {
             throw new DecodingException(name, "The parameter value '%s' is invalid!", value);
         }
@@ -322,7 +321,14 @@ public abstract class AbstractSosKvpDecoder<R extends OwsServiceRequest> extends
             factory = new GeometryFactory(new PrecisionModel(PrecisionModel.FLOATING));
         }
 
-        double[] coordinates = values.stream().mapToDouble(Double::valueOf).toArray();
+        double[] coordinates = new double[4];
+        try {
+            for (int i = 0; i < coordinates.length; i++) {
+                coordinates[i] = Double.parseDouble(values.get(i));
+            }
+        } catch (NumberFormatException e) {
+            throw new DecodingException(e, name);
+        }
 
         geometry = factory.createPolygon(new Coordinate[] { new Coordinate(coordinates[0], coordinates[1]),
             new Coordinate(coordinates[0], coordinates[3]), new Coordinate(coordinates[2], coordinates[3]),
@@ -359,14 +365,9 @@ public abstract class AbstractSosKvpDecoder<R extends OwsServiceRequest> extends
     }
 
     private String checkValues(String parameterValues) {
-        String pv = parameterValues;
-        if (parameterValues.contains("sams:shape")) {
-            pv = parameterValues.replaceAll(
-                    "om:featureOfInterest/sams:SF_SpatialSamplingFeature/sams:shape", OM_FEATURE);
-            pv = pv.replaceAll("om:featureOfInterest/*/sams:shape", OM_FEATURE);
-        }
-        return pv.replaceAll("om:", "")
-                .replaceAll(Sos2Constants.VALUE_REFERENCE_SPATIAL_FILTERING_PROFILE, "samplingGeometry");
+        String pv = KvpTokenizer.replacePath(parameterValues, OM_FEATURE, "sams:shape", OM_FEATURE);
+        return pv.replace("om:", "")
+                .replace(Sos2Constants.VALUE_REFERENCE_SPATIAL_FILTERING_PROFILE, "samplingGeometry");
     }
 
     private Filter<?> convertFilter(Filter<?> filter) throws DecodingException, OwsExceptionReport {
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.decode.kvp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Single pass tokenizer for SOS KVP parameter values. It replaces the regular
+ * expression based splitting and replacing of the KVP decoders, which compiled
+ * patterns and created intermediate strings for every request.
+ *
+ * @since 5.2.3
+ */
+public final class KvpTokenizer {
+
+    private static final String XMLNS = "xmlns(";
+
+    private static final int MILLIS_PER_MINUTE = 60 * 1000;
+
+    private static final int MAX_OFFSET_MINUTES = 18 * 60;
+
+    private KvpTokenizer() {
+    }
+
+    /**
+     * @param value
+     *            the value
+     * @param c
+     *            the character
+     * @return the number of occurrences of the character in the value
+     */
+    public static int count(String value, char c) {
+        int count = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Split a list value at the separator. The elements are trimmed and empty
+     * elements are omitted.
+     *
+     * @param value
+     *            the value
+     * @param separator
+     *            the separator
+     * @return the elements
+     */
+    public static List<String> split(String value, char separator) {
+        List<String> list = new ArrayList<>(count(value, separator) + 1);
+        int start = 0;
+        while (start <= value.length()) {
+            int end = value.indexOf(separator, start);
+            if (end < 0) {
+                end = value.length();
+            }
+            String element = value.substring(start, end).trim();
+            if (!element.isEmpty()) {
+                list.add(element);
+            }
+            start = end + 1;
+        }
+        return list;
+    }
+
+    /**
+     * Replace the path {@code prefix/step/suffix} with an arbitrary single
+     * step, e.g. {@code *}, as well as the path {@code prefix/suffix}.
+     *
+     * @param value
+     *            the value
+     * @param prefix
+     *            the first step of the path
+     * @param suffix
+     *            the last step of the path
+     * @param replacement
+     *            the replacement of the path
+     * @return the value with the paths replaced
+     */
+    public static String replacePath(String value, String prefix, String suffix, String replacement) {
+        int start = value.indexOf(prefix);
+        if (start < 0) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        int copied = 0;
+        while (start >= 0) {
+            int end = pathEnd(value, start + prefix.length(), suffix);
+            if (end < 0) {
+                start = value.indexOf(prefix, start + 1);
+            } else {
+                builder.append(value, copied, start).append(replacement);
+                copied = end;
+                start = value.indexOf(prefix, end);
+            }
+        }
+        return builder.append(value, copied, value.length()).toString();
+    }
+
+    /**
+     * @return the end of {@code /suffix} or {@code /step/suffix} starting at
+     *         {@code i} or {@code -1}
+     */
+    private static int pathEnd(String value, int i, String suffix) {
+        if (i >= value.length() || value.charAt(i) != '/') {
+            return -1;
+        }
+        if (value.startsWith(suffix, i + 1)) {
+            return i + 1 + suffix.length();
+        }
+        int step = i + 1;
+        while (step < value.length() && isStepCharacter(value.charAt(step))) {
+            step++;
+        }
+        if (step > i + 1 && step < value.length() && value.charAt(step) == '/'
+                && value.startsWith(suffix, step + 1)) {
+            return step + 1 + suffix.length();
+        }
+        return -1;
+    }
+
+    private static boolean isStepCharacter(char c) {
+        return c != '/' && c != ',' && c != '(' && c != ')' && c != '\'' && c != '"' && !Character.isWhitespace(c);
+    }
+
+    /**
+     * Parse a complete ISO 8601 date time of the form
+     * {@code yyyy-MM-ddTHH:mm:ss[.S*](Z|+HH:mm|-HH:mm)}. Fractions of a second
+     * beyond milliseconds are truncated.
+     *
+     * @param value
+     *            the value
+     * @return the date time or {@code null} if the value has another form,
+     *         which has to be parsed by the full ISO 8601 parser
+     */
+    public static DateTime dateTime(String value) {
+        int length = value.length();
+        if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0
+                || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        int i = 19;
+        int millis = 0;
+        if (value.charAt(i) == '.') {
+            int fractionStart = ++i;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                if (i - fractionStart < 3) {
+                    millis = millis * 10 + value.charAt(i) - '0';
+                }
+                i++;
+            }
+            if (i == fractionStart) {
+                return null;
+            }
+            for (int digits = i - fractionStart; digits < 3; digits++) {
+                millis *= 10;
+            }
+        }
+        DateTimeZone zone = zone(value, i);
+        if (zone == null) {
+            return null;
+        }
+        try {
+            return new DateTime(year, month, day, hour, minute, second, millis, zone);
+        } catch (IllegalArgumentException e) {
+            // e.g. February 30th
+            return null;
+        }
+    }
+
+    private static DateTimeZone zone(String value, int i) {
+        int length = value.length();
+        if (i == length - 1 && value.charAt(i) == 'Z') {
+            return DateTimeZone.UTC;
+        }
+        if (i != length - 6 || value.charAt(i + 3) != ':'
+                || (value.charAt(i) != '+' && value.charAt(i) != '-')) {
+            return null;
+        }
+        int hours = digits(value, i + 1, 2);
+        int minutes = digits(value, i + 4, 2);
+        if (hours < 0 || minutes < 0 || minutes > 59 || hours * 60 + minutes > MAX_OFFSET_MINUTES) {
+            return null;
+        }
+        int offset = (hours * 60 + minutes) * MILLIS_PER_MINUTE;
+        return DateTimeZone.forOffsetMillis(value.charAt(i) == '-' ? -offset : offset);
+    }
+
+    /**
+     * @return the non negative number of the digits or {@code -1} if a
+     *         character is not a digit
+     */
+    private static int digits(String value, int start, int length) {
+        int number = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + c - '0';
+        }
+        return number;
+    }
+
+    /**
+     * Parse a namespace parameter value of the form
+     * {@code xmlns(prefix,namespace),xmlns(prefix,namespace)}.
+     *
+     * @param value
+     *            the value
+     * @return the namespaces by prefix
+     */
+    public static Map<String, String> namespaces(String value) {
+        Map<String, String> namespaces = new LinkedHashMap<>();
+        int start = value.indexOf(XMLNS);
+        while (start >= 0) {
+            int prefixStart = start + XMLNS.length();
+            int next = value.indexOf(XMLNS, prefixStart);
+            int end = next < 0 ? value.length() : next;
+            int comma = value.indexOf(',', prefixStart);
+            if (comma > prefixStart && comma < end) {
+                int namespaceEnd = value.indexOf(')', comma);
+                if (namespaceEnd < 0 || namespaceEnd > end) {
+                    namespaceEnd = end;
+                }
+                namespaces.put(value.substring(prefixStart, comma), value.substring(comma + 1, namespaceEnd));
+            }
+            start = next;
+        }
+        return namespaces;
+    }
+
+    /**
+     * Check if the value is an SOS 1.0.0 {@code om:featureOfInterest} spatial
+     * filter, i.e. the value reference followed by four comma separated
+     * numbers and optionally further values.
+     *
+     * @param value
+     *            the value
+     * @param valueReference
+     *            the expected value reference
+     * @return if the value is a spatial filter
+     */
+    public static boolean isBBoxFilter(String value, String valueReference) {
+        if (!value.startsWith(valueReference)) {
+            return false;
+        }
+        int numbers = 0;
+        int start = value.indexOf(',', valueReference.length());
+        while (start >= 0) {
+            int end = value.indexOf(',', start + 1);
+            if (isNumber(value, start + 1, end < 0 ? value.length() : end)) {
+                if (++numbers == 4) {
+                    return true;
+                }
+            } else {
+                numbers = 0;
+            }
+            start = end;
+        }
+        return false;
+    }
+
+    /**
+     * Check if the characters between {@code start} and {@code end} are a
+     * decimal number with optional leading whitespace and sign.
+     */
+    private static boolean isNumber(String value, int start, int end) {
+        int i = start;
+        while (i < end && Character.isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        boolean point = false;
+        boolean digitAfterPoint = false;
+        boolean digit = false;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+                digitAfterPoint |= point;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return false;
+            }
+        }
+        return point ? digitAfterPoint : digit;
+    }
+}
@@ -28,12 +28,11 @@
  */
 package org.n52.sos.decode.kvp.v1;
 
-import java.util.regex.Pattern;
-
 import org.n52.shetland.ogc.sos.Sos1Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.request.GetObservationRequest;
 import org.n52.sos.decode.kvp.AbstractSosKvpDecoder;
+import org.n52.sos.decode.kvp.KvpTokenizer;
 import org.n52.svalbard.decode.exception.DecodingException;
 
 /**
@@ -42,8 +41,7 @@ import org.n52.svalbard.decode.exception.DecodingException;
  */
 public class GetObservationKvpDecoderv100 extends AbstractSosKvpDecoder<GetObservationRequest> {
 
-    private static final Pattern SPATIAL_FILTER_REGEX =
-            Pattern.compile("^om:featureOfInterest.*(,\\s*[-+]?\\d*\\.?\\d+){4}(,.*)?$");
+    private static final String SPATIAL_FILTER_VALUE_REFERENCE = "om:featureOfInterest";
 
     public GetObservationKvpDecoderv100() {
         super(GetObservationRequest::new, Sos1Constants.SERVICEVERSION, SosConstants.Operations.GetObservation);
@@ -76,10 +74,10 @@ public class GetObservationKvpDecoderv100 extends AbstractSosKvpDecoder<GetObser
 
     private void decodeFeatureOfInterest(GetObservationRequest request, String name, String value)
             throws DecodingException {
-        if (SPATIAL_FILTER_REGEX.matcher(value).matches()) {
-            request.setSpatialFilter(decodeSpatialFilter(name, decodeList(value)));
+        if (KvpTokenizer.isBBoxFilter(value, SPATIAL_FILTER_VALUE_REFERENCE)) {
+            request.setSpatialFilter(decodeSpatialFilter(name, KvpTokenizer.split(value, ',')));
         } else {
-            request.setFeatureIdentifiers(decodeList(value));
+            request.setFeatureIdentifiers(KvpTokenizer.split(value, ','));
         }
     }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.decode.kvp;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.shetland.util.DateTimeParseException;
+
+public class KvpTokenizerTest {
+
+    private static final String FOI = "om:featureOfInterest";
+
+    @Test
+    public void should_parse_namespaces() {
+        Map<String, String> namespaces = KvpTokenizer
+                .namespaces("xmlns(sams,http://www.opengis.net/sams/2.0),xmlns(om,http://www.opengis.net/om/2.0)");
+        MatcherAssert.assertThat(namespaces.size(), Matchers.is(2));
+        MatcherAssert.assertThat(namespaces.get("sams"), Matchers.is("http://www.opengis.net/sams/2.0"));
+        MatcherAssert.assertThat(namespaces.get("om"), Matchers.is("http://www.opengis.net/om/2.0"));
+    }
+
+    @Test
+    public void should_ignore_invalid_namespaces() {
+        MatcherAssert.assertThat(KvpTokenizer.namespaces("xmlns(sams)").isEmpty(), Matchers.is(true));
+        MatcherAssert.assertThat(KvpTokenizer.namespaces("").isEmpty(), Matchers.is(true));
+    }
+
+    @Test
+    public void should_count_separators() {
+        MatcherAssert.assertThat(KvpTokenizer.count("2012-11-19T14:00:00Z/2012-11-19T14:15:00Z", '/'),
+                Matchers.is(1));
+        MatcherAssert.assertThat(KvpTokenizer.count("2012-11-19T14:00:00Z", '/'), Matchers.is(0));
+    }
+
+    @Test
+    public void should_detect_bbox_filter() {
+        MatcherAssert.assertThat(KvpTokenizer.isBBoxFilter(FOI + "/*/sams:shape,0.0,0.0,60.0,60.0", FOI),
+                Matchers.is(true));
+        MatcherAssert.assertThat(
+                KvpTokenizer.isBBoxFilter(FOI + ",-1, +2.5,.5,60,urn:ogc:def:crs:EPSG::4326", FOI),
+                Matchers.is(true));
+    }
+
+    @Test
+    public void should_not_detect_bbox_filter() {
+        MatcherAssert.assertThat(KvpTokenizer.isBBoxFilter("foi1,foi2", FOI), Matchers.is(false));
+        MatcherAssert.assertThat(KvpTokenizer.isBBoxFilter(FOI + ",0.0,0.0,60.0", FOI), Matchers.is(false));
+        MatcherAssert.assertThat(KvpTokenizer.isBBoxFilter(FOI + ",0.0,0.0,60.,60.0", FOI), Matchers.is(false));
+        MatcherAssert.assertThat(KvpTokenizer.isBBoxFilter(FOI + ",0.0,a,60.0,60.0,1.0", FOI), Matchers.is(false));
+    }
+
+    @Test
+    public void should_split_lists() {
+        MatcherAssert.assertThat(KvpTokenizer.split("foi1, foi2,,foi3", ','),
+                Matchers.is(Arrays.asList("foi1", "foi2", "foi3")));
+        MatcherAssert.assertThat(KvpTokenizer.split("foi1", ','), Matchers.is(Arrays.asList("foi1")));
+        MatcherAssert.assertThat(KvpTokenizer.split("", ',').isEmpty(), Matchers.is(true));
+    }
+
+    @Test
+    public void should_replace_shape_paths() {
+        String expected = "featureOfInterest eq 'a' and geo.intersects(" + FOI + ",geography'POINT(1 2)')";
+        for (String path : new String[] { FOI + "/*/sams:shape", FOI + "/sams:SF_SpatialSamplingFeature/sams:shape",
+            FOI + "/sams:shape" }) {
+            MatcherAssert.assertThat(
+                    KvpTokenizer.replacePath(expected.replace(FOI + ",", path + ","), FOI, "sams:shape", FOI),
+                    Matchers.is(expected));
+        }
+    }
+
+    @Test
+    public void should_not_replace_other_paths() {
+        for (String value : new String[] { FOI + "/a/b/sams:shape", FOI + "//sams:shape", FOI + "/sams:name",
+            FOI + "/*" }) {
+            MatcherAssert.assertThat(KvpTokenizer.replacePath(value, FOI, "sams:shape", FOI), Matchers.is(value));
+        }
+    }
+
+    @Test
+    public void should_parse_date_times_like_the_iso_parser() throws DateTimeParseException {
+        for (String value : new String[] { "2012-11-19T14:00:00Z", "2012-11-19T14:00:00.123Z",
+            "2012-11-19T14:00:00.1+01:00", "2012-11-19T14:00:00.123456-05:30", "2012-02-29T23:59:59+00:00" }) {
+            DateTime dateTime = KvpTokenizer.dateTime(value);
+            MatcherAssert.assertThat(value, dateTime, Matchers.is(DateTimeHelper.parseIsoString2DateTime(value)));
+        }
+        MatcherAssert.assertThat(KvpTokenizer.dateTime("2012-11-19T14:00:00Z").getZone(),
+                Matchers.is(DateTimeZone.UTC));
+    }
+
+    @Test
+    public void should_leave_other_date_times_to_the_iso_parser() {
+        for (String value : new String[] { "2012-11-19", "2012-11-19T14:00Z", "2012-11-19T14:00:00",
+            "2012-02-30T14:00:00Z", "2012-11-19T14:00:00.Z", "2012-11-19T14:00:00+0100", "now" }) {
+            MatcherAssert.assertThat(value, KvpTokenizer.dateTime(value), Matchers.nullValue());
+        }
+    }
+}
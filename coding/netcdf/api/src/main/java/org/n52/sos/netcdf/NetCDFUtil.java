@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -58,8 +59,8 @@ import org.n52.shetland.ogc.om.StreamingValue;
 import org.n52.shetland.ogc.om.features.samplingFeatures.AbstractSamplingFeature;
 import org.n52.shetland.ogc.om.values.GeometryValue;
 import org.n52.shetland.ogc.om.values.QuantityValue;
-import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.netcdf.data.ColumnarSensorData;
 import org.n52.sos.netcdf.data.dataset.IdentifierDatasetSensor;
 import org.n52.sos.netcdf.data.dataset.TimeSeriesProfileSensorDataset;
 import org.n52.sos.netcdf.data.dataset.TimeSeriesSensorDataset;
@@ -73,10 +74,6 @@ import org.n52.sos.netcdf.om.NetCDFObservation;
 import org.n52.sos.util.GeometryHandler;
 import org.n52.svalbard.encode.exception.EncodingException;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Maps;
-import com.google.common.collect.SetMultimap;
-
 import ucar.nc2.constants.CF;
 
 /**
@@ -105,32 +102,19 @@ public interface NetCDFUtil {
      */
     default List<NetCDFObservation> createNetCDFSosObservations(ObservationStream omObservations)
             throws EncodingException, OwsExceptionReport {
-        // the main map of observation value strings by asset, time, phenomenon,
-        // and subsensor (height, profile bin, etc)
-        Map<String, Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>>> obsValuesMap = new HashMap<>();
-
-        SetMultimap<String, OmObservableProperty> sensorPhens = HashMultimap.create();
-        Map<String, AbstractFeature> sensorProcedure = Maps.newHashMap();
-        // Map<StationAsset,TimePeriod> stationPeriodMap = new
-        // HashMap<StationAsset,TimePeriod>();
-
-        // maps to keep track of unique dimension values by sensor (these may or
-        // may not vary, determining the feature type)
-        SetMultimap<String, Double> sensorLngs = HashMultimap.create();
-        SetMultimap<String, Double> sensorLats = HashMultimap.create();
-        SetMultimap<String, Double> sensorHeights = HashMultimap.create();
+        // the columnar observation values by sensor with the unique dimension
+        // values (these may or may not vary, determining the feature type)
+        Map<String, ColumnarSensorData> sensorData = new LinkedHashMap<>();
 
         while (omObservations.hasNext()) {
             OmObservation sosObs = omObservations.next();
             if (sosObs.getValue() instanceof StreamingValue<?>) {
                 StreamingValue<?> streaming = (StreamingValue<?>) sosObs.getValue();
                 while (streaming.hasNext()) {
-                    processObservation(streaming.next(), sensorPhens, sensorProcedure, sensorLngs, sensorLats,
-                            sensorHeights, obsValuesMap);
+                    processObservation(streaming.next(), sensorData);
                 }
             } else {
-                processObservation(sosObs, sensorPhens, sensorProcedure, sensorLngs, sensorLats, sensorHeights,
-                        obsValuesMap);
+                processObservation(sosObs, sensorData);
             }
         }
 
@@ -173,16 +157,21 @@ public interface NetCDFUtil {
         Envelope trajectoryEnvelope = new Envelope();
         Envelope trajectoryProfileEnvelope = new Envelope();
 
-        for (Map.Entry<String, Map<Time, Map<OmObservableProperty,
-                Map<SubSensor, Value<?>>>>> obsValuesEntry : obsValuesMap
-                .entrySet()) {
-            IdentifierDatasetSensor datasetSensor = new IdentifierDatasetSensor(obsValuesEntry.getKey());
+        for (ColumnarSensorData data : sensorData.values()) {
+            if (data.isEmpty()) {
+                continue;
+            }
+            data.compact();
+            IdentifierDatasetSensor datasetSensor = new IdentifierDatasetSensor(data.getSensor());
             String sensor = datasetSensor.getSensorIdentifier();
-            Set<Time> sensorTimes = obsValuesEntry.getValue().keySet();
-
-            int lngCount = sensorLngs.get(sensor).size();
-            int latCount = sensorLats.get(sensor).size();
-            int heightCount = sensorHeights.get(sensor).size();
+            List<Time> sensorTimes = data.getTimes();
+            Set<Double> lngs = data.getLngs();
+            Set<Double> lats = data.getLats();
+            Set<Double> heights = data.getHeights();
+
+            int lngCount = lngs.size();
+            int latCount = lats.size();
+            int heightCount = heights.size();
             // int timeCount = sensorTimes.size();
 
             boolean locationVaries = lngCount > 0 && latCount > 0 && (lngCount > 1 || latCount > 1);
@@ -195,16 +184,16 @@ public interface NetCDFUtil {
             Double staticHeight = null;
             // Time staticTime = null;
             if (!locationVaries) {
-                if (!sensorLngs.get(sensor).isEmpty()) {
-                    staticLng = sensorLngs.get(sensor).iterator().next();
+                if (!lngs.isEmpty()) {
+                    staticLng = lngs.iterator().next();
                 }
-                if (!sensorLats.get(sensor).isEmpty()) {
-                    staticLat = sensorLats.get(sensor).iterator().next();
+                if (!lats.isEmpty()) {
+                    staticLat = lats.iterator().next();
                 }
             }
             if (!heightVaries) {
-                if (!sensorHeights.get(sensor).isEmpty()) {
-                    staticHeight = sensorHeights.get(sensor).iterator().next();
+                if (!heights.isEmpty()) {
+                    staticHeight = heights.iterator().next();
                 }
             }
             // if( !timeVaries ){
@@ -233,35 +222,33 @@ public interface NetCDFUtil {
             if (!locationVaries && !heightVaries) {
                 // time series
                 timeSeriesSamplingTimePeriod.extendToContain(sensorTimes);
-                timeSeriesSensorDatasets.put(sensor, new TimeSeriesSensorDataset(datasetSensor, staticLng, staticLat,
-                        staticHeight, obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
-                timeSeriesPhenomena.addAll(sensorPhens.get(sensor));
+                timeSeriesSensorDatasets.put(sensor,
+                        new TimeSeriesSensorDataset(datasetSensor, staticLng, staticLat, staticHeight, data));
+                timeSeriesPhenomena.addAll(data.getSensorPhenomena());
                 if (staticLng != null && staticLat != null) {
                     timeSeriesEnvelope.expandToInclude(staticLng, staticLat);
                 }
             } else if (!locationVaries && heightVaries) {
                 // time series profile
                 timeSeriesProfileSamplingTimePeriod.extendToContain(sensorTimes);
-                timeSeriesProfileSensorDatasets.put(sensor, new TimeSeriesProfileSensorDataset(datasetSensor,
-                        staticLng, staticLat, obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
-                timeSeriesProfilePhenomena.addAll(sensorPhens.get(sensor));
+                timeSeriesProfileSensorDatasets.put(sensor,
+                        new TimeSeriesProfileSensorDataset(datasetSensor, staticLng, staticLat, data));
+                timeSeriesProfilePhenomena.addAll(data.getSensorPhenomena());
                 if (staticLng != null && staticLat != null) {
                     timeSeriesProfileEnvelope.expandToInclude(staticLng, staticLat);
                 }
             } else if (locationVaries && !heightVaries) {
                 // trajectory
                 trajectorySamplingTimePeriod.extendToContain(sensorTimes);
-                trajectorySensorDatasets.put(sensor, new TrajectorySensorDataset(datasetSensor, staticHeight,
-                        obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
-                trajectoryPhenomena.addAll(sensorPhens.get(sensor));
-                expandEnvelopeToInclude(trajectoryEnvelope, sensorLngs.get(sensor), sensorLats.get(sensor));
+                trajectorySensorDatasets.put(sensor, new TrajectorySensorDataset(datasetSensor, staticHeight, data));
+                trajectoryPhenomena.addAll(data.getSensorPhenomena());
+                expandEnvelopeToInclude(trajectoryEnvelope, lngs, lats);
             } else if (locationVaries && heightVaries) {
                 // trajectory profile
                 trajectoryProfileSamplingTimePeriod.extendToContain(sensorTimes);
-                trajectoryProfileSensorDatasets.put(sensor, new TrajectoryProfileSensorDataset(datasetSensor,
-                        obsValuesEntry.getValue(), sensorProcedure.get(sensor)));
-                trajectoryProfilePhenomena.addAll(sensorPhens.get(sensor));
-                expandEnvelopeToInclude(trajectoryProfileEnvelope, sensorLngs.get(sensor), sensorLats.get(sensor));
+                trajectoryProfileSensorDatasets.put(sensor, new TrajectoryProfileSensorDataset(datasetSensor, data));
+                trajectoryProfilePhenomena.addAll(data.getSensorPhenomena());
+                expandEnvelopeToInclude(trajectoryProfileEnvelope, lngs, lats);
             }
         }
 
@@ -298,19 +285,22 @@ public interface NetCDFUtil {
         return iSosObsList;
     }
 
-    default void processObservation(OmObservation sosObs, SetMultimap<String, OmObservableProperty> sensorPhens,
-            Map<String, AbstractFeature> sensorProcedure, SetMultimap<String, Double> sensorLngs,
-            SetMultimap<String, Double> sensorLats, SetMultimap<String, Double> sensorHeights,
-            Map<String, Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>>> obsValuesMap)
+    default void processObservation(OmObservation sosObs, Map<String, ColumnarSensorData> sensorData)
             throws EncodingException {
 
         OmObservationConstellation obsConst = sosObs.getObservationConstellation();
 
         // first, resolve the procId to an asset type
         String sensor = obsConst.getProcedure().getIdentifier();
-        if (!sensorProcedure.containsKey(sensor)) {
-            sensorProcedure.put(sensor, obsConst.getProcedure());
+        ColumnarSensorData data = sensorData.get(sensor);
+        if (data == null) {
+            data = new ColumnarSensorData(sensor);
+            data.setProcedure(obsConst.getProcedure());
+            sensorData.put(sensor, data);
         }
+        Set<Double> sensorLngs = data.getLngs();
+        Set<Double> sensorLats = data.getLats();
+        Set<Double> sensorHeights = data.getHeights();
 
         AbstractPhenomenon absPhen = obsConst.getObservableProperty();
         Map<String, OmObservableProperty> phenomenaMap = new HashMap<>();
@@ -333,7 +323,7 @@ public interface NetCDFUtil {
             phenomenaMap.put(phen.getIdentifier(), phen);
         }
         List<OmObservableProperty> phenomena = new ArrayList<>(phenomenaMap.values());
-        sensorPhens.putAll(sensor, phenomena);
+        data.addSensorPhenomena(phenomena);
 
         // get foi
         AbstractFeature aFoi = obsConst.getFeatureOfInterest();
@@ -346,14 +336,14 @@ public interface NetCDFUtil {
             try {
                 // TODO is this correct?
                 Point p = (Point) getGeometryHandler().switchCoordinateAxisFromToDatasourceIfNeeded(point);
-                sensorLngs.put(sensor, p.getX());
-                sensorLats.put(sensor, p.getY());
+                sensorLngs.add(p.getX());
+                sensorLats.add(p.getY());
             } catch (OwsExceptionReport e) {
                 throw new EncodingException("Exception while normalizing feature coordinate axis order.", e);
             }
         }
         Set<Double> featureHeights = FeatureUtil.getFeatureHeights(foi);
-        sensorHeights.putAll(sensor, featureHeights);
+        sensorHeights.addAll(featureHeights);
 
         String phenId = obsConst.getObservableProperty().getIdentifier();
         ObservationValue<?> iObsValue = sosObs.getValue();
@@ -376,16 +366,16 @@ public interface NetCDFUtil {
             OmObservableProperty phenomenon = phenomena.get(0);
             // add dimensional values to procedure dimension tracking maps
             if (isLng(phenomenon.getIdentifier())) {
-                sensorLngs.get(sensor).add(quantityValue.getValue().doubleValue());
+                sensorLngs.add(quantityValue.getValue().doubleValue());
             }
 
             if (isLat(phenomenon.getIdentifier())) {
-                sensorLats.get(sensor).add(quantityValue.getValue().doubleValue());
+                sensorLats.add(quantityValue.getValue().doubleValue());
             }
 
             if (isZ(phenomenon.getIdentifier())) {
                 Double zValue = quantityValue.getValue().doubleValue();
-                sensorHeights.get(sensor).add(zValue);
+                sensorHeights.add(zValue);
             }
         }
 
@@ -393,9 +383,9 @@ public interface NetCDFUtil {
         if (sosObs.isSetParameter()) {
             if (sosObs.isSetHeightDepthParameter()) {
                 if (sosObs.isSetHeightParameter()) {
-                    sensorHeights.get(sensor).add(sosObs.getHeightParameter().getValue().getValue().doubleValue());
+                    sensorHeights.add(sosObs.getHeightParameter().getValue().getValue().doubleValue());
                 } else if (sosObs.isSetDepthParameter()) {
-                    sensorHeights.get(sensor).add(sosObs.getDepthParameter().getValue().getValue().doubleValue());
+                    sensorHeights.add(sosObs.getDepthParameter().getValue().getValue().doubleValue());
                 }
             }
             if (hasSamplingGeometry(sosObs)) {
@@ -404,43 +394,29 @@ public interface NetCDFUtil {
                 for (Point point : points) {
                     try {
                         Point p = (Point) getGeometryHandler().switchCoordinateAxisFromToDatasourceIfNeeded(point);
-                        sensorLngs.put(sensor, p.getX());
-                        sensorLats.put(sensor, p.getY());
+                        sensorLngs.add(p.getX());
+                        sensorLats.add(p.getY());
                     } catch (OwsExceptionReport e) {
                         throw new EncodingException(
                                 "Exception while normalizing sampling geometry coordinate axis order.");
                     }
                 }
-                sensorHeights.putAll(sensor, FeatureUtil.getHeights(points));
+                sensorHeights.addAll(FeatureUtil.getHeights(points));
             }
         }
 
-        // get the sensor's data map
-        Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> sensorObsMap = obsValuesMap.get(sensor);
-        if (sensorObsMap == null) {
-            sensorObsMap = new HashMap<>();
-            obsValuesMap.put(sensor, sensorObsMap);
-        }
-
-        // get the map of the asset's phenomena by time
-        Map<OmObservableProperty, Map<SubSensor, Value<?>>> obsPropMap = sensorObsMap.get(obsTime);
-        if (obsPropMap == null) {
-            obsPropMap = new HashMap<>();
-            sensorObsMap.put(obsTime, obsPropMap);
-        }
-
+        // add obs value to the sensor columns (null subsensors are ok), missing
+        // values are written as fill values
         OmObservableProperty phen = phenomenaMap.get(phenId);
-        Map<SubSensor, Value<?>> subSensorMap = obsPropMap.get(phen);
-        if (subSensorMap == null) {
-            subSensorMap = new HashMap<>();
-            obsPropMap.put(phen, subSensorMap);
-        }
-
-        // add obs value to subsensor map (null subsensors are ok)
-        if (sosObs.isSetParameter() && hasSamplingGeometry(sosObs)) {
-            subSensorMap.put(createSubSensor(sensor, getSamplingGeometryGeometry(sosObs)), obsValue);
-        } else {
-            subSensorMap.put(createSubSensor(sensor, foi), obsValue);
+        if (phen != null) {
+            SubSensor subSensor;
+            if (sosObs.isSetParameter() && hasSamplingGeometry(sosObs)) {
+                subSensor = createSubSensor(sensor, getSamplingGeometryGeometry(sosObs));
+            } else {
+                subSensor = createSubSensor(sensor, foi);
+            }
+            data.add(obsTime, phen, subSensor,
+                    quantityValue.isSetValue() ? quantityValue.getValue().doubleValue() : Double.NaN);
         }
     }
 
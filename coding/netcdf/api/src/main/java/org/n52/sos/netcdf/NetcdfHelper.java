@@ -30,12 +30,17 @@ package org.n52.sos.netcdf;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 
 import javax.naming.ConfigurationException;
 
 import org.n52.faroe.ConfigurationError;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
+import org.n52.janmayen.lifecycle.Destroyable;
 import org.n52.shetland.iso.CodeList.CiRoleCodes;
 
 import com.axiomalaska.cf4j.CFStandardName;
@@ -53,7 +58,7 @@ import ucar.nc2.NetcdfFileWriter.Version;
  *
  */
 @Configurable
-public class NetcdfHelper {
+public class NetcdfHelper implements Destroyable {
 
     private Version version;
 
@@ -77,6 +82,12 @@ public class NetcdfHelper {
 
     private Set<String> z = Collections.emptySet();
 
+    private int zipCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    private int zipParallelism = 1;
+
+    private ExecutorService zipExecutor;
+
     /**
      * @param version
      *
@@ -282,4 +293,64 @@ public class NetcdfHelper {
         }
     }
 
+    /**
+     * @return the compression level of zipped netCDF files
+     */
+    public int getZipCompressionLevel() {
+        return zipCompressionLevel;
+    }
+
+    /**
+     * @param level the compression level of zipped netCDF files, {@code 0} to
+     *            store the files uncompressed or {@code -1} for the default
+     *            level
+     */
+    @Setting(NetcdfSettingsProvider.NETCDF_ZIP_COMPRESSION_LEVEL)
+    public void setZipCompressionLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new ConfigurationError("The ZIP compression level has to be between -1 and 9: " + level);
+        }
+        this.zipCompressionLevel = level;
+    }
+
+    /**
+     * @return the number of zipped netCDF files created concurrently
+     */
+    public int getZipParallelism() {
+        return zipParallelism;
+    }
+
+    /**
+     * @param parallelism the number of zipped netCDF files created concurrently
+     */
+    @Setting(NetcdfSettingsProvider.NETCDF_ZIP_PARALLELISM)
+    public synchronized void setZipParallelism(int parallelism) {
+        this.zipParallelism = Math.max(1, parallelism);
+        if (this.zipExecutor != null) {
+            // running responses fall back to sequential creation
+            this.zipExecutor.shutdown();
+        }
+        this.zipExecutor = zipParallelism > 1
+                ? Executors.newFixedThreadPool(zipParallelism, new GroupedAndNamedThreadFactory("52n-netcdf-zip"))
+                : null;
+    }
+
+    /**
+     * @return the executor shared by all zipped netCDF responses to create
+     *         the files concurrently or {@code null} if they are created
+     *         sequentially
+     */
+    public synchronized ExecutorService getZipExecutor() {
+        return zipExecutor;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (this.zipExecutor != null) {
+            this.zipExecutor.shutdownNow();
+            this.zipExecutor = null;
+        }
+    }
+
 }
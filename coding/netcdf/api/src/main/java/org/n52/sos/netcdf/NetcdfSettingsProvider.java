@@ -59,4 +59,8 @@ public interface NetcdfSettingsProvider {
 
     String NETCDF_PHEN_Z = "netcdf.phenomenon.z";
 
+    String NETCDF_ZIP_COMPRESSION_LEVEL = "netcdf.zip.compressionLevel";
+
+    String NETCDF_ZIP_PARALLELISM = "netcdf.zip.parallelism";
+
 }
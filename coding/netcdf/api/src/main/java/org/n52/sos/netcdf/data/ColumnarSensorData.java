@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.netcdf.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.sos.netcdf.data.subsensor.SubSensor;
+
+/**
+ * Columnar collector of the observation values of a sensor used by netCDF
+ * encoding. The values are appended as primitive rows of time, phenomenon and
+ * subsensor indices while the observations are processed. After
+ * {@link #compact()} the times, phenomena and subsensors are sorted and the
+ * values are available as dense arrays per phenomenon with the layout
+ * {@code [time * subsensorCount + subsensor]}, missing values are
+ * {@link Double#NaN}. Values without subsensor are kept in an additional slot
+ * after the sorted subsensors.
+ *
+ * @since 5.2.3
+ *
+ */
+public class ColumnarSensorData {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String sensor;
+
+    private AbstractFeature procedure;
+
+    private final Set<OmObservableProperty> sensorPhenomena = new HashSet<>();
+
+    private final Set<Double> lngs = new HashSet<>();
+
+    private final Set<Double> lats = new HashSet<>();
+
+    private final Set<Double> heights = new HashSet<>();
+
+    private final Map<Time, Integer> timeIndex = new HashMap<>();
+
+    private final Map<OmObservableProperty, Integer> phenomenonIndex = new HashMap<>();
+
+    private final Map<SubSensor, Integer> subSensorIndex = new HashMap<>();
+
+    private List<Time> times = new ArrayList<>();
+
+    private List<OmObservableProperty> phenomena = new ArrayList<>();
+
+    private List<SubSensor> subSensors = new ArrayList<>();
+
+    private int[] timeColumn = new int[INITIAL_CAPACITY];
+
+    private int[] phenomenonColumn = new int[INITIAL_CAPACITY];
+
+    private int[] subSensorColumn = new int[INITIAL_CAPACITY];
+
+    private double[] valueColumn = new double[INITIAL_CAPACITY];
+
+    private int size;
+
+    private boolean withoutSubSensor;
+
+    private double[][] values;
+
+    public ColumnarSensorData(String sensor) {
+        this.sensor = sensor;
+    }
+
+    public String getSensor() {
+        return sensor;
+    }
+
+    public AbstractFeature getProcedure() {
+        return procedure;
+    }
+
+    public void setProcedure(AbstractFeature procedure) {
+        this.procedure = procedure;
+    }
+
+    public Set<OmObservableProperty> getSensorPhenomena() {
+        return sensorPhenomena;
+    }
+
+    public void addSensorPhenomena(Collection<OmObservableProperty> phens) {
+        sensorPhenomena.addAll(phens);
+    }
+
+    public Set<Double> getLngs() {
+        return lngs;
+    }
+
+    public Set<Double> getLats() {
+        return lats;
+    }
+
+    public Set<Double> getHeights() {
+        return heights;
+    }
+
+    /**
+     * Add a value. A later value for the same time, phenomenon and subsensor
+     * replaces the previous one.
+     *
+     * @param time
+     *            the phenomenon time
+     * @param phenomenon
+     *            the phenomenon
+     * @param subSensor
+     *            the subsensor, may be {@code null}
+     * @param value
+     *            the value, {@link Double#NaN} if the observation has no value
+     */
+    public void add(Time time, OmObservableProperty phenomenon, SubSensor subSensor, double value) {
+        if (values != null) {
+            throw new IllegalStateException("The sensor data is already compacted!");
+        }
+        if (size == valueColumn.length) {
+            int capacity = size * 2;
+            timeColumn = Arrays.copyOf(timeColumn, capacity);
+            phenomenonColumn = Arrays.copyOf(phenomenonColumn, capacity);
+            subSensorColumn = Arrays.copyOf(subSensorColumn, capacity);
+            valueColumn = Arrays.copyOf(valueColumn, capacity);
+        }
+        timeColumn[size] = index(timeIndex, times, time);
+        phenomenonColumn[size] = index(phenomenonIndex, phenomena, phenomenon);
+        if (subSensor == null) {
+            withoutSubSensor = true;
+            subSensorColumn[size] = -1;
+        } else {
+            subSensorColumn[size] = index(subSensorIndex, subSensors, subSensor);
+        }
+        valueColumn[size] = value;
+        size++;
+    }
+
+    /**
+     * @return <code>true</code>, if no value was added
+     */
+    public boolean isEmpty() {
+        return size == 0 && values == null;
+    }
+
+    /**
+     * Sort the times, phenomena and subsensors and create the dense value
+     * arrays. The row columns are released afterwards.
+     *
+     * @return this
+     */
+    public ColumnarSensorData compact() {
+        if (values != null) {
+            return this;
+        }
+        int[] timeOrder = sort(times);
+        int[] phenomenonOrder = sort(phenomena);
+        int[] subSensorOrder = sort(subSensors);
+        int numTimes = times.size();
+        int numSubSensors = getSubSensorCount();
+        values = new double[phenomena.size()][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new double[numTimes * numSubSensors];
+            Arrays.fill(values[i], Double.NaN);
+        }
+        int withoutSubSensorIndex = getWithoutSubSensorIndex();
+        for (int row = 0; row < size; row++) {
+            if (Double.isNaN(valueColumn[row])) {
+                // missing values only register time and phenomenon
+                continue;
+            }
+            int z = subSensorColumn[row] < 0 ? withoutSubSensorIndex : subSensorOrder[subSensorColumn[row]];
+            values[phenomenonOrder[phenomenonColumn[row]]][timeOrder[timeColumn[row]] * numSubSensors + z] =
+                    valueColumn[row];
+        }
+        times = Collections.unmodifiableList(times);
+        phenomena = Collections.unmodifiableList(phenomena);
+        subSensors = Collections.unmodifiableList(subSensors);
+        timeIndex.clear();
+        phenomenonIndex.clear();
+        subSensorIndex.clear();
+        timeColumn = null;
+        phenomenonColumn = null;
+        subSensorColumn = null;
+        valueColumn = null;
+        return this;
+    }
+
+    public List<Time> getTimes() {
+        return times;
+    }
+
+    public List<OmObservableProperty> getPhenomena() {
+        return phenomena;
+    }
+
+    public List<SubSensor> getSubSensors() {
+        return subSensors;
+    }
+
+    /**
+     * @return the size of the subsensor axis of the value arrays, at least 1
+     */
+    public int getSubSensorCount() {
+        return subSensors.isEmpty() || withoutSubSensor ? subSensors.size() + 1 : subSensors.size();
+    }
+
+    /**
+     * @return the index of the values without subsensor on the subsensor axis
+     *         or {@code -1} if all values have a subsensor
+     */
+    public int getWithoutSubSensorIndex() {
+        return subSensors.isEmpty() || withoutSubSensor ? subSensors.size() : -1;
+    }
+
+    /**
+     * Get the dense values of the phenomenon, {@link #compact()} has to be
+     * called before.
+     *
+     * @param phenomenon
+     *            the phenomenon
+     * @return the values or {@code null} if the phenomenon is unknown
+     */
+    public double[] getValues(OmObservableProperty phenomenon) {
+        if (values == null) {
+            throw new IllegalStateException("The sensor data is not compacted!");
+        }
+        int index = phenomena.indexOf(phenomenon);
+        return index < 0 ? null : values[index];
+    }
+
+    private static <T> int index(Map<T, Integer> index, List<T> list, T element) {
+        Integer i = index.get(element);
+        if (i == null) {
+            i = list.size();
+            list.add(element);
+            index.put(element, i);
+        }
+        return i;
+    }
+
+    /**
+     * Sort the list and return the new positions of the previous indices.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> int[] sort(List<T> list) {
+        Integer[] order = new Integer[list.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> ((Comparable) list.get(a)).compareTo(list.get(b)));
+        int[] positions = new int[order.length];
+        List<T> sorted = new ArrayList<>(order.length);
+        for (int i = 0; i < order.length; i++) {
+            positions[order[i]] = i;
+            sorted.add(list.get(order[i]));
+        }
+        list.clear();
+        list.addAll(sorted);
+        return positions;
+    }
+}
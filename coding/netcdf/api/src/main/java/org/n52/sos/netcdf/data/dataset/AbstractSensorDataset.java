@@ -28,6 +28,7 @@
  */
 package org.n52.sos.netcdf.data.dataset;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -38,11 +39,14 @@ import java.util.Set;
 import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.values.QuantityValue;
 import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.util.CollectionHelper;
+import org.n52.sos.netcdf.data.ColumnarSensorData;
 import org.n52.sos.netcdf.data.subsensor.SubSensor;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import ucar.nc2.constants.CF;
@@ -69,8 +73,12 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
 
     private List<SubSensor> subSensors;
 
+    private boolean withoutSubSensor;
+
     private Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValues;
 
+    private ColumnarSensorData columns;
+
     public AbstractSensorDataset(CF.FeatureType featureType, DatasetSensor sensor,
             Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValues, AbstractFeature procedure) {
         this.featureType = featureType;
@@ -96,6 +104,8 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
                 for (SubSensor subSensor : phenSubSensors) {
                     if (subSensor != null) {
                         subSensorSet.add(subSensor);
+                    } else {
+                        withoutSubSensor = true;
                     }
                 }
             }
@@ -114,6 +124,17 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
         subSensors = Collections.unmodifiableList(subSensorList);
     }
 
+    public AbstractSensorDataset(CF.FeatureType featureType, DatasetSensor sensor, ColumnarSensorData columns,
+            AbstractFeature procedure) {
+        this.featureType = featureType;
+        this.sensor = sensor;
+        this.procedure = procedure;
+        this.columns = columns.compact();
+        this.times = columns.getTimes();
+        this.obsProps = columns.getPhenomena();
+        this.subSensors = columns.getSubSensors();
+    }
+
     public DatasetSensor getSensor() {
         return sensor;
     }
@@ -134,6 +155,18 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
         return subSensors;
     }
 
+    /**
+     * @return the size of the subsensor axis of the values, at least 1. Values
+     *         without subsensor are kept in an additional slot after the
+     *         subsensors.
+     */
+    public int getSubSensorCount() {
+        if (columns != null) {
+            return columns.getSubSensorCount();
+        }
+        return subSensors.isEmpty() || withoutSubSensor ? subSensors.size() + 1 : subSensors.size();
+    }
+
     public AbstractFeature getProcedureDescription() {
         return procedure;
     }
@@ -142,10 +175,68 @@ public abstract class AbstractSensorDataset implements Comparable<AbstractSensor
         return times;
     }
 
-    public Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> getDataValues() {
+    /**
+     * Get the data values as nested maps. Datasets created from
+     * {@link ColumnarSensorData} create the maps on demand, encoders should use
+     * {@link #getValues(OmObservableProperty)} instead.
+     *
+     * @return the data values
+     */
+    public synchronized Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> getDataValues() {
+        if (dataValues == null && columns != null) {
+            Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> map = Maps.newHashMap();
+            int numSubSensors = columns.getSubSensorCount();
+            for (OmObservableProperty phen : obsProps) {
+                double[] values = columns.getValues(phen);
+                for (int i = 0; i < values.length; i++) {
+                    if (!Double.isNaN(values[i])) {
+                        int z = i % numSubSensors;
+                        SubSensor subSensor = z < subSensors.size() ? subSensors.get(z) : null;
+                        map.computeIfAbsent(times.get(i / numSubSensors), t -> Maps.newHashMap())
+                                .computeIfAbsent(phen, p -> Maps.newHashMap())
+                                .put(subSensor, new QuantityValue(values[i], phen.getUnit()));
+                    }
+                }
+            }
+            dataValues = Collections.unmodifiableMap(map);
+        }
         return dataValues;
     }
 
+    /**
+     * Get the values of the phenomenon as dense array with the layout
+     * {@code [timeIndex * subSensorCount + subSensorIndex]}. Missing
+     * values are {@link Double#NaN}.
+     *
+     * @param phenomenon
+     *            the phenomenon
+     * @return the values or {@code null} if the phenomenon is unknown
+     */
+    public double[] getValues(OmObservableProperty phenomenon) {
+        if (columns != null) {
+            return columns.getValues(phenomenon);
+        }
+        if (!obsProps.contains(phenomenon)) {
+            return null;
+        }
+        int numSubSensors = getSubSensorCount();
+        double[] values = new double[times.size() * numSubSensors];
+        Arrays.fill(values, Double.NaN);
+        for (int t = 0; t < times.size(); t++) {
+            Map<SubSensor, Value<?>> subSensorValues = dataValues.get(times.get(t)).get(phenomenon);
+            if (subSensorValues != null) {
+                for (Map.Entry<SubSensor, Value<?>> entry : subSensorValues.entrySet()) {
+                    Object value = entry.getValue().getValue();
+                    if (value instanceof Number) {
+                        int z = entry.getKey() == null ? subSensors.size() : subSensors.indexOf(entry.getKey());
+                        values[t * numSubSensors + z] = ((Number) value).doubleValue();
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
     public static Set<AbstractSensorDataset> getAbstractAssetDatasets(
             Set<? extends AbstractSensorDataset> stationDatasets) {
         Set<AbstractSensorDataset> abstractStationDatasets = new HashSet<AbstractSensorDataset>();
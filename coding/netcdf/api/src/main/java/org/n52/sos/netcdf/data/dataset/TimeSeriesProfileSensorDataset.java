@@ -34,6 +34,7 @@ import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
 import org.n52.shetland.ogc.om.values.Value;
+import org.n52.sos.netcdf.data.ColumnarSensorData;
 import org.n52.sos.netcdf.data.subsensor.SubSensor;
 
 import ucar.nc2.constants.CF;
@@ -59,6 +60,12 @@ public class TimeSeriesProfileSensorDataset extends AbstractSensorDataset implem
         this.lat = lat;
     }
 
+    public TimeSeriesProfileSensorDataset(DatasetSensor sensor, Double lng, Double lat, ColumnarSensorData columns) {
+        super(CF.FeatureType.timeSeriesProfile, sensor, columns, columns.getProcedure());
+        this.lng = lng;
+        this.lat = lat;
+    }
+
     @Override
     public Double getLng() {
         return lng;
@@ -34,6 +34,7 @@ import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
 import org.n52.shetland.ogc.om.values.Value;
+import org.n52.sos.netcdf.data.ColumnarSensorData;
 import org.n52.sos.netcdf.data.subsensor.SubSensor;
 
 import ucar.nc2.constants.CF;
@@ -62,6 +63,14 @@ public class TimeSeriesSensorDataset extends AbstractSensorDataset
         this.alt = alt;
     }
 
+    public TimeSeriesSensorDataset(DatasetSensor sensor, Double lng, Double lat, Double alt,
+            ColumnarSensorData columns) {
+        super(CF.FeatureType.timeSeries, sensor, columns, columns.getProcedure());
+        this.lng = lng;
+        this.lat = lat;
+        this.alt = alt;
+    }
+
     @Override
     public Double getLng() {
         return lng;
@@ -34,6 +34,7 @@ import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
 import org.n52.shetland.ogc.om.values.Value;
+import org.n52.sos.netcdf.data.ColumnarSensorData;
 import org.n52.sos.netcdf.data.subsensor.SubSensor;
 
 import ucar.nc2.constants.CF;
@@ -52,4 +53,8 @@ public class TrajectoryProfileSensorDataset extends AbstractSensorDataset {
             Map<Time, Map<OmObservableProperty, Map<SubSensor, Value<?>>>> dataValues, AbstractFeature procedure) {
         super(CF.FeatureType.trajectoryProfile, sensor, dataValues, procedure);
     }
+
+    public TrajectoryProfileSensorDataset(DatasetSensor sensor, ColumnarSensorData columns) {
+        super(CF.FeatureType.trajectoryProfile, sensor, columns, columns.getProcedure());
+    }
 }
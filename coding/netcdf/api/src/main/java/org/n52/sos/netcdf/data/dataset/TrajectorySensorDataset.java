@@ -34,6 +34,7 @@ import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.om.OmObservableProperty;
 import org.n52.shetland.ogc.om.values.Value;
+import org.n52.sos.netcdf.data.ColumnarSensorData;
 import org.n52.sos.netcdf.data.subsensor.SubSensor;
 
 import ucar.nc2.constants.CF;
@@ -56,6 +57,11 @@ public class TrajectorySensorDataset extends AbstractSensorDataset implements St
         this.alt = alt;
     }
 
+    public TrajectorySensorDataset(DatasetSensor sensor, Double alt, ColumnarSensorData columns) {
+        super(CF.FeatureType.trajectory, sensor, columns, columns.getProcedure());
+        this.alt = alt;
+    }
+
     @Override
     public Double getAlt() {
         return alt;
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.netcdf.data;
+
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.sos.netcdf.data.subsensor.PointProfileSubSensor;
+import org.n52.sos.netcdf.data.subsensor.SubSensor;
+
+public class ColumnarSensorDataTest {
+
+    private static final double DELTA = 0.0000001;
+
+    private final Time t1 = new TimeInstant(new DateTime(2020, 1, 1, 0, 0));
+
+    private final Time t2 = new TimeInstant(new DateTime(2020, 1, 2, 0, 0));
+
+    private final OmObservableProperty temp = new OmObservableProperty("temperature");
+
+    private final OmObservableProperty sal = new OmObservableProperty("salinity");
+
+    @Test
+    public void shouldSortAndDensifyValues() {
+        ColumnarSensorData data = new ColumnarSensorData("sensor");
+        SubSensor deep = new PointProfileSubSensor(-10.0);
+        SubSensor shallow = new PointProfileSubSensor(-1.0);
+        data.add(t2, temp, deep, 4.0);
+        data.add(t1, temp, shallow, 1.0);
+        data.add(t1, sal, deep, 35.0);
+        data.add(t2, temp, deep, 5.0);
+        data.compact();
+
+        Assert.assertEquals(2, data.getTimes().size());
+        Assert.assertEquals(t1, data.getTimes().get(0));
+        Assert.assertEquals(2, data.getSubSensorCount());
+        int shallowIndex = data.getSubSensors().indexOf(shallow);
+        int deepIndex = data.getSubSensors().indexOf(deep);
+
+        double[] temps = data.getValues(temp);
+        Assert.assertEquals(4, temps.length);
+        Assert.assertEquals(1.0, temps[shallowIndex], DELTA);
+        Assert.assertTrue(Double.isNaN(temps[deepIndex]));
+        // later values replace previous ones
+        Assert.assertEquals(5.0, temps[2 + deepIndex], DELTA);
+
+        double[] salinity = data.getValues(sal);
+        Assert.assertEquals(35.0, salinity[deepIndex], DELTA);
+        Assert.assertTrue(Double.isNaN(salinity[2 + deepIndex]));
+    }
+
+    @Test
+    public void shouldUseSingleSubSensorSlotWithoutSubSensors() {
+        ColumnarSensorData data = new ColumnarSensorData("sensor");
+        for (int i = 0; i < 100; i++) {
+            data.add(i % 2 == 0 ? t1 : t2, temp, null, i);
+        }
+        data.compact();
+        Assert.assertTrue(data.getSubSensors().isEmpty());
+        Assert.assertEquals(1, data.getSubSensorCount());
+        double[] temps = data.getValues(temp);
+        Assert.assertEquals(2, temps.length);
+        Assert.assertEquals(98.0, temps[0], DELTA);
+        Assert.assertEquals(99.0, temps[1], DELTA);
+        Assert.assertNull(data.getValues(sal));
+    }
+
+    @Test
+    public void shouldKeepValuesWithoutSubSensorInOwnSlot() {
+        ColumnarSensorData data = new ColumnarSensorData("sensor");
+        SubSensor deep = new PointProfileSubSensor(-10.0);
+        SubSensor shallow = new PointProfileSubSensor(-1.0);
+        data.add(t1, temp, null, 7.0);
+        data.add(t1, temp, deep, 4.0);
+        data.add(t1, temp, shallow, 1.0);
+        data.add(t2, temp, null, 8.0);
+        data.compact();
+
+        Assert.assertEquals(2, data.getSubSensors().size());
+        Assert.assertEquals(3, data.getSubSensorCount());
+        Assert.assertEquals(2, data.getWithoutSubSensorIndex());
+        double[] temps = data.getValues(temp);
+        Assert.assertEquals(6, temps.length);
+        Assert.assertEquals(1.0, temps[data.getSubSensors().indexOf(shallow)], DELTA);
+        Assert.assertEquals(4.0, temps[data.getSubSensors().indexOf(deep)], DELTA);
+        Assert.assertEquals(7.0, temps[2], DELTA);
+        Assert.assertTrue(Double.isNaN(temps[3]));
+        Assert.assertTrue(Double.isNaN(temps[4]));
+        Assert.assertEquals(8.0, temps[5], DELTA);
+    }
+
+    @Test
+    public void shouldKeepTimesAndPhenomenaOfMissingValues() {
+        ColumnarSensorData data = new ColumnarSensorData("sensor");
+        data.add(t1, temp, null, 1.0);
+        data.add(t2, temp, null, Double.NaN);
+        data.add(t2, sal, null, Double.NaN);
+        data.add(t1, temp, null, Double.NaN);
+        data.compact();
+
+        Assert.assertEquals(2, data.getTimes().size());
+        Assert.assertEquals(2, data.getPhenomena().size());
+        double[] temps = data.getValues(temp);
+        // missing values do not replace previous ones
+        Assert.assertEquals(1.0, temps[0], DELTA);
+        Assert.assertTrue(Double.isNaN(temps[1]));
+        double[] salinity = data.getValues(sal);
+        Assert.assertTrue(Double.isNaN(salinity[0]));
+        Assert.assertTrue(Double.isNaN(salinity[1]));
+    }
+}
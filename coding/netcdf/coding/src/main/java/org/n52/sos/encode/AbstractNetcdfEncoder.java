@@ -46,6 +46,8 @@ import javax.inject.Inject;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.n52.iceland.ogc.ows.OwsServiceMetadataRepository;
 import org.n52.iceland.request.handler.OperationHandler;
 import org.n52.iceland.request.handler.OperationHandlerRepository;
@@ -59,7 +61,6 @@ import org.n52.shetland.ogc.gml.time.TimeInstant;
 import org.n52.shetland.ogc.om.ObservationStream;
 import org.n52.shetland.ogc.om.OmConstants;
 import org.n52.shetland.ogc.om.OmObservableProperty;
-import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.ogc.ows.OwsAddress;
 import org.n52.shetland.ogc.ows.OwsContact;
 import org.n52.shetland.ogc.ows.OwsOnlineResource;
@@ -86,7 +87,9 @@ import org.n52.shetland.ogc.sos.response.AbstractObservationResponse;
 import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
 import org.n52.shetland.ogc.sos.response.DescribeSensorResponse;
 import org.n52.shetland.util.DateTimeHelper;
+import org.n52.sos.coding.encode.FileAttachmentResponse;
 import org.n52.sos.coding.encode.ProcedureDescriptionFormatRepository;
+import org.n52.sos.coding.encode.ZipAttachmentResponse;
 import org.n52.sos.ds.AbstractDescribeSensorHandler;
 import org.n52.sos.netcdf.Nc4ForceTimeChunkingStategy;
 import org.n52.sos.netcdf.NetCDFUtil;
@@ -144,6 +147,8 @@ import ucar.nc2.jni.netcdf.Nc4Iosp;
 public abstract class AbstractNetcdfEncoder
         implements ObservationEncoder<BinaryAttachmentResponse, Object>, NetCDFUtil {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractNetcdfEncoder.class);
+
     private final Set<SupportedType> SUPPORTED_TYPES =
             ImmutableSet.<SupportedType>builder().add(OmConstants.OBS_TYPE_TRUTH_OBSERVATION_TYPE).build();
 
@@ -344,7 +349,7 @@ public abstract class AbstractNetcdfEncoder
         int numTimes = sensorDataset.getTimes().size();
         // FIXME shouldn't assume that all subsensors are heights (or rename
         // subsensors if they are)
-        int numHeightDepth = sensorDataset.getSubSensors().size() > 0 ? sensorDataset.getSubSensors().size() : 1;
+        int numHeightDepth = sensorDataset.getSubSensorCount();
 
         // global attributes
         addGlobaleAttributes(writer, sensorDataset);
@@ -446,17 +451,11 @@ public abstract class AbstractNetcdfEncoder
                         Lists.newArrayList(vTime.getFullName(), vLat.getFullName(), vLon.getFullName(),
                                 vHeightDepth.getFullName()));
 
-        Map<OmObservableProperty, Variable> obsPropVarMap = Maps.newHashMap();
-        Map<Variable, Array> varDataArrayMap = Maps.newHashMap();
+        Map<OmObservableProperty, Variable> obsPropVarMap = Maps.newLinkedHashMap();
         for (OmObservableProperty obsProp : sensorDataset.getPhenomena()) {
-            // obs prop var
+            // obs prop var, the data is written in time chunks
             Variable vObsProp = addVariableForObservedProperty(writer, obsProp, obsPropDims, coordinateString);
             obsPropVarMap.put(obsProp, vObsProp);
-
-            // init obs prop data array
-            Array obsPropArray = getArray(obsPropDims);
-            initArrayWithFillValue(obsPropArray, getNetcdfHelper().getFillValue());
-            varDataArrayMap.put(vObsProp, obsPropArray);
         }
 
         // populate heights array for profile
@@ -483,53 +482,12 @@ public abstract class AbstractNetcdfEncoder
             // set time value
             Index timeIndex = timeArray.getIndex();
             int timeIndexCounter = 0;
-            // if (hasDimension(timeDims, dFeatureTypeInstance)) {
-            // timeIndex.setDim(timeIndexCounter++, 0);
-            // }
             if (hasDimension(timeDims, dTime)) {
                 timeIndex.setDim(timeIndexCounter++, timeCounter++);
             }
             timeArray.set(timeIndex, getTimeValue(time));
-
-            // data values
-            Map<OmObservableProperty, Map<SubSensor, Value<?>>> obsPropMap = sensorDataset.getDataValues().get(time);
-            for (Entry<OmObservableProperty, Map<SubSensor, Value<?>>> entry : obsPropMap.entrySet()) {
-                OmObservableProperty obsProp = entry.getKey();
-                Variable variable = obsPropVarMap.get(obsProp);
-                Array array = varDataArrayMap.get(variable);
-                for (Entry<SubSensor, Value<?>> subSensorEntry : obsPropMap.get(obsProp).entrySet()) {
-                    SubSensor subSensor = subSensorEntry.getKey();
-                    Value<?> value = subSensorEntry.getValue();
-                    Object valObj = value.getValue();
-                    if (!(valObj instanceof Number)) {
-                        throw new EncodingException("Value class %s not supported",
-                                valObj.getClass().getCanonicalName());
-                    }
-                    Index index = array.getIndex();
-                    int obsPropDimCounter = 0;
-                    for (Dimension dim : obsPropDims) {
-                        // if (dim.equals(dFeatureTypeInstance)){
-                        // feature type instance index
-                        // index.setDim(obsPropDimCounter++, 0);
-                        // } else if (dim.equals(dTime)){
-                        if (dim.equals(dTime)) {
-                            // time index dim
-                            index.setDim(obsPropDimCounter++, timeCounter - 1);
-                        } else if (dim.equals(dZ) && dim.getLength() > 1) {
-                            // height/depth index dim
-                            index.setDim(obsPropDimCounter++, sensorDataset.getSubSensors().indexOf(subSensor));
-                        }
-                    }
-                    if (array instanceof ArrayFloat) {
-                        ((ArrayFloat) array).set(index, ((Number) valObj).floatValue());
-                    } else {
-                        ((ArrayDouble) array).set(index, ((Number) valObj).doubleValue());
-                    }
-                }
-            }
         }
 
-        // create the empty netCDF with dims/vars/attributes defined
         variableArrayMap.put(vTime, timeArray);
         if (latArray != null) {
             variableArrayMap.put(vLat, latArray);
@@ -540,10 +498,69 @@ public abstract class AbstractNetcdfEncoder
         if (heightDephtArray != null) {
             variableArrayMap.put(vHeightDepth, heightDephtArray);
         }
-        variableArrayMap.putAll(varDataArrayMap);
         // create the empty netCDF with dims/vars/attributes defined
-        writeToFile(writer, variableArrayMap);
-        writer.close();
+        try {
+            writeToFile(writer, variableArrayMap);
+            writeObservedPropertyValues(writer, sensorDataset, obsPropVarMap, numHeightDepth);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write the observed property values in chunks of the configured time
+     * chunk size, so that only one chunk per variable has to be held as netCDF
+     * array.
+     *
+     * @param writer
+     *            the writer, already in define mode
+     * @param sensorDataset
+     *            the sensor dataset
+     * @param obsPropVarMap
+     *            the variables of the observed properties
+     * @param numHeightDepth
+     *            the length of the height/depth dimension
+     * @throws EncodingException
+     *             if the data could not be written
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    private void writeObservedPropertyValues(NetcdfFileWriter writer, AbstractSensorDataset sensorDataset,
+            Map<OmObservableProperty, Variable> obsPropVarMap, int numHeightDepth)
+            throws EncodingException, IOException {
+        int numTimes = sensorDataset.getTimes().size();
+        int chunkSize = Math.max(1, getNetcdfHelper().getChunkSizeTime());
+        for (Entry<OmObservableProperty, Variable> entry : obsPropVarMap.entrySet()) {
+            // the columnar values are laid out as [time][subsensor]
+            double[] values = sensorDataset.getValues(entry.getKey());
+            if (values == null) {
+                continue;
+            }
+            for (int start = 0; start < numTimes; start += chunkSize) {
+                int length = Math.min(chunkSize, numTimes - start);
+                Array array = getArray(new int[] { length, numHeightDepth });
+                initArrayWithFillValue(array, getNetcdfHelper().getFillValue());
+                Index index = array.getIndex();
+                for (int t = 0; t < length; t++) {
+                    for (int z = 0; z < numHeightDepth; z++) {
+                        double value = values[(start + t) * numHeightDepth + z];
+                        if (!Double.isNaN(value)) {
+                            index.set(t, z);
+                            if (array instanceof ArrayFloat) {
+                                ((ArrayFloat) array).set(index, (float) value);
+                            } else {
+                                ((ArrayDouble) array).set(index, value);
+                            }
+                        }
+                    }
+                }
+                try {
+                    writer.write(entry.getValue(), new int[] { start, 0 }, array);
+                } catch (InvalidRangeException e) {
+                    throw new EncodingException("Error writing netCDF variable data", e);
+                }
+            }
+        }
     }
 
     protected void addGlobaleAttributes(NetcdfFileWriter writer, AbstractSensorDataset sensorDataset)
@@ -1358,6 +1375,89 @@ public abstract class AbstractNetcdfEncoder
         return identifier;
     }
 
+    /**
+     * Create a response that streams the encoded netCDF file to the client.
+     * The file and its temporary directory are deleted after writing.
+     *
+     * @param netcdfFile
+     *            the encoded netCDF file
+     * @param filename
+     *            the filename format of the attachment
+     * @return the response
+     */
+    protected BinaryAttachmentResponse createFileAttachmentResponse(File netcdfFile, String filename) {
+        return new FileAttachmentResponse(netcdfFile.toPath(), getContentType(),
+                String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))));
+    }
+
+    /**
+     * Create a response that writes each sensor dataset as netCDF file into a
+     * ZIP streamed to the client. The first netCDF file is encoded right away
+     * so that encoding errors are reported before the response is committed,
+     * the others are encoded while the ZIP is written.
+     *
+     * @param netCDFObsList
+     *            the observations to encode
+     * @param version
+     *            the netCDF version
+     * @param filenameFormat
+     *            the filename format of the attachment
+     * @return the response
+     * @throws EncodingException
+     *             if the filename of a dataset could not be created or the
+     *             first netCDF file could not be encoded
+     */
+    protected BinaryAttachmentResponse createZipAttachmentResponse(List<NetCDFObservation> netCDFObsList,
+            Version version, String filenameFormat) throws EncodingException {
+        // later datasets with the same filename replace earlier ones
+        Map<String, ZipAttachmentResponse.Entry> entries = Maps.newLinkedHashMap();
+        for (NetCDFObservation netCDFObs : netCDFObsList) {
+            for (AbstractSensorDataset sensorDataset : netCDFObs.getSensorDatasets()) {
+                String filename = getFilename(sensorDataset);
+                entries.remove(filename);
+                entries.put(filename, new ZipAttachmentResponse.Entry(filename, file -> {
+                    try {
+                        encodeSensorDataToNetcdf(file.toFile(), sensorDataset, version);
+                    } catch (EncodingException e) {
+                        throw new IOException(e);
+                    }
+                }));
+            }
+        }
+        ZipAttachmentResponse response = new ZipAttachmentResponse(Lists.newArrayList(entries.values()),
+                getContentType(), String.format(filenameFormat, makeDateSafe(new DateTime(DateTimeZone.UTC))),
+                getNetcdfHelper().getZipCompressionLevel(), getNetcdfHelper().getZipParallelism(),
+                getNetcdfHelper().getZipExecutor());
+        try {
+            // fail with an exception report instead of a broken ZIP
+            response.prepare();
+        } catch (IOException e) {
+            if (e.getCause() instanceof EncodingException) {
+                throw (EncodingException) e.getCause();
+            }
+            throw new EncodingException("Error while encoding netCDF file!", e);
+        }
+        return response;
+    }
+
+    /**
+     * Delete the temporary directory with its content.
+     *
+     * @param tempDir
+     *            the temporary directory
+     */
+    protected void deleteTempDir(File tempDir) {
+        File[] files = tempDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    LOGGER.debug("Temporary file not deleted: {}", file);
+                }
+            }
+        }
+        LOGGER.debug("Temporary directory deleted: {}", tempDir.delete());
+    }
+
     protected String makeDateSafe(DateTime dt) {
         return dt.toString().replace(":", "");
     }
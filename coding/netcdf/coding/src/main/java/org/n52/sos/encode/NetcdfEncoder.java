@@ -35,8 +35,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -142,12 +140,14 @@ public class NetcdfEncoder extends AbstractBasicNetcdfEncoder {
         File netcdfFile = new File(tempDir, filename);
         try {
             encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-            return new BinaryAttachmentResponse(Files.toByteArray(netcdfFile), getContentType(),
-                    String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))));
+            // the file is streamed and deleted by the response writer
+            return createFileAttachmentResponse(netcdfFile, filename);
         } catch (IOException e) {
+            deleteTempDir(tempDir);
             throw new EncodingException("Couldn't create netCDF file", e);
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
+        } catch (EncodingException | RuntimeException e) {
+            deleteTempDir(tempDir);
+            throw e;
         }
     }
 
@@ -28,18 +28,11 @@
  */
 package org.n52.sos.encode;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,7 +42,6 @@ import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
 import org.n52.sos.netcdf.NetcdfConstants;
-import org.n52.sos.netcdf.data.dataset.AbstractSensorDataset;
 import org.n52.sos.netcdf.om.NetCDFObservation;
 import org.n52.svalbard.encode.EncoderKey;
 import org.n52.svalbard.encode.OperationResponseEncoderKey;
@@ -58,7 +50,6 @@ import org.n52.svalbard.encode.exception.EncodingException;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
-import com.google.common.io.Files;
 
 import ucar.nc2.NetcdfFileWriter.Version;
 
@@ -129,46 +120,7 @@ public class NetcdfZipEncoder extends AbstractBasicNetcdfEncoder {
     @Override
     protected BinaryAttachmentResponse encodeNetCDFObsToNetcdf(List<NetCDFObservation> netCDFObsList, Version version)
             throws EncodingException {
-        File tempDir = Files.createTempDir();
-
-        for (NetCDFObservation netCDFObs : netCDFObsList) {
-            for (AbstractSensorDataset sensorDataset : netCDFObs.getSensorDatasets()) {
-                try {
-                    File netcdfFile = new File(tempDir, getFilename(sensorDataset));
-                    encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-                } catch (IOException ex) {
-                    throw new EncodingException(ex);
-                }
-            }
-        }
-
-        BinaryAttachmentResponse response = null;
-        try (ByteArrayOutputStream zipBoas = createZip(tempDir)) {
-            response = new BinaryAttachmentResponse(zipBoas.toByteArray(), getContentType(),
-                    String.format(DOWNLOAD_FILENAME_FORMAT, makeDateSafe(new DateTime(DateTimeZone.UTC))));
-        } catch (IOException e) {
-            throw new EncodingException("Couldn't create netCDF zip file", e);
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
-        }
-
-        return response;
-    }
-
-    private static ByteArrayOutputStream createZip(File dirToZip) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        if (dirToZip != null) {
-            try (ZipOutputStream zipfile = new ZipOutputStream(bos)) {
-                File[] listFiles = dirToZip.listFiles();
-                if (listFiles != null) {
-                    for (File file : listFiles) {
-                        ZipEntry zipentry = new ZipEntry(file.getName());
-                        zipfile.putNextEntry(zipentry);
-                        zipfile.write(Files.toByteArray(file));
-                    }
-                }
-            }
-        }
-        return bos;
+        // the netCDF files are encoded and zipped while the response is written
+        return createZipAttachmentResponse(netCDFObsList, version, DOWNLOAD_FILENAME_FORMAT);
     }
 }
@@ -35,8 +35,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -144,17 +142,14 @@ public class OceanSITESEncoder extends AbstractOceanSITESEncoder {
         File tempDir = Files.createTempDir();
         String filename = getFilename(sensorDataset);
         File netcdfFile = new File(tempDir, filename);
-        encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-
-        BinaryAttachmentResponse response = null;
         try {
-            response = new BinaryAttachmentResponse(Files.toByteArray(netcdfFile), getContentType(),
-                    String.format(filename, makeDateSafe(new DateTime(DateTimeZone.UTC))));
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
+            encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
+        } catch (IOException | EncodingException | RuntimeException e) {
+            deleteTempDir(tempDir);
+            throw e;
         }
-
-        return response;
+        // the file is streamed and deleted by the response writer
+        return createFileAttachmentResponse(netcdfFile, filename);
     }
 
     private void throwTooManyFeatureTypesOrSensorsException(List<NetCDFObservation> netCDFObsList,
@@ -28,18 +28,12 @@
  */
 package org.n52.sos.encode;
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,7 +42,6 @@ import org.n52.shetland.ogc.sos.Sos1Constants;
 import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
 import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
-import org.n52.sos.netcdf.data.dataset.AbstractSensorDataset;
 import org.n52.sos.netcdf.oceansites.OceanSITESConstants;
 import org.n52.sos.netcdf.om.NetCDFObservation;
 import org.n52.svalbard.encode.EncoderKey;
@@ -58,7 +51,6 @@ import org.n52.svalbard.encode.exception.EncodingException;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
-import com.google.common.io.Files;
 
 import ucar.nc2.NetcdfFileWriter.Version;
 
@@ -128,42 +120,7 @@ public class OceanSITESZipEncoder extends AbstractOceanSITESEncoder {
     @Override
     protected BinaryAttachmentResponse encodeNetCDFObsToNetcdf(List<NetCDFObservation> netCDFObsList, Version version)
             throws EncodingException, IOException {
-        File tempDir = Files.createTempDir();
-
-        for (NetCDFObservation netCDFObs : netCDFObsList) {
-            for (AbstractSensorDataset sensorDataset : netCDFObs.getSensorDatasets()) {
-                File netcdfFile = new File(tempDir, getFilename(sensorDataset));
-                encodeSensorDataToNetcdf(netcdfFile, sensorDataset, version);
-            }
-        }
-
-        BinaryAttachmentResponse response = null;
-        try (ByteArrayOutputStream zipBoas = createZip(tempDir)) {
-            response =
-                    new BinaryAttachmentResponse(zipBoas.toByteArray(), getContentType(), String.format(
-                            DOWNLOAD_FILENAME_FORMAT, makeDateSafe(new DateTime(DateTimeZone.UTC))));
-        } finally {
-            LOGGER.debug("Temporary file deleted: {}", tempDir.delete());
-        }
-
-        return response;
+        // the netCDF files are encoded and zipped while the response is written
+        return createZipAttachmentResponse(netCDFObsList, version, DOWNLOAD_FILENAME_FORMAT);
     }
-
-    private static ByteArrayOutputStream createZip(File dirToZip) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        if (dirToZip != null) {
-            try (ZipOutputStream zipfile = new ZipOutputStream(bos)) {
-                File[] listFiles = dirToZip.listFiles();
-                if (listFiles != null) {
-                    for (File file : listFiles) {
-                        ZipEntry zipentry = new ZipEntry(file.getName());
-                        zipfile.putNextEntry(zipentry);
-                        zipfile.write(Files.toByteArray(file));
-                    }
-                }
-            }
-        }
-        return bos;
-    }
-
 }
@@ -34,6 +34,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -129,6 +130,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 /**
  * Class that transforms geometries in the requests to the stored EPSG code and
@@ -146,6 +148,8 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
 
     private static final int NOT_SET_EPSG = -1;
 
+    private static final ResponseTransformation NO_TRANSFORMATION = (request, response, target) -> response;
+
     private Set<String> northingNames = Collections.emptySet();
 
     private Set<String> eastingNames = Collections.emptySet();
@@ -156,6 +160,8 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
 
     private GeometryHandler geometryHandler;
 
+    private final Map<Class<?>, ResponseTransformation> responsePlans = Maps.newConcurrentMap();
+
     @Inject
     public void setProcedureDescriptionSettings(ProcedureDescriptionSettings procedureSettings) {
         this.procedureSettings = procedureSettings;
@@ -172,15 +178,23 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
      *
      * @param omObservation
      *            Response {@link OmObservation}
-     * @param targetCRS
-     *            Target EPSG code
-     * @param target3DCRS
-     *            Target 3D EPSG code
+     * @param target
+     *            Target EPSG codes
      * @throws OwsExceptionReport
      *             If the transformation fails
      */
-    private void checkResponseObservation(OmObservation omObservation, int targetCRS, int target3DCRS)
-            throws OwsExceptionReport {
+    private void checkResponseObservation(OmObservation omObservation, TargetCrs target) throws OwsExceptionReport {
+        int targetCRS = target.getCrs();
+        int target3DCRS = target.get3DCrs();
+        if (omObservation.getValue() instanceof AbstractStreaming) {
+            ((AbstractStreaming) omObservation.getValue()).add(OWSConstants.AdditionalRequestParams.crs,
+                    Lists.newArrayList(targetCRS, target3DCRS));
+        }
+        if (target.isNative()) {
+            // the geometries from the datasource are already in the storage
+            // EPSG codes
+            return;
+        }
         if (omObservation.getObservationConstellation().getFeatureOfInterest() instanceof AbstractSamplingFeature) {
             checkResponseGeometryOfSamplingFeature(
                     (AbstractSamplingFeature) omObservation.getObservationConstellation().getFeatureOfInterest(),
@@ -189,10 +203,7 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
         if (omObservation.isSetParameter()) {
             checkOmParameterForGeometry(omObservation.getParameter(), false);
         }
-        if (omObservation.getValue() instanceof AbstractStreaming) {
-            ((AbstractStreaming) omObservation.getValue()).add(OWSConstants.AdditionalRequestParams.crs,
-                    Lists.newArrayList(targetCRS, target3DCRS));
-        } else if (omObservation.getValue() instanceof MultiObservationValues) {
+        if (omObservation.getValue() instanceof MultiObservationValues) {
             if (((MultiObservationValues) omObservation.getValue()).getValue() instanceof TLVTValue) {
                 checkTLVTValueForGeometry((TLVTValue) ((MultiObservationValues) omObservation.getValue()).getValue(),
                         targetCRS);
@@ -262,20 +273,46 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
     @Override
     public OwsServiceResponse modifyResponse(OwsServiceRequest request, OwsServiceResponse response)
             throws OwsExceptionReport {
-        if (request instanceof GetFeatureOfInterestRequest && response instanceof GetFeatureOfInterestResponse) {
-            return modifyGetFeatureOfInterestResponse((GetFeatureOfInterestRequest) request,
-                    (GetFeatureOfInterestResponse) response);
-        } else if (request instanceof GetObservationRequest && response instanceof GetObservationResponse) {
-            return modifyGetObservationResponse((GetObservationRequest) request, (GetObservationResponse) response);
-        } else if (request instanceof GetObservationByIdRequest && response instanceof GetObservationByIdResponse) {
-            return modifyGetObservationByIdResponse((GetObservationByIdRequest) request,
-                    (GetObservationByIdResponse) response);
-        } else if (request instanceof GetCapabilitiesRequest && response instanceof GetCapabilitiesResponse) {
-            return modifyGetCapabilitiesResponse((GetCapabilitiesRequest) request, (GetCapabilitiesResponse) response);
-        } else if (request instanceof DescribeSensorRequest && response instanceof DescribeSensorResponse) {
-            return modifyDescribeSensorResponse((DescribeSensorRequest) request, (DescribeSensorResponse) response);
+        ResponseTransformation plan = responsePlans.computeIfAbsent(response.getClass(), this::createResponsePlan);
+        if (plan == NO_TRANSFORMATION) {
+            return response;
         }
-        return response;
+        return plan.transform(request, response, getTargetCrs(request));
+    }
+
+    /**
+     * Create the transformation plan for the response type. The plan is
+     * created once per response type and reused for all responses of this
+     * type.
+     *
+     * @param responseType
+     *            the response type
+     * @return the transformation plan
+     */
+    private ResponseTransformation createResponsePlan(Class<?> responseType) {
+        if (GetFeatureOfInterestResponse.class.isAssignableFrom(responseType)) {
+            return (request, response, target) -> request instanceof GetFeatureOfInterestRequest
+                    ? modifyGetFeatureOfInterestResponse((GetFeatureOfInterestResponse) response, target)
+                    : response;
+        } else if (GetObservationResponse.class.isAssignableFrom(responseType)) {
+            return (request, response, target) -> request instanceof GetObservationRequest
+                    ? modifyGetObservationResponse((GetObservationRequest) request,
+                            (GetObservationResponse) response, target)
+                    : response;
+        } else if (GetObservationByIdResponse.class.isAssignableFrom(responseType)) {
+            return (request, response, target) -> request instanceof GetObservationByIdRequest
+                    ? modifyGetObservationByIdResponse((GetObservationByIdResponse) response, target)
+                    : response;
+        } else if (GetCapabilitiesResponse.class.isAssignableFrom(responseType)) {
+            return (request, response, target) -> request instanceof GetCapabilitiesRequest
+                    ? modifyGetCapabilitiesResponse((GetCapabilitiesResponse) response, target)
+                    : response;
+        } else if (DescribeSensorResponse.class.isAssignableFrom(responseType)) {
+            return (request, response, target) -> request instanceof DescribeSensorRequest
+                    ? modifyDescribeSensorResponse((DescribeSensorResponse) response, target)
+                    : response;
+        }
+        return NO_TRANSFORMATION;
     }
 
     /**
@@ -365,17 +402,19 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
     /**
      * Modify the GetFeatureOfInterest response
      *
-     * @param request
-     *            the GetFeatureOfInterest request
      * @param response
      *            the GetFeatureOfInterest response
+     * @param target
+     *            the target EPSG codes
      * @return Modified the GetFeatureOfInterest response
      * @throws OwsExceptionReport
      *             If the transformation fails
      */
-    private OwsServiceResponse modifyGetFeatureOfInterestResponse(GetFeatureOfInterestRequest request,
-            GetFeatureOfInterestResponse response) throws OwsExceptionReport {
-        processAbstractFeature(response.getAbstractFeature(), getRequestedCrs(request), getRequested3DCrs(request));
+    private OwsServiceResponse modifyGetFeatureOfInterestResponse(GetFeatureOfInterestResponse response,
+            TargetCrs target) throws OwsExceptionReport {
+        if (!target.isNative()) {
+            processAbstractFeature(response.getAbstractFeature(), target.getCrs(), target.get3DCrs());
+        }
         return response;
     }
 
@@ -386,61 +425,60 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
      *            the GetObservation request
      * @param response
      *            the GetObservation response
+     * @param target
+     *            the target EPSG codes
      * @return Modified the GetObservation response
      * @throws OwsExceptionReport
      *             If the transformation fails
      */
     private OwsServiceResponse modifyGetObservationResponse(GetObservationRequest request,
-            GetObservationResponse response) throws OwsExceptionReport {
+            GetObservationResponse response, TargetCrs target) throws OwsExceptionReport {
         response.setResponseFormat(request.getResponseFormat());
-        int crs = getRequestedCrs(request);
-        int crs3D = getRequested3DCrs(request);
         response.setObservationCollection(
-                response.getObservationCollection().modify(o -> checkResponseObservation(o, crs, crs3D)));
+                response.getObservationCollection().modify(o -> checkResponseObservation(o, target)));
         return response;
     }
 
     /**
      * Modify the GetObservationById response
      *
-     * @param request
-     *            the GetObservationById request
      * @param response
      *            the GetObservationById response
+     * @param target
+     *            the target EPSG codes
      * @return Modified the GetObservationById response
      * @throws OwsExceptionReport
      *             If the transformation fails
      */
-    private OwsServiceResponse modifyGetObservationByIdResponse(GetObservationByIdRequest request,
-            GetObservationByIdResponse response) throws OwsExceptionReport {
-        int crs = getRequestedCrs(request);
-        int crs3D = getRequested3DCrs(request);
+    private OwsServiceResponse modifyGetObservationByIdResponse(GetObservationByIdResponse response,
+            TargetCrs target) throws OwsExceptionReport {
         response.setObservationCollection(
-                response.getObservationCollection().modify(o -> checkResponseObservation(o, crs, crs3D)));
+                response.getObservationCollection().modify(o -> checkResponseObservation(o, target)));
         return response;
     }
 
     /**
      * Modify the GetCapabilities response
      *
-     * @param request
-     *            the GetCapabilities request
      * @param response
      *            the GetCapabilities response
+     * @param target
+     *            the target EPSG codes
      * @return Modified the GetCapabilities response
      * @throws OwsExceptionReport
      *             If an error occurs
      */
-    private OwsServiceResponse modifyGetCapabilitiesResponse(GetCapabilitiesRequest request,
-            GetCapabilitiesResponse response) throws OwsExceptionReport {
+    private OwsServiceResponse modifyGetCapabilitiesResponse(GetCapabilitiesResponse response, TargetCrs target)
+            throws OwsExceptionReport {
         if (!response.isStatic() && response.getCapabilities() instanceof SosCapabilities
                 && ((SosCapabilities) response.getCapabilities()).getContents().isPresent()) {
             SosCapabilities sosCapabilities = (SosCapabilities) response.getCapabilities();
+            int targetSrid = target.getCrs();
             if (sosCapabilities.getContents().isPresent()) {
                 for (SosObservationOffering sosObservationOffering : sosCapabilities.getContents().get()) {
-                    if (sosObservationOffering.isSetObservedArea()) {
+                    if (sosObservationOffering.isSetObservedArea()
+                            && sosObservationOffering.getObservedArea().getSrid() != targetSrid) {
                         ReferencedEnvelope observedArea = sosObservationOffering.getObservedArea();
-                        int targetSrid = getRequestedCrs(request);
                         Envelope transformEnvelope = getGeomtryHandler().transformEnvelope(observedArea.getEnvelope(),
                                 observedArea.getSrid(), targetSrid);
                         observedArea.setEnvelope(transformEnvelope);
@@ -456,17 +494,19 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
     /**
      * Modify the DescribeSensor response
      *
-     * @param request
-     *            the DescribeSensor request
      * @param response
      *            the DescribeSensor response
+     * @param target
+     *            the target EPSG codes
      * @return Modified the DescribeSensor response
      * @throws OwsExceptionReport
      *             If the transformation fails
      */
-    private OwsServiceResponse modifyDescribeSensorResponse(DescribeSensorRequest request,
-            DescribeSensorResponse response) throws NumberFormatException, OwsExceptionReport {
-        int requestedCrs = getRequestedCrs(request);
+    private OwsServiceResponse modifyDescribeSensorResponse(DescribeSensorResponse response, TargetCrs target)
+            throws NumberFormatException, OwsExceptionReport {
+        // the positions define their own reference frames, so the native CRS
+        // can not be assumed
+        int requestedCrs = target.getCrs();
         if (response.isSetProcedureDescriptions()) {
             for (SosProcedureDescription<?> description : response.getProcedureDescriptions()) {
                 if (description.getProcedureDescription() instanceof AbstractSensorML) {
@@ -766,7 +806,8 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
      */
     private void checkRequestIfCrsIsSetAndSupported(OwsServiceRequest request) throws OwsExceptionReport {
         int crsFrom = getCrsFrom(request);
-        if (NOT_SET_EPSG != crsFrom) {
+        if (NOT_SET_EPSG != crsFrom && crsFrom != getGeomtryHandler().getStorageEPSG()
+                && crsFrom != getGeomtryHandler().getDefaultResponseEPSG()) {
             String requestedCrs = Integer.toString(crsFrom);
             if (!getGeomtryHandler().getSupportedCRS().contains(requestedCrs)) {
                 throw new InvalidParameterValueException(OWSConstants.AdditionalRequestParams.crs, requestedCrs);
@@ -805,20 +846,12 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
      * @return Requested, if set, or the default response EPSG code
      * @throws OwsExceptionReport If an error occurs
      */
-    private int getRequestedCrs(OwsServiceRequest request) throws OwsExceptionReport {
-        int crsFrom = getCrsFrom(request);
-        if (crsFrom != NOT_SET_EPSG) {
-            return crsFrom;
-        }
-        return getGeomtryHandler().getDefaultResponseEPSG();
-    }
-
-    private int getRequested3DCrs(OwsServiceRequest request) throws OwsExceptionReport {
+    private TargetCrs getTargetCrs(OwsServiceRequest request) throws OwsExceptionReport {
         int crsFrom = getCrsFrom(request);
-        if (crsFrom != NOT_SET_EPSG) {
-            return crsFrom;
-        }
-        return getGeomtryHandler().getDefaultResponse3DEPSG();
+        int crs = crsFrom != NOT_SET_EPSG ? crsFrom : getGeomtryHandler().getDefaultResponseEPSG();
+        int crs3D = crsFrom != NOT_SET_EPSG ? crsFrom : getGeomtryHandler().getDefaultResponse3DEPSG();
+        return new TargetCrs(crs, crs3D, crs == getGeomtryHandler().getStorageEPSG()
+                && crs3D == getGeomtryHandler().getStorage3DEPSG());
     }
 
     /**
@@ -939,8 +972,11 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
 
     private void checkMultiPointCoverageForGeometry(MultiPointCoverage value, int targetCRS)
             throws OwsExceptionReport {
-        for (PointValuePair pvp : value.getValue()) {
-            pvp.setPoint((Point) getGeomtryHandler().transform(pvp.getPoint(), targetCRS));
+        List<PointValuePair> pairs = Lists.newArrayList(value.getValue());
+        List<Geometry> transformed = getGeomtryHandler()
+                .transform(pairs.stream().map(PointValuePair::getPoint).collect(toList()), targetCRS);
+        for (int i = 0; i < pairs.size(); i++) {
+            pairs.get(i).setPoint((Point) transformed.get(i));
         }
     }
 
@@ -950,8 +986,11 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
     }
 
     private void checkTLVTValueForGeometry(TLVTValue value, int targetCRS) throws OwsExceptionReport {
-        for (TimeLocationValueTriple tlvt : value.getValue()) {
-            tlvt.setLocation(getGeomtryHandler().transform(tlvt.getLocation(), targetCRS));
+        List<TimeLocationValueTriple> triples = Lists.newArrayList(value.getValue());
+        List<Geometry> transformed = getGeomtryHandler()
+                .transform(triples.stream().map(TimeLocationValueTriple::getLocation).collect(toList()), targetCRS);
+        for (int i = 0; i < triples.size(); i++) {
+            triples.get(i).setLocation(transformed.get(i));
         }
     }
 
@@ -984,19 +1023,53 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
      */
     private void checkResponseGeometryOfSamplingFeature(AbstractSamplingFeature samplingFeature, int targetCRS,
             int target3DCRS) throws OwsExceptionReport {
-        if (samplingFeature.isSetGeometry()) {
-            if (Double.isNaN(samplingFeature.getGeometry().getCoordinate().z)) {
-                if (samplingFeature.getGeometry().getSRID() != targetCRS) {
-                    samplingFeature
-                            .setGeometry(getGeomtryHandler().transform(samplingFeature.getGeometry(), targetCRS));
-                }
-            } else {
-                if (samplingFeature.getGeometry().getSRID() != target3DCRS) {
-                    samplingFeature
-                            .setGeometry(getGeomtryHandler().transform(samplingFeature.getGeometry(), target3DCRS));
+        checkResponseGeometryOfSamplingFeatures(Collections.singletonList(samplingFeature), targetCRS, target3DCRS);
+    }
+
+    /**
+     * Check and transform the geometries of the {@link SamplingFeature}s to
+     * requested or default response EPSG code if necessary. The geometries are
+     * transformed together per target EPSG code.
+     *
+     * @param samplingFeatures
+     *            the {@link SamplingFeature}s
+     * @param targetCRS
+     *            Target EPSG code
+     * @param target3DCRS
+     *            Target 3D EPSG code
+     * @throws OwsExceptionReport
+     *             If the transformation fails
+     */
+    private void checkResponseGeometryOfSamplingFeatures(List<AbstractSamplingFeature> samplingFeatures,
+            int targetCRS, int target3DCRS) throws OwsExceptionReport {
+        List<AbstractSamplingFeature> features2D = Lists.newArrayList();
+        List<AbstractSamplingFeature> features3D = Lists.newArrayList();
+        for (AbstractSamplingFeature samplingFeature : samplingFeatures) {
+            if (samplingFeature.isSetGeometry()) {
+                if (Double.isNaN(samplingFeature.getGeometry().getCoordinate().z)) {
+                    features2D.add(samplingFeature);
+                } else {
+                    features3D.add(samplingFeature);
                 }
             }
         }
+        transformGeometryOfSamplingFeatures(features2D, targetCRS);
+        transformGeometryOfSamplingFeatures(features3D, target3DCRS);
+    }
+
+    private void transformGeometryOfSamplingFeatures(List<AbstractSamplingFeature> samplingFeatures, int targetCRS)
+            throws OwsExceptionReport {
+        if (samplingFeatures.isEmpty()) {
+            return;
+        }
+        List<Geometry> geometries =
+                samplingFeatures.stream().map(AbstractSamplingFeature::getGeometry).collect(toList());
+        List<Geometry> transformed = getGeomtryHandler().transform(geometries, targetCRS);
+        for (int i = 0; i < samplingFeatures.size(); i++) {
+            if (transformed.get(i) != geometries.get(i)) {
+                samplingFeatures.get(i).setGeometry(transformed.get(i));
+            }
+        }
     }
 
     /**
@@ -1015,12 +1088,13 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
         if (feature != null) {
             if (feature instanceof FeatureCollection) {
                 FeatureCollection featureCollection = (FeatureCollection) feature;
+                List<AbstractSamplingFeature> samplingFeatures = Lists.newArrayList();
                 for (AbstractFeature abstractFeature : featureCollection.getMembers().values()) {
                     if (abstractFeature instanceof AbstractSamplingFeature) {
-                        checkResponseGeometryOfSamplingFeature((AbstractSamplingFeature) abstractFeature, targetCRS,
-                                target3DCRS);
+                        samplingFeatures.add((AbstractSamplingFeature) abstractFeature);
                     }
                 }
+                checkResponseGeometryOfSamplingFeatures(samplingFeatures, targetCRS, target3DCRS);
             } else if (feature instanceof AbstractSamplingFeature) {
                 checkResponseGeometryOfSamplingFeature((AbstractSamplingFeature) feature, targetCRS, target3DCRS);
             }
@@ -1167,4 +1241,44 @@ public class CoordinateTransformator implements RequestResponseModifier, Constru
     public void init() {
     }
 
+    /**
+     * Transformation of a response type.
+     */
+    @FunctionalInterface
+    private interface ResponseTransformation {
+        OwsServiceResponse transform(OwsServiceRequest request, OwsServiceResponse response, TargetCrs target)
+                throws OwsExceptionReport;
+    }
+
+    /**
+     * The requested or default response EPSG codes of a request.
+     */
+    private static final class TargetCrs {
+        private final int crs;
+        private final int crs3D;
+        private final boolean nativeCrs;
+
+        TargetCrs(int crs, int crs3D, boolean nativeCrs) {
+            this.crs = crs;
+            this.crs3D = crs3D;
+            this.nativeCrs = nativeCrs;
+        }
+
+        int getCrs() {
+            return crs;
+        }
+
+        int get3DCrs() {
+            return crs3D;
+        }
+
+        /**
+         * @return <code>true</code>, if the target EPSG codes are the storage
+         *         EPSG codes, so that no transformation is required
+         */
+        boolean isNative() {
+            return nativeCrs;
+        }
+    }
+
 }
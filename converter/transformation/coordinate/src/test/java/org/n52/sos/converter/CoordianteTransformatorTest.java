@@ -29,15 +29,44 @@
 package org.n52.sos.converter;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
 
 import javax.naming.ConfigurationException;
 
+import org.junit.Before;
 import org.junit.Test;
-
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
 import org.n52.iceland.ds.ConnectionProviderException;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.ows.OWSConstants;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.request.GetFeatureOfInterestRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.response.GetFeatureOfInterestResponse;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
 import org.n52.shetland.ogc.swe.SweConstants.SweCoordinateNames;
+import org.n52.shetland.ogc.swes.SwesExtension;
+import org.n52.sos.util.GeometryHandler;
 
 /**
  * Test class for {@link CoordianteTransformator}
@@ -60,6 +89,26 @@ public class CoordianteTransformatorTest {
 
     private final String EPSG_PREFIX = "EPSG::";
 
+    private final int EPSG_3D = 4979;
+
+    private final GeometryHandler geometryHandler = mock(GeometryHandler.class);
+
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), EPSG);
+
+    private final Geometry transformed =
+            new GeometryFactory(new PrecisionModel(), TARGET_EPSG).createPoint(new Coordinate(3400000, 5800000));
+
+    @Before
+    public void setUp() throws OwsExceptionReport {
+        when(geometryHandler.getStorageEPSG()).thenReturn(EPSG);
+        when(geometryHandler.getStorage3DEPSG()).thenReturn(EPSG_3D);
+        when(geometryHandler.getDefaultResponseEPSG()).thenReturn(EPSG);
+        when(geometryHandler.getDefaultResponse3DEPSG()).thenReturn(EPSG_3D);
+        when(geometryHandler.transform(anyList(), eq(TARGET_EPSG)))
+                .thenReturn(Collections.singletonList(transformed));
+        transformer.setGeometryHandler(geometryHandler);
+    }
+
 //    @AfterClass
 //    public static void cleanUp() {
 //        SettingsServiceImpl.getInstance().cleanup();
@@ -144,4 +193,93 @@ public class CoordianteTransformatorTest {
         assertThat(transformer.checkEastingName("testEasting"), is(true));
     }
 
+    @Test
+    public void testModifyUnsupportedResponse() throws OwsExceptionReport {
+        OwsServiceResponse response = mock(OwsServiceResponse.class);
+        assertThat(transformer.modifyResponse(mock(OwsServiceRequest.class), response), is(sameInstance(response)));
+        assertThat(transformer.modifyResponse(mock(OwsServiceRequest.class), response), is(sameInstance(response)));
+        verifyNoInteractions(geometryHandler);
+    }
+
+    @Test
+    public void testModifyGetFeatureOfInterestResponseStorageCrs() throws OwsExceptionReport {
+        SamplingFeature feature = createFeature();
+        Geometry geometry = feature.getGeometry();
+        GetFeatureOfInterestResponse response = new GetFeatureOfInterestResponse();
+        response.setAbstractFeature(feature);
+        transformer.modifyResponse(new GetFeatureOfInterestRequest(), response);
+        assertThat(feature.getGeometry(), is(sameInstance(geometry)));
+        verify(geometryHandler, never()).transform(anyList(), anyInt());
+    }
+
+    @Test
+    public void testModifyGetFeatureOfInterestResponseRequestedCrs() throws OwsExceptionReport {
+        // the plan of the response type is reused for the second response
+        for (int i = 0; i < 2; i++) {
+            SamplingFeature feature = createFeature();
+            GetFeatureOfInterestResponse response = new GetFeatureOfInterestResponse();
+            response.setAbstractFeature(feature);
+            transformer.modifyResponse(withCrs(new GetFeatureOfInterestRequest()), response);
+            assertThat(feature.getGeometry(), is(sameInstance(transformed)));
+        }
+    }
+
+    @Test
+    public void testModifyGetFeatureOfInterestResponseOtherRequest() throws OwsExceptionReport {
+        SamplingFeature feature = createFeature();
+        Geometry geometry = feature.getGeometry();
+        GetFeatureOfInterestResponse response = new GetFeatureOfInterestResponse();
+        response.setAbstractFeature(feature);
+        assertThat(transformer.modifyResponse(withCrs(new GetObservationRequest()), response),
+                is(sameInstance(response)));
+        assertThat(feature.getGeometry(), is(sameInstance(geometry)));
+        verify(geometryHandler, never()).transform(anyList(), anyInt());
+    }
+
+    @Test
+    public void testModifyGetObservationResponseStorageCrs() throws OwsExceptionReport {
+        SamplingFeature feature = createFeature();
+        Geometry geometry = feature.getGeometry();
+        consume(transformer.modifyResponse(new GetObservationRequest(), createGetObservationResponse(feature)));
+        assertThat(feature.getGeometry(), is(sameInstance(geometry)));
+        verify(geometryHandler, never()).transform(anyList(), anyInt());
+    }
+
+    @Test
+    public void testModifyGetObservationResponseRequestedCrs() throws OwsExceptionReport {
+        SamplingFeature feature = createFeature();
+        consume(transformer.modifyResponse(withCrs(new GetObservationRequest()),
+                createGetObservationResponse(feature)));
+        assertThat(feature.getGeometry(), is(sameInstance(transformed)));
+    }
+
+    private SamplingFeature createFeature() throws OwsExceptionReport {
+        SamplingFeature feature = new SamplingFeature(new CodeWithAuthority("feature"));
+        feature.setGeometry(geometryFactory.createPoint(new Coordinate(52.0, 7.0)));
+        return feature;
+    }
+
+    private GetObservationResponse createGetObservationResponse(SamplingFeature feature) {
+        OmObservationConstellation constellation = new OmObservationConstellation();
+        constellation.setFeatureOfInterest(feature);
+        OmObservation observation = new OmObservation();
+        observation.setObservationConstellation(constellation);
+        GetObservationResponse response = new GetObservationResponse();
+        response.setObservationCollection(ObservationStream.of(Collections.singletonList(observation)));
+        return response;
+    }
+
+    private <T extends OwsServiceRequest> T withCrs(T request) {
+        request.addExtension(new SwesExtension<Integer>().setValue(TARGET_EPSG)
+                .setIdentifier(OWSConstants.AdditionalRequestParams.crs.name()));
+        return request;
+    }
+
+    private void consume(OwsServiceResponse response) throws OwsExceptionReport {
+        ObservationStream observations = ((GetObservationResponse) response).getObservationCollection();
+        while (observations.hasNext()) {
+            observations.next();
+        }
+    }
+
 }
@@ -42,6 +42,9 @@ import org.n52.janmayen.http.MediaType;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
 import org.n52.shetland.ogc.ows.service.ResponseFormat;
+import org.n52.sos.statistics.RequestStage;
+import org.n52.sos.statistics.RequestTimings;
+import org.n52.sos.statistics.StageTimer;
 import org.n52.svalbard.encode.Encoder;
 import org.n52.svalbard.encode.EncoderRepository;
 import org.n52.svalbard.encode.OperationResponseEncoderKey;
@@ -62,10 +65,19 @@ public class AbstractServiceResponseWriter extends AbstractResponseWriter<OwsSer
 
     private final ResponseWriterRepository responseWriterRepository;
 
+    private final RequestTimings requestTimings;
+
     public AbstractServiceResponseWriter(EncoderRepository encoderRepository,
                                          ResponseWriterRepository responseWriterRepository) {
+        this(encoderRepository, responseWriterRepository, null);
+    }
+
+    public AbstractServiceResponseWriter(EncoderRepository encoderRepository,
+                                         ResponseWriterRepository responseWriterRepository,
+                                         RequestTimings requestTimings) {
         super(encoderRepository);
         this.responseWriterRepository = responseWriterRepository;
+        this.requestTimings = requestTimings;
     }
 
 
@@ -78,22 +90,43 @@ public class AbstractServiceResponseWriter extends AbstractResponseWriter<OwsSer
             throws IOException, EncodingException {
         Encoder<Object, OwsServiceResponse> encoder = getEncoder(asr);
         if (encoder != null) {
+            long start = System.nanoTime();
             if (encoder instanceof StreamingEncoder) {
-                ((StreamingEncoder<?, OwsServiceResponse>) encoder).encode(asr, out);
+                // streamed observations are created while they are encoded
+                StageTimer timer = StageTimer.begin(asr.getOperationName());
+                try {
+                    ((StreamingEncoder<?, OwsServiceResponse>) encoder).encode(asr, out);
+                } finally {
+                    timer.end();
+                    if (requestTimings != null && timer.isTimed(RequestStage.OBSERVATION_CREATION)) {
+                        requestTimings.record(asr.getOperationName(), RequestStage.OBSERVATION_CREATION,
+                                timer.getDuration(RequestStage.OBSERVATION_CREATION));
+                    }
+                }
+                record(asr, RequestStage.ENCODING, start);
             } else {
                 // use encoded Object specific writer, e.g. XmlResponseWriter
                 Object encode = encoder.encode(asr);
+                record(asr, RequestStage.ENCODING, start);
                 if (encode != null) {
                     ResponseWriter<Object> writer = this.responseWriterRepository.getWriter(encode.getClass());
                     if (writer == null) {
                         throw new RuntimeException("no writer for " + encode.getClass() + " found!");
                     }
+                    start = System.nanoTime();
                     writer.write(encode, out, responseProxy);
+                    record(asr, RequestStage.WRITING, start);
                 }
             }
         }
     }
 
+    private void record(OwsServiceResponse asr, RequestStage stage, long start) {
+        if (requestTimings != null) {
+            requestTimings.record(asr.getOperationName(), stage, System.nanoTime() - start);
+        }
+    }
+
     @Override
     public boolean supportsGZip(OwsServiceResponse asr) {
         return !isStreaming(asr);
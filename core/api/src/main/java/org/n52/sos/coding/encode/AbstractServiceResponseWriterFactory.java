@@ -28,6 +28,8 @@
  */
 package org.n52.sos.coding.encode;
 
+import java.util.Optional;
+
 import javax.inject.Inject;
 
 import org.n52.iceland.coding.encode.ResponseWriter;
@@ -36,6 +38,7 @@ import org.n52.iceland.coding.encode.ResponseWriterKey;
 import org.n52.iceland.coding.encode.ResponseWriterRepository;
 import org.n52.janmayen.component.SingleTypeComponentFactory;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.sos.statistics.RequestTimings;
 import org.n52.svalbard.encode.EncoderRepository;
 
 /**
@@ -56,6 +59,7 @@ public class AbstractServiceResponseWriterFactory
 
     private ResponseWriterRepository responseWriterRepository;
     private EncoderRepository encoderRepository;
+    private RequestTimings requestTimings;
 
     @Inject
     public void setEncoderRepository(EncoderRepository encoderRepository) {
@@ -68,6 +72,11 @@ public class AbstractServiceResponseWriterFactory
         this.responseWriterRepository = responseWriterRepository;
     }
 
+    @Inject
+    public void setRequestTimings(Optional<RequestTimings> requestTimings) {
+        this.requestTimings = requestTimings.orElse(null);
+    }
+
     @Override
     public ResponseWriterKey getKey() {
         return RESPONSE_WRITER_KEY;
@@ -76,6 +85,7 @@ public class AbstractServiceResponseWriterFactory
     @Override
     public AbstractServiceResponseWriter create() {
         return new AbstractServiceResponseWriter(this.encoderRepository,
-                                                 this.responseWriterRepository);
+                                                 this.responseWriterRepository,
+                                                 this.requestTimings);
     }
 }
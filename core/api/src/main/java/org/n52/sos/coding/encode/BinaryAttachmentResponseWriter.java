@@ -69,12 +69,45 @@ public class BinaryAttachmentResponseWriter extends AbstractResponseWriter<Binar
             return;
         }
 
+        if (response instanceof FileAttachmentResponse) {
+            write((FileAttachmentResponse) response, out, responseProxy);
+            return;
+        } else if (response instanceof ZipAttachmentResponse) {
+            //the size is unknown before the entries are written
+            addHeaders(response, responseProxy);
+            ((ZipAttachmentResponse) response).writeTo(out);
+            return;
+        }
+
         byte[] bytes = response.getBytes();
 
         if (!(out instanceof GZIPOutputStream)) {
             responseProxy.setContentLength(bytes.length);
         }
 
+        addHeaders(response, responseProxy);
+
+        //write output now that headers and content length are in place
+        out.write(bytes);
+
+    }
+
+    private void write(FileAttachmentResponse response, OutputStream out, ResponseProxy responseProxy)
+            throws IOException {
+        try {
+            long size = response.getSize();
+            if (!(out instanceof GZIPOutputStream) && size <= Integer.MAX_VALUE) {
+                responseProxy.setContentLength((int) size);
+            }
+            addHeaders(response, responseProxy);
+            //stream the file instead of loading it into memory
+            response.writeTo(out);
+        } finally {
+            response.delete();
+        }
+    }
+
+    private void addHeaders(BinaryAttachmentResponse response, ResponseProxy responseProxy) {
         //binary
         responseProxy.addHeader(HeaderCode.CONTENT_TRANSFER_ENCODING,
                                 HeaderCode.CONTENT_TRANSFER_ENCODING_BINARY);
@@ -86,10 +119,6 @@ public class BinaryAttachmentResponseWriter extends AbstractResponseWriter<Binar
             String value = String.format(HeaderCode.CONTENT_ATTACHMENT_FILENAME_FORMAT, fileName);
             responseProxy.addHeader(HeaderCode.CONTENT_DISPOSITION, value);
         }
-
-        //write output now that headers and content length are in place
-        out.write(bytes);
-
     }
 
     @Override
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.n52.janmayen.http.MediaType;
+import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link BinaryAttachmentResponse} backed by a (temporary) file. The content
+ * is streamed from the file by the {@link BinaryAttachmentResponseWriter}
+ * instead of being held in memory. The file, and its parent directory if
+ * empty, is deleted after it has been written or read by
+ * {@link #getBytes()}. Consumers that use neither should {@link #close()} the
+ * response.
+ *
+ * @since 5.2.3
+ */
+public class FileAttachmentResponse extends BinaryAttachmentResponse implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileAttachmentResponse.class);
+
+    private final Path file;
+
+    private byte[] bytes;
+
+    public FileAttachmentResponse(Path file, MediaType contentType, String filename) {
+        super(new byte[0], contentType, filename);
+        this.file = file;
+    }
+
+    /**
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     * @throws IOException
+     *             if the size could not be read
+     */
+    public synchronized long getSize() throws IOException {
+        if (bytes != null) {
+            return bytes.length;
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * Reads the whole file and deletes it. Prefer
+     * {@link #writeTo(OutputStream)}.
+     */
+    @Override
+    public synchronized byte[] getBytes() {
+        if (bytes == null) {
+            try {
+                bytes = Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deleteQuietly();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Copy the file content to the stream and delete the file.
+     *
+     * @param out
+     *            the stream
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        if (bytes != null) {
+            out.write(bytes);
+            return;
+        }
+        try {
+            Files.copy(file, out);
+        } finally {
+            delete();
+        }
+    }
+
+    /**
+     * Delete the file if it has not been consumed.
+     *
+     * @throws IOException
+     *             if the file could not be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        delete();
+    }
+
+    /**
+     * Delete the file and its parent directory if it is empty.
+     *
+     * @throws IOException
+     *             if the file could not be deleted
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+        Path parent = file.getParent();
+        if (parent != null) {
+            try {
+                Files.deleteIfExists(parent);
+            } catch (DirectoryNotEmptyException e) {
+                // keep directories which are still in use
+            }
+        }
+    }
+
+    private void deleteQuietly() {
+        try {
+            delete();
+        } catch (IOException e) {
+            LOGGER.warn("Error while deleting {}", file, e);
+        }
+    }
+}
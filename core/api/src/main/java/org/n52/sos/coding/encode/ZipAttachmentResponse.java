@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.n52.janmayen.http.MediaType;
+import org.n52.shetland.ogc.sos.response.BinaryAttachmentResponse;
+
+/**
+ * {@link BinaryAttachmentResponse} whose ZIP content is created while it is
+ * written. Each entry is produced into a temporary file just before it is
+ * needed, copied to the output as ZIP entry and deleted, so neither the
+ * uncompressed nor the compressed payload is held in memory.
+ *
+ * The first entry can be {@link #prepare() prepared} before the response is
+ * committed, so that errors can still be reported to the client. If a later
+ * entry fails, the ZIP is not finished and the error is propagated to abort
+ * the response instead of delivering an incomplete archive.
+ *
+ * With a parallelism greater than one and an executor, up to this number of
+ * entries are prepared concurrently ahead of the entry currently written. The
+ * executor is shared between responses and owned by the caller.
+ *
+ * @since 5.2.3
+ */
+public class ZipAttachmentResponse extends BinaryAttachmentResponse {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZipAttachmentResponse.class);
+
+    private static final String TEMP_DIR_PREFIX = "52n-sos-zip";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final List<Entry> entries;
+
+    private final int compressionLevel;
+
+    private final int parallelism;
+
+    private final ExecutorService executor;
+
+    private Path tempDir;
+
+    private PreparedEntry first;
+
+    /**
+     * @param entries
+     *            the entries of the ZIP
+     * @param contentType
+     *            the content type
+     * @param filename
+     *            the filename of the attachment
+     * @param compressionLevel
+     *            the compression level, {@code 0} to store the entries
+     *            uncompressed or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param parallelism
+     *            the number of entries prepared concurrently
+     * @param executor
+     *            the executor to prepare the entries concurrently, may be
+     *            {@code null} to prepare them sequentially
+     */
+    public ZipAttachmentResponse(List<Entry> entries, MediaType contentType, String filename, int compressionLevel,
+            int parallelism, ExecutorService executor) {
+        super(new byte[0], contentType, filename);
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        this.entries = entries == null ? Collections.emptyList() : entries;
+        this.compressionLevel = compressionLevel;
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = executor;
+    }
+
+    /**
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * @return the number of entries prepared concurrently
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Creates the whole ZIP in memory. Prefer {@link #writeTo(OutputStream)}.
+     */
+    @Override
+    public byte[] getBytes() {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writeTo(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prepare the first entry before anything is written. Calling this method
+     * more than once has no effect.
+     *
+     * @throws IOException
+     *             if the first entry could not be created
+     */
+    public synchronized void prepare() throws IOException {
+        if (tempDir != null) {
+            return;
+        }
+        tempDir = Files.createTempDirectory(TEMP_DIR_PREFIX);
+        try {
+            if (!entries.isEmpty()) {
+                first = prepare(entries.get(0), tempDir.resolve("0"));
+            }
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Write the ZIP to the stream. The stream is not closed. If an entry
+     * fails, the ZIP is left unfinished.
+     *
+     * @param out
+     *            the stream
+     * @throws IOException
+     *             if an entry could not be created or written
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        prepare();
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            if (isStoreOnly()) {
+                zip.setMethod(ZipOutputStream.STORED);
+            } else {
+                zip.setLevel(compressionLevel);
+            }
+            if (first != null) {
+                PreparedEntry entry = first;
+                first = null;
+                writeEntry(zip, entry);
+            }
+            if (executor != null && parallelism > 1 && entries.size() > 2) {
+                writeParallel(zip, tempDir);
+            } else {
+                writeSequential(zip, tempDir);
+            }
+            // finish instead of close to leave the underlying stream open
+            zip.finish();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        deleteDirectory(tempDir);
+        tempDir = null;
+        first = null;
+    }
+
+    private void writeSequential(ZipOutputStream zip, Path dir) throws IOException {
+        for (int index = 1; index < entries.size(); index++) {
+            writeEntry(zip, prepare(entries.get(index), dir.resolve(Integer.toString(index))));
+        }
+    }
+
+    private void writeParallel(ZipOutputStream zip, Path dir) throws IOException {
+        Deque<Future<PreparedEntry>> pending = new ArrayDeque<>(parallelism);
+        AtomicBoolean aborted = new AtomicBoolean();
+        int index = 1;
+        try {
+            while (index < entries.size() || !pending.isEmpty()) {
+                // keep at most parallelism entries ahead of the writer
+                while (index < entries.size() && pending.size() < parallelism) {
+                    pending.add(submit(entries.get(index), dir.resolve(Integer.toString(index++)), aborted));
+                }
+                writeEntry(zip, get(pending.poll()));
+            }
+        } catch (IOException | RuntimeException e) {
+            aborted.set(true);
+            pending.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private Future<PreparedEntry> submit(Entry entry, Path file, AtomicBoolean aborted) throws IOException {
+        try {
+            return executor.submit(() -> prepare(entry, file, aborted));
+        } catch (RejectedExecutionException e) {
+            // the shared executor was shut down, continue without it
+            LOGGER.debug("ZIP entry preparation rejected, preparing {} sequentially", entry.getName(), e);
+            return CompletableFuture.completedFuture(prepare(entry, file));
+        }
+    }
+
+    private PreparedEntry get(Future<PreparedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while preparing ZIP entry", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error while preparing ZIP entry", e.getCause());
+        }
+    }
+
+    private PreparedEntry prepare(Entry entry, Path file, AtomicBoolean aborted) throws IOException {
+        if (aborted.get()) {
+            throw new InterruptedIOException("ZIP creation aborted");
+        }
+        try {
+            return prepare(entry, file);
+        } finally {
+            if (aborted.get()) {
+                // the writer may have already deleted the temporary directory
+                deleteDirectory(file.getParent());
+            }
+        }
+    }
+
+    private PreparedEntry prepare(Entry entry, Path file) throws IOException {
+        entry.getWriter().write(file);
+        ZipEntry zipEntry = new ZipEntry(entry.getName());
+        if (isStoreOnly()) {
+            // stored entries require size and checksum in advance
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            long size = Files.size(file);
+            zipEntry.setSize(size);
+            zipEntry.setCompressedSize(size);
+            zipEntry.setCrc(crc.getValue());
+        }
+        return new PreparedEntry(zipEntry, file);
+    }
+
+    private void writeEntry(ZipOutputStream zip, PreparedEntry entry) throws IOException {
+        try {
+            zip.putNextEntry(entry.getZipEntry());
+            Files.copy(entry.getFile(), zip);
+            zip.closeEntry();
+            LOGGER.trace("ZIP entry written: {}", entry.getZipEntry().getName());
+        } finally {
+            Files.deleteIfExists(entry.getFile());
+        }
+    }
+
+    private boolean isStoreOnly() {
+        return compressionLevel == Deflater.NO_COMPRESSION;
+    }
+
+    private static void deleteDirectory(Path dir) {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOGGER.debug("Temporary file not deleted: {}", file, e);
+                }
+            });
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            LOGGER.debug("Temporary directory not deleted: {}", dir, e);
+        }
+    }
+
+    /**
+     * Producer of the content of a ZIP entry.
+     */
+    @FunctionalInterface
+    public interface EntryWriter {
+        /**
+         * Write the entry content to the file.
+         *
+         * @param file
+         *            the (not yet existing) file
+         * @throws IOException
+         *             if the content could not be written
+         */
+        void write(Path file) throws IOException;
+    }
+
+    /**
+     * A named ZIP entry.
+     */
+    public static class Entry {
+        private final String name;
+
+        private final EntryWriter writer;
+
+        public Entry(String name, EntryWriter writer) {
+            this.name = name;
+            this.writer = writer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public EntryWriter getWriter() {
+            return writer;
+        }
+    }
+
+    private static class PreparedEntry {
+        private final ZipEntry zipEntry;
+
+        private final Path file;
+
+        PreparedEntry(ZipEntry zipEntry, Path file) {
+            this.zipEntry = zipEntry;
+            this.file = file;
+        }
+
+        ZipEntry getZipEntry() {
+            return zipEntry;
+        }
+
+        Path getFile() {
+            return file;
+        }
+    }
+}
@@ -28,11 +28,23 @@
  */
 package org.n52.sos.ds;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.inject.Inject;
 
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.exception.ows.concrete.InvalidAcceptVersionsParameterException;
 import org.n52.iceland.exception.ows.concrete.InvalidServiceOrVersionException;
 import org.n52.iceland.exception.ows.concrete.InvalidServiceParameterException;
@@ -40,20 +52,44 @@ import org.n52.iceland.exception.ows.concrete.VersionNotSupportedException;
 import org.n52.iceland.service.operator.ServiceOperator;
 import org.n52.iceland.service.operator.ServiceOperatorRepository;
 import org.n52.janmayen.Comparables;
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.shetland.ogc.om.OmObservation;
 import org.n52.shetland.ogc.ows.exception.CompositeOwsException;
 import org.n52.shetland.ogc.ows.exception.MissingServiceParameterException;
 import org.n52.shetland.ogc.ows.exception.MissingVersionParameterException;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.GetCapabilitiesRequest;
 import org.n52.shetland.ogc.ows.service.OwsServiceKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
 import org.n52.shetland.ogc.sos.BatchConstants;
+import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityConstants;
 import org.n52.shetland.ogc.sos.request.BatchRequest;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
 import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.shetland.ogc.sos.response.InsertObservationResponse;
+import org.n52.sos.request.MergedInsertObservationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
 
 /**
- * TODO JavaDoc
+ * Executes the requests of a Batch request.
+ *
+ * By default the requests are executed sequentially. If the
+ * {@link BatchSettings#BATCH_PARALLELISM parallelism} is greater than one,
+ * consecutive read-only requests are executed concurrently. If
+ * {@link BatchSettings#BATCH_MERGE_INSERT_OBSERVATIONS enabled}, consecutive
+ * InsertObservation requests for the same offerings are merged and inserted in
+ * one transaction. If any observation of the merged requests is rejected,
+ * nothing is inserted and the requests are executed one by one, so that the
+ * results are the same as for sequential execution. Requests are never
+ * reordered, so a request always sees the changes of the preceding requests.
  *
  * Renamed, in version 4.x called BatchOperationDAO
  *
@@ -61,10 +97,27 @@ import org.n52.shetland.ogc.sos.response.BatchResponse;
  *
  * @since 5.0.0
  */
-public class BatchOperationHandler extends AbstractSosOperationHandler {
+@Configurable
+public class BatchOperationHandler extends AbstractSosOperationHandler implements Destroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchOperationHandler.class);
+
+    private static final Set<String> READ_ONLY_OPERATIONS = ImmutableSet.of(
+            SosConstants.Operations.GetCapabilities.name(),
+            SosConstants.Operations.DescribeSensor.name(),
+            SosConstants.Operations.GetObservation.name(),
+            SosConstants.Operations.GetObservationById.name(),
+            SosConstants.Operations.GetFeatureOfInterest.name(),
+            SosConstants.Operations.GetResult.name(),
+            Sos2Constants.Operations.GetResultTemplate.name(),
+            GetDataAvailabilityConstants.OPERATION_NAME);
 
     private ServiceOperatorRepository serviceOperatorRepository;
 
+    private boolean mergeInsertObservations;
+
+    private ExecutorService executor;
+
     public BatchOperationHandler() {
         super(SosConstants.SOS, BatchConstants.OPERATION_NAME);
     }
@@ -74,21 +127,219 @@ public class BatchOperationHandler extends AbstractSosOperationHandler {
         this.serviceOperatorRepository = serviceOperatorRepository;
     }
 
+    @Setting(BatchSettings.BATCH_PARALLELISM)
+    public synchronized void setParallelism(int parallelism) {
+        Validation.greaterZero("Batch parallelism", parallelism);
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        this.executor = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, new GroupedAndNamedThreadFactory("52n-batch"))
+                : null;
+    }
+
+    @Setting(BatchSettings.BATCH_MERGE_INSERT_OBSERVATIONS)
+    public void setMergeInsertObservations(boolean mergeInsertObservations) {
+        this.mergeInsertObservations = mergeInsertObservations;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        return this.executor;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
     public BatchResponse executeRequests(BatchRequest request) throws OwsExceptionReport {
         BatchResponse response = new BatchResponse();
         response.setService(request.getService());
         response.setVersion(request.getVersion());
-        for (OwsServiceRequest r : request) {
+        List<OwsServiceRequest> requests = new ArrayList<>();
+        request.forEach(requests::add);
+        ExecutorService pool = getExecutor();
+        int i = 0;
+        while (i < requests.size()) {
+            List<OwsServiceRequest> group = nextGroup(requests, i, pool != null);
+            i += group.size();
+            boolean success;
+            if (group.size() == 1) {
+                success = execute(group.get(0), request, response);
+            } else if (group.get(0) instanceof InsertObservationRequest) {
+                success = executeMerged(group, request, response);
+            } else {
+                success = executeConcurrently(group, pool, request, response);
+            }
+            if (!success && request.isStopAtFailure()) {
+                break;
+            }
+        }
+        return response;
+    }
+
+    private List<OwsServiceRequest> nextGroup(List<OwsServiceRequest> requests, int from, boolean parallel) {
+        OwsServiceRequest first = requests.get(from);
+        int to = from + 1;
+        if (parallel && isReadOnly(first)) {
+            while (to < requests.size() && isReadOnly(requests.get(to))) {
+                to++;
+            }
+        } else if (mergeInsertObservations && first instanceof InsertObservationRequest) {
+            while (to < requests.size() && isMergeable((InsertObservationRequest) first, requests.get(to))) {
+                to++;
+            }
+        }
+        return requests.subList(from, to);
+    }
+
+    protected boolean isReadOnly(OwsServiceRequest request) {
+        return READ_ONLY_OPERATIONS.contains(request.getOperationName());
+    }
+
+    /**
+     * Checks if the request can be inserted in the same transaction as the
+     * first request. Requests with extensions are never merged, as they may
+     * change the processing of the request.
+     *
+     * @param first
+     *            the first request of the group
+     * @param request
+     *            the request
+     * @return if the request can be merged
+     */
+    protected boolean isMergeable(InsertObservationRequest first, OwsServiceRequest request) {
+        if (!(request instanceof InsertObservationRequest)) {
+            return false;
+        }
+        InsertObservationRequest other = (InsertObservationRequest) request;
+        return Objects.equals(first.getService(), other.getService())
+                && Objects.equals(first.getVersion(), other.getVersion())
+                && Objects.equals(first.getAssignedSensorId(), other.getAssignedSensorId())
+                && Objects.equals(toSet(first.getOfferings()), toSet(other.getOfferings()))
+                && !hasExtensions(first) && !hasExtensions(other);
+    }
+
+    private boolean execute(OwsServiceRequest r, BatchRequest request, BatchResponse response)
+            throws OwsExceptionReport {
+        try {
+            response.add(receiveRequest(r));
+            return true;
+        } catch (OwsExceptionReport e) {
+            response.add(setVersion(e, r, request));
+            return false;
+        }
+    }
+
+    private boolean executeConcurrently(List<OwsServiceRequest> requests, ExecutorService pool,
+            BatchRequest request, BatchResponse response) throws OwsExceptionReport {
+        List<FutureTask<OwsServiceResponse>> tasks = new ArrayList<>(requests.size());
+        for (OwsServiceRequest r : requests) {
+            FutureTask<OwsServiceResponse> task = new FutureTask<>(() -> receiveRequest(r));
+            tasks.add(task);
             try {
-                response.add(getServiceOperator(r).receiveRequest(r));
-            } catch (OwsExceptionReport e) {
-                response.add(e.setVersion(r.getVersion() != null ? r.getVersion() : request.getVersion()));
-                if (request.isStopAtFailure()) {
+                pool.execute(task);
+            } catch (RejectedExecutionException e) {
+                // the executor was replaced by a changed setting
+                task.run();
+            }
+        }
+        boolean success = true;
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    response.add(tasks.get(i).get());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof OwsExceptionReport)) {
+                        throw new NoApplicableCodeException().causedBy(e.getCause())
+                                .withMessage("Error while executing the batch request %d", i);
+                    }
+                    response.add(setVersion((OwsExceptionReport) e.getCause(), requests.get(i), request));
+                    success = false;
+                    if (request.isStopAtFailure()) {
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NoApplicableCodeException().causedBy(e)
+                    .withMessage("Interrupted while executing the batch requests");
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+        return success;
+    }
+
+    private boolean executeMerged(List<OwsServiceRequest> requests, BatchRequest request, BatchResponse response)
+            throws OwsExceptionReport {
+        InsertObservationRequest first = (InsertObservationRequest) requests.get(0);
+        MergedInsertObservationRequest merged = new MergedInsertObservationRequest();
+        merged.setService(first.getService());
+        merged.setVersion(first.getVersion());
+        merged.setRequestContext(first.getRequestContext());
+        if (first.getAssignedSensorId() != null) {
+            merged.setAssignedSensorId(first.getAssignedSensorId());
+        }
+        if (first.getOfferings() != null) {
+            merged.setOfferings(new ArrayList<>(first.getOfferings()));
+        }
+        List<OmObservation> observations = new ArrayList<>();
+        for (OwsServiceRequest r : requests) {
+            observations.addAll(((InsertObservationRequest) r).getObservations());
+        }
+        merged.setObservation(observations);
+        try {
+            receiveRequest(merged);
+        } catch (OwsExceptionReport e) {
+            // nothing was inserted, execute the requests one by one to report
+            // the failures for the failing requests
+            LOG.debug("Merged insertion of {} requests failed, executing them sequentially", requests.size(), e);
+            boolean success = true;
+            for (OwsServiceRequest r : requests) {
+                success &= execute(r, request, response);
+                if (!success && request.isStopAtFailure()) {
                     break;
                 }
             }
+            return success;
         }
-        return response;
+        for (OwsServiceRequest r : requests) {
+            InsertObservationResponse insertObservationResponse = new InsertObservationResponse();
+            insertObservationResponse.setService(r.getService());
+            insertObservationResponse.setVersion(r.getVersion());
+            response.add(insertObservationResponse);
+        }
+        return true;
+    }
+
+    private static OwsExceptionReport setVersion(OwsExceptionReport e, OwsServiceRequest r, BatchRequest request) {
+        return e.setVersion(r.getVersion() != null ? r.getVersion() : request.getVersion());
+    }
+
+    private static boolean hasExtensions(OwsServiceRequest request) {
+        return request.getExtensions() != null && request.getExtensions().getExtensions() != null
+                && !request.getExtensions().getExtensions().isEmpty();
+    }
+
+    private static Set<String> toSet(Collection<String> values) {
+        return values == null ? null : new HashSet<>(values);
+    }
+
+    /**
+     * Execute a single request of the batch.
+     *
+     * @param request
+     *            the request
+     * @return the response
+     * @throws OwsExceptionReport
+     *             if the request fails
+     */
+    protected OwsServiceResponse receiveRequest(OwsServiceRequest request) throws OwsExceptionReport {
+        return getServiceOperator(request).receiveRequest(request);
     }
 
     protected ServiceOperator getServiceOperator(OwsServiceRequest request) throws OwsExceptionReport {
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+/**
+ * Immutable snapshot of the usage of a database connection pool.
+ *
+ * @since 5.2.3
+ */
+public class ConnectionPoolStatistics {
+
+    private final String poolName;
+
+    private final int active;
+
+    private final int idle;
+
+    private final int total;
+
+    private final int maximum;
+
+    private final int waiting;
+
+    private final long acquired;
+
+    private final long timeouts;
+
+    private final double acquireTimeMean;
+
+    private final double acquireTimeMax;
+
+    public ConnectionPoolStatistics(String poolName, int active, int idle, int total, int maximum, int waiting,
+            long acquired, long timeouts, double acquireTimeMean, double acquireTimeMax) {
+        this.poolName = poolName;
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maximum = maximum;
+        this.waiting = waiting;
+        this.acquired = acquired;
+        this.timeouts = timeouts;
+        this.acquireTimeMean = acquireTimeMean;
+        this.acquireTimeMax = acquireTimeMax;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * @return the number of connections in use
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return the number of connections waiting in the pool
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return the number of open connections
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the maximum size of the pool
+     */
+    public int getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * @return the number of threads waiting for a connection
+     */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * @return the number of connections handed out since the pool was started
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * @return the number of failed acquisitions because of a timeout
+     */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return the mean time in milliseconds to acquire a connection
+     */
+    public double getAcquireTimeMean() {
+        return acquireTimeMean;
+    }
+
+    /**
+     * @return the maximum time in milliseconds to acquire a connection
+     */
+    public double getAcquireTimeMax() {
+        return acquireTimeMax;
+    }
+}
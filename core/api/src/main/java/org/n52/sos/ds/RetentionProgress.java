@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import org.joda.time.DateTime;
+
+/**
+ * Immutable snapshot of the progress of a {@link RetentionPurgeHandler} run.
+ *
+ * @since 5.2.3
+ */
+public class RetentionProgress {
+
+    /**
+     * The state of a purge.
+     */
+    public enum State {
+        IDLE, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final State state;
+
+    private final DateTime start;
+
+    private final DateTime end;
+
+    private final long chunks;
+
+    private final long deleted;
+
+    private final long lastId;
+
+    private final long maxId;
+
+    private final String message;
+
+    public RetentionProgress(State state, DateTime start, DateTime end, long chunks, long deleted, long lastId,
+            long maxId, String message) {
+        this.state = state;
+        this.start = start;
+        this.end = end;
+        this.chunks = chunks;
+        this.deleted = deleted;
+        this.lastId = lastId;
+        this.maxId = maxId;
+        this.message = message;
+    }
+
+    public static RetentionProgress idle() {
+        return new RetentionProgress(State.IDLE, null, null, 0, 0, 0, 0, null);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public DateTime getStart() {
+        return start;
+    }
+
+    public DateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the number of processed chunks
+     */
+    public long getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return the number of physically deleted observations
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return the upper bound of the last purged identifier range
+     */
+    public long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * @return the highest observation identifier of this purge
+     */
+    public long getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @return the error message of a failed purge
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public RetentionProgress withChunk(long chunkLastId, long chunkDeleted) {
+        return new RetentionProgress(state, start, end, chunks + 1, deleted + chunkDeleted, chunkLastId, maxId,
+                message);
+    }
+
+    public RetentionProgress finish(State finalState, String finalMessage) {
+        return new RetentionProgress(finalState, start, DateTime.now(), chunks, deleted, lastId, maxId,
+                finalMessage);
+    }
+}
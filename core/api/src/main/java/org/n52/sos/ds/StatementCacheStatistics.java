@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+/**
+ * Immutable snapshot of the statement and query plan cache usage of the
+ * datasource.
+ *
+ * @since 5.2.3
+ */
+public class StatementCacheStatistics {
+
+    private final long queryPlanCacheHits;
+
+    private final long queryPlanCacheMisses;
+
+    private final long preparedStatements;
+
+    private final long queryExecutions;
+
+    private final long entityLoads;
+
+    public StatementCacheStatistics(long queryPlanCacheHits, long queryPlanCacheMisses, long preparedStatements,
+            long queryExecutions, long entityLoads) {
+        this.queryPlanCacheHits = queryPlanCacheHits;
+        this.queryPlanCacheMisses = queryPlanCacheMisses;
+        this.preparedStatements = preparedStatements;
+        this.queryExecutions = queryExecutions;
+        this.entityLoads = entityLoads;
+    }
+
+    public long getQueryPlanCacheHits() {
+        return queryPlanCacheHits;
+    }
+
+    public long getQueryPlanCacheMisses() {
+        return queryPlanCacheMisses;
+    }
+
+    /**
+     * @return the ratio of query plan cache hits to lookups, or {@code 0} if
+     *         no query was planned yet
+     */
+    public double getQueryPlanCacheHitRate() {
+        long lookups = queryPlanCacheHits + queryPlanCacheMisses;
+        return lookups == 0 ? 0 : (double) queryPlanCacheHits / lookups;
+    }
+
+    /**
+     * @return the number of JDBC statements prepared by the application, each
+     *         of them is a lookup in the prepared statement cache
+     */
+    public long getPreparedStatements() {
+        return preparedStatements;
+    }
+
+    public long getQueryExecutions() {
+        return queryExecutions;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+}
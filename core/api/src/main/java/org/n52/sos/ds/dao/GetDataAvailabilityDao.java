@@ -28,6 +28,7 @@
  */
 package org.n52.sos.ds.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -55,4 +56,44 @@ public interface GetDataAvailabilityDao extends DefaultDao {
     Map<String, NamedValue<?>> getMetadata(DataAvailability dataAvailability, Object connection)
             throws OwsExceptionReport;
 
+    /**
+     * Set the result times of all {@link DataAvailability}s. Implementations
+     * should query the result times of several {@link DataAvailability}s at
+     * once instead of one query per {@link DataAvailability}.
+     *
+     * @param dataAvailabilities
+     *            the {@link DataAvailability}s to set the result times for
+     * @param request
+     *            the request
+     * @param connection
+     *            the connection to use
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     * @since 5.2.3
+     */
+    default void setResultTimes(Collection<DataAvailability> dataAvailabilities, GetDataAvailabilityRequest request,
+            Object connection) throws OwsExceptionReport {
+        for (DataAvailability dataAvailability : dataAvailabilities) {
+            dataAvailability.setResultTimes(getResultTimes(dataAvailability, request, connection));
+        }
+    }
+
+    /**
+     * Set the metadata of all {@link DataAvailability}s.
+     *
+     * @param dataAvailabilities
+     *            the {@link DataAvailability}s to set the metadata for
+     * @param connection
+     *            the connection to use
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     * @since 5.2.3
+     */
+    default void setMetadata(Collection<DataAvailability> dataAvailabilities, Object connection)
+            throws OwsExceptionReport {
+        for (DataAvailability dataAvailability : dataAvailabilities) {
+            dataAvailability.setMetadata(getMetadata(dataAvailability, connection));
+        }
+    }
+
 }
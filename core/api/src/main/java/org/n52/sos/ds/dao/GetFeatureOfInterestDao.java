@@ -28,6 +28,7 @@
  */
 package org.n52.sos.ds.dao;
 
+import java.util.Collection;
 import java.util.Map;
 
 import org.n52.shetland.ogc.gml.AbstractFeature;
@@ -40,4 +41,18 @@ public interface GetFeatureOfInterestDao extends DefaultDao {
 
     Map<String, AbstractFeature> getFeatureOfInterest(GetFeatureOfInterestRequest request, Object connection)
             throws OwsExceptionReport;
+
+    /**
+     * Initialize the feature entities and their parent features in batches,
+     * e.g. the lazily loaded features of queried datasets.
+     *
+     * @param features
+     *            the feature entities
+     * @param connection
+     *            the connection
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    default void initializeParents(Collection<?> features, Object connection) throws OwsExceptionReport {
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.event.events;
+
+import java.util.Optional;
+
+import org.n52.janmayen.event.Event;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+
+/**
+ * Event that is submitted after a request operator processed a request,
+ * either successfully or with an exception.
+ *
+ * @since 5.2.3
+ */
+public class RequestCompletion implements Event {
+
+    private final OwsServiceRequest request;
+
+    private final OwsServiceResponse response;
+
+    private final OwsExceptionReport exception;
+
+    private final long duration;
+
+    public RequestCompletion(OwsServiceRequest request, OwsServiceResponse response, long duration) {
+        this(request, response, null, duration);
+    }
+
+    public RequestCompletion(OwsServiceRequest request, OwsExceptionReport exception, long duration) {
+        this(request, null, exception, duration);
+    }
+
+    private RequestCompletion(OwsServiceRequest request, OwsServiceResponse response, OwsExceptionReport exception,
+            long duration) {
+        this.request = request;
+        this.response = response;
+        this.exception = exception;
+        this.duration = duration;
+    }
+
+    public OwsServiceRequest getRequest() {
+        return request;
+    }
+
+    public Optional<OwsServiceResponse> getResponse() {
+        return Optional.ofNullable(response);
+    }
+
+    public Optional<OwsExceptionReport> getException() {
+        return Optional.ofNullable(exception);
+    }
+
+    public boolean isFailed() {
+        return exception != null;
+    }
+
+    /**
+     * @return the processing time in nanoseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+}
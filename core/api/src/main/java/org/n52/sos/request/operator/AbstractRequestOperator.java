@@ -72,6 +72,7 @@ import org.n52.shetland.ogc.ows.exception.InvalidParameterValueException;
 import org.n52.shetland.ogc.ows.exception.MissingParameterValueException;
 import org.n52.shetland.ogc.ows.exception.MissingServiceParameterException;
 import org.n52.shetland.ogc.ows.exception.MissingVersionParameterException;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OperationNotSupportedException;
 import org.n52.shetland.ogc.ows.exception.OptionNotSupportedException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
@@ -95,12 +96,16 @@ import org.n52.shetland.util.CollectionHelper;
 import org.n52.sos.cache.SosContentCache;
 import org.n52.sos.coding.encode.ProcedureDescriptionFormatRepository;
 import org.n52.sos.coding.encode.ResponseFormatRepository;
+import org.n52.sos.event.events.RequestCompletion;
 import org.n52.sos.exception.ows.concrete.InvalidResponseFormatParameterException;
 import org.n52.sos.exception.ows.concrete.InvalidValueReferenceException;
 import org.n52.sos.exception.ows.concrete.MissingProcedureParameterException;
 import org.n52.sos.exception.ows.concrete.MissingResponseFormatParameterException;
 import org.n52.sos.service.profile.Profile;
 import org.n52.sos.service.profile.ProfileHandler;
+import org.n52.sos.statistics.RequestStage;
+import org.n52.sos.statistics.RequestTimings;
+import org.n52.sos.statistics.StageTimer;
 import org.n52.svalbard.encode.EncoderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -177,6 +182,8 @@ public abstract class AbstractRequestOperator<D extends OperationHandler,
 
     private EventBus serviceEventBus;
 
+    private RequestTimings requestTimings;
+
     private boolean includeChildObservableProperties;
 
     private String service;
@@ -255,6 +262,11 @@ public abstract class AbstractRequestOperator<D extends OperationHandler,
         this.serviceEventBus = serviceEventBus;
     }
 
+    @Inject
+    public void setRequestTimings(Optional<RequestTimings> requestTimings) {
+        this.requestTimings = requestTimings.orElse(null);
+    }
+
     public EventBus getServiceEventBus() {
         return serviceEventBus;
     }
@@ -371,16 +383,46 @@ public abstract class AbstractRequestOperator<D extends OperationHandler,
 
     @Override
     public OwsServiceResponse receiveRequest(OwsServiceRequest abstractRequest) throws OwsExceptionReport {
+        long start = System.nanoTime();
         this.serviceEventBus.submit(new RequestEvent(abstractRequest));
         if (requestType.isAssignableFrom(abstractRequest.getClass()) && isSupported()) {
-            Q request = requestType.cast(abstractRequest);
-            preProcessRequest(request);
-            checkForModifierAndProcess(request);
-            checkParameters(request);
-            A response = receive(request);
-            this.serviceEventBus.submit(new ResponseEvent(response));
-            postProcessResponse(response);
-            return checkForModifierAndProcess(request, response);
+            StageTimer timer = StageTimer.begin(abstractRequest.getOperationName());
+            boolean failed = true;
+            try {
+                Q request = requestType.cast(abstractRequest);
+                long stage = StageTimer.start();
+                preProcessRequest(request);
+                checkForModifierAndProcess(request);
+                StageTimer.stop(RequestStage.MODIFICATION, stage);
+                stage = StageTimer.start();
+                checkParameters(request);
+                StageTimer.stop(RequestStage.PARAMETER_CHECK, stage);
+                stage = StageTimer.start();
+                A response = receive(request);
+                StageTimer.stop(RequestStage.QUERY, stage);
+                this.serviceEventBus.submit(new ResponseEvent(response));
+                stage = StageTimer.start();
+                postProcessResponse(response);
+                OwsServiceResponse modified = checkForModifierAndProcess(request, response);
+                StageTimer.stop(RequestStage.MODIFICATION, stage);
+                failed = false;
+                this.serviceEventBus
+                        .submit(new RequestCompletion(abstractRequest, modified, System.nanoTime() - start));
+                return modified;
+            } catch (OwsExceptionReport e) {
+                this.serviceEventBus.submit(new RequestCompletion(abstractRequest, e, System.nanoTime() - start));
+                throw e;
+            } catch (RuntimeException e) {
+                this.serviceEventBus.submit(new RequestCompletion(abstractRequest,
+                        new NoApplicableCodeException().causedBy(e), System.nanoTime() - start));
+                throw e;
+            } finally {
+                timer.end();
+                if (requestTimings != null) {
+                    requestTimings.record(abstractRequest.getOperationName(), timer, System.nanoTime() - start,
+                            failed);
+                }
+            }
         } else {
             throw new OperationNotSupportedException(abstractRequest.getOperationName());
         }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogram of latencies with fixed, logarithmically growing bucket bounds
+ * between one millisecond and 100 seconds. The histogram is not thread safe.
+ *
+ * @since 5.2.3
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000,
+                                           50000, 100000 };
+
+    private final long[] counts;
+
+    private long count;
+
+    private long sum;
+
+    private long max;
+
+    public LatencyHistogram() {
+        this.counts = new long[BOUNDS.length + 1];
+    }
+
+    /**
+     * Create a histogram from previously recorded values.
+     *
+     * @param counts
+     *            the counts per bucket, the last one counts the latencies
+     *            exceeding the largest bound
+     * @param sum
+     *            the sum of all latencies in nanoseconds
+     * @param max
+     *            the maximum latency in nanoseconds
+     */
+    public LatencyHistogram(long[] counts, long sum, long max) {
+        if (counts.length != BOUNDS.length + 1) {
+            throw new IllegalArgumentException("Expected " + (BOUNDS.length + 1) + " counts");
+        }
+        this.counts = Arrays.copyOf(counts, counts.length);
+        this.count = Arrays.stream(counts).sum();
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @param latency
+     *            the latency in nanoseconds
+     */
+    public void add(long latency) {
+        // round up, so that a bucket contains all latencies up to its bound
+        long millis = TimeUnit.NANOSECONDS.toMillis(latency + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+        int bucket = Arrays.binarySearch(BOUNDS, millis);
+        counts[bucket < 0 ? -bucket - 1 : bucket]++;
+        count++;
+        sum += latency;
+        max = Math.max(max, latency);
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of all latencies in nanoseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return the maximum latency in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean latency in milliseconds
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Estimate a percentile by the upper bound of the bucket that contains it.
+     *
+     * @param percentile
+     *            the percentile between 0 and 100
+     * @return the estimated latency in milliseconds
+     */
+    public double getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], (double) max / TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        return (double) max / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the counts per bucket, the last one counts the latencies
+     *         exceeding the largest bound
+     */
+    public long[] getCounts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+
+    /**
+     * @return the upper bounds of the buckets in milliseconds
+     */
+    public static long[] getBounds() {
+        return Arrays.copyOf(BOUNDS, BOUNDS.length);
+    }
+}
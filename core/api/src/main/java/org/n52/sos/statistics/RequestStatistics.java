@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityRequest;
+import org.n52.shetland.ogc.sos.request.DescribeSensorRequest;
+import org.n52.shetland.ogc.sos.request.GetFeatureOfInterestRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.request.GetResultRequest;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.sos.event.events.RequestCompletion;
+
+/**
+ * The properties of a processed request that are collected by the
+ * {@link StatisticsSink}s.
+ *
+ * @since 5.2.3
+ */
+public class RequestStatistics {
+
+    private final long time;
+
+    private final long duration;
+
+    private final String service;
+
+    private final String version;
+
+    private final String operation;
+
+    private final String responseFormat;
+
+    private final Set<String> offerings;
+
+    private final Set<String> procedures;
+
+    private final boolean failed;
+
+    public RequestStatistics(long time, long duration, String service, String version, String operation,
+            String responseFormat, Collection<String> offerings, Collection<String> procedures, boolean failed) {
+        this.time = time;
+        this.duration = duration;
+        this.service = service;
+        this.version = version;
+        this.operation = operation;
+        this.responseFormat = responseFormat;
+        this.offerings = toSet(offerings);
+        this.procedures = toSet(procedures);
+        this.failed = failed;
+    }
+
+    /**
+     * @return the completion time in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the processing time in nanoseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getResponseFormat() {
+        return responseFormat;
+    }
+
+    public Set<String> getOfferings() {
+        return offerings;
+    }
+
+    public Set<String> getProcedures() {
+        return procedures;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Create the statistics of a completed request.
+     *
+     * @param completion
+     *            the completion event
+     * @return the statistics
+     */
+    public static RequestStatistics of(RequestCompletion completion) {
+        OwsServiceRequest request = completion.getRequest();
+        Collection<String> offerings = Collections.emptySet();
+        Collection<String> procedures = Collections.emptySet();
+        String responseFormat = null;
+        if (request instanceof GetObservationRequest) {
+            GetObservationRequest r = (GetObservationRequest) request;
+            offerings = r.getOfferings();
+            procedures = r.getProcedures();
+            responseFormat = r.getResponseFormat();
+        } else if (request instanceof GetResultRequest) {
+            offerings = singleton(((GetResultRequest) request).getOffering());
+        } else if (request instanceof DescribeSensorRequest) {
+            DescribeSensorRequest r = (DescribeSensorRequest) request;
+            procedures = singleton(r.getProcedure());
+            responseFormat = r.getProcedureDescriptionFormat();
+        } else if (request instanceof GetFeatureOfInterestRequest) {
+            procedures = ((GetFeatureOfInterestRequest) request).getProcedures();
+        } else if (request instanceof GetDataAvailabilityRequest) {
+            GetDataAvailabilityRequest r = (GetDataAvailabilityRequest) request;
+            offerings = r.getOfferings();
+            procedures = r.getProcedures();
+        } else if (request instanceof InsertObservationRequest) {
+            InsertObservationRequest r = (InsertObservationRequest) request;
+            offerings = r.getOfferings();
+            procedures = singleton(r.getAssignedSensorId());
+        }
+        return new RequestStatistics(System.currentTimeMillis(), completion.getDuration(), request.getService(),
+                request.getVersion(), request.getOperationName(), responseFormat, offerings, procedures,
+                completion.isFailed());
+    }
+
+    private static Set<String> singleton(String value) {
+        return value == null ? Collections.emptySet() : Collections.singleton(value);
+    }
+
+    private static Set<String> toSet(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> set = new TreeSet<>();
+        values.stream().filter(v -> v != null && !v.isEmpty()).forEach(set::add);
+        return Collections.unmodifiableSet(set);
+    }
+}
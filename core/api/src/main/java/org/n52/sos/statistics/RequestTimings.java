@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.n52.janmayen.lifecycle.Constructable;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms per operation and {@link RequestStage}. The timings are
+ * registered as MBean {@value #OBJECT_NAME} in the platform MBean server.
+ *
+ * @since 5.2.3
+ */
+public class RequestTimings implements RequestTimingsMXBean, Constructable, Destroyable {
+
+    public static final String OBJECT_NAME = "org.n52.sos:type=RequestTimings";
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestTimings.class);
+
+    private final ConcurrentMap<String, OperationTimings> operations = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    @Override
+    public void init() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                // e.g. a previous deployment that was not undeployed cleanly
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            this.objectName = name;
+        } catch (JMException | SecurityException e) {
+            LOG.warn("Could not register the request timings MBean", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException | SecurityException e) {
+                LOG.warn("Could not unregister the request timings MBean", e);
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Record the latency of a single stage.
+     *
+     * @param operation
+     *            the operation
+     * @param stage
+     *            the stage
+     * @param duration
+     *            the latency in nanoseconds
+     */
+    public void record(String operation, RequestStage stage, long duration) {
+        if (operation != null) {
+            get(operation).add(stage, duration);
+        }
+    }
+
+    /**
+     * Record the stages timed for a request and its total processing time.
+     *
+     * @param operation
+     *            the operation
+     * @param timer
+     *            the timer of the request
+     * @param duration
+     *            the total processing time in nanoseconds
+     * @param failed
+     *            if the request failed
+     */
+    public void record(String operation, StageTimer timer, long duration, boolean failed) {
+        if (operation == null) {
+            return;
+        }
+        OperationTimings timings = get(operation);
+        for (RequestStage stage : RequestStage.values()) {
+            if (timer.isTimed(stage)) {
+                timings.add(stage, timer.getDuration(stage));
+            }
+        }
+        timings.add(RequestStage.TOTAL, duration);
+        if (failed) {
+            timings.fail();
+        }
+    }
+
+    /**
+     * @return copies of the histograms per operation and stage
+     */
+    public Map<String, Map<RequestStage, LatencyHistogram>> getHistograms() {
+        Map<String, Map<RequestStage, LatencyHistogram>> histograms = new TreeMap<>();
+        operations.forEach((operation, timings) -> histograms.put(operation, timings.getHistograms()));
+        return histograms;
+    }
+
+    @Override
+    public List<StageTiming> getTimings() {
+        List<StageTiming> timings = new ArrayList<>();
+        getHistograms().forEach((operation, stages) -> stages
+                .forEach((stage, histogram) -> timings.add(new StageTiming(operation, stage, histogram))));
+        return timings;
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        Map<String, Long> failures = new TreeMap<>();
+        operations.forEach((operation, timings) -> failures.put(operation, timings.getFailures()));
+        return failures;
+    }
+
+    @Override
+    public void reset() {
+        operations.clear();
+    }
+
+    private OperationTimings get(String operation) {
+        return operations.computeIfAbsent(operation, o -> new OperationTimings());
+    }
+
+    private static final class OperationTimings {
+
+        private final Map<RequestStage, LatencyHistogram> histograms = new EnumMap<>(RequestStage.class);
+
+        private long failures;
+
+        synchronized void add(RequestStage stage, long duration) {
+            histograms.computeIfAbsent(stage, s -> new LatencyHistogram()).add(duration);
+        }
+
+        synchronized void fail() {
+            failures++;
+        }
+
+        synchronized long getFailures() {
+            return failures;
+        }
+
+        synchronized Map<RequestStage, LatencyHistogram> getHistograms() {
+            Map<RequestStage, LatencyHistogram> copy = new EnumMap<>(RequestStage.class);
+            histograms.forEach((stage, histogram) -> copy.put(stage,
+                    new LatencyHistogram(histogram.getCounts(), histogram.getSum(), histogram.getMax())));
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A database statement whose execution exceeded the threshold of the
+ * {@link SlowQueryLog}.
+ *
+ * @since 5.2.3
+ */
+public class SlowQuery {
+
+    private final long time;
+
+    private final long duration;
+
+    private final String sql;
+
+    private final List<String> parameters;
+
+    private final long rows;
+
+    private final String origin;
+
+    private final String operation;
+
+    private final long requestId;
+
+    /**
+     * @param time
+     *            the start of the execution in milliseconds since the epoch
+     * @param duration
+     *            the execution time in nanoseconds
+     * @param sql
+     *            the statement with parameter placeholders
+     * @param parameters
+     *            the types of the parameters in the order of the placeholders
+     * @param rows
+     *            the number of fetched or updated rows, or {@code -1} if
+     *            unknown
+     * @param origin
+     *            the method that issued the statement, may be {@code null}
+     * @param operation
+     *            the operation of the request, may be {@code null}
+     * @param requestId
+     *            the identifier of the request, or {@code 0} if the statement
+     *            was not issued by a request
+     */
+    public SlowQuery(long time, long duration, String sql, List<String> parameters, long rows, String origin,
+            String operation, long requestId) {
+        this.time = time;
+        this.duration = duration;
+        this.sql = sql;
+        this.parameters = parameters == null ? Collections.emptyList() : Collections.unmodifiableList(parameters);
+        this.rows = rows;
+        this.origin = origin;
+        this.operation = operation;
+        this.requestId = requestId;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * @param rows
+     *            the number of rows
+     * @return a copy of this query with the number of rows
+     */
+    public SlowQuery withRows(long rows) {
+        return new SlowQuery(time, duration, sql, parameters, rows, origin, operation, requestId);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded buffer of the most recent {@link SlowQuery slow queries}. The log is
+ * shared by the service and the datasource, whose statements are not created
+ * by the application context, so there is a single {@link #getInstance()
+ * instance}.
+ *
+ * @since 5.2.3
+ */
+@Configurable
+public final class SlowQueryLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final SlowQueryLog INSTANCE = new SlowQueryLog();
+
+    private final Deque<SlowQuery> queries = new ArrayDeque<>();
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile boolean enabled;
+
+    private volatile long threshold = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private int capacity = 100;
+
+    SlowQueryLog() {
+    }
+
+    public static SlowQueryLog getInstance() {
+        return INSTANCE;
+    }
+
+    @Setting(SlowQueryLogSettings.SLOW_QUERY_LOG_ENABLED)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Setting(SlowQueryLogSettings.SLOW_QUERY_LOG_THRESHOLD)
+    public void setThreshold(int threshold) {
+        this.threshold = TimeUnit.MILLISECONDS.toNanos(Math.max(0, threshold));
+    }
+
+    @Setting(SlowQueryLogSettings.SLOW_QUERY_LOG_CAPACITY)
+    public synchronized void setCapacity(int capacity) {
+        Validation.greaterZero("Slow query log capacity", capacity);
+        this.capacity = capacity;
+        while (queries.size() > capacity) {
+            queries.removeLast();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param duration
+     *            the execution time in nanoseconds
+     * @return if a statement with this execution time should be recorded
+     */
+    public boolean isSlow(long duration) {
+        return enabled && duration >= threshold;
+    }
+
+    /**
+     * @return the threshold in nanoseconds
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public void record(SlowQuery query) {
+        count.incrementAndGet();
+        LOG.debug("Slow query ({} ms, {} rows) from {}: {}", TimeUnit.NANOSECONDS.toMillis(query.getDuration()),
+                query.getRows(), query.getOrigin(), query.getSql());
+        synchronized (this) {
+            if (queries.size() >= capacity) {
+                queries.removeLast();
+            }
+            queries.addFirst(query);
+        }
+    }
+
+    /**
+     * @return the recorded queries, the most recent first
+     */
+    public synchronized List<SlowQuery> getQueries() {
+        return Collections.unmodifiableList(new ArrayList<>(queries));
+    }
+
+    /**
+     * @return the number of slow queries since the start or the last
+     *         {@link #clear()}, including those no longer buffered
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    public synchronized void clear() {
+        queries.clear();
+        count.set(0);
+    }
+}
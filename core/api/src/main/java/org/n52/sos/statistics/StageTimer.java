@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the time spent in the {@link RequestStage}s of the request that
+ * is processed by the current thread. Code that does not know the request it
+ * is called for uses {@link #start()} and {@link #stop(RequestStage, long)},
+ * which do nothing if no request is timed.
+ *
+ * @since 5.2.3
+ */
+public final class StageTimer {
+
+    private static final ThreadLocal<StageTimer> CURRENT = new ThreadLocal<>();
+
+    private static final int STAGES = RequestStage.values().length;
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final StageTimer previous;
+
+    private final long id = IDS.incrementAndGet();
+
+    private final String operation;
+
+    private final long[] durations = new long[STAGES];
+
+    private final boolean[] timed = new boolean[STAGES];
+
+    private StageTimer(StageTimer previous, String operation) {
+        this.previous = previous;
+        this.operation = operation;
+    }
+
+    /**
+     * Start timing a request in the current thread. Requests that are
+     * processed as part of another request, e.g. in a batch operation, get a
+     * timer of their own.
+     *
+     * @param operation
+     *            the operation of the request
+     * @return the timer, that has to be {@linkplain #end() ended}
+     */
+    public static StageTimer begin(String operation) {
+        StageTimer timer = new StageTimer(CURRENT.get(), operation);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /**
+     * @return the timer of the request processed by the current thread
+     */
+    public static Optional<StageTimer> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * @return an identifier of the request that is unique for the lifetime of
+     *         the service
+     */
+    public long getId() {
+        return id;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Stop timing the request and restore the timer of the enclosing request.
+     */
+    public void end() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void add(RequestStage stage, long duration) {
+        durations[stage.ordinal()] += duration;
+        timed[stage.ordinal()] = true;
+    }
+
+    /**
+     * @param stage
+     *            the stage
+     * @return if the stage was executed for this request
+     */
+    public boolean isTimed(RequestStage stage) {
+        return timed[stage.ordinal()];
+    }
+
+    /**
+     * @param stage
+     *            the stage
+     * @return the accumulated time of the stage in nanoseconds
+     */
+    public long getDuration(RequestStage stage) {
+        return durations[stage.ordinal()];
+    }
+
+    /**
+     * @return the start time of a stage
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Add the time elapsed since {@code start} to the stage of the current
+     * request.
+     *
+     * @param stage
+     *            the stage
+     * @param start
+     *            the start time as returned by {@link #start()}
+     */
+    public static void stop(RequestStage stage, long start) {
+        StageTimer timer = CURRENT.get();
+        if (timer != null) {
+            timer.add(stage, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of the latencies of a {@link RequestStage} of an operation. Times
+ * are in milliseconds.
+ *
+ * @since 5.2.3
+ */
+public class StageTiming {
+
+    private final String operation;
+
+    private final String stage;
+
+    private final long count;
+
+    private final double mean;
+
+    private final double p50;
+
+    private final double p90;
+
+    private final double p99;
+
+    private final double max;
+
+    @ConstructorProperties({ "operation", "stage", "count", "mean", "p50", "p90", "p99", "max" })
+    public StageTiming(String operation, String stage, long count, double mean, double p50, double p90, double p99,
+            double max) {
+        this.operation = operation;
+        this.stage = stage;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public StageTiming(String operation, RequestStage stage, LatencyHistogram histogram) {
+        this(operation, stage.name(), histogram.getCount(), histogram.getMean(), histogram.getPercentile(50),
+                histogram.getPercentile(90), histogram.getPercentile(99),
+                (double) histogram.getMax() / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
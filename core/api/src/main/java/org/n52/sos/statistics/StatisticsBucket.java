@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The aggregated {@link RequestStatistics} of a time interval.
+ *
+ * @since 5.2.3
+ */
+public class StatisticsBucket {
+
+    /**
+     * The properties of the requests that are counted.
+     */
+    public enum Dimension {
+        OPERATION,
+        VERSION,
+        OFFERING,
+        PROCEDURE,
+        RESPONSE_FORMAT;
+    }
+
+    private final long start;
+
+    private final long end;
+
+    private long count;
+
+    private long failures;
+
+    private final Map<Dimension, Map<String, Long>> counts = new EnumMap<>(Dimension.class);
+
+    private final Map<String, Long> operationFailures = new TreeMap<>();
+
+    private final Map<String, LatencyHistogram> latencies = new TreeMap<>();
+
+    /**
+     * @param start
+     *            the inclusive start of the interval in milliseconds since the
+     *            epoch
+     * @param end
+     *            the exclusive end of the interval in milliseconds since the
+     *            epoch
+     */
+    public StatisticsBucket(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public boolean contains(long time) {
+        return time >= start && time < end;
+    }
+
+    public boolean overlaps(long from, long to) {
+        return start < to && end > from;
+    }
+
+    public synchronized boolean isEmpty() {
+        return count == 0;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @param dimension
+     *            the dimension
+     * @return the number of requests per value of the dimension
+     */
+    public synchronized Map<String, Long> getCounts(Dimension dimension) {
+        Map<String, Long> map = counts.get(dimension);
+        return map == null ? Collections.emptyMap() : new TreeMap<>(map);
+    }
+
+    /**
+     * @return the number of failed requests per operation
+     */
+    public synchronized Map<String, Long> getFailuresByOperation() {
+        return new TreeMap<>(operationFailures);
+    }
+
+    /**
+     * @return the processing time histograms per operation
+     */
+    public synchronized Map<String, LatencyHistogram> getLatencies() {
+        Map<String, LatencyHistogram> copy = new TreeMap<>();
+        latencies.forEach((operation, histogram) -> copy.put(operation, copy(histogram)));
+        return copy;
+    }
+
+    /**
+     * Add the statistics of a request to this bucket.
+     *
+     * @param statistics
+     *            the statistics
+     */
+    public synchronized void add(RequestStatistics statistics) {
+        String operation = statistics.getOperation();
+        count++;
+        increment(Dimension.OPERATION, operation, 1);
+        increment(Dimension.VERSION, statistics.getVersion(), 1);
+        increment(Dimension.RESPONSE_FORMAT, statistics.getResponseFormat(), 1);
+        increment(Dimension.OFFERING, statistics.getOfferings());
+        increment(Dimension.PROCEDURE, statistics.getProcedures());
+        if (statistics.isFailed()) {
+            failures++;
+            if (operation != null) {
+                operationFailures.merge(operation, 1L, Long::sum);
+            }
+        }
+        if (operation != null) {
+            latencies.computeIfAbsent(operation, o -> new LatencyHistogram()).add(statistics.getDuration());
+        }
+    }
+
+    /**
+     * Add the values of another bucket to this bucket.
+     *
+     * @param other
+     *            the other bucket
+     */
+    public void merge(StatisticsBucket other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Can not merge a bucket with itself");
+        }
+        long otherCount;
+        long otherFailures;
+        Map<Dimension, Map<String, Long>> otherCounts = new EnumMap<>(Dimension.class);
+        Map<String, Long> otherOperationFailures;
+        Map<String, LatencyHistogram> otherLatencies;
+        synchronized (other) {
+            otherCount = other.count;
+            otherFailures = other.failures;
+            other.counts.forEach((dimension, values) -> otherCounts.put(dimension, new TreeMap<>(values)));
+            otherOperationFailures = other.getFailuresByOperation();
+            otherLatencies = other.getLatencies();
+        }
+        synchronized (this) {
+            count += otherCount;
+            failures += otherFailures;
+            otherCounts.forEach((dimension, values) -> values.forEach((key, n) -> increment(dimension, key, n)));
+            otherOperationFailures.forEach((operation, n) -> operationFailures.merge(operation, n, Long::sum));
+            otherLatencies.forEach((operation, histogram) -> latencies
+                    .computeIfAbsent(operation, o -> new LatencyHistogram()).merge(histogram));
+        }
+    }
+
+    /**
+     * Restore the totals of a stored bucket.
+     *
+     * @param count
+     *            the number of requests
+     * @param failures
+     *            the number of failed requests
+     */
+    public synchronized void addTotals(long count, long failures) {
+        this.count += count;
+        this.failures += failures;
+    }
+
+    /**
+     * Restore a counter of a stored bucket.
+     *
+     * @param dimension
+     *            the dimension
+     * @param key
+     *            the value of the dimension
+     * @param n
+     *            the number of requests
+     */
+    public synchronized void addCount(Dimension dimension, String key, long n) {
+        increment(dimension, key, n);
+    }
+
+    /**
+     * Restore the statistics of an operation of a stored bucket.
+     *
+     * @param operation
+     *            the operation
+     * @param failed
+     *            the number of failed requests
+     * @param histogram
+     *            the processing times
+     */
+    public synchronized void addOperation(String operation, long failed, LatencyHistogram histogram) {
+        if (failed > 0) {
+            operationFailures.merge(operation, failed, Long::sum);
+        }
+        latencies.computeIfAbsent(operation, o -> new LatencyHistogram()).merge(histogram);
+    }
+
+    private void increment(Dimension dimension, Collection<String> keys) {
+        keys.forEach(key -> increment(dimension, key, 1));
+    }
+
+    private void increment(Dimension dimension, String key, long n) {
+        if (key != null && !key.isEmpty()) {
+            counts.computeIfAbsent(dimension, d -> new TreeMap<>()).merge(key, n, Long::sum);
+        }
+    }
+
+    private static LatencyHistogram copy(LatencyHistogram histogram) {
+        return new LatencyHistogram(histogram.getCounts(), histogram.getSum(), histogram.getMax());
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.sos.event.events.RequestCompletion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forwards the {@link RequestCompletion} events to the registered
+ * {@link StatisticsSink}s.
+ *
+ * @since 5.2.3
+ */
+public class StatisticsSinkDispatcher implements EventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsSinkDispatcher.class);
+
+    private static final Set<Class<? extends Event>> TYPES = Collections.singleton(RequestCompletion.class);
+
+    private Collection<StatisticsSink> sinks = Collections.emptyList();
+
+    @Inject
+    public void setSinks(Optional<Collection<StatisticsSink>> sinks) {
+        this.sinks = sinks.orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return TYPES;
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (sinks.isEmpty() || !(event instanceof RequestCompletion)) {
+            return;
+        }
+        RequestStatistics statistics = RequestStatistics.of((RequestCompletion) event);
+        for (StatisticsSink sink : sinks) {
+            try {
+                sink.record(statistics);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Error recording request statistics in {}", sink, e);
+            }
+        }
+    }
+
+}
@@ -28,10 +28,13 @@
  */
 package org.n52.sos.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -42,6 +45,8 @@ import org.geotools.referencing.ReferencingFactoryFinder;
 import org.geotools.referencing.factory.AbstractAuthorityFactory;
 import org.geotools.referencing.factory.DeferredAuthorityFactory;
 import org.geotools.util.factory.Hints;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.n52.faroe.ConfigurationError;
@@ -122,6 +127,10 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
 
     private final Map<Integer, CoordinateReferenceSystem> crsCache = Maps.newConcurrentMap();
 
+    private final Map<Integer, Boolean> northingFirstCache = Maps.newConcurrentMap();
+
+    private final Map<TransformKey, MathTransform> transformCache = Maps.newConcurrentMap();
+
     private String srsNamePrefixUrl;
 
     @Setting(CodingSettings.SRS_NAME_PREFIX_URL)
@@ -132,14 +141,24 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
 
     @Override
     public void init() {
-        boolean eastingFirstEpsgCode = true;
-        try {
-            eastingFirstEpsgCode = isEastingFirstEpsgCode(getStorageEPSG());
-        } catch (Exception e) {
+        // precompute the axis order of the configured EPSG codes
+        for (int epsgCode : new int[] { getStorageEPSG(), getStorage3DEPSG(), getDefaultResponseEPSG(),
+                getDefaultResponse3DEPSG() }) {
+            if (epsgCode > 0) {
+                try {
+                    isNorthingFirstEpsgCode(epsgCode);
+                } catch (CodedException e) {
+                    LOGGER.warn("The axis order of EPSG code '{}' could not be determined!", epsgCode);
+                }
+            }
+        }
+        Boolean storageNorthingFirst = northingFirstCache.get(getStorageEPSG());
+        if (storageNorthingFirst == null) {
             LOGGER.error("The storage EPSG code '{}' is invalid. Easting first = true would be used!",
                     getStorageEPSG());
         }
-        Hints hints = new Hints(Hints.FORCE_LONGITUDE_FIRST_AXIS_ORDER, eastingFirstEpsgCode);
+        Hints hints = new Hints(Hints.FORCE_LONGITUDE_FIRST_AXIS_ORDER,
+                storageNorthingFirst == null || !storageNorthingFirst);
         this.crsAuthority = ReferencingFactoryFinder.getCRSAuthorityFactory(this.authority, hints);
     }
 
@@ -426,11 +445,17 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
      *             If an error occurs
      */
     public boolean isNorthingFirstEpsgCode(int epsgCode) throws CodedException {
+        Boolean northingFirst = northingFirstCache.get(epsgCode);
+        if (northingFirst != null) {
+            return northingFirst;
+        }
         try {
-            return AxisOrder.NORTH_EAST.equals(CRS.getAxisOrder(CRS.decode(EPSG_PREFIX + epsgCode))) ? true : false;
+            northingFirst = AxisOrder.NORTH_EAST.equals(CRS.getAxisOrder(CRS.decode(EPSG_PREFIX + epsgCode)));
         } catch (FactoryException e) {
             throw new NoApplicableCodeException().causedBy(e).withMessage("The EPSG '%d' is invalid", epsgCode);
         }
+        northingFirstCache.put(epsgCode, northingFirst);
+        return northingFirst;
         // return this.epsgsWithNorthingFirstAxisOrder.stream()
         // .filter(r -> r.contains(epsgCode))
         // .findAny().isPresent();
@@ -671,7 +696,7 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
         }
         Geometry switchedCoordiantes = switchCoordinateAxisIfNeeded(geometry, targetSRID);
         try {
-            MathTransform transform = CRS.findMathTransform(sourceCRS, targetCRS);
+            MathTransform transform = getMathTransform(geometry.getSRID(), targetSRID, false);
             Geometry transformed = JTS.transform(switchedCoordiantes, transform);
             transformed.setSRID(targetSRID);
             return transformed;
@@ -681,6 +706,119 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
         }
     }
 
+    /**
+     * Transform the geometries to this EPSG code. The geometries are grouped by
+     * their EPSG code and the coordinates of each group are transformed with a
+     * single call of the {@link MathTransform}.
+     *
+     * @param geometries
+     *            Geometries to transform
+     * @param targetSRID
+     *            Target EPSG code
+     *
+     * @return Transformed geometries in the order of the passed geometries
+     *
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    public List<Geometry> transform(List<Geometry> geometries, int targetSRID) throws OwsExceptionReport {
+        List<Geometry> transformed = new ArrayList<>(geometries);
+        Map<Integer, List<Integer>> positionsBySRID = new LinkedHashMap<>();
+        for (int i = 0; i < geometries.size(); i++) {
+            Geometry geometry = geometries.get(i);
+            if (geometry != null && !geometry.isEmpty() && geometry.getSRID() != targetSRID) {
+                positionsBySRID.computeIfAbsent(geometry.getSRID(), k -> new ArrayList<>()).add(i);
+            }
+        }
+        for (Map.Entry<Integer, List<Integer>> entry : positionsBySRID.entrySet()) {
+            int sourceSRID = entry.getKey();
+            if (getCRS(sourceSRID).equals(getCRS(targetSRID))) {
+                continue;
+            }
+            List<Geometry> group = new ArrayList<>(entry.getValue().size());
+            for (Integer position : entry.getValue()) {
+                Geometry copy = geometries.get(position).copy();
+                copy.setSRID(targetSRID);
+                group.add(copy);
+                transformed.set(position, copy);
+            }
+            boolean switchAxis = isNorthingFirstEpsgCode(sourceSRID) != isNorthingFirstEpsgCode(targetSRID);
+            try {
+                transformCoordinates(group, getMathTransform(sourceSRID, targetSRID, false), switchAxis);
+            } catch (FactoryException | MismatchedDimensionException | TransformException fe) {
+                throw new NoApplicableCodeException().causedBy(fe).withMessage(EPSG_NOT_SUPPORTED_TMEPLATE,
+                        sourceSRID);
+            }
+        }
+        return transformed;
+    }
+
+    /**
+     * Transform the coordinates of all geometries in place with one bulk call
+     * of the transform.
+     *
+     * @param geometries
+     *            the geometries to transform
+     * @param transform
+     *            the transformation
+     * @param switchAxis
+     *            whether the axis order should be switched before the
+     *            transformation
+     *
+     * @throws TransformException
+     *             If the transformation fails
+     */
+    private void transformCoordinates(List<Geometry> geometries, MathTransform transform, boolean switchAxis)
+            throws TransformException {
+        int sourceDim = transform.getSourceDimensions();
+        int targetDim = transform.getTargetDimensions();
+        int count = 0;
+        for (Geometry geometry : geometries) {
+            count += geometry.getNumPoints();
+        }
+        double[] source = new double[count * sourceDim];
+        double[] target = new double[count * targetDim];
+        OrdinateFilter reader = new OrdinateFilter(source, sourceDim, switchAxis, false);
+        for (Geometry geometry : geometries) {
+            geometry.apply(reader);
+        }
+        transform.transform(source, 0, target, 0, count);
+        OrdinateFilter writer = new OrdinateFilter(target, targetDim, false, true);
+        for (Geometry geometry : geometries) {
+            geometry.apply(writer);
+            geometry.geometryChanged();
+        }
+    }
+
+    /**
+     * Get the cached {@link MathTransform} for the source and target EPSG code.
+     *
+     * @param sourceSRID
+     *            Source EPSG code
+     * @param targetSRID
+     *            Target EPSG code
+     * @param lenient
+     *            {@code true} if the math transform should be created even if
+     *            there is no information available for a datum shift
+     *
+     * @return the math transform
+     *
+     * @throws OwsExceptionReport
+     *             If the EPSG codes are not supported
+     * @throws FactoryException
+     *             If the math transform could not be created
+     */
+    private MathTransform getMathTransform(int sourceSRID, int targetSRID, boolean lenient)
+            throws OwsExceptionReport, FactoryException {
+        TransformKey key = new TransformKey(sourceSRID, targetSRID, lenient);
+        MathTransform transform = transformCache.get(key);
+        if (transform == null) {
+            transform = CRS.findMathTransform(getCRS(sourceSRID), getCRS(targetSRID), lenient);
+            transformCache.put(key, transform);
+        }
+        return transform;
+    }
+
     /**
      * Get CRS from EPSG code.
      *
@@ -761,7 +899,7 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
             CoordinateReferenceSystem targetCRS = getCRS(targetSRID);
             try {
                 if (sourceCRS.getCoordinateSystem().getDimension() == targetCRS.getCoordinateSystem().getDimension()) {
-                    MathTransform transform = CRS.findMathTransform(sourceCRS, targetCRS);
+                    MathTransform transform = getMathTransform(sourceSRID, targetSRID, false);
                     Envelope transformed = JTS.transform(envelope, transform);
                     return transformed;
                 }
@@ -783,6 +921,8 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
     @VisibleForTesting
     protected void clearSupportedCRSMap() {
         crsCache.clear();
+        northingFirstCache.clear();
+        transformCache.clear();
     }
 
     public Set<String> addAuthorityCrsPrefix(Collection<String> crses) {
@@ -814,4 +954,84 @@ public class GeometryHandler implements GeometryTransformer, Constructable, Dest
                 FeatureQuerySettingsProvider.EPSG_CODES_WITH_NORTHING_FIRST, entry), ex);
     }
 
+    /**
+     * Copies the ordinates of coordinate sequences to or from an array.
+     */
+    private static final class OrdinateFilter implements CoordinateSequenceFilter {
+        private final double[] ordinates;
+        private final int dimension;
+        private final boolean switchAxis;
+        private final boolean write;
+        private int offset;
+
+        OrdinateFilter(double[] ordinates, int dimension, boolean switchAxis, boolean write) {
+            this.ordinates = ordinates;
+            this.dimension = dimension;
+            this.switchAxis = switchAxis;
+            this.write = write;
+        }
+
+        @Override
+        public void filter(CoordinateSequence seq, int i) {
+            int x = switchAxis ? 1 : 0;
+            int y = switchAxis ? 0 : 1;
+            if (write) {
+                seq.setOrdinate(i, 0, ordinates[offset]);
+                seq.setOrdinate(i, 1, ordinates[offset + 1]);
+                if (dimension > 2 && seq.getDimension() > 2) {
+                    seq.setOrdinate(i, 2, ordinates[offset + 2]);
+                }
+            } else {
+                ordinates[offset] = seq.getOrdinate(i, x);
+                ordinates[offset + 1] = seq.getOrdinate(i, y);
+                if (dimension > 2) {
+                    ordinates[offset + 2] = seq.getDimension() > 2 ? seq.getOrdinate(i, 2) : 0.0;
+                }
+            }
+            offset += dimension;
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+
+        @Override
+        public boolean isGeometryChanged() {
+            return write;
+        }
+    }
+
+    /**
+     * Key of the cached math transforms.
+     */
+    private static final class TransformKey {
+        private final int source;
+        private final int target;
+        private final boolean lenient;
+
+        TransformKey(int source, int target, boolean lenient) {
+            this.source = source;
+            this.target = target;
+            this.lenient = lenient;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, target, lenient);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TransformKey)) {
+                return false;
+            }
+            TransformKey other = (TransformKey) obj;
+            return source == other.source && target == other.target && lenient == other.lenient;
+        }
+    }
+
 }
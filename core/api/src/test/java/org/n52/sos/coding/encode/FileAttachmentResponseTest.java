@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.n52.janmayen.http.MediaType;
+
+public class FileAttachmentResponseTest {
+
+    private static final MediaType NETCDF = new MediaType("application", "netcdf");
+
+    private static final byte[] CONTENT = "content of a.nc".getBytes(StandardCharsets.UTF_8);
+
+    private Path directory;
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        directory = Files.createTempDirectory("file-attachment");
+        file = Files.write(directory.resolve("a.nc"), CONTENT);
+    }
+
+    @After
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(directory.resolve("b.nc"));
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void shouldDeleteFileAfterWriting() throws IOException {
+        FileAttachmentResponse response = create();
+        Assert.assertEquals(CONTENT.length, response.getSize());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.writeTo(out);
+        Assert.assertArrayEquals(CONTENT, out.toByteArray());
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    public void shouldDeleteFileAfterReadingBytes() throws IOException {
+        FileAttachmentResponse response = create();
+        Assert.assertArrayEquals(CONTENT, response.getBytes());
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertFalse(Files.exists(directory));
+        // the content is still available for further consumers
+        Assert.assertArrayEquals(CONTENT, response.getBytes());
+        Assert.assertEquals(CONTENT.length, response.getSize());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.writeTo(out);
+        Assert.assertArrayEquals(CONTENT, out.toByteArray());
+    }
+
+    @Test
+    public void shouldDeleteFileOnClose() throws IOException {
+        try (FileAttachmentResponse response = create()) {
+            Assert.assertTrue(Files.exists(response.getFile()));
+        }
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    public void shouldKeepDirectoryInUse() throws IOException {
+        Path other = Files.write(directory.resolve("b.nc"), CONTENT);
+        create().close();
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertTrue(Files.exists(other));
+    }
+
+    @Test
+    public void shouldDeleteFileIfWritingFails() {
+        FileAttachmentResponse response = create();
+        try {
+            response.writeTo(new ByteArrayOutputStream() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    throw new UncheckedIOException(new IOException("failed"));
+                }
+            });
+            Assert.fail("UncheckedIOException expected");
+        } catch (IOException | UncheckedIOException e) {
+            // expected
+        }
+        Assert.assertFalse(Files.exists(file));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void shouldFailOnMissingFile() throws IOException {
+        FileAttachmentResponse response = create();
+        Files.delete(file);
+        response.getBytes();
+    }
+
+    private FileAttachmentResponse create() {
+        return new FileAttachmentResponse(file, NETCDF, "a.nc");
+    }
+}
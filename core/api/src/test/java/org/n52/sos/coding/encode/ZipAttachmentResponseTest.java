@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.coding.encode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.n52.janmayen.http.MediaType;
+
+public class ZipAttachmentResponseTest {
+
+    private static final MediaType ZIP = new MediaType("application", "zip");
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldWriteStoredEntries() throws IOException {
+        Map<String, String> content = read(create(Deflater.NO_COMPRESSION, 1).getBytes());
+        Assert.assertEquals(Arrays.asList("a.nc", "b.nc", "c.nc"), Arrays.asList(content.keySet().toArray()));
+        Assert.assertEquals("content of b.nc", content.get("b.nc"));
+    }
+
+    @Test
+    public void shouldWriteDeflatedEntriesInParallel() throws IOException {
+        Map<String, String> content = read(create(Deflater.BEST_COMPRESSION, 2).getBytes());
+        Assert.assertEquals(Arrays.asList("a.nc", "b.nc", "c.nc"), Arrays.asList(content.keySet().toArray()));
+        Assert.assertEquals("content of c.nc", content.get("c.nc"));
+    }
+
+    @Test
+    public void shouldKeepSharedExecutorRunning() throws IOException {
+        create(Deflater.DEFAULT_COMPRESSION, 2).getBytes();
+        Assert.assertFalse(executor.isShutdown());
+        Map<String, String> content = read(create(Deflater.DEFAULT_COMPRESSION, 2).getBytes());
+        Assert.assertEquals(3, content.size());
+    }
+
+    @Test
+    public void shouldPrepareWithoutExecutor() throws IOException {
+        Map<String, String> content = read(new ZipAttachmentResponse(Arrays.asList(entry("a.nc"), entry("b.nc"),
+                entry("c.nc")), ZIP, "test.zip", Deflater.DEFAULT_COMPRESSION, 2, null).getBytes());
+        Assert.assertEquals(3, content.size());
+    }
+
+    @Test
+    public void shouldFallBackToSequentialIfExecutorIsShutDown() throws IOException {
+        executor.shutdown();
+        Map<String, String> content = read(create(Deflater.DEFAULT_COMPRESSION, 2).getBytes());
+        Assert.assertEquals(3, content.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnEntryError() throws IOException {
+        ZipAttachmentResponse response = new ZipAttachmentResponse(Arrays.asList(entry("a.nc"), entry("b.nc"),
+                new ZipAttachmentResponse.Entry("c.nc", file -> {
+                    throw new IOException("failed");
+                })), ZIP, "test.zip", Deflater.DEFAULT_COMPRESSION, 2, executor);
+        response.writeTo(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void shouldFailOnFirstEntryBeforeWriting() throws IOException {
+        ZipAttachmentResponse response = new ZipAttachmentResponse(Arrays.asList(
+                new ZipAttachmentResponse.Entry("a.nc", file -> {
+                    throw new IOException("failed");
+                }), entry("b.nc")), ZIP, "test.zip", Deflater.DEFAULT_COMPRESSION, 2, executor);
+        try {
+            response.prepare();
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldPrepareFirstEntryOnlyOnce() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        ZipAttachmentResponse response = new ZipAttachmentResponse(Arrays.asList(
+                new ZipAttachmentResponse.Entry("a.nc", file -> {
+                    calls.incrementAndGet();
+                    Files.write(file, new byte[] { 1 });
+                }), entry("b.nc")), ZIP, "test.zip", Deflater.DEFAULT_COMPRESSION, 1, null);
+        response.prepare();
+        response.prepare();
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(2, read(response.getBytes()).size());
+        Assert.assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void shouldNotFinishZipOnEntryError() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ZipAttachmentResponse response = new ZipAttachmentResponse(Arrays.asList(entry("a.nc"),
+                new ZipAttachmentResponse.Entry("b.nc", file -> {
+                    throw new IOException("failed");
+                })), ZIP, "test.zip", Deflater.DEFAULT_COMPRESSION, 1, null);
+        try {
+            response.writeTo(out);
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            // expected
+        }
+        // the central directory is missing
+        Assert.assertFalse(new String(out.toByteArray(), StandardCharsets.ISO_8859_1).contains("PK\u0005\u0006"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidCompressionLevel() {
+        create(10, 1);
+    }
+
+    private ZipAttachmentResponse create(int level, int parallelism) {
+        return new ZipAttachmentResponse(Arrays.asList(entry("a.nc"), entry("b.nc"), entry("c.nc")),
+                ZIP, "test.zip", level, parallelism, executor);
+    }
+
+    private ZipAttachmentResponse.Entry entry(String name) {
+        return new ZipAttachmentResponse.Entry(name,
+                file -> Files.write(file, ("content of " + name).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Map<String, String> read(byte[] zip) throws IOException {
+        Map<String, String> content = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                }
+                content.put(entry.getName(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+        return content;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.BatchRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.n52.shetland.ogc.sos.response.InsertObservationResponse;
+import org.n52.sos.request.MergedInsertObservationRequest;
+
+public class BatchOperationHandlerTest {
+
+    private static final String OFFERING = "offering";
+
+    private final StubBatchOperationHandler handler = new StubBatchOperationHandler();
+
+    @After
+    public void destroy() {
+        handler.destroy();
+    }
+
+    @Test
+    public void shouldMergeConsecutiveInsertObservations() throws OwsExceptionReport {
+        handler.setMergeInsertObservations(true);
+        OwsServiceRequest get = getObservation();
+        BatchResponse response = handler.executeRequests(batch(false, insertObservation(), insertObservation(),
+                insertObservation(), get, insertObservation()));
+        assertThat(handler.received, hasSize(3));
+        assertThat(handler.received.get(0), is(instanceOf(MergedInsertObservationRequest.class)));
+        assertThat(((InsertObservationRequest) handler.received.get(0)).getObservations(), hasSize(3));
+        assertThat(handler.received.get(1), is(get));
+        assertThat(handler.received.get(2), is(instanceOf(InsertObservationRequest.class)));
+        assertThat(handler.received.get(2), is(not(instanceOf(MergedInsertObservationRequest.class))));
+        assertThat(results(response), contains(true, true, true, true, true));
+    }
+
+    @Test
+    public void shouldNotMergeIfDisabled() throws OwsExceptionReport {
+        BatchResponse response = handler.executeRequests(batch(false, insertObservation(), insertObservation()));
+        assertThat(handler.received, hasSize(2));
+        assertThat(results(response), contains(true, true));
+    }
+
+    @Test
+    public void shouldReportRejectedObservationOfMergedRequests() throws OwsExceptionReport {
+        handler.setMergeInsertObservations(true);
+        InsertObservationRequest rejected = insertObservation();
+        InsertObservationRequest alsoRejected = insertObservation();
+        handler.reject(rejected);
+        handler.reject(alsoRejected);
+        BatchResponse response = handler.executeRequests(batch(false, insertObservation(), rejected,
+                insertObservation(), alsoRejected));
+        assertThat(results(response), contains(true, false, true, false));
+        assertThat(distinctExceptions(response), is(2));
+    }
+
+    @Test
+    public void shouldStopMergedRequestsAtFailure() throws OwsExceptionReport {
+        handler.setMergeInsertObservations(true);
+        InsertObservationRequest rejected = insertObservation();
+        InsertObservationRequest last = insertObservation();
+        handler.reject(rejected);
+        BatchResponse response = handler.executeRequests(batch(true, insertObservation(), rejected, last));
+        assertThat(results(response), contains(true, false));
+        assertThat(handler.received.contains(last), is(false));
+    }
+
+    @Test
+    public void shouldStopSequentialRequestsAtFailure() throws OwsExceptionReport {
+        InsertObservationRequest rejected = insertObservation();
+        handler.reject(rejected);
+        BatchResponse response = handler.executeRequests(batch(true, rejected, getObservation()));
+        assertThat(results(response), contains(false));
+        assertThat(handler.received, hasSize(1));
+    }
+
+    @Test
+    public void shouldPreserveOrderOfConcurrentRequests() throws OwsExceptionReport {
+        handler.setParallelism(4);
+        List<OwsServiceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(getObservation());
+        }
+        handler.delay(requests.get(0), 200);
+        BatchResponse response = handler.executeRequests(batch(false, requests.toArray(new OwsServiceRequest[0])));
+        assertThat(handler.requestsOf(response), is(requests));
+    }
+
+    @Test
+    public void shouldExecuteConcurrentRequestsIfExecutorIsReplaced() throws OwsExceptionReport {
+        handler.setParallelism(2);
+        InsertObservationRequest insert = insertObservation();
+        // the executor is replaced while the batch is executed
+        handler.onReceive(insert, () -> handler.setParallelism(3));
+        OwsServiceRequest first = getObservation();
+        OwsServiceRequest second = getObservation();
+        BatchResponse response = handler.executeRequests(batch(false, insert, first, second));
+        assertThat(results(response), contains(true, true, true));
+        assertThat(handler.requestsOf(response).subList(1, 3), contains(first, second));
+    }
+
+    private static BatchRequest batch(boolean stopAtFailure, OwsServiceRequest... requests) {
+        BatchRequest batch = new BatchRequest();
+        batch.setService(SosConstants.SOS);
+        batch.setVersion(Sos2Constants.SERVICEVERSION);
+        batch.setStopAtFailure(stopAtFailure);
+        for (OwsServiceRequest request : requests) {
+            batch.add(request);
+        }
+        return batch;
+    }
+
+    private static InsertObservationRequest insertObservation() {
+        InsertObservationRequest request = new InsertObservationRequest();
+        request.setService(SosConstants.SOS);
+        request.setVersion(Sos2Constants.SERVICEVERSION);
+        request.setOfferings(new ArrayList<>(Collections.singletonList(OFFERING)));
+        request.setObservation(new ArrayList<>(Collections.singletonList(new OmObservation())));
+        return request;
+    }
+
+    private static GetObservationRequest getObservation() {
+        GetObservationRequest request = new GetObservationRequest();
+        request.setService(SosConstants.SOS);
+        request.setVersion(Sos2Constants.SERVICEVERSION);
+        return request;
+    }
+
+    private static List<Boolean> results(BatchResponse response) {
+        return response.getResponses().stream().map(r -> !r.isException()).collect(Collectors.toList());
+    }
+
+    private static int distinctExceptions(BatchResponse response) {
+        Map<OwsExceptionReport, Boolean> exceptions = new IdentityHashMap<>();
+        response.getResponses().stream().filter(r -> r.isException())
+                .forEach(r -> exceptions.put(r.getException(), true));
+        return exceptions.size();
+    }
+
+    /**
+     * Executes the requests without service operators and records the
+     * received requests.
+     */
+    private static class StubBatchOperationHandler extends BatchOperationHandler {
+        private final List<OwsServiceRequest> received = Collections.synchronizedList(new ArrayList<>());
+        private final Map<OwsServiceResponse, OwsServiceRequest> responses =
+                Collections.synchronizedMap(new IdentityHashMap<>());
+        private final Set<OmObservation> rejected =
+                Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+        private final Map<OwsServiceRequest, Long> delays = Collections.synchronizedMap(new IdentityHashMap<>());
+        private final Map<OwsServiceRequest, Runnable> actions =
+                Collections.synchronizedMap(new IdentityHashMap<>());
+
+        void reject(InsertObservationRequest request) {
+            rejected.addAll(request.getObservations());
+        }
+
+        void delay(OwsServiceRequest request, long millis) {
+            delays.put(request, millis);
+        }
+
+        void onReceive(OwsServiceRequest request, Runnable action) {
+            actions.put(request, action);
+        }
+
+        List<OwsServiceRequest> requestsOf(BatchResponse response) {
+            return response.getResponses().stream().map(r -> responses.get(r.getResponse()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        protected OwsServiceResponse receiveRequest(OwsServiceRequest request) throws OwsExceptionReport {
+            received.add(request);
+            Runnable action = actions.get(request);
+            if (action != null) {
+                action.run();
+            }
+            Long delay = delays.get(request);
+            if (delay != null) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            OwsServiceResponse response;
+            if (request instanceof InsertObservationRequest) {
+                if (((InsertObservationRequest) request).getObservations().stream().anyMatch(rejected::contains)) {
+                    throw new NoApplicableCodeException().withMessage("Observation rejected");
+                }
+                response = new InsertObservationResponse();
+            } else {
+                response = new GetObservationResponse();
+            }
+            response.setService(request.getService());
+            response.setVersion(request.getVersion());
+            responses.put(response, request);
+            return response;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.dao;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.shetland.ogc.gml.ReferenceType;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.NamedValue;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityRequest;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.DataAvailability;
+
+public class GetDataAvailabilityDaoTest {
+
+    private static final DateTime TIME = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    private final Object connection = new Object();
+
+    private final GetDataAvailabilityRequest request = new GetDataAvailabilityRequest();
+
+    private final StubGetDataAvailabilityDao dao = new StubGetDataAvailabilityDao();
+
+    @Test
+    public void shouldSetResultTimesOfEachDataAvailability() throws Exception {
+        DataAvailability first = dataAvailability("feature-1");
+        DataAvailability second = dataAvailability("feature-2");
+        dao.setResultTimes(Arrays.asList(first, second), request, connection);
+        assertThat(first.getResultTimes(), contains(resultTime("feature-1")));
+        assertThat(second.getResultTimes(), contains(resultTime("feature-2")));
+        assertThat(dao.called, contains(first, second));
+    }
+
+    @Test
+    public void shouldSetMetadataOfEachDataAvailability() throws Exception {
+        DataAvailability first = dataAvailability("feature-1");
+        DataAvailability second = dataAvailability("feature-2");
+        dao.setMetadata(Arrays.asList(first, second), connection);
+        assertThat(first.getMetadata(), hasEntry("feature", dao.metadata.get(first)));
+        assertThat(second.getMetadata(), hasEntry("feature", dao.metadata.get(second)));
+        assertThat(dao.called, contains(first, second));
+    }
+
+    @Test
+    public void shouldAcceptEmptyCollections() throws Exception {
+        dao.setResultTimes(Collections.emptyList(), request, connection);
+        dao.setMetadata(Collections.emptyList(), connection);
+        assertThat(dao.called.isEmpty(), is(true));
+    }
+
+    private static DataAvailability dataAvailability(String feature) {
+        return new DataAvailability(new ReferenceType("procedure"), new ReferenceType("phenomenon"),
+                new ReferenceType(feature), new ReferenceType("offering"),
+                new TimePeriod(TIME, TIME.plusHours(1)));
+    }
+
+    private static TimeInstant resultTime(String feature) {
+        return new TimeInstant(TIME.plusMinutes(feature.hashCode() % 60));
+    }
+
+    private class StubGetDataAvailabilityDao implements GetDataAvailabilityDao {
+
+        private final List<DataAvailability> called = new LinkedList<>();
+
+        private final Map<DataAvailability, NamedValue<?>> metadata = new IdentityHashMap<>();
+
+        @Override
+        public Locale getDefaultLanguage() {
+            return Locale.ENGLISH;
+        }
+
+        @Override
+        public List<TimeInstant> getResultTimes(DataAvailability dataAvailability,
+                GetDataAvailabilityRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<TimeInstant> getResultTimes(DataAvailability dataAvailability, GetDataAvailabilityRequest request,
+                Object connection) {
+            assertThat(request, sameInstance(GetDataAvailabilityDaoTest.this.request));
+            assertThat(connection, sameInstance(GetDataAvailabilityDaoTest.this.connection));
+            called.add(dataAvailability);
+            return Collections.singletonList(resultTime(dataAvailability.getFeatureOfInterest().getHref()));
+        }
+
+        @Override
+        public Map<String, NamedValue<?>> getMetadata(DataAvailability dataAvailability) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, NamedValue<?>> getMetadata(DataAvailability dataAvailability, Object connection) {
+            assertThat(connection, sameInstance(GetDataAvailabilityDaoTest.this.connection));
+            called.add(dataAvailability);
+            NamedValue<?> value = new NamedValue<>();
+            metadata.put(dataAvailability, value);
+            return Collections.singletonMap("feature", value);
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RequestTimingsTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RequestTimings timings = new RequestTimings();
+
+    @Test
+    public void shouldRecordTimedStages() {
+        StageTimer timer = StageTimer.begin("GetObservation");
+        try {
+            timer.add(RequestStage.QUERY, 3 * MILLIS);
+            timer.add(RequestStage.QUERY, 4 * MILLIS);
+            timer.add(RequestStage.PARAMETER_CHECK, MILLIS);
+        } finally {
+            timer.end();
+        }
+        timings.record("GetObservation", timer, 10 * MILLIS, false);
+        timings.record("GetObservation", RequestStage.ENCODING, 2 * MILLIS);
+
+        Map<RequestStage, LatencyHistogram> stages = timings.getHistograms().get("GetObservation");
+        assertThat(stages, not(hasKey(RequestStage.MODIFICATION)));
+        assertThat(stages.get(RequestStage.QUERY).getCount(), is(1L));
+        assertThat(stages.get(RequestStage.QUERY).getSum(), is(7 * MILLIS));
+        assertThat(stages.get(RequestStage.TOTAL).getMax(), is(10 * MILLIS));
+        assertThat(stages.get(RequestStage.ENCODING).getCount(), is(1L));
+        assertThat(timings.getFailures(), hasEntry("GetObservation", 0L));
+    }
+
+    @Test
+    public void shouldSeparateNestedRequests() {
+        StageTimer outer = StageTimer.begin("Batch");
+        try {
+            StageTimer inner = StageTimer.begin("GetObservation");
+            try {
+                StageTimer.stop(RequestStage.OBSERVATION_CREATION, StageTimer.start());
+            } finally {
+                inner.end();
+            }
+            assertThat(inner.isTimed(RequestStage.OBSERVATION_CREATION), is(true));
+            assertThat(StageTimer.current().get(), is(outer));
+            StageTimer.stop(RequestStage.QUERY, StageTimer.start());
+        } finally {
+            outer.end();
+        }
+        assertThat(outer.isTimed(RequestStage.OBSERVATION_CREATION), is(false));
+        assertThat(outer.isTimed(RequestStage.QUERY), is(true));
+    }
+
+    @Test
+    public void shouldIgnoreStagesOutsideOfRequests() {
+        StageTimer.stop(RequestStage.QUERY, StageTimer.start());
+        StageTimer timer = StageTimer.begin("GetCapabilities");
+        timer.end();
+        timings.record("GetCapabilities", timer, MILLIS, true);
+        assertThat(timings.getFailures(), hasEntry("GetCapabilities", 1L));
+        assertThat(timings.getTimings().size(), is(1));
+        timings.reset();
+        assertThat(timings.getHistograms().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class SlowQueryLogTest {
+
+    private final SlowQueryLog log = new SlowQueryLog();
+
+    @Test
+    public void shouldOnlyBeSlowIfEnabled() {
+        log.setThreshold(10);
+        assertThat(log.isSlow(TimeUnit.SECONDS.toNanos(1)), is(false));
+        log.setEnabled(true);
+        assertThat(log.isSlow(TimeUnit.MILLISECONDS.toNanos(9)), is(false));
+        assertThat(log.isSlow(TimeUnit.MILLISECONDS.toNanos(10)), is(true));
+    }
+
+    @Test
+    public void shouldKeepTheMostRecentQueries() {
+        log.setCapacity(2);
+        log.record(query("a"));
+        log.record(query("b"));
+        log.record(query("c"));
+        assertThat(sql(log.getQueries()), contains("c", "b"));
+        assertThat(log.getCount(), is(3L));
+
+        log.setCapacity(1);
+        assertThat(sql(log.getQueries()), contains("c"));
+
+        log.clear();
+        assertThat(log.getQueries(), is(empty()));
+        assertThat(log.getCount(), is(0L));
+    }
+
+    private static SlowQuery query(String sql) {
+        return new SlowQuery(0, 0, sql, Collections.emptyList(), -1, null, null, 0);
+    }
+
+    private static List<String> sql(List<SlowQuery> queries) {
+        return queries.stream().map(SlowQuery::getSql).collect(Collectors.toList());
+    }
+}
@@ -32,6 +32,9 @@ import org.hamcrest.MatcherAssert;
 import org.hamcrest.core.Is;
 import org.junit.Assert;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.locationtech.jts.geom.Coordinate;
@@ -132,6 +135,22 @@ public class GeometryHandlerTest {
         MatcherAssert.assertThat(transformToStorageEpsg.distance(get31467Geometry()) < DISTANCE_TRANSFORMED, Is.is(true));
     }
 
+    @Test
+    public void shouldTransformGeometriesInBulkLikeSingleGeometries() throws OwsExceptionReport {
+        geometryHandler.clearSupportedCRSMap();
+        List<Geometry> geometries = Arrays.asList(get31467Geometry(), get4326Geometry(), null, get31467Geometry());
+        List<Geometry> transformed = geometryHandler.transform(geometries, EPSG_4326);
+        Assert.assertEquals(geometries.size(), transformed.size());
+        Geometry single = geometryHandler.transform(get31467Geometry(), EPSG_4326);
+        Assert.assertEquals(EPSG_4326, transformed.get(0).getSRID());
+        MatcherAssert.assertThat(transformed.get(0).distance(single) < DISTANCE, Is.is(true));
+        MatcherAssert.assertThat(transformed.get(3).distance(single) < DISTANCE, Is.is(true));
+        Assert.assertSame(geometries.get(1), transformed.get(1));
+        Assert.assertNull(transformed.get(2));
+        // the passed geometries are not modified
+        MatcherAssert.assertThat(geometries.get(0).distance(get31467Geometry()) < DISTANCE, Is.is(true));
+    }
+
     @Test
     public void shouldSwitchGeometryForDatasourceNorthingFalseEpsg4326() throws OwsExceptionReport {
         geometryHandler.clearSupportedCRSMap();
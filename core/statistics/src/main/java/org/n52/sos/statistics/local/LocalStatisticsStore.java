@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics.local;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.inject.Inject;
+
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.ConfigLocationProvider;
+import org.n52.janmayen.lifecycle.Constructable;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.sos.statistics.RequestStatistics;
+import org.n52.sos.statistics.StatisticsBucket;
+import org.n52.sos.statistics.StatisticsStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link StatisticsStore} that aggregates the statistics of the current time
+ * interval in memory and appends the completed buckets to one JSON lines file
+ * per day (UTC). Files older than the retention period are deleted hourly.
+ *
+ * @since 5.2.3
+ */
+@Configurable
+public class LocalStatisticsStore implements StatisticsStore, Constructable, Destroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalStatisticsStore.class);
+
+    private static final String FILE_PREFIX = "statistics-";
+
+    private static final String FILE_SUFFIX = ".json";
+
+    private static final String DIRECTORY_NAME = "statistics";
+
+    private static final String TMP_DIRECTORY_NAME = "52n-sos-statistics";
+
+    private final StatisticsBucketCodec codec = new StatisticsBucketCodec();
+
+    /**
+     * Guards {@link #current} and the transfer of a completed bucket to
+     * {@link #pending}.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Guards the files and the removal of written buckets from
+     * {@link #pending}, so that a query sees every bucket exactly once.
+     */
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+
+    private final Set<StatisticsBucket> pending = ConcurrentHashMap.newKeySet();
+
+    private ConfigLocationProvider configLocationProvider;
+
+    private ScheduledExecutorService executor;
+
+    private volatile StatisticsBucket current;
+
+    private volatile boolean enabled;
+
+    private volatile String directory;
+
+    private volatile long bucketLength = TimeUnit.MINUTES.toMillis(15);
+
+    private volatile int retentionDays = 90;
+
+    @Inject
+    public void setConfigLocationProvider(Optional<ConfigLocationProvider> configLocationProvider) {
+        this.configLocationProvider = configLocationProvider.orElse(null);
+    }
+
+    @Setting(LocalStatisticsSettings.ENABLED)
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Setting(LocalStatisticsSettings.DIRECTORY)
+    public void setDirectory(String directory) {
+        this.directory = directory == null || directory.trim().isEmpty() ? null : directory.trim();
+    }
+
+    @Setting(LocalStatisticsSettings.BUCKET_MINUTES)
+    public void setBucketMinutes(int bucketMinutes) {
+        Validation.greaterZero("Local statistics bucket size", bucketMinutes);
+        this.bucketLength = TimeUnit.MINUTES.toMillis(Math.min(bucketMinutes, TimeUnit.DAYS.toMinutes(1)));
+    }
+
+    @Setting(LocalStatisticsSettings.RETENTION_DAYS)
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = Math.max(0, retentionDays);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "52n-sos-local-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::completeExpired, 1, 1, TimeUnit.MINUTES);
+        executor.scheduleWithFixedDelay(this::cleanup, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (executor == null) {
+            return;
+        }
+        synchronized (lock) {
+            complete(current);
+            current = null;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Could not write all local statistics");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void record(RequestStatistics statistics) {
+        if (!enabled) {
+            return;
+        }
+        long time = statistics.getTime();
+        StatisticsBucket bucket = current;
+        if (bucket == null || time >= bucket.getEnd()) {
+            bucket = getBucket(time);
+        }
+        bucket.add(statistics);
+    }
+
+    @Override
+    public List<StatisticsBucket> getBuckets(long from, long to) throws IOException {
+        Map<Long, StatisticsBucket> buckets = new TreeMap<>();
+        fileLock.readLock().lock();
+        try {
+            List<StatisticsBucket> unwritten = new ArrayList<>(pending);
+            synchronized (lock) {
+                if (current != null) {
+                    unwritten.add(current);
+                }
+            }
+            Path dir = getDirectory();
+            LocalDate last = day(to - 1);
+            for (LocalDate day = day(from); !day.isAfter(last); day = day.plusDays(1)) {
+                Path file = dir.resolve(FILE_PREFIX + day + FILE_SUFFIX);
+                if (Files.isRegularFile(file)) {
+                    read(file, from, to, buckets);
+                }
+            }
+            unwritten.stream().filter(b -> b.overlaps(from, to)).forEach(b -> add(buckets, b));
+        } finally {
+            fileLock.readLock().unlock();
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private StatisticsBucket getBucket(long time) {
+        synchronized (lock) {
+            StatisticsBucket bucket = current;
+            // requests with a slightly older time stamp are added to the current bucket
+            if (bucket != null && time < bucket.getEnd()) {
+                return bucket;
+            }
+            long length = bucketLength;
+            long start = time - Math.floorMod(time, length);
+            StatisticsBucket next = new StatisticsBucket(start, start + length);
+            complete(bucket);
+            current = next;
+            return next;
+        }
+    }
+
+    private void completeExpired() {
+        synchronized (lock) {
+            StatisticsBucket bucket = current;
+            if (bucket != null && System.currentTimeMillis() >= bucket.getEnd()) {
+                complete(bucket);
+                current = null;
+            }
+        }
+    }
+
+    private void complete(StatisticsBucket bucket) {
+        if (bucket == null) {
+            return;
+        }
+        if (executor == null || executor.isShutdown()) {
+            LOG.debug("Discarding local statistics of a store that is not running");
+            return;
+        }
+        pending.add(bucket);
+        // written asynchronously, so that requests that obtained the bucket
+        // just before the rollover are still contained
+        executor.execute(() -> write(bucket));
+    }
+
+    private void write(StatisticsBucket bucket) {
+        fileLock.writeLock().lock();
+        try {
+            if (!bucket.isEmpty()) {
+                Path dir = getDirectory();
+                Files.createDirectories(dir);
+                Path file = dir.resolve(FILE_PREFIX + day(bucket.getStart()) + FILE_SUFFIX);
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write(codec.encode(bucket));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Could not write the local statistics", e);
+        } finally {
+            pending.remove(bucket);
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private void read(Path file, long from, long to, Map<Long, StatisticsBucket> buckets) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    StatisticsBucket bucket = codec.decode(line);
+                    if (bucket.overlaps(from, to)) {
+                        add(buckets, bucket);
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Skipping invalid local statistics in {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void add(Map<Long, StatisticsBucket> buckets, StatisticsBucket bucket) {
+        // buckets of the same interval may be written more than once, e.g. after a restart
+        buckets.computeIfAbsent(bucket.getStart(), start -> new StatisticsBucket(start, bucket.getEnd()))
+                .merge(bucket);
+    }
+
+    private void cleanup() {
+        int days = retentionDays;
+        if (days <= 0) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(days);
+        Path dir = getDirectory();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        fileLock.writeLock().lock();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    LocalDate day = LocalDate.parse(
+                            name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+                    if (day.isBefore(cutoff)) {
+                        LOG.debug("Deleting expired local statistics {}", file);
+                        Files.delete(file);
+                    }
+                } catch (DateTimeParseException e) {
+                    LOG.debug("Ignoring unknown file {}", file);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Could not delete expired local statistics", e);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private Path getDirectory() {
+        String configured = directory;
+        if (configured != null) {
+            return Paths.get(configured);
+        }
+        if (configLocationProvider != null && configLocationProvider.get() != null) {
+            return Paths.get(configLocationProvider.get(), DIRECTORY_NAME);
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"), TMP_DIRECTORY_NAME);
+    }
+
+    private static LocalDate day(long time) {
+        return Instant.ofEpochMilli(time).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+}
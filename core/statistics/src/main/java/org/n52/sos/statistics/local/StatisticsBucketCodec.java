@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics.local;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.n52.janmayen.Json;
+import org.n52.sos.statistics.LatencyHistogram;
+import org.n52.sos.statistics.StatisticsBucket;
+import org.n52.sos.statistics.StatisticsBucket.Dimension;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Encodes {@link StatisticsBucket}s as single line JSON documents.
+ *
+ * @since 5.2.3
+ */
+public class StatisticsBucketCodec {
+
+    private static final String START = "start";
+
+    private static final String END = "end";
+
+    private static final String COUNT = "count";
+
+    private static final String FAILURES = "failures";
+
+    private static final String COUNTS = "counts";
+
+    private static final String OPERATIONS = "operations";
+
+    private static final String HISTOGRAM = "histogram";
+
+    private static final String SUM = "sum";
+
+    private static final String MAX = "max";
+
+    public String encode(StatisticsBucket bucket) {
+        ObjectNode node = Json.nodeFactory().objectNode();
+        node.put(START, bucket.getStart());
+        node.put(END, bucket.getEnd());
+        node.put(COUNT, bucket.getCount());
+        node.put(FAILURES, bucket.getFailures());
+        ObjectNode counts = node.putObject(COUNTS);
+        for (Dimension dimension : Dimension.values()) {
+            ObjectNode values = counts.putObject(dimension.name());
+            bucket.getCounts(dimension).forEach(values::put);
+        }
+        ObjectNode operations = node.putObject(OPERATIONS);
+        Map<String, Long> failures = bucket.getFailuresByOperation();
+        bucket.getLatencies().forEach((operation, histogram) -> {
+            ObjectNode op = operations.putObject(operation);
+            op.put(FAILURES, failures.getOrDefault(operation, 0L));
+            op.put(SUM, histogram.getSum());
+            op.put(MAX, histogram.getMax());
+            ArrayNode buckets = op.putArray(HISTOGRAM);
+            for (long count : histogram.getCounts()) {
+                buckets.add(count);
+            }
+        });
+        // the line based files require a document without line breaks
+        return node.toString();
+    }
+
+    public StatisticsBucket decode(String line) throws IOException {
+        JsonNode node = Json.loadString(line);
+        StatisticsBucket bucket = new StatisticsBucket(node.path(START).asLong(), node.path(END).asLong());
+        bucket.addTotals(node.path(COUNT).asLong(), node.path(FAILURES).asLong());
+        for (Dimension dimension : Dimension.values()) {
+            Iterator<Entry<String, JsonNode>> it = node.path(COUNTS).path(dimension.name()).fields();
+            while (it.hasNext()) {
+                Entry<String, JsonNode> entry = it.next();
+                bucket.addCount(dimension, entry.getKey(), entry.getValue().asLong());
+            }
+        }
+        Iterator<Entry<String, JsonNode>> it = node.path(OPERATIONS).fields();
+        while (it.hasNext()) {
+            Entry<String, JsonNode> entry = it.next();
+            JsonNode op = entry.getValue();
+            JsonNode histogram = op.path(HISTOGRAM);
+            long[] counts = new long[histogram.size()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = histogram.get(i).asLong();
+            }
+            try {
+                bucket.addOperation(entry.getKey(), op.path(FAILURES).asLong(),
+                        new LatencyHistogram(counts, op.path(SUM).asLong(), op.path(MAX).asLong()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid histogram of operation " + entry.getKey(), e);
+            }
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.statistics.local;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.n52.sos.statistics.LatencyHistogram;
+import org.n52.sos.statistics.RequestStatistics;
+import org.n52.sos.statistics.StatisticsBucket;
+import org.n52.sos.statistics.StatisticsBucket.Dimension;
+
+public class LocalStatisticsStoreTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRoundTripBuckets() throws IOException {
+        StatisticsBucket bucket = new StatisticsBucket(0, HOUR);
+        bucket.add(statistics(10, "GetObservation", false));
+        bucket.add(statistics(20, "GetObservation", true));
+        StatisticsBucketCodec codec = new StatisticsBucketCodec();
+        String encoded = codec.encode(bucket);
+        assertThat(encoded.contains("\n"), is(false));
+        StatisticsBucket decoded = codec.decode(encoded);
+        assertThat(decoded.getCount(), is(2L));
+        assertThat(decoded.getFailures(), is(1L));
+        assertThat(decoded.getCounts(Dimension.OFFERING), hasEntry("offering", 2L));
+        assertThat(decoded.getFailuresByOperation(), hasEntry("GetObservation", 1L));
+        LatencyHistogram histogram = decoded.getLatencies().get("GetObservation");
+        assertThat(histogram.getCount(), is(2L));
+        assertThat(histogram.getMax(), is(TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
+    @Test
+    public void shouldPersistBucketsOnDestroy() throws IOException {
+        LocalStatisticsStore store = createStore();
+        store.record(statistics(HOUR + 10, "GetObservation", false));
+        store.record(statistics(HOUR + 20, "DescribeSensor", false));
+        store.record(statistics(2 * HOUR + 10, "GetObservation", true));
+        store.destroy();
+
+        LocalStatisticsStore restarted = createStore();
+        List<StatisticsBucket> buckets = restarted.getBuckets(0, 3 * HOUR);
+        assertThat(buckets, hasSize(2));
+        assertThat(buckets.get(0).getCount(), is(2L));
+        assertThat(buckets.get(1).getFailures(), is(1L));
+        assertThat(restarted.getBuckets(2 * HOUR, 3 * HOUR), hasSize(1));
+        restarted.destroy();
+    }
+
+    @Test
+    public void shouldIgnoreRequestsIfDisabled() throws IOException {
+        LocalStatisticsStore store = createStore();
+        store.setEnabled(false);
+        store.record(statistics(HOUR, "GetObservation", false));
+        assertThat(store.getBuckets(0, 2 * HOUR), hasSize(0));
+        store.destroy();
+    }
+
+    private LocalStatisticsStore createStore() {
+        LocalStatisticsStore store = new LocalStatisticsStore();
+        store.setConfigLocationProvider(Optional.empty());
+        store.setDirectory(folder.getRoot().getAbsolutePath());
+        store.setBucketMinutes(60);
+        store.setRetentionDays(0);
+        store.setEnabled(true);
+        store.init();
+        return store;
+    }
+
+    private RequestStatistics statistics(long time, String operation, boolean failed) {
+        return new RequestStatistics(time, TimeUnit.MILLISECONDS.toNanos(time % HOUR), "SOS", "2.0.0", operation,
+                null, Collections.singleton("offering"), Arrays.asList("procedure"), failed);
+    }
+}
@@ -31,6 +31,8 @@ package org.n52.sos.ds;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -122,16 +124,31 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
         try {
             GDARequestContext context = new GDARequestContext(request);
             boolean gdaV20 = checkForGDAv20(request);
+            Map<String, OfferingEntity> offerings = new LinkedHashMap<>();
             for (final DatasetEntity entity : new DatasetDao<>(session).getAllInstances(createDbQuery(request))) {
                 if (gdaV20) {
                     processDataAvailabilityV2(entity, context, session);
+                    if (entity.isSetOffering()) {
+                        offerings.putIfAbsent(entity.getOffering().getIdentifier(), entity.getOffering());
+                    }
                 } else {
                     processDataAvailability(entity, context, session);
                 }
             }
+            if (dao.isPresent() && context.isSetDataAvailabilityList()) {
+                if (isIncludeResultTime(request)) {
+                    dao.get().setResultTimes(context.getDataAvailabilityList(), request, session);
+                }
+                if (gdaV20) {
+                    dao.get().setMetadata(context.getDataAvailabilityList(), session);
+                }
+            }
             if (!gdaV20) {
                 return checkForDuplictation(context.getDataAvailabilityList());
             }
+            for (OfferingEntity offering : offerings.values()) {
+                checkForParentOfferings(context, offering);
+            }
             return context.getDataAvailabilityList();
         } catch (DataAccessException e) {
             throw new NoApplicableCodeException().causedBy(e)
@@ -171,9 +188,6 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
             if (isShowCount(context.getRequest()) && entity.getObservationCount() >= 0) {
                 dataAvailability.setCount(entity.getObservationCount());
             }
-            if (isIncludeResultTime(context.getRequest()) && dao.isPresent()) {
-                dataAvailability.setResultTimes(dao.get().getResultTimes(dataAvailability, context.getRequest()));
-            }
             return dataAvailability;
         }
         return null;
@@ -201,7 +215,9 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
     }
 
     /**
-     * Get {@link DataAvailability}s for each offering of a series
+     * Get {@link DataAvailability}s for each offering of a series. The parent
+     * offerings, metadata and result times are added after all series are
+     * processed.
      *
      * @param entity
      *            the {@link DatasetEntity} to get
@@ -216,12 +232,8 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
         DataAvailability dataAvailability = defaultProcessDataAvailability(entity, context, session);
         if (dataAvailability != null) {
             dataAvailability.setFormatDescriptor(getFormatDescriptor(context, entity));
-            if (dao.isPresent()) {
-                dataAvailability.setMetadata(dao.get().getMetadata(dataAvailability));
-            }
             context.addDataAvailability(dataAvailability);
         }
-        checkForParentOfferings(context, entity.getOffering());
     }
 
     private TimePeriod createTimePeriod(DatasetEntity entity) {
@@ -231,8 +243,10 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
     private void checkForParentOfferings(GDARequestContext context, OfferingEntity offeringEntity) {
         if (context.isSetDataAvailabilityList()) {
             List<String> requestedOfferings = context.getRequest().getOfferings();
+            Set<String> childOfferings =
+                    context.getChildOfferings().computeIfAbsent(offeringEntity.getIdentifier(),
+                            identifier -> getChildOfferings(offeringEntity));
             for (String requestedOffering : requestedOfferings) {
-                Set<String> childOfferings = getChildOfferings(offeringEntity);
                 if (!childOfferings.isEmpty()) {
                     if (context.hasDataAvailability(requestedOffering)) {
                         Set<DataAvailability> parentDataAvailabilities =
@@ -281,27 +295,40 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
                 || GetDataAvailabilityConstants.NS_GDA_20.equals(request.getNamespace()) || isForceGDAv20Response();
     }
 
-    private List<DataAvailability> checkForDuplictation(List<DataAvailability> dataAvailabilityValues) {
+    /**
+     * Merge equal {@link DataAvailability}s. Only {@link DataAvailability}s
+     * with the same procedure, observed property and feature are compared.
+     *
+     * @param dataAvailabilityValues
+     *            the {@link DataAvailability}s to check
+     * @return the merged {@link DataAvailability}s
+     */
+    List<DataAvailability> checkForDuplictation(List<DataAvailability> dataAvailabilityValues) {
         List<DataAvailability> checked = Lists.newLinkedList();
+        Map<String, List<DataAvailability>> checkedByConstellation = new HashMap<>();
         for (DataAvailability dataAvailability : dataAvailabilityValues) {
-            if (checked.isEmpty()) {
-                checked.add(dataAvailability);
-            } else {
-                boolean notDuplicated = true;
-                for (DataAvailability checkedDA : checked) {
-                    if (dataAvailability.equals(checkedDA)) {
-                        checkedDA.getPhenomenonTime().extendToContain(dataAvailability.getPhenomenonTime());
-                        notDuplicated = false;
-                    }
-                }
-                if (notDuplicated) {
-                    checked.add(dataAvailability);
+            List<DataAvailability> candidates = checkedByConstellation
+                    .computeIfAbsent(getConstellationKey(dataAvailability), key -> new LinkedList<>());
+            boolean notDuplicated = true;
+            for (DataAvailability checkedDA : candidates) {
+                if (dataAvailability.equals(checkedDA)) {
+                    checkedDA.getPhenomenonTime().extendToContain(dataAvailability.getPhenomenonTime());
+                    notDuplicated = false;
                 }
             }
+            if (notDuplicated) {
+                candidates.add(dataAvailability);
+                checked.add(dataAvailability);
+            }
         }
         return checked;
     }
 
+    private String getConstellationKey(DataAvailability dataAvailability) {
+        return dataAvailability.getProcedure().getHref() + "|" + dataAvailability.getObservedProperty().getHref()
+                + "|" + dataAvailability.getFeatureOfInterest().getHref();
+    }
+
     private ReferenceType getProcedureReference(DatasetEntity entity, Map<String, ReferenceType> procedures) {
         String identifier = entity.getProcedure().getIdentifier();
         if (!procedures.containsKey(identifier)) {
@@ -426,8 +453,9 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
             observationTypes.add(getObservationType(entity));
         }
         for (String observationType : observationTypes) {
-            Set<String> responseFormats = getResponseFormatsForObservationType(observationType,
-                    context.getRequest().getService(), context.getRequest().getVersion());
+            Set<String> responseFormats = context.getResponseFormats().computeIfAbsent(observationType,
+                    type -> getResponseFormatsForObservationType(type, context.getRequest().getService(),
+                            context.getRequest().getVersion()));
             for (String responseFormat : responseFormats) {
                 if (responsFormatObservationTypesMap.containsKey(responseFormat)) {
                     responsFormatObservationTypesMap.get(responseFormat).add(observationType);
@@ -470,6 +498,12 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
 
         private Map<String, ReferenceType> offerings = new HashMap<>();
 
+        private Map<String, List<DataAvailability>> dataAvailabilityByOffering = new HashMap<>();
+
+        private Map<String, Set<String>> childOfferings = new HashMap<>();
+
+        private Map<String, Set<String>> responseFormats = new HashMap<>();
+
         public GDARequestContext(GetDataAvailabilityRequest request) {
             this.request = request;
         }
@@ -494,21 +528,41 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
             return offerings;
         }
 
+        /**
+         * @return child offerings per offering identifier
+         */
+        public Map<String, Set<String>> getChildOfferings() {
+            return childOfferings;
+        }
+
+        /**
+         * @return response formats per observation type
+         */
+        public Map<String, Set<String>> getResponseFormats() {
+            return responseFormats;
+        }
+
         public GDARequestContext setDataAvailabilityList(List<DataAvailability> dataAvailabilityValues) {
             this.dataAvailabilityValues.clear();
+            this.dataAvailabilityByOffering.clear();
             return addDataAvailabilities(dataAvailabilityValues);
         }
 
         public GDARequestContext addDataAvailability(DataAvailability dataAvailability) {
             if (dataAvailability != null) {
                 this.dataAvailabilityValues.add(dataAvailability);
+                if (dataAvailability.getOfferingString() != null) {
+                    this.dataAvailabilityByOffering
+                            .computeIfAbsent(dataAvailability.getOfferingString(), o -> Lists.newArrayList())
+                            .add(dataAvailability);
+                }
             }
             return this;
         }
 
         public GDARequestContext addDataAvailabilities(Collection<DataAvailability> dataAvailabilityValues) {
             if (dataAvailabilityValues != null) {
-                this.dataAvailabilityValues.addAll(dataAvailabilityValues);
+                dataAvailabilityValues.forEach(this::addDataAvailability);
             }
             return this;
         }
@@ -518,26 +572,16 @@ public class GetDataAvailabilityHandler extends AbstractGetDataAvailabilityHandl
         }
 
         public boolean hasDataAvailability(String requestedOffering) {
-            for (DataAvailability dataAvailability : dataAvailabilityValues) {
-                if (requestedOffering.equals(dataAvailability.getOfferingString())) {
-                    return true;
-                }
-            }
-            return false;
+            return dataAvailabilityByOffering.containsKey(requestedOffering);
         }
 
         public Set<DataAvailability> getDataAvailability(String offering) {
-            Set<DataAvailability> das = Sets.newHashSet();
-            for (DataAvailability dataAvailability : dataAvailabilityValues) {
-                if (offering.equals(dataAvailability.getOfferingString())) {
-                    das.add(dataAvailability);
-                }
-            }
-            return das;
+            List<DataAvailability> das = dataAvailabilityByOffering.get(offering);
+            return das != null ? Sets.newHashSet(das) : Sets.newHashSet();
         }
 
         public boolean isSetDataAvailabilityList() {
-            return getDataAvailabilityList() != null && !getDataAvailabilityList().isEmpty();
+            return !dataAvailabilityValues.isEmpty();
         }
 
     }
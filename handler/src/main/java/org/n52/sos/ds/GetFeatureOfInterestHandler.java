@@ -225,6 +225,7 @@ public class GetFeatureOfInterestHandler extends AbstractGetFeatureOfInterestHan
                 req.isSetObservableProperties() || req.isSetProcedures() ? new LinkedHashSet<>()
                         : new FeatureDao(session).get(createFoiDbQuery(req));
         if (datasets != null) {
+            initializeFeatures(datasets, allFeatures, session);
             Set<AbstractFeatureEntity> features = datasets.stream().filter(d -> d.isSetFeature()
                     && (d.isPublished() || !d.isPublished() && d.getDatasetType().equals(DatasetType.not_initialized)))
                     .map(d -> d.getFeature()).collect(Collectors.toSet());
@@ -244,6 +245,35 @@ public class GetFeatureOfInterestHandler extends AbstractGetFeatureOfInterestHan
         // }
     }
 
+    /**
+     * Initialize the features of the datasets and the parents of all features
+     * with one query per hierarchy level instead of one lazy load per feature
+     * and parent.
+     *
+     * @param datasets
+     *            the datasets
+     * @param features
+     *            the features queried without datasets
+     * @param session
+     *            Hibernate session
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     */
+    private void initializeFeatures(Collection<DatasetEntity> datasets, Collection<FeatureEntity> features,
+            Session session) throws OwsExceptionReport {
+        if (dao == null) {
+            return;
+        }
+        // a list, the hash code of a proxy would initialize it
+        List<AbstractFeatureEntity<?>> toInitialize = new ArrayList<>(features);
+        for (DatasetEntity dataset : datasets) {
+            if (dataset.isSetFeature()) {
+                toInitialize.add(dataset.getFeature());
+            }
+        }
+        dao.initializeParents(toInitialize, session);
+    }
+
     private DbQuery createDbQuery(GetFeatureOfInterestRequest req) throws OwsExceptionReport {
         Map<String, String> map = Maps.newHashMap();
         if (req.isSetFeatureOfInterestIdentifiers()) {
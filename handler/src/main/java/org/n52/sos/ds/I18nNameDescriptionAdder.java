@@ -33,9 +33,22 @@ import java.net.URISyntaxException;
 import java.util.Locale;
 import java.util.Optional;
 
+import org.n52.iceland.i18n.I18NDAO;
+import org.n52.iceland.i18n.I18NDAORepository;
+import org.n52.iceland.i18n.metadata.AbstractI18NMetadata;
+import org.n52.iceland.i18n.metadata.I18NFeatureMetadata;
+import org.n52.iceland.i18n.metadata.I18NObservablePropertyMetadata;
+import org.n52.iceland.i18n.metadata.I18NOfferingMetadata;
+import org.n52.iceland.i18n.metadata.I18NProcedureMetadata;
 import org.n52.janmayen.i18n.LocaleHelper;
+import org.n52.janmayen.i18n.LocalizedString;
+import org.n52.janmayen.i18n.MultilingualString;
+import org.n52.series.db.beans.AbstractFeatureEntity;
 import org.n52.series.db.beans.Describable;
 import org.n52.series.db.beans.DescribableEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.ProcedureEntity;
 import org.n52.series.db.beans.i18n.I18nEntity;
 import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.gml.CodeType;
@@ -46,7 +59,11 @@ public interface I18nNameDescriptionAdder {
 
     default void addNameAndDescription(DescribableEntity entity, AbstractFeature feature, Locale requestedLocale,
             Locale defaultLocale, boolean showAllLanguageValues) throws OwsExceptionReport {
-        if (entity.hasTranslations()) {
+        Optional<? extends AbstractI18NMetadata> cached = getCachedMetadata(entity);
+        if (cached.isPresent()) {
+            addNameAndDescription(entity, feature, cached.get(), requestedLocale, defaultLocale,
+                    showAllLanguageValues);
+        } else if (entity.hasTranslations()) {
             if (requestedLocale != null) {
                 // specific locale was requested
                 Optional<I18nEntity<? extends Describable>> translation = getTranslation(entity, requestedLocale);
@@ -103,6 +120,102 @@ public interface I18nNameDescriptionAdder {
         }
     }
 
+    default void addNameAndDescription(DescribableEntity entity, AbstractFeature feature, AbstractI18NMetadata i18n,
+            Locale requestedLocale, Locale defaultLocale, boolean showAllLanguageValues) {
+        if (i18n.getLocales().isEmpty()) {
+            feature.addName(entity.getName());
+            feature.setDescription(entity.getDescription());
+        } else if (requestedLocale != null) {
+            // specific locale was requested
+            Optional<LocalizedString> name = getLocalization(i18n.getName(), requestedLocale);
+            if (name.isPresent()) {
+                feature.addName(new CodeType(name.get().getText(), URI.create(LocaleHelper.encode(requestedLocale))));
+            } else {
+                feature.addName(entity.getName());
+            }
+            feature.setDescription(getLocalization(i18n.getDescription(), requestedLocale)
+                    .map(LocalizedString::getText).orElse(entity.getDescription()));
+        } else {
+            if (showAllLanguageValues) {
+                // load all names
+                for (LocalizedString name : i18n.getName()) {
+                    feature.addName(new CodeType(name));
+                }
+            } else {
+                Optional<LocalizedString> name = getLocalization(i18n.getName(), defaultLocale);
+                if (name.isPresent()) {
+                    feature.addName(
+                            new CodeType(name.get().getText(), URI.create(LocaleHelper.encode(defaultLocale))));
+                } else {
+                    feature.addName(entity.getName());
+                }
+            }
+            // choose always the description in the default locale
+            feature.setDescription(getLocalization(i18n.getDescription(), defaultLocale)
+                    .map(LocalizedString::getText).orElse(entity.getDescription()));
+        }
+    }
+
+    default Optional<LocalizedString> getLocalization(MultilingualString string, Locale locale) {
+        if (locale == null) {
+            return Optional.empty();
+        }
+        Optional<LocalizedString> localization = string.getLocalization(locale);
+        if (localization.isPresent()) {
+            return localization;
+        }
+        for (Locale equivalent : LocaleHelper.getEquivalents(locale)) {
+            localization = string.getLocalization(equivalent);
+            if (localization.isPresent()) {
+                return localization;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get the translations of the entity from the cache of the
+     * {@link CachingI18NDAO}, if available.
+     *
+     * @param entity
+     *            the entity
+     * @return the cached translations or an empty optional if the translations
+     *         of the entity should be used
+     */
+    default Optional<? extends AbstractI18NMetadata> getCachedMetadata(DescribableEntity entity) {
+        I18NDAORepository repository = getI18NDAORepository();
+        Class<? extends AbstractI18NMetadata> type = getI18NMetadataType(entity);
+        if (repository != null && type != null) {
+            I18NDAO<? extends AbstractI18NMetadata> dao = repository.getDAO(type);
+            if (dao instanceof CachingI18NDAO) {
+                return ((CachingI18NDAO<? extends AbstractI18NMetadata>) dao)
+                        .getCachedMetadata(entity.getIdentifier());
+            }
+        }
+        return Optional.empty();
+    }
+
+    default Class<? extends AbstractI18NMetadata> getI18NMetadataType(DescribableEntity entity) {
+        if (entity instanceof ProcedureEntity) {
+            return I18NProcedureMetadata.class;
+        } else if (entity instanceof PhenomenonEntity) {
+            return I18NObservablePropertyMetadata.class;
+        } else if (entity instanceof OfferingEntity) {
+            return I18NOfferingMetadata.class;
+        } else if (entity instanceof AbstractFeatureEntity) {
+            return I18NFeatureMetadata.class;
+        }
+        return null;
+    }
+
+    /**
+     * @return the repository of the {@link I18NDAO}s or {@code null} to use
+     *         the translations of the entities
+     */
+    default I18NDAORepository getI18NDAORepository() {
+        return null;
+    }
+
     default Optional<I18nEntity<? extends Describable>> getTranslation(DescribableEntity entity,
             Locale requestedLocale) {
         I18nEntity<? extends Describable> translation = entity.getTranslation(LocaleHelper.encode(requestedLocale));
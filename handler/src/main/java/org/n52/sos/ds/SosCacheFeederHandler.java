@@ -55,6 +55,7 @@ import org.n52.sos.cache.SosWritableContentCache;
 import org.n52.sos.ds.cache.CacheFeederSettingDefinitionProvider;
 import org.n52.sos.ds.cache.InitialCacheUpdate;
 import org.n52.sos.ds.cache.base.OfferingCacheUpdate;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
 import org.n52.sos.util.GeometryHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -130,6 +131,8 @@ public class SosCacheFeederHandler implements CacheFeederHandler {
                     this.serviceMetadataRepository,
                     geometryHandler);
             session = this.sessionStore.getSession();
+            // reference entities may have been changed outside of the SOS
+            ReferenceEntityCache.evict(session.getSessionFactory());
             update.setCache(cache);
             update.setErrors(errors);
             update.setSession(session);
@@ -41,6 +41,7 @@ import org.n52.iceland.i18n.metadata.I18NOfferingMetadata;
 import org.n52.iceland.i18n.metadata.I18NProcedureMetadata;
 import org.n52.iceland.ogc.ows.OwsServiceMetadataRepository;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.CachingI18NDAO;
 import org.n52.sos.ds.cache.AbstractThreadableDatasourceCacheUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +88,10 @@ public class I18NCacheUpdate extends AbstractThreadableDatasourceCacheUpdate {
     private Collection<Locale> getEntityLocales(Class<? extends AbstractI18NMetadata> type) throws OwsExceptionReport {
         I18NDAO<? extends AbstractI18NMetadata> dao = this.i18NDAORepository.getDAO(type);
         if (dao != null) {
+            if (dao instanceof CachingI18NDAO) {
+                // bulk load the translations, the locales are then taken from the cache
+                ((CachingI18NDAO<?>) dao).loadCache();
+            }
             return dao.getAvailableLocales();
         } else {
             return Collections.emptySet();
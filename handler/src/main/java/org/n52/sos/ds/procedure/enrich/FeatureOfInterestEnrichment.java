@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.n52.iceland.i18n.I18NDAORepository;
 import org.n52.io.request.IoParameters;
 import org.n52.series.db.DataAccessException;
 import org.n52.series.db.beans.FeatureEntity;
@@ -152,4 +153,9 @@ public class FeatureOfInterestEnrichment extends ProcedureDescriptionEnrichment
         return sampFeat;
     }
 
+    @Override
+    public I18NDAORepository getI18NDAORepository() {
+        return getProcedureCreationContext().getI18nr();
+    }
+
 }
@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.n52.iceland.i18n.I18NDAORepository;
 import org.n52.io.request.IoParameters;
 import org.n52.series.db.beans.PhenomenonEntity;
 import org.n52.series.db.dao.DbQuery;
@@ -70,6 +71,11 @@ public class ObservablePropertyEnrichment extends ProcedureDescriptionEnrichment
         return observableProperty;
     }
 
+    @Override
+    public I18NDAORepository getI18NDAORepository() {
+        return getProcedureCreationContext().getI18nr();
+    }
+
     private DbQuery createDbQuery(Collection<String> ids) {
         Map<String, String> map = Maps.newHashMap();
         if (ids != null && !ids.isEmpty()) {
@@ -130,7 +130,8 @@ public abstract class AbstractProcedureDescriptionGenerator
         this.i18NDAORepository = i18NDAORepository;
     }
 
-    protected I18NDAORepository getI18NDAORepository() {
+    @Override
+    public I18NDAORepository getI18NDAORepository() {
         return i18NDAORepository;
     }
 
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.shetland.ogc.gml.ReferenceType;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.DataAvailability;
+
+public class GetDataAvailabilityHandlerTest {
+
+    private static final DateTime TIME = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+
+    private final GetDataAvailabilityHandler handler = new GetDataAvailabilityHandler();
+
+    @Test
+    public void shouldMergeDuplicatesAndKeepOrder() {
+        DataAvailability first = dataAvailability("procedure", "feature-1", 0, 1);
+        DataAvailability second = dataAvailability("procedure", "feature-2", 0, 1);
+        DataAvailability duplicate = dataAvailability("procedure", "feature-1", 2, 3);
+        List<DataAvailability> checked = handler.checkForDuplictation(Arrays.asList(first, second, duplicate));
+        assertThat(checked, contains(sameInstance(first), sameInstance(second)));
+        assertThat(first.getPhenomenonTime(), is(new TimePeriod(TIME, TIME.plusHours(3))));
+        assertThat(second.getPhenomenonTime(), is(new TimePeriod(TIME, TIME.plusHours(1))));
+    }
+
+    @Test
+    public void shouldNotMergeDifferentConstellations() {
+        List<DataAvailability> dataAvailabilities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            dataAvailabilities.add(dataAvailability("procedure-" + i % 2, "feature-" + i / 2, i, i + 1));
+        }
+        List<DataAvailability> checked = handler.checkForDuplictation(dataAvailabilities);
+        assertThat(checked, is(dataAvailabilities));
+    }
+
+    @Test
+    public void shouldMergeAllDuplicatesOfAConstellation() {
+        List<DataAvailability> dataAvailabilities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            dataAvailabilities.add(dataAvailability("procedure-" + i % 2, "feature", i, i + 1));
+        }
+        List<DataAvailability> checked = handler.checkForDuplictation(dataAvailabilities);
+        assertThat(checked, contains(sameInstance(dataAvailabilities.get(0)),
+                sameInstance(dataAvailabilities.get(1))));
+        assertThat(checked.get(0).getPhenomenonTime(), is(new TimePeriod(TIME, TIME.plusHours(9))));
+        assertThat(checked.get(1).getPhenomenonTime(), is(new TimePeriod(TIME.plusHours(1), TIME.plusHours(10))));
+    }
+
+    private static DataAvailability dataAvailability(String procedure, String feature, int start, int end) {
+        return new DataAvailability(new ReferenceType(procedure), new ReferenceType("phenomenon"),
+                new ReferenceType(feature), new ReferenceType("offering"),
+                new TimePeriod(TIME.plusHours(start), TIME.plusHours(end)));
+    }
+
+}
@@ -28,6 +28,7 @@
  */
 package org.n52.sos.ds.hibernate;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -59,6 +60,7 @@ import org.n52.sos.ds.hibernate.dao.DaoFactory;
 import org.n52.sos.ds.hibernate.dao.observation.series.AbstractSeriesObservationDAO;
 import org.n52.sos.ds.hibernate.dao.observation.series.SeriesTimeExtrema;
 import org.n52.sos.ds.hibernate.type.UtcTimestampType;
+import org.n52.sos.ds.hibernate.util.HibernateConstants;
 import org.n52.sos.ds.hibernate.util.HibernateUnproxy;
 import org.n52.sos.ds.hibernate.util.SosTemporalRestrictions;
 import org.n52.sos.ds.hibernate.util.TemporalRestriction;
@@ -68,6 +70,7 @@ import org.n52.sos.exception.ows.concrete.UnsupportedValueReferenceException;
 import org.slf4j.Logger;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 
 public interface DeleteObservationHelper extends HibernateUnproxy {
 
@@ -95,21 +98,29 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
             Session session) throws OwsExceptionReport {
         boolean temporalFilters = filters != null && !filters.isEmpty();
         Set<Long> modifiedDatasets = new HashSet<>();
-        for (Long s : getSeriesInlcudeChildObs(serieses.stream()
+        // one select and one update per chunk of datasets instead of an update
+        // and a flush per dataset
+        for (List<Long> part : Lists.partition(new ArrayList<>(getSeriesInlcudeChildObs(serieses.stream()
                 .map(DatasetEntity::getId)
-                .collect(Collectors.toSet()), session)) {
-            Query<?> q = session.createQuery(getUpdateQueryString(filters, temporalFilters));
-            q.setParameter(DataEntity.PROPERTY_DELETED, true);
-            q.setParameter(DataEntity.PROPERTY_DATASET, s);
+                .collect(Collectors.toSet()), session)), HibernateConstants.LIMIT_EXPRESSION_DEPTH)) {
+            Query<?> select = session.createQuery(getModifiedDatasetsQueryString(filters, temporalFilters));
+            select.setParameterList(DataEntity.PROPERTY_DATASET, part);
             if (temporalFilters) {
-                checkForPlaceholder(q, filters);
+                checkForPlaceholder(select, filters);
             }
-            int executeUpdate = q.executeUpdate();
-            session.flush();
-            if (executeUpdate > 0) {
-                modifiedDatasets.add(s);
+            List<Long> modified = (List<Long>) select.list();
+            if (!modified.isEmpty()) {
+                Query<?> q = session.createQuery(getUpdateQueryString(filters, temporalFilters));
+                q.setParameter(DataEntity.PROPERTY_DELETED, true);
+                q.setParameterList(DataEntity.PROPERTY_DATASET, modified);
+                if (temporalFilters) {
+                    checkForPlaceholder(q, filters);
+                }
+                q.executeUpdate();
+                modifiedDatasets.addAll(modified);
             }
         }
+        session.flush();
         if (!modifiedDatasets.isEmpty()) {
             checkSeriesForFirstLatest(modifiedDatasets, session);
             if (isDeletePhysically()) {
@@ -273,6 +284,29 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
         return builder.toString();
     }
 
+    default String getModifiedDatasetsQueryString(Collection<TemporalFilter> filters, boolean temporalFilters)
+            throws UnsupportedTimeException, UnsupportedValueReferenceException, UnsupportedOperatorException {
+        StringBuilder builder = new StringBuilder();
+        builder.append("select distinct ")
+                .append(DataEntity.PROPERTY_DATASET_ID)
+                .append(FROM_PARAMETER);
+        builder.append(getDaoFactory().getObservationDAO()
+                .getObservationFactory()
+                .observationClass()
+                .getSimpleName());
+        builder.append(WHERE_PARAMETER)
+                .append(DataEntity.PROPERTY_DATASET_ID)
+                .append(IN_PARAMETER)
+                .append(DataEntity.PROPERTY_DATASET);
+        if (temporalFilters) {
+            builder.append(AND_PARAMETER)
+                    .append("(" + SosTemporalRestrictions.filterHql(filters)
+                            .toString())
+                    .append(")");
+        }
+        return builder.toString();
+    }
+
     default String getUpdateQueryString(Collection<TemporalFilter> filters, boolean temporalFilters)
             throws UnsupportedTimeException, UnsupportedValueReferenceException, UnsupportedOperatorException {
         StringBuilder builder = new StringBuilder();
@@ -287,7 +321,7 @@ public interface DeleteObservationHelper extends HibernateUnproxy {
                 .append(DataEntity.PROPERTY_DELETED);
         builder.append(WHERE_PARAMETER)
                 .append(DataEntity.PROPERTY_DATASET_ID)
-                .append(EQUAL_PARAMETER)
+                .append(IN_PARAMETER)
                 .append(DataEntity.PROPERTY_DATASET);
         if (temporalFilters) {
             builder.append(AND_PARAMETER)
@@ -30,9 +30,16 @@ package org.n52.sos.ds.hibernate.dao;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Projections;
@@ -40,6 +47,7 @@ import org.hibernate.criterion.Restrictions;
 import org.hibernate.spatial.criterion.SpatialProjections;
 import org.locationtech.jts.geom.Geometry;
 import org.n52.series.db.beans.AbstractFeatureEntity;
+import org.n52.series.db.beans.FeatureEntity;
 import org.n52.shetland.ogc.filter.SpatialFilter;
 import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
@@ -221,6 +229,97 @@ public abstract class AbstractFeatureOfInterestDAO extends AbstractIdentifierNam
         return g;
     }
 
+    /**
+     * Initialize the features and the parent features of all their ancestors
+     * with one query per hierarchy level. Features that are uninitialized
+     * proxies, e.g. the features of queried datasets, are loaded with the
+     * first query.
+     *
+     * @param features
+     *            the features to initialize the parents for
+     * @param session
+     *            Hibernate session
+     */
+    public void initializeParents(Collection<? extends AbstractFeatureEntity> features, Session session) {
+        initializeParents(features, Collections.emptySet(), session);
+    }
+
+    /**
+     * Initialize the parent features of the features and of all their
+     * ancestors with one query per hierarchy level instead of one lazy load
+     * per feature. If the identifiers of the ancestors are already known, e.g.
+     * from the parent/child graph of the content cache, they are loaded
+     * together with the features, so that in most cases only a single query is
+     * executed.
+     *
+     * @param features
+     *            the features to initialize the parents for
+     * @param ancestors
+     *            identifiers of the known ancestors of the features, may be
+     *            empty
+     * @param session
+     *            Hibernate session
+     */
+    @SuppressWarnings("unchecked")
+    public void initializeParents(Collection<? extends AbstractFeatureEntity> features, Collection<String> ancestors,
+            Session session) {
+        Set<Long> visited = new HashSet<>();
+        Map<Long, AbstractFeatureEntity<?>> pending = new LinkedHashMap<>();
+        for (AbstractFeatureEntity<?> feature : features) {
+            addIfUninitialized(feature, visited, pending);
+        }
+        Collection<String> knownAncestors = ancestors;
+        int level = 1;
+        while (!pending.isEmpty()) {
+            Criteria c = session.createCriteria(FeatureEntity.class)
+                    .setFetchMode(AbstractFeatureEntity.PROPERTY_PARENTS, FetchMode.JOIN)
+                    .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+            if (CollectionHelper.isNotEmpty(knownAncestors)) {
+                c.add(Restrictions.or(QueryHelper.getCriterionForObjects(FeatureEntity.PROPERTY_ID, pending.keySet()),
+                        QueryHelper.getCriterionForObjects(FeatureEntity.IDENTIFIER, knownAncestors)));
+                knownAncestors = null;
+            } else {
+                c.add(QueryHelper.getCriterionForObjects(FeatureEntity.PROPERTY_ID, pending.keySet()));
+            }
+            LOGGER.trace("QUERY initializeParents(features)({}): {}", level++, HibernateHelper.getSqlString(c));
+            List<FeatureEntity> loaded = c.list();
+            Map<Long, AbstractFeatureEntity<?>> next = new LinkedHashMap<>();
+            for (FeatureEntity feature : loaded) {
+                visited.add(feature.getId());
+            }
+            for (FeatureEntity feature : loaded) {
+                addParentsIfUninitialized(feature, visited, next);
+            }
+            // features not returned by the query are initialized lazily
+            pending = next;
+        }
+    }
+
+    private void addIfUninitialized(AbstractFeatureEntity<?> feature, Set<Long> visited,
+            Map<Long, AbstractFeatureEntity<?>> pending) {
+        if (feature == null || feature.getId() == null || visited.contains(feature.getId())) {
+            return;
+        }
+        // the identifier of a proxy is available without initializing it
+        if (Hibernate.isInitialized(feature) && Hibernate.isInitialized(feature.getParents())) {
+            visited.add(feature.getId());
+            addParentsIfUninitialized(feature, visited, pending);
+        } else {
+            pending.put(feature.getId(), feature);
+        }
+    }
+
+    private void addParentsIfUninitialized(AbstractFeatureEntity<?> feature, Set<Long> visited,
+            Map<Long, AbstractFeatureEntity<?>> pending) {
+        if (feature.getParents() != null) {
+            for (Object parent : feature.getParents()) {
+                if (parent instanceof AbstractFeatureEntity) {
+                    addIfUninitialized((AbstractFeatureEntity<?>) parent, visited, pending);
+                }
+            }
+        }
+    }
+
     public void updateFeatureOfInterest(AbstractFeatureEntity featureOfInterest, AbstractFeature abstractFeature,
             Session session) {
         addName(abstractFeature, featureOfInterest, session);
@@ -35,6 +35,7 @@ import org.n52.series.db.beans.CategoryEntity;
 import org.n52.series.db.beans.PhenomenonEntity;
 import org.n52.shetland.ogc.swe.simpleType.SweText;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +52,7 @@ public class CategoryDAO extends AbstractIdentifierNameDescriptionDAO {
                 .add(Restrictions.eq(CategoryEntity.IDENTIFIER, identifier));
         LOGGER.trace("QUERY getCategoryForIdentifier(identifier): {}",
                 HibernateHelper.getSqlString(criteria));
-        return (CategoryEntity) criteria.uniqueResult();
+        return (CategoryEntity) ReferenceEntityCache.cacheable(criteria).uniqueResult();
     }
 
     public CategoryEntity getOrInsertCategory(String value, Session session) {
@@ -40,6 +40,7 @@ import org.hibernate.criterion.Restrictions;
 import org.n52.series.db.beans.AbstractFeatureEntity;
 import org.n52.series.db.beans.FormatEntity;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,7 +79,7 @@ public class FormatDAO {
                                 format));
         LOGGER.trace("QUERY getFormatEntityObject(format): {}",
                 HibernateHelper.getSqlString(criteria));
-        return (FormatEntity) criteria.uniqueResult();
+        return (FormatEntity) ReferenceEntityCache.cacheable(criteria).uniqueResult();
     }
 
     /**
@@ -42,6 +42,9 @@ import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.criterion.Subqueries;
+import org.n52.iceland.i18n.I18NDAO;
+import org.n52.iceland.i18n.I18NDAORepository;
+import org.n52.iceland.i18n.metadata.I18NObservablePropertyMetadata;
 import org.n52.series.db.beans.DatasetEntity;
 import org.n52.series.db.beans.Describable;
 import org.n52.series.db.beans.OfferingEntity;
@@ -54,7 +57,9 @@ import org.n52.shetland.ogc.om.OmCompositePhenomenon;
 import org.n52.shetland.ogc.om.OmObservableProperty;
 import org.n52.shetland.ogc.ows.exception.CodedException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.CachingI18NDAO;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -175,7 +180,7 @@ public class ObservablePropertyDAO extends AbstractIdentifierNameDescriptionDAO
                 .add(Restrictions.eq(PhenomenonEntity.IDENTIFIER, identifier));
         LOGGER.trace("QUERY getObservablePropertyForIdentifier(identifier): {}",
                 HibernateHelper.getSqlString(criteria));
-        return (PhenomenonEntity) criteria.uniqueResult();
+        return (PhenomenonEntity) ReferenceEntityCache.cacheable(criteria).uniqueResult();
     }
 
     /**
@@ -268,6 +273,11 @@ public class ObservablePropertyDAO extends AbstractIdentifierNameDescriptionDAO
             session.flush();
             session.refresh(i18nEntity);
         }
+        I18NDAORepository repository = getDaoFactory().getI18NDAORepository();
+        I18NDAO<?> dao = repository != null ? repository.getDAO(I18NObservablePropertyMetadata.class) : null;
+        if (dao instanceof CachingI18NDAO) {
+            ((CachingI18NDAO<?>) dao).invalidate(result.getIdentifier());
+        }
     }
 
     protected void insertNonExisting(List<? extends AbstractPhenomenon> observableProperties,
@@ -72,6 +72,7 @@ import org.n52.sos.ds.hibernate.util.HibernateConstants;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
 import org.n52.sos.ds.hibernate.util.NoopTransformerAdapter;
 import org.n52.sos.ds.hibernate.util.OfferingTimeExtrema;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -166,7 +167,7 @@ public class OfferingDAO extends AbstractIdentifierNameDescriptionDAO implements
     public OfferingEntity getOfferingForIdentifier(final String identifier, final Session session) {
         Criteria criteria = getDefaultCriteria(session).add(Restrictions.eq(OfferingEntity.IDENTIFIER, identifier));
         LOGGER.debug("QUERY getOfferingForIdentifier(identifier): {}", HibernateHelper.getSqlString(criteria));
-        return (OfferingEntity) criteria.uniqueResult();
+        return (OfferingEntity) ReferenceEntityCache.cacheable(criteria).uniqueResult();
     }
 
     /**
@@ -72,6 +72,7 @@ import org.n52.sos.ds.hibernate.util.HibernateHelper;
 import org.n52.sos.ds.hibernate.util.NoopTransformerAdapter;
 import org.n52.sos.ds.hibernate.util.ProcedureTimeExtrema;
 import org.n52.sos.ds.hibernate.util.QueryHelper;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
 import org.n52.sos.ds.hibernate.util.TimeExtrema;
 import org.n52.sos.exception.ows.concrete.UnsupportedOperatorException;
 import org.n52.sos.exception.ows.concrete.UnsupportedTimeException;
@@ -189,7 +190,8 @@ public class ProcedureDAO extends AbstractIdentifierNameDescriptionDAO implement
      * @return ProcedureEntity object
      */
     public ProcedureEntity getProcedureForIdentifier(final String identifier, final Session session) {
-        Criteria criteria = getDefaultCriteria(session).add(Restrictions.eq(ProcedureEntity.IDENTIFIER, identifier));
+        Criteria criteria = ReferenceEntityCache.cacheable(
+                getDefaultCriteria(session).add(Restrictions.eq(ProcedureEntity.IDENTIFIER, identifier)));
         LOGGER.trace(QUERY_IDENTIFIER_LOG_TEMPLATE, HibernateHelper.getSqlString(criteria));
         ProcedureEntity procedure = (ProcedureEntity) criteria.uniqueResult();
         if (HibernateHelper.isEntitySupported(ProcedureHistoryEntity.class)) {
@@ -29,9 +29,14 @@
 package org.n52.sos.ds.hibernate.dao.i18n;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -39,6 +44,7 @@ import java.util.stream.Collectors;
 import javax.inject.Inject;
 
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
 import org.hibernate.HibernateException;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
@@ -53,15 +59,22 @@ import org.n52.janmayen.i18n.LocalizedString;
 import org.n52.series.db.beans.DescribableEntity;
 import org.n52.series.db.beans.i18n.I18nEntity;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.CachingI18NDAO;
 import org.n52.sos.ds.hibernate.HibernateSessionHolder;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Maps;
 
 public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
                                                S extends AbstractI18NMetadata,
                                                H extends I18nEntity>
-        implements I18NDAO<S>, HibernateI18NDAO<S> {
+        implements I18NDAO<S>, HibernateI18NDAO<S>, CachingI18NDAO<S> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractHibernateI18NDAO.class);
+
+    private final I18NCache<H> cache = new I18NCache<>();
 
     private HibernateSessionHolder sessionHolder;
 
@@ -154,25 +167,15 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public S getMetadata(String id, Session session)
             throws OwsExceptionReport {
-        Criteria criteria = session.createCriteria(getHibernateEntityClass());
-        criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
-                .add(Restrictions.eq(DescribableEntity.IDENTIFIER, id));
-        List<H> list = criteria.list();
-        return createSosObject(id, list);
+        return createSosObject(id, getTranslations(id, session).values());
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Collection<S> getMetadata(Collection<String> id, Session session)
             throws OwsExceptionReport {
-        Criteria criteria = session.createCriteria(getHibernateEntityClass());
-        criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
-                .add(Restrictions.in(DescribableEntity.IDENTIFIER, id));
-        List<H> list = criteria.list();
-        return createSosObject(list);
+        return createSosObject(getTranslations(id, session));
     }
 
     @Override
@@ -183,25 +186,7 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
 
     private S getMetadata(String id, String locale, Session session)
             throws OwsExceptionReport {
-        Criteria criteria = session.createCriteria(getHibernateEntityClass());
-        criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
-                .add(Restrictions.eq(DescribableEntity.IDENTIFIER, id));
-        criteria.add(Restrictions.eq(I18nEntity.PROPERTY_LOCALE, locale));
-        List<H> list = criteria.list();
-        if (list.isEmpty()) {
-            return getMetadata(id, LocaleHelper.getEquivalents(locale), session);
-        }
-        return createSosObject(id, list);
-    }
-
-    private S getMetadata(String id, Set<String> locales, Session session)
-            throws OwsExceptionReport {
-        Criteria criteria = session.createCriteria(getHibernateEntityClass());
-        criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
-                .add(Restrictions.eq(DescribableEntity.IDENTIFIER, id));
-        criteria.add(Restrictions.in(I18nEntity.PROPERTY_LOCALE, locales));
-        List<H> list = criteria.list();
-        return createSosObject(id, list);
+        return createSosObject(id, getTranslations(getTranslations(id, session), locale));
     }
 
     @Override
@@ -212,34 +197,132 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
 
     private Collection<S> getMetadata(Collection<String> id, String locale, Session session)
             throws OwsExceptionReport {
-        Criteria criteria = session.createCriteria(getHibernateEntityClass());
-        criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
-                .add(Restrictions.in(DescribableEntity.IDENTIFIER, id));
-        criteria.add(Restrictions.eq(I18nEntity.PROPERTY_LOCALE, locale));
-        List<H> list = criteria.list();
-        if (list.isEmpty()) {
-            return getMetadata(id, LocaleHelper.getEquivalents(locale), session);
+        List<S> metadata = new LinkedList<>();
+        getTranslations(id, session).forEach((identifier, h18ns) -> {
+            Collection<H> translations = getTranslations(h18ns, locale);
+            if (!translations.isEmpty()) {
+                metadata.add(createSosObject(identifier, translations));
+            }
+        });
+        return metadata;
+    }
+
+    @Override
+    public Collection<S> getMetadata(Session session)
+            throws OwsExceptionReport {
+        if (!cache.isComplete()) {
+            loadCache(session);
         }
-        return createSosObject(list);
+        return createSosObject(cache.getAll());
     }
 
-    private Collection<S> getMetadata(Collection<String> id, Set<String> locales, Session session)
+    @Override
+    public Optional<S> getCachedMetadata(String id) {
+        // identifiers without cached translations may have been translated
+        // after they were cached, so they are not answered from the cache
+        return Optional.ofNullable(cache.get(id)).filter(h18ns -> !h18ns.isEmpty())
+                .map(h18ns -> createSosObject(id, h18ns.values()));
+    }
+
+    @Override
+    public void invalidate(String id) {
+        cache.remove(id);
+    }
+
+    @Override
+    public void loadCache()
             throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = sessionHolder.getSession();
+            loadCache(session);
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private void loadCache(Session session) {
+        Map<String, List<H>> translations = loadTranslations(session.createCriteria(getHibernateEntityClass()),
+                session);
+        cache.replace(translations);
+        LOGGER.debug("Cached the translations of {} {} entities", translations.size(),
+                getHibernateEntityClass().getSimpleName());
+    }
+
+    /**
+     * Get the translations of the identifiers from the cache and load the
+     * missing ones from the datasource.
+     */
+    private Map<String, Map<String, H>> getTranslations(Collection<String> ids, Session session) {
+        Map<String, Map<String, H>> translations = new LinkedHashMap<>(ids.size());
+        Set<String> missing = new HashSet<>();
+        for (String id : ids) {
+            Map<String, H> cached = cache.get(id);
+            if (cached != null) {
+                translations.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, List<H>> loaded = loadTranslations(getCriteria(missing, session), session);
+            for (String id : missing) {
+                cache.put(id, loaded.getOrDefault(id, Collections.emptyList()));
+                translations.put(id, cache.get(id));
+            }
+        }
+        return translations;
+    }
+
+    private Map<String, H> getTranslations(String id, Session session) {
+        return getTranslations(Collections.singleton(id), session).get(id);
+    }
+
+    /**
+     * Select the translations in the locale or, if there are none, in the
+     * equivalent locales.
+     */
+    private Collection<H> getTranslations(Map<String, H> h18ns, String locale) {
+        H h18n = h18ns.get(locale);
+        if (h18n != null) {
+            return Collections.singleton(h18n);
+        }
+        return LocaleHelper.getEquivalents(locale).stream().map(h18ns::get).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Criteria getCriteria(Collection<String> ids, Session session) {
         Criteria criteria = session.createCriteria(getHibernateEntityClass());
         criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
-                .add(Restrictions.in(DescribableEntity.IDENTIFIER, id));
-        criteria.add(Restrictions.in(I18nEntity.PROPERTY_LOCALE, locales));
-        List<H> list = criteria.list();
-        return createSosObject(list);
+                .add(Restrictions.in(DescribableEntity.IDENTIFIER, ids));
+        return criteria;
     }
 
-    @Override
+    /**
+     * Load the translations and detach them from the session and the
+     * translated entity, so that they do not keep the entity graph in memory.
+     */
     @SuppressWarnings("unchecked")
-    public Collection<S> getMetadata(Session session)
-            throws OwsExceptionReport {
-        Criteria criteria = session.createCriteria(getHibernateEntityClass());
-        List<H> list = criteria.list();
-        return createSosObject(list);
+    private Map<String, List<H>> loadTranslations(Criteria criteria, Session session) {
+        criteria.setFetchMode(I18nEntity.PROPERTY_ENTITY, FetchMode.JOIN);
+        Map<String, List<H>> translations = Maps.newHashMap();
+        for (H h18n : (List<H>) criteria.list()) {
+            String id = getIdentifier(h18n);
+            session.evict(h18n);
+            h18n.setEntity(null);
+            translations.computeIfAbsent(id, key -> new LinkedList<>()).add(h18n);
+        }
+        return translations;
+    }
+
+    private void refreshCache(String id, Session session) {
+        Map<String, List<H>> translations = loadTranslations(getCriteria(Collections.singleton(id), session), session);
+        cache.put(id, translations.getOrDefault(id, Collections.emptyList()));
+    }
+
+    private Collection<S> createSosObject(Map<String, Map<String, H>> translations) {
+        return translations.entrySet().stream().filter(e -> !e.getValue().isEmpty())
+                .map(e -> createSosObject(e.getKey(), e.getValue().values())).collect(Collectors.toList());
     }
 
     @Override
@@ -259,6 +342,7 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
             }
             session.flush();
             transaction.commit();
+            refreshCache(i18n.getIdentifier(), session);
         } catch (HibernateException e) {
             if (transaction != null) {
                 transaction.rollback();
@@ -295,6 +379,9 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
     @SuppressWarnings("unchecked")
     public Collection<String> getAvailableLocales(Session session)
             throws OwsExceptionReport {
+        if (cache.isComplete()) {
+            return cache.getLocales();
+        }
         Criteria criteria = session.createCriteria(getHibernateEntityClass());
         criteria.setProjection(Projections.distinct(Projections.property(I18nEntity.PROPERTY_LOCALE)));
         return criteria.list();
@@ -310,10 +397,7 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
     protected Collection<S> createSosObject(List<H> hi18ns) {
         Map<String, S> map = Maps.newHashMap();
         for (H h18n : hi18ns) {
-            String id = h18n.getId().toString();
-            if (h18n.getEntity() instanceof DescribableEntity) {
-                id = ((DescribableEntity) h18n.getEntity()).getIdentifier();
-            }
+            String id = getIdentifier(h18n);
             S i18n = map.get(id);
             if (i18n == null) {
                 i18n = createSosObject(id);
@@ -325,12 +409,19 @@ public abstract class AbstractHibernateI18NDAO<T extends DescribableEntity,
         return map.values();
     }
 
-    protected S createSosObject(String id, List<H> h18ns) {
+    protected S createSosObject(String id, Collection<H> h18ns) {
         S i18n = createSosObject(id);
         h18ns.forEach(h18n -> fillSosObject(h18n, i18n));
         return i18n;
     }
 
+    private String getIdentifier(H h18n) {
+        if (h18n.getEntity() instanceof DescribableEntity) {
+            return ((DescribableEntity) h18n.getEntity()).getIdentifier();
+        }
+        return h18n.getId().toString();
+    }
+
     protected void deleteOldValues(String id, Session session) {
         Criteria criteria = session.createCriteria(getHibernateEntityClass());
         criteria.createCriteria(I18nEntity.PROPERTY_ENTITY)
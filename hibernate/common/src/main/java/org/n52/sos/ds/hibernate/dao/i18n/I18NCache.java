@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.i18n;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import org.n52.series.db.beans.i18n.I18nEntity;
+
+/**
+ * Language-keyed translations of the identifiers of one entity type. The
+ * cached translations are detached from their session and entity.
+ *
+ * @param <H>
+ *            the translation type
+ *
+ * @since 5.2.3
+ */
+@SuppressWarnings("rawtypes")
+class I18NCache<H extends I18nEntity> {
+
+    private volatile ConcurrentMap<String, Map<String, H>> translations = new ConcurrentHashMap<>();
+
+    private volatile boolean complete;
+
+    /**
+     * @return if all translations of the datasource are cached
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @param id
+     *            the identifier
+     * @return the translations by language or {@code null} if the identifier
+     *         is not cached, e.g. because it was inserted after the cache was
+     *         loaded
+     */
+    Map<String, H> get(String id) {
+        return translations.get(id);
+    }
+
+    /**
+     * @return the translations by identifier and language
+     */
+    Map<String, Map<String, H>> getAll() {
+        return Collections.unmodifiableMap(translations);
+    }
+
+    /**
+     * @return the cached languages
+     */
+    Set<String> getLocales() {
+        return translations.values().stream().flatMap(t -> t.keySet().stream()).collect(Collectors.toSet());
+    }
+
+    void put(String id, List<H> h18ns) {
+        translations.put(id, byLocale(h18ns));
+    }
+
+    void remove(String id) {
+        translations.remove(id);
+    }
+
+    void replace(Map<String, List<H>> h18ns) {
+        ConcurrentMap<String, Map<String, H>> replacement = new ConcurrentHashMap<>(h18ns.size());
+        h18ns.forEach((id, list) -> replacement.put(id, byLocale(list)));
+        this.translations = replacement;
+        this.complete = true;
+    }
+
+    private Map<String, H> byLocale(List<H> h18ns) {
+        return Collections.unmodifiableMap(h18ns.stream()
+                .collect(Collectors.toMap(I18nEntity::getLocale, h18n -> h18n, (first, second) -> first)));
+    }
+}
@@ -106,6 +106,8 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
 
     private final OmObservationCreatorContext creatorContext;
 
+    private OmObservationCreatorPrefetch prefetch = new OmObservationCreatorPrefetch();
+
     public AbstractOmObservationCreator(AbstractObservationRequest request, Locale i18n, String pdf,
             OmObservationCreatorContext creatorContext, Session session) {
         this.creatorContext = creatorContext;
@@ -119,6 +121,26 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
         return creatorContext;
     }
 
+    /**
+     * @return the request scoped prefetch
+     */
+    public OmObservationCreatorPrefetch getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Set the request scoped prefetch to share with other creators of the
+     * same response
+     *
+     * @param prefetch
+     *            the prefetch
+     */
+    public void setPrefetch(OmObservationCreatorPrefetch prefetch) {
+        if (prefetch != null) {
+            this.prefetch = prefetch;
+        }
+    }
+
     public DaoFactory getDaoFactory() {
         return getCreatorContext().getDaoFactory();
     }
@@ -224,6 +246,7 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
         return i18n;
     }
 
+    @Override
     public I18NDAORepository getI18NDAORepository() {
         return getCreatorContext().getI18nr();
     }
@@ -271,6 +294,9 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
      */
     protected SosProcedureDescription<?> createProcedure(String identifier)
             throws ConverterException, OwsExceptionReport {
+        if (getPrefetch().hasProcedure(identifier)) {
+            return getPrefetch().getProcedure(identifier);
+        }
         return createProcedure(new ProcedureDAO(getDaoFactory()).getProcedureForIdentifier(identifier, getSession()));
     }
 
@@ -288,6 +314,14 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
      */
     protected SosProcedureDescription<?> createProcedure(ProcedureEntity hProcedure)
             throws ConverterException, OwsExceptionReport {
+        if (!getPrefetch().hasProcedure(hProcedure.getIdentifier())) {
+            getPrefetch().addProcedure(hProcedure.getIdentifier(), createProcedureDescription(hProcedure));
+        }
+        return getPrefetch().getProcedure(hProcedure.getIdentifier());
+    }
+
+    private SosProcedureDescription<?> createProcedureDescription(ProcedureEntity hProcedure)
+            throws ConverterException, OwsExceptionReport {
         // Procedure hProcedure =
         // getDaoFactory().getProcedureDAO().getProcedureForIdentifier(identifier,
         // getSession());
@@ -349,6 +383,13 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
      *             If an error occurs
      */
     protected AbstractFeature createFeatureOfInterest(AbstractFeatureEntity foi) throws OwsExceptionReport {
+        if (!getPrefetch().hasFeature(foi.getIdentifier())) {
+            getPrefetch().addFeature(foi.getIdentifier(), createFeature(foi));
+        }
+        return getPrefetch().getFeature(foi.getIdentifier());
+    }
+
+    private AbstractFeature createFeature(AbstractFeatureEntity foi) throws OwsExceptionReport {
         FeatureQueryHandlerQueryObject queryObject = new FeatureQueryHandlerQueryObject(getSession());
         queryObject.setFeatureObject(foi).addFeatureIdentifier(foi.getIdentifier()).setVersion(getVersion());
         if (getRequest().isSetRequestedLanguage()) {
@@ -433,22 +474,43 @@ public abstract class AbstractOmObservationCreator implements I18nNameDescriptio
     protected String queryUnit(DatasetEntity series) {
         if (series.hasUnit()) {
             return series.getUnit().getUnit();
-        } else if (HibernateHelper.isNamedQuerySupported(SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_PROCEDURE_SERIES,
+        }
+        return queryUnit(series.getObservableProperty().getIdentifier(), series.getProcedure().getIdentifier());
+    }
+
+    /**
+     * Query the unit for observable property and procedure, the result is
+     * kept in the request scoped prefetch.
+     *
+     * @param property
+     *            the observable property identifier
+     * @param procedure
+     *            the procedure identifier
+     * @return the unit or {@code null}
+     */
+    protected String queryUnit(String property, String procedure) {
+        String key = property + "|" + procedure;
+        if (!getPrefetch().hasUnit(key)) {
+            getPrefetch().addUnit(key, queryUnitFromDatasource(property, procedure));
+        }
+        return getPrefetch().getUnit(key);
+    }
+
+    private String queryUnitFromDatasource(String property, String procedure) {
+        if (HibernateHelper.isNamedQuerySupported(SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_PROCEDURE_SERIES,
                 getSession())) {
             Query namedQuery = getSession().getNamedQuery(SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_PROCEDURE_SERIES);
-            namedQuery.setParameter(DatasetEntity.PROPERTY_PHENOMENON, series.getObservableProperty().getIdentifier());
-            namedQuery.setParameter(DatasetEntity.PROPERTY_PROCEDURE, series.getProcedure().getIdentifier());
-            LOGGER.debug("QUERY queryUnit({}, {}) with NamedQuery '{}': {}",
-                    series.getObservableProperty().getIdentifier(), series.getProcedure().getIdentifier(),
+            namedQuery.setParameter(DatasetEntity.PROPERTY_PHENOMENON, property);
+            namedQuery.setParameter(DatasetEntity.PROPERTY_PROCEDURE, procedure);
+            LOGGER.debug("QUERY queryUnit({}, {}) with NamedQuery '{}': {}", property, procedure,
                     SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_PROCEDURE_SERIES, namedQuery.getQueryString());
             return (String) namedQuery.uniqueResult();
         } else if (HibernateHelper.isNamedQuerySupported(SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_SERIES,
                 getSession())) {
             Query namedQuery = getSession().getNamedQuery(SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_SERIES);
-            namedQuery.setParameter(DatasetEntity.PROPERTY_PHENOMENON, series.getObservableProperty().getIdentifier());
-            LOGGER.debug("QUERY queryUnit({}) with NamedQuery '{}': {}",
-                    series.getObservableProperty().getIdentifier(), SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_SERIES,
-                    namedQuery.getQueryString());
+            namedQuery.setParameter(DatasetEntity.PROPERTY_PHENOMENON, property);
+            LOGGER.debug("QUERY queryUnit({}) with NamedQuery '{}': {}", property,
+                    SQL_QUERY_GET_UNIT_FOR_OBSERVABLE_PROPERTY_SERIES, namedQuery.getQueryString());
             return (String) namedQuery.uniqueResult();
         }
         return null;
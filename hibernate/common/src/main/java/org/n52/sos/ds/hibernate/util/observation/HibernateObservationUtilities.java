@@ -45,6 +45,8 @@ import org.n52.shetland.ogc.om.ObservationStream;
 import org.n52.shetland.ogc.om.OmObservation;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.sos.request.AbstractObservationRequest;
+import org.n52.sos.statistics.RequestStage;
+import org.n52.sos.statistics.StageTimer;
 
 /**
  * @since 4.0.0
@@ -64,17 +66,28 @@ public final class HibernateObservationUtilities {
     public static ObservationStream createSosObservationsFromObservations(Collection<DataEntity<?>> o,
             AbstractObservationRequest r, Locale l, String pdf, OmObservationCreatorContext ctx, Session s)
             throws OwsExceptionReport, ConverterException {
-        return new ObservationOmObservationCreator(o, r, l, pdf, ctx, s).create();
+        long start = StageTimer.start();
+        try {
+            return new ObservationOmObservationCreator(o, r, l, pdf, ctx, s).create();
+        } finally {
+            StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
+        }
     }
 
     public static OmObservation createSosObservationFromObservation(DataEntity<?> o, AbstractObservationRequest r,
             Locale l, String pdf, OmObservationCreatorContext ctx, Session s)
             throws OwsExceptionReport, ConverterException {
-        ObservationStream c = new ObservationOmObservationCreator(Arrays.asList(o), r, l, pdf, ctx, s).create();
-        if (c.hasNext()) {
-            return c.next();
+        long start = StageTimer.start();
+        try {
+            ObservationStream c = new ObservationOmObservationCreator(Arrays.asList(o), r, l, pdf, ctx,
+                    new OmObservationCreatorPrefetch(), s).create();
+            if (c.hasNext()) {
+                return c.next();
+            }
+            return null;
+        } finally {
+            StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
         }
-        return null;
     }
 
     /**
@@ -108,7 +121,13 @@ public final class HibernateObservationUtilities {
     public static ObservationStream createSosObservationFromObservationConstellation(DatasetEntity dataset,
             List<String> fois, AbstractObservationRequest request, Locale l, String pdf,
             OmObservationCreatorContext ctx, Session session) throws OwsExceptionReport, ConverterException {
-        return new ObservationConstellationOmObservationCreator(dataset, fois, request, l, pdf, ctx, session).create();
+        long start = StageTimer.start();
+        try {
+            return new ObservationConstellationOmObservationCreator(dataset, fois, request, l, pdf, ctx, session)
+                    .create();
+        } finally {
+            StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
+        }
     }
 
     /**
@@ -145,10 +164,46 @@ public final class HibernateObservationUtilities {
     public static ObservationStream createSosObservationFromSeries(DatasetEntity dataset, AbstractObservationRequest r,
             Locale l, String pdf, OmObservationCreatorContext ctx, Session session)
             throws OwsExceptionReport, ConverterException {
-        if (dataset.hasEreportingProfile()) {
-            return createSosObservationFromEReportingSeries(dataset, r, l, pdf, ctx, session);
+        return createSosObservationFromSeries(dataset, r, l, pdf, ctx, null, session);
+    }
+
+    /**
+     * Create SOS internal observation from Series sharing the request scoped
+     * prefetch with the other series of the response
+     *
+     * @param dataset
+     *            dataset object
+     * @param r
+     *            The request
+     * @param l
+     *            the requested language
+     * @param pdf
+     *            procedure description format
+     * @param ctx
+     *            observation context
+     * @param prefetch
+     *            request scoped prefetch, may be {@code null}
+     * @param session
+     *            Hibernate session
+     * @return SOS internal observation
+     * @throws OwsExceptionReport
+     *             If an error occurs
+     * @throws ConverterException
+     *             If procedure creation fails
+     */
+    public static ObservationStream createSosObservationFromSeries(DatasetEntity dataset, AbstractObservationRequest r,
+            Locale l, String pdf, OmObservationCreatorContext ctx, OmObservationCreatorPrefetch prefetch,
+            Session session) throws OwsExceptionReport, ConverterException {
+        SeriesOmObservationCreator creator = dataset.hasEreportingProfile()
+                ? new EReportingSeriesOmObservationCreator(dataset, r, l, pdf, ctx, session)
+                : new SeriesOmObservationCreator(dataset, r, l, pdf, ctx, session);
+        creator.setPrefetch(prefetch);
+        long start = StageTimer.start();
+        try {
+            return creator.create();
+        } finally {
+            StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
         }
-        return new SeriesOmObservationCreator(dataset, r, l, pdf, ctx, session).create();
     }
 
     public static ObservationStream createSosObservationFromEReportingSeries(DatasetEntity dataset,
@@ -161,7 +216,12 @@ public final class HibernateObservationUtilities {
     public static ObservationStream createSosObservationFromEReportingSeries(DatasetEntity dataset,
             AbstractObservationRequest r, Locale l, String pdf, OmObservationCreatorContext ctx, Session session)
             throws OwsExceptionReport, ConverterException {
-        return new EReportingSeriesOmObservationCreator(dataset, r, l, pdf, ctx, session).create();
+        long start = StageTimer.start();
+        try {
+            return new EReportingSeriesOmObservationCreator(dataset, r, l, pdf, ctx, session).create();
+        } finally {
+            StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
+        }
     }
 
     /**
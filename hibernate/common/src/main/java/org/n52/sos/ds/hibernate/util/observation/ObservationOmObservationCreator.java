@@ -98,6 +98,12 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
     public ObservationOmObservationCreator(Collection<? extends DataEntity<?>> observations,
             AbstractObservationRequest request, Locale i18n, String pdf, OmObservationCreatorContext creatorContext,
             Session session) {
+        this(observations, request, i18n, pdf, creatorContext, null, session);
+    }
+
+    public ObservationOmObservationCreator(Collection<? extends DataEntity<?>> observations,
+            AbstractObservationRequest request, Locale i18n, String pdf, OmObservationCreatorContext creatorContext,
+            OmObservationCreatorPrefetch prefetch, Session session) {
         super(request, i18n, pdf, creatorContext, session);
         this.request = request;
         if (observations == null) {
@@ -105,6 +111,8 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
         } else {
             this.observations = observations;
         }
+        setPrefetch(prefetch != null ? prefetch
+                : OmObservationCreatorPrefetch.forObservations(this.observations, session));
     }
 
     private Collection<? extends DataEntity<?>> getObservations() {
@@ -127,6 +135,11 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
         return features.get(featureId);
     }
 
+    private DatasetEntity getDataset(DataEntity<?> hObservation) {
+        DatasetEntity dataset = getPrefetch().getDataset(hObservation.getDataset().getId());
+        return dataset != null ? dataset : hObservation.getDataset();
+    }
+
     @Override
     public ObservationStream create() throws OwsExceptionReport, ConverterException {
         if (getObservations() == null) {
@@ -167,7 +180,7 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
                 .visit(unproxy(hObservation, getSession()));
         OmObservation sosObservation = null;
         if (value != null) {
-            value.setUnit(queryUnit(hObservation.getDataset()));
+            value.setUnit(queryUnit(getDataset(hObservation)));
             checkOrSetObservablePropertyUnit(getObservedProperty(phenomenonId), value.getUnit());
             OmObservationConstellation obsConst =
                     createObservationConstellation(hObservation, procedureId, phenomenonId, featureId, offerings);
@@ -202,7 +215,7 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
     private void addParameter(OmObservation observation, DataEntity<?> hObservation) throws OwsExceptionReport {
         long start = System.currentTimeMillis();
         LOGGER.trace("Creating Parameter...");
-        DatasetEntity series = ((DataEntity<?>) hObservation).getDataset();
+        DatasetEntity series = getDataset(hObservation);
         if (!seriesParameter.containsKey(series.getId()) && series.hasParameters()) {
             seriesParameter.put(series.getId(), series.getParameters());
         }
@@ -255,10 +268,10 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
     private String createPhenomenon(final DataEntity<?> hObservation) throws OwsExceptionReport {
         long start = System.currentTimeMillis();
         LOGGER.trace("Creating Phenomenon...");
-        final String phenID = hObservation.getDataset().getPhenomenon().getIdentifier();
+        final String phenID = getDataset(hObservation).getPhenomenon().getIdentifier();
         if (!observedProperties.containsKey(phenID)) {
             OmObservableProperty omObservableProperty =
-                    createObservableProperty(hObservation.getDataset().getPhenomenon());
+                    createObservableProperty(getDataset(hObservation).getPhenomenon());
             observedProperties.put(phenID, omObservableProperty);
         }
         LOGGER.trace("Creating Phenomenon done in {} ms.", System.currentTimeMillis() - start);
@@ -269,9 +282,9 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
         // TODO sfp full description
         long start = System.currentTimeMillis();
         LOGGER.trace("Creating Procedure...");
-        final String procedureId = hObservation.getDataset().getProcedure().getIdentifier();
+        final String procedureId = getDataset(hObservation).getProcedure().getIdentifier();
         if (!procedures.containsKey(procedureId)) {
-            final SosProcedureDescription<?> procedure = createProcedure(hObservation.getDataset().getProcedure());
+            final SosProcedureDescription<?> procedure = createProcedure(getDataset(hObservation).getProcedure());
             procedures.put(procedureId, procedure);
         }
         LOGGER.trace("Creating Procedure done in {} ms.", System.currentTimeMillis() - start);
@@ -281,9 +294,9 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
     private String createFeatureOfInterest(final DataEntity<?> hObservation) throws OwsExceptionReport {
         long start = System.currentTimeMillis();
         LOGGER.trace("Creating Feature...");
-        final String foiID = hObservation.getDataset().getFeature().getIdentifier();
+        final String foiID = getDataset(hObservation).getFeature().getIdentifier();
         if (!features.containsKey(foiID)) {
-            final AbstractFeature featureByID = createFeatureOfInterest(hObservation.getDataset().getFeature());
+            final AbstractFeature featureByID = createFeatureOfInterest(getDataset(hObservation).getFeature());
             features.put(foiID, featureByID);
         }
         LOGGER.trace("Creating Feature done in {} ms.", System.currentTimeMillis() - start);
@@ -294,7 +307,7 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
         long start = System.currentTimeMillis();
         LOGGER.trace("Creating Offerings...");
         Set<String> offerings = Sets.newHashSet();
-        offerings.add(hObservation.getDataset().getOffering().getIdentifier());
+        offerings.add(getDataset(hObservation).getOffering().getIdentifier());
         LOGGER.trace("Creating Offerings done in {} ms.", System.currentTimeMillis() - start);
         return offerings;
     }
@@ -321,11 +334,11 @@ public class ObservationOmObservationCreator extends AbstractOmObservationCreato
         if (!Strings.isNullOrEmpty(getResultModel())) {
             obsConst.setObservationType(getResultModel());
         }
-        if (hObservation.getDataset().isSetOmObservationType()) {
-            obsConst.setObservationType(hObservation.getDataset().getOmObservationType().getFormat());
+        if (getDataset(hObservation).isSetOmObservationType()) {
+            obsConst.setObservationType(getDataset(hObservation).getOmObservationType().getFormat());
         }
         observationConstellations.put(hashCode, obsConst);
-        DatasetEntity series = hObservation.getDataset();
+        DatasetEntity series = getDataset(hObservation);
         if (series.isSetIdentifier()) {
             addIdentifier(obsConst, series);
         }
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.util.observation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.sos.SosProcedureDescription;
+import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.ds.hibernate.util.QueryHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Request scoped lookup for the {@link AbstractOmObservationCreator}s. The
+ * datasets referenced by a response are loaded together with their procedure,
+ * observable property, feature, offering and unit in a few IN-list queries, so
+ * that the creators do not trigger a lazy load per observation or per series.
+ * Procedure descriptions, features and units created for one dataset are
+ * reused for all other datasets of the same response.
+ *
+ * @since 5.2.3
+ */
+public class OmObservationCreatorPrefetch {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OmObservationCreatorPrefetch.class);
+
+    private final Map<Long, DatasetEntity> datasets = Maps.newHashMap();
+
+    private final Map<String, SosProcedureDescription<?>> procedures = Maps.newHashMap();
+
+    private final Map<String, AbstractFeature> features = Maps.newHashMap();
+
+    private final Map<String, Optional<String>> units = Maps.newHashMap();
+
+    /**
+     * Create an empty prefetch which only memoizes the created objects.
+     */
+    public OmObservationCreatorPrefetch() {
+    }
+
+    /**
+     * Prefetch the datasets referenced by the observations
+     *
+     * @param observations
+     *            the observations of the response
+     * @param session
+     *            Hibernate session
+     * @return the prefetch
+     */
+    public static OmObservationCreatorPrefetch forObservations(Collection<? extends DataEntity<?>> observations,
+            Session session) {
+        OmObservationCreatorPrefetch prefetch = new OmObservationCreatorPrefetch();
+        if (observations != null && !observations.isEmpty()) {
+            prefetch.load(observations.stream().map(DataEntity::getDataset).filter(Objects::nonNull)
+                    .map(DatasetEntity::getId).collect(Collectors.toSet()), session);
+        }
+        return prefetch;
+    }
+
+    /**
+     * Prefetch the references of the datasets
+     *
+     * @param datasets
+     *            the datasets of the response
+     * @param session
+     *            Hibernate session
+     * @return the prefetch
+     */
+    public static OmObservationCreatorPrefetch forDatasets(Collection<DatasetEntity> datasets, Session session) {
+        OmObservationCreatorPrefetch prefetch = new OmObservationCreatorPrefetch();
+        if (datasets != null && !datasets.isEmpty()) {
+            Set<Long> uninitialized = Sets.newHashSet();
+            for (DatasetEntity dataset : datasets) {
+                if (dataset != null) {
+                    if (isInitialized(dataset)) {
+                        prefetch.datasets.put(dataset.getId(), dataset);
+                    } else {
+                        uninitialized.add(dataset.getId());
+                    }
+                }
+            }
+            prefetch.load(uninitialized, session);
+        }
+        return prefetch;
+    }
+
+    private static boolean isInitialized(DatasetEntity dataset) {
+        return Hibernate.isInitialized(dataset) && Hibernate.isInitialized(dataset.getProcedure())
+                && Hibernate.isInitialized(dataset.getPhenomenon()) && Hibernate.isInitialized(dataset.getFeature())
+                && Hibernate.isInitialized(dataset.getOffering());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load(Set<Long> ids, Session session) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Criteria c = session.createCriteria(DatasetEntity.class)
+                .add(QueryHelper.getCriterionForObjects(DatasetEntity.PROPERTY_ID, ids))
+                .setFetchMode(DatasetEntity.PROPERTY_PROCEDURE, FetchMode.JOIN)
+                .setFetchMode(DatasetEntity.PROPERTY_PHENOMENON, FetchMode.JOIN)
+                .setFetchMode(DatasetEntity.PROPERTY_FEATURE, FetchMode.JOIN)
+                .setFetchMode(DatasetEntity.PROPERTY_OFFERING, FetchMode.JOIN)
+                .setFetchMode(DatasetEntity.PROPERTY_UNIT, FetchMode.JOIN)
+                .setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+        LOGGER.trace("QUERY prefetch datasets: {}", HibernateHelper.getSqlString(c));
+        for (DatasetEntity dataset : (List<DatasetEntity>) c.list()) {
+            datasets.put(dataset.getId(), dataset);
+        }
+        LOGGER.debug("Prefetching {} datasets done in {} ms.", datasets.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return the prefetched datasets
+     */
+    public Collection<DatasetEntity> getDatasets() {
+        return Collections.unmodifiableCollection(datasets.values());
+    }
+
+    /**
+     * Get the prefetched dataset for the id
+     *
+     * @param id
+     *            the dataset id
+     * @return the prefetched dataset or {@code null}
+     */
+    public DatasetEntity getDataset(Long id) {
+        return datasets.get(id);
+    }
+
+    public boolean hasProcedure(String identifier) {
+        return procedures.containsKey(identifier);
+    }
+
+    public SosProcedureDescription<?> getProcedure(String identifier) {
+        return procedures.get(identifier);
+    }
+
+    public void addProcedure(String identifier, SosProcedureDescription<?> procedure) {
+        procedures.put(identifier, procedure);
+    }
+
+    public boolean hasFeature(String identifier) {
+        return features.containsKey(identifier);
+    }
+
+    public AbstractFeature getFeature(String identifier) {
+        return features.get(identifier);
+    }
+
+    public void addFeature(String identifier, AbstractFeature feature) {
+        features.put(identifier, feature);
+    }
+
+    public boolean hasUnit(String key) {
+        return units.containsKey(key);
+    }
+
+    public String getUnit(String key) {
+        return units.get(key).orElse(null);
+    }
+
+    public void addUnit(String key, String unit) {
+        units.put(key, Optional.ofNullable(unit));
+    }
+
+}
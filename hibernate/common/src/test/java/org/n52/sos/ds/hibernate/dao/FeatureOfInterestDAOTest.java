@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.series.db.beans.AbstractFeatureEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.FormatEntity;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.hibernate.ExtendedHibernateTestCase;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+
+/**
+ * Test the level-batched initialization of the parent features.
+ *
+ * @since 5.2.3
+ */
+public class FeatureOfInterestDAOTest extends ExtendedHibernateTestCase {
+
+    private static final List<String> LEAVES = Arrays.asList("leaf-1", "leaf-2", "leaf-3");
+
+    private static final List<String> ANCESTORS = Arrays.asList("middle-1", "middle-2", "root");
+
+    private final List<Long> leaves = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Session session = getSession();
+        HibernateMetadataCache.init(session);
+        Transaction transaction = session.beginTransaction();
+        try {
+            FormatEntity format = new FormatEntity();
+            format.setFormat("format");
+            session.save(format);
+            FeatureEntity root = createFeature(session, format, "root");
+            FeatureEntity middle1 = createFeature(session, format, "middle-1", root);
+            FeatureEntity middle2 = createFeature(session, format, "middle-2", root);
+            leaves.add(createFeature(session, format, "leaf-1", middle1).getId());
+            leaves.add(createFeature(session, format, "leaf-2", middle1, middle2).getId());
+            leaves.add(createFeature(session, format, "leaf-3", middle2).getId());
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldInitializeParentsWithOneQueryPerLevel() throws OwsExceptionReport {
+        assertParentsInitialized(Collections.emptySet(), 3L);
+    }
+
+    @Test
+    public void shouldInitializeParentsWithOneQueryForKnownAncestors() throws OwsExceptionReport {
+        assertParentsInitialized(ANCESTORS, 1L);
+    }
+
+    @Test
+    public void shouldLoadFeatureProxiesWithTheirParents() throws OwsExceptionReport {
+        Session session = getSession();
+        Statistics statistics = session.getSessionFactory().getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        try {
+            List<FeatureEntity> features = new ArrayList<>();
+            for (Long id : leaves) {
+                features.add(session.load(FeatureEntity.class, id));
+            }
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            getDaoFactory().getFeatureDAO().initializeParents(features, session);
+            // the proxies are loaded with the first level
+            assertThat(statistics.getPrepareStatementCount(), is(3L));
+            Set<String> reached = new TreeSet<>();
+            for (FeatureEntity feature : features) {
+                assertThat(Hibernate.isInitialized(feature), is(true));
+                collectAncestors(feature, reached);
+            }
+            assertThat(reached, is(new TreeSet<>(ANCESTORS)));
+            assertThat(statistics.getPrepareStatementCount(), is(3L));
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+            returnSession(session);
+        }
+    }
+
+    private void assertParentsInitialized(Collection<String> ancestors, long queries) throws OwsExceptionReport {
+        Session session = getSession();
+        Statistics statistics = session.getSessionFactory().getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        try {
+            List<FeatureEntity> features = loadLeaves(session);
+            for (FeatureEntity feature : features) {
+                assertThat(Hibernate.isInitialized(feature.getParents()), is(false));
+            }
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            getDaoFactory().getFeatureDAO().initializeParents(features, ancestors, session);
+            assertThat(statistics.getPrepareStatementCount(), is(queries));
+
+            // the whole hierarchy is available without further queries
+            Set<String> reached = new TreeSet<>();
+            for (FeatureEntity feature : features) {
+                collectAncestors(feature, reached);
+            }
+            assertThat(reached, is(new TreeSet<>(ANCESTORS)));
+            assertThat(statistics.getPrepareStatementCount(), is(queries));
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+            returnSession(session);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<FeatureEntity> loadLeaves(Session session) {
+        return session.createCriteria(FeatureEntity.class).add(Restrictions.in(FeatureEntity.IDENTIFIER, LEAVES))
+                .list();
+    }
+
+    private void collectAncestors(AbstractFeatureEntity<?> feature, Set<String> reached) {
+        assertThat(Hibernate.isInitialized(feature.getParents()), is(true));
+        for (Object parent : feature.getParents()) {
+            AbstractFeatureEntity<?> parentFeature = (AbstractFeatureEntity<?>) parent;
+            reached.add(parentFeature.getIdentifier());
+            collectAncestors(parentFeature, reached);
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private FeatureEntity createFeature(Session session, FormatEntity format, String identifier,
+            FeatureEntity... parents) {
+        FeatureEntity feature = new FeatureEntity();
+        feature.setIdentifier(identifier);
+        feature.setFeatureType(format);
+        if (parents.length > 0) {
+            Set<AbstractFeatureEntity> set = new HashSet<>(Arrays.asList(parents));
+            feature.setParents(set);
+        }
+        session.save(feature);
+        return feature;
+    }
+}
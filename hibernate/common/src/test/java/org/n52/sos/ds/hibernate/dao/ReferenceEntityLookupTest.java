@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Criteria;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.internal.CriteriaImpl;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.series.db.beans.CategoryEntity;
+import org.n52.series.db.beans.CodespaceEntity;
+import org.n52.series.db.beans.FormatEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.series.db.beans.UnitEntity;
+import org.n52.shetland.ogc.UoM;
+import org.n52.sos.ds.hibernate.ExtendedHibernateTestCase;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+import org.n52.sos.ds.hibernate.util.ReferenceEntityCache;
+
+/**
+ * Test that the lookups of the reference entities are cacheable in the
+ * {@link ReferenceEntityCache#QUERY_REGION} and still find the entities.
+ *
+ * @since 5.2.3
+ */
+public class ReferenceEntityLookupTest extends ExtendedHibernateTestCase {
+
+    private static final String IDENTIFIER = "reference";
+
+    private final List<CriteriaImpl> criterias = new ArrayList<>();
+
+    private Session session;
+
+    @Before
+    public void setUp() {
+        session = getSession();
+        HibernateMetadataCache.init(session);
+        Transaction transaction = session.beginTransaction();
+        try {
+            FormatEntity format = new FormatEntity();
+            format.setFormat(IDENTIFIER);
+            session.save(format);
+            UnitEntity unit = new UnitEntity();
+            unit.setUnit(IDENTIFIER);
+            session.save(unit);
+            CodespaceEntity codespace = new CodespaceEntity();
+            codespace.setName(IDENTIFIER);
+            session.save(codespace);
+            CategoryEntity category = new CategoryEntity();
+            category.setIdentifier(IDENTIFIER);
+            session.save(category);
+            PhenomenonEntity phenomenon = new PhenomenonEntity();
+            phenomenon.setIdentifier(IDENTIFIER);
+            session.save(phenomenon);
+            OfferingEntity offering = new OfferingEntity();
+            offering.setIdentifier(IDENTIFIER);
+            session.save(offering);
+            ProcedureEntity procedure = new ProcedureEntity();
+            procedure.setIdentifier(IDENTIFIER);
+            procedure.setFormat(format);
+            session.save(procedure);
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        }
+        session.clear();
+    }
+
+    @After
+    public void tearDown() {
+        returnSession(session);
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldLookUpUnitCacheable() {
+        assertThat(getDaoFactory().getUnitDAO().getUnit(IDENTIFIER, recording()).getUnit(), is(IDENTIFIER));
+        assertCacheable();
+        assertThat(getDaoFactory().getUnitDAO().getUnit(new UoM(IDENTIFIER), recording()).getUnit(),
+                is(IDENTIFIER));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpFormatCacheable() {
+        assertThat(getDaoFactory().getObservationTypeDAO().getFormatEntityObject(IDENTIFIER, recording())
+                .getFormat(), is(IDENTIFIER));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpCodespaceCacheable() {
+        assertThat(getDaoFactory().getCodespaceDAO().getCodespace(IDENTIFIER, recording()).getName(),
+                is(IDENTIFIER));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpCategoryCacheable() {
+        assertThat(getDaoFactory().getCategoryDAO().getCategoryForIdentifier(IDENTIFIER, recording())
+                .getIdentifier(), is(IDENTIFIER));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpObservablePropertyCacheable() {
+        assertThat(getDaoFactory().getObservablePropertyDAO()
+                .getObservablePropertyForIdentifier(IDENTIFIER, recording()).getIdentifier(), is(IDENTIFIER));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpOfferingCacheable() {
+        assertThat(getDaoFactory().getOfferingDAO().getOfferingForIdentifier(IDENTIFIER, recording())
+                .getIdentifier(), is(IDENTIFIER));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpProcedureCacheable() {
+        // only procedures of datasets are found
+        assertThat(getDaoFactory().getProcedureDAO().getProcedureForIdentifier(IDENTIFIER, recording()),
+                is(nullValue()));
+        assertCacheable();
+    }
+
+    @Test
+    public void shouldLookUpMissingEntity() {
+        assertThat(getDaoFactory().getUnitDAO().getUnit("missing", recording()), is(nullValue()));
+        assertCacheable();
+    }
+
+    /**
+     * @return the session, recording the created {@link Criteria}
+     */
+    private Session recording() {
+        criterias.clear();
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class },
+                (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(session, args);
+                        if (result instanceof CriteriaImpl) {
+                            criterias.add((CriteriaImpl) result);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void assertCacheable() {
+        assertThat(criterias, hasSize(1));
+        assertThat(criterias.get(0).getCacheable(), is(true));
+        assertThat(criterias.get(0).getCacheRegion(), is(ReferenceEntityCache.QUERY_REGION));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao.i18n;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.n52.series.db.beans.i18n.I18nOfferingEntity;
+
+import com.google.common.collect.ImmutableMap;
+
+public class I18NCacheTest {
+
+    private final I18NCache<I18nOfferingEntity> cache = new I18NCache<>();
+
+    @Test
+    public void shouldReturnNullForUnknownIdentifierIfIncomplete() {
+        cache.put("a", Collections.singletonList(translation("en")));
+        assertThat(cache.isComplete(), is(false));
+        assertThat(cache.get("a").keySet(), containsInAnyOrder("en"));
+        assertThat(cache.get("b"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownIdentifierIfComplete() {
+        cache.replace(ImmutableMap.of("a", Arrays.asList(translation("en"), translation("de"))));
+        assertThat(cache.isComplete(), is(true));
+        assertThat(cache.get("a").keySet(), containsInAnyOrder("en", "de"));
+        assertThat(cache.get("b"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReplaceTranslations() {
+        cache.put("a", Collections.singletonList(translation("en")));
+        cache.replace(ImmutableMap.of("b", Collections.singletonList(translation("de"))));
+        assertThat(cache.get("a"), is(nullValue()));
+        assertThat(cache.getLocales(), containsInAnyOrder("de"));
+    }
+
+    @Test
+    public void shouldRemoveTranslations() {
+        cache.replace(ImmutableMap.of("a", Collections.singletonList(translation("en"))));
+        cache.remove("a");
+        assertThat(cache.get("a"), is(nullValue()));
+        assertThat(cache.isComplete(), is(true));
+    }
+
+    private I18nOfferingEntity translation(String locale) {
+        I18nOfferingEntity translation = new I18nOfferingEntity();
+        translation.setLocale(locale);
+        return translation;
+    }
+}
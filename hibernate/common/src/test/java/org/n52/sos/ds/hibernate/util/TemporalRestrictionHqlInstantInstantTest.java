@@ -69,7 +69,7 @@ public class TemporalRestrictionHqlInstantInstantTest implements TemporalRestric
             throws UnsupportedValueReferenceException, UnsupportedTimeException, UnsupportedOperatorException {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Before, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd<:instant1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<:instant1 and samplingTimeEnd<:instant1"));
     }
 
     @Test
@@ -118,7 +118,7 @@ public class TemporalRestrictionHqlInstantInstantTest implements TemporalRestric
     public void testEndedByPhenomenonTime() throws OwsExceptionReport {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_EndedBy, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd=:instant1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<=:instant1 and samplingTimeEnd=:instant1"));
     }
 
     @Test(expected = UnsupportedTimeException.class)
@@ -64,7 +64,7 @@ public class TemporalRestrictionHqlInstantPeriodTest implements TemporalRestrict
             throws UnsupportedValueReferenceException, UnsupportedTimeException, UnsupportedOperatorException {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Before, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd<:start1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<:start1 and samplingTimeEnd<:start1"));
     }
 
     @Test
@@ -87,7 +87,7 @@ public class TemporalRestrictionHqlInstantPeriodTest implements TemporalRestrict
             throws UnsupportedValueReferenceException, UnsupportedTimeException, UnsupportedOperatorException {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_During, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeStart>:start1 and samplingTimeEnd<:end1"));
+        assertThat(filterHql.toString(), equalTo("(samplingTimeStart>:start1 and samplingTimeStart<:end1 and samplingTimeEnd<:end1)"));
     }
 
     @Test
@@ -108,7 +108,7 @@ public class TemporalRestrictionHqlInstantPeriodTest implements TemporalRestrict
     public void testEndsPhenomenonTime() throws OwsExceptionReport {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Ends, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeStart>:start1 and samplingTimeEnd=:end1"));
+        assertThat(filterHql.toString(), equalTo("(samplingTimeStart>:start1 and samplingTimeStart<=:end1 and samplingTimeEnd=:end1)"));
     }
 
     @Test
@@ -138,7 +138,7 @@ public class TemporalRestrictionHqlInstantPeriodTest implements TemporalRestrict
     public void testMeetsPhenomenonTime() throws OwsExceptionReport {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Meets, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd=:start1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<=:start1 and samplingTimeEnd=:start1"));
     }
 
     @Test
@@ -65,7 +65,7 @@ public class TemporalRestrictionHqlPeriodInstantTest
             throws UnsupportedValueReferenceException, UnsupportedTimeException, UnsupportedOperatorException {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Before, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd<:instant1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<:instant1 and samplingTimeEnd<:instant1"));
     }
 
     @Test
@@ -114,7 +114,7 @@ public class TemporalRestrictionHqlPeriodInstantTest
     public void testEndedByPhenomenonTime() throws OwsExceptionReport {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_EndedBy, PHENOMENON_TIME);
         Criterion filterHql = SosTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd=:instant1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<=:instant1 and samplingTimeEnd=:instant1"));
     }
 
     @Test(expected = UnsupportedTimeException.class)
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.util.observation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.n52.series.db.beans.BooleanDataEntity;
+import org.n52.series.db.beans.CategoryEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.FormatEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.PlatformEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.series.db.beans.UnitEntity;
+import org.n52.series.db.beans.parameter.ParameterEntity;
+import org.n52.series.db.beans.parameter.ParameterTextEntity;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.hibernate.ExtendedHibernateTestCase;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+import org.n52.sos.ds.hibernate.util.ParameterFactory;
+
+import com.google.common.collect.Sets;
+
+public class OmObservationCreatorPrefetchTest extends ExtendedHibernateTestCase {
+
+    private static final String[] UNITS = { "m", "s", null };
+
+    private static final int OBSERVATIONS_PER_DATASET = 3;
+
+    private static final String PARAMETER = "parameter";
+
+    private static final String PARAMETER_VALUE = "value";
+
+    @After
+    public void tearDown() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldNotQueryForEmptyObservations() {
+        OmObservationCreatorPrefetch prefetch =
+                OmObservationCreatorPrefetch.forObservations(Collections.emptyList(), null);
+        Assert.assertTrue(prefetch.getDatasets().isEmpty());
+    }
+
+    @Test
+    public void shouldNotQueryForEmptyDatasets() {
+        OmObservationCreatorPrefetch prefetch = OmObservationCreatorPrefetch.forDatasets(null, null);
+        Assert.assertTrue(prefetch.getDatasets().isEmpty());
+    }
+
+    @Test
+    public void shouldMemoizeMissingUnit() {
+        OmObservationCreatorPrefetch prefetch = new OmObservationCreatorPrefetch();
+        Assert.assertFalse(prefetch.hasUnit("property|procedure"));
+        prefetch.addUnit("property|procedure", null);
+        Assert.assertTrue(prefetch.hasUnit("property|procedure"));
+        Assert.assertNull(prefetch.getUnit("property|procedure"));
+    }
+
+    @Test
+    public void shouldMemoizeUnit() {
+        OmObservationCreatorPrefetch prefetch = new OmObservationCreatorPrefetch();
+        prefetch.addUnit("property|procedure", "m");
+        Assert.assertEquals("m", prefetch.getUnit("property|procedure"));
+    }
+
+    @Test
+    public void shouldPrefetchUnitsOfObservationsInOneQuery() throws OwsExceptionReport {
+        List<Long> datasets = createObservations();
+        Session session = getSession();
+        Statistics statistics = session.getSessionFactory().getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        try {
+            @SuppressWarnings("unchecked")
+            List<DataEntity<?>> observations = session.createCriteria(getObservationClass()).list();
+            assertThat(observations, hasSize(UNITS.length * OBSERVATIONS_PER_DATASET));
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            OmObservationCreatorPrefetch prefetch = OmObservationCreatorPrefetch.forObservations(observations, session);
+            assertThat(statistics.getPrepareStatementCount(), is(1L));
+            assertPrefetched(prefetch, datasets);
+            // the unit is joined, accessing it must not query again
+            assertThat(statistics.getPrepareStatementCount(), is(1L));
+            assertParameters(prefetch, datasets);
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+            returnSession(session);
+        }
+    }
+
+    @Test
+    public void shouldPrefetchUnitsOfUninitializedDatasets() throws OwsExceptionReport {
+        List<Long> datasets = createObservations();
+        Session session = getSession();
+        try {
+            List<DatasetEntity> proxies = new ArrayList<>();
+            for (Long id : datasets) {
+                proxies.add(session.load(DatasetEntity.class, id));
+            }
+            OmObservationCreatorPrefetch prefetch = OmObservationCreatorPrefetch.forDatasets(proxies, session);
+            assertPrefetched(prefetch, datasets);
+            assertParameters(prefetch, datasets);
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    private void assertPrefetched(OmObservationCreatorPrefetch prefetch, List<Long> datasets) {
+        assertThat(prefetch.getDatasets(), hasSize(datasets.size()));
+        for (int i = 0; i < datasets.size(); i++) {
+            DatasetEntity dataset = prefetch.getDataset(datasets.get(i));
+            assertThat(Hibernate.isInitialized(dataset), is(true));
+            assertThat(Hibernate.isInitialized(dataset.getProcedure()), is(true));
+            if (UNITS[i] == null) {
+                assertThat(dataset.hasUnit(), is(false));
+            } else {
+                assertThat(Hibernate.isInitialized(dataset.getUnit()), is(true));
+                assertThat(dataset.getUnit().getUnit(), is(UNITS[i]));
+            }
+        }
+    }
+
+    private void assertParameters(OmObservationCreatorPrefetch prefetch, List<Long> datasets) {
+        for (int i = 0; i < datasets.size(); i++) {
+            DatasetEntity dataset = prefetch.getDataset(datasets.get(i));
+            assertThat(dataset.hasParameters(), is(i == 0));
+            if (i == 0) {
+                ParameterEntity<?> parameter = dataset.getParameters().iterator().next();
+                assertThat(parameter.getName(), is(PARAMETER));
+                assertThat(parameter.getValue(), is(PARAMETER_VALUE));
+            }
+        }
+    }
+
+    private List<Long> createObservations() throws OwsExceptionReport {
+        DaoFactory daoFactory = getDaoFactory();
+        Session session = getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            HibernateMetadataCache.init(session);
+            FormatEntity format = new FormatEntity();
+            format.setFormat("format");
+            session.save(format);
+            FeatureEntity feature = new FeatureEntity();
+            feature.setIdentifier("feature");
+            feature.setFeatureType(format);
+            session.save(feature);
+            PhenomenonEntity phenomenon = new PhenomenonEntity();
+            phenomenon.setIdentifier("phenomenon");
+            session.save(phenomenon);
+            CategoryEntity category = new CategoryEntity();
+            category.setIdentifier("category");
+            session.save(category);
+            PlatformEntity platform = new PlatformEntity();
+            platform.setIdentifier("platform");
+            session.save(platform);
+            OfferingEntity offering = new OfferingEntity();
+            offering.setIdentifier("offering");
+            session.save(offering);
+            List<Long> datasets = new ArrayList<>();
+            DateTime time = new DateTime(2020, 1, 1, 0, 0);
+            for (int i = 0; i < UNITS.length; i++) {
+                ProcedureEntity procedure = new ProcedureEntity();
+                procedure.setIdentifier("procedure" + i);
+                procedure.setFormat(format);
+                session.save(procedure);
+                BooleanDataEntity observation = daoFactory.getObservationDAO().getObservationFactory().truth();
+                DatasetEntity dataset = (DatasetEntity) daoFactory.getSeriesDAO().getDatasetFactory()
+                        .visit(observation);
+                dataset.setFeature(feature);
+                dataset.setObservableProperty(phenomenon);
+                dataset.setCategory(category);
+                dataset.setPlatform(platform);
+                dataset.setProcedure(procedure);
+                dataset.setOffering(offering);
+                dataset.setDeleted(false);
+                dataset.setPublished(true);
+                if (UNITS[i] != null) {
+                    UnitEntity unit = new UnitEntity();
+                    unit.setUnit(UNITS[i]);
+                    session.save(unit);
+                    dataset.setUnit(unit);
+                }
+                if (i == 0) {
+                    ParameterTextEntity parameter = ParameterFactory.getInstance().text();
+                    parameter.setName(PARAMETER);
+                    parameter.setValue(PARAMETER_VALUE);
+                    session.save(parameter);
+                    dataset.setParameters(Sets.<ParameterEntity<?>> newHashSet(parameter));
+                }
+                session.save(dataset);
+                datasets.add(dataset.getId());
+                for (int j = 0; j < OBSERVATIONS_PER_DATASET; j++) {
+                    if (j > 0) {
+                        observation = daoFactory.getObservationDAO().getObservationFactory().truth();
+                    }
+                    observation.setDataset(dataset);
+                    observation.setValue(true);
+                    observation.setDeleted(false);
+                    observation.setSamplingTimeStart(time.plusMinutes(j).toDate());
+                    observation.setSamplingTimeEnd(time.plusMinutes(j).toDate());
+                    observation.setResultTime(time.plusMinutes(j).toDate());
+                    session.save(observation);
+                }
+            }
+            transaction.commit();
+            return datasets;
+        } catch (RuntimeException | OwsExceptionReport e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            returnSession(session);
+        }
+    }
+}
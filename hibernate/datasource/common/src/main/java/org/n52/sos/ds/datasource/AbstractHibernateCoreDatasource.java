@@ -84,6 +84,58 @@ public abstract class AbstractHibernateCoreDatasource implements Datasource, Hib
 
     protected static final String C3P0_CONNECTION_POOL = "org.hibernate.c3p0.internal.C3P0ConnectionProvider";
 
+    protected static final String HIKARI_CONNECTION_POOL = "org.n52.sos.ds.hibernate.hikari.HikariConnectionProvider";
+
+    protected static final String CONNECTION_POOL_KEY = "jdbc.pool.provider";
+
+    protected static final String CONNECTION_POOL_TITLE = "Connection pool";
+
+    protected static final String CONNECTION_POOL_DESCRIPTION =
+            "The connection pool implementation. HikariCP reports its usage (active, idle and waiting connections, "
+                    + "acquire time) in the admin interface.";
+
+    protected static final String CONNECTION_POOL_DEFAULT_VALUE = C3P0_CONNECTION_POOL;
+
+    protected static final String STATEMENT_CACHE_SIZE_KEY = "jdbc.statement.cache.size";
+
+    protected static final String STATEMENT_CACHE_SIZE_TITLE = "Prepared statement cache size";
+
+    protected static final String STATEMENT_CACHE_SIZE_DESCRIPTION =
+            "Number of prepared statements cached per connection. The cache of the JDBC driver is used if the "
+                    + "driver supports one, otherwise the cache of the connection pool. 0 disables the cache.";
+
+    protected static final Integer STATEMENT_CACHE_SIZE_DEFAULT_VALUE = 256;
+
+    protected static final String QUERY_PLAN_CACHE_SIZE_KEY = HibernateConstants.QUERY_PLAN_CACHE_MAX_SIZE;
+
+    protected static final String QUERY_PLAN_CACHE_SIZE_TITLE = "Query plan cache size";
+
+    protected static final String QUERY_PLAN_CACHE_SIZE_DESCRIPTION =
+            "Maximum number of parsed HQL/Criteria query plans kept by Hibernate.";
+
+    protected static final Integer QUERY_PLAN_CACHE_SIZE_DEFAULT_VALUE = 2048;
+
+    protected static final String STATISTICS_KEY = HibernateConstants.GENERATE_STATISTICS;
+
+    protected static final String STATISTICS_TITLE = "Collect statement statistics";
+
+    protected static final String STATISTICS_DESCRIPTION =
+            "Let Hibernate collect statement and query plan cache statistics, e.g. the cache hit rate shown in the "
+                    + "admin interface. Adds a small overhead to every query.";
+
+    protected static final Boolean STATISTICS_DEFAULT_VALUE = false;
+
+    protected static final String REFERENCE_CACHE_KEY = HibernateConstants.USE_SECOND_LEVEL_CACHE;
+
+    protected static final String REFERENCE_CACHE_TITLE = "Reference entity cache";
+
+    protected static final String REFERENCE_CACHE_DESCRIPTION =
+            "Cache the rarely changing units, formats, codespaces, phenomena, categories, offerings and procedures "
+                    + "and their lookups in the Hibernate second-level and query cache. Only enable it if the "
+                    + "database is not modified by other applications.";
+
+    protected static final Boolean REFERENCE_CACHE_DEFAULT_VALUE = false;
+
     protected static final String MIN_POOL_SIZE_KEY = "jdbc.pool.min";
 
     protected static final String MIN_POOL_SIZE_TITLE = "Minimum ConnectionPool size";
@@ -28,6 +28,7 @@
  */
 package org.n52.sos.ds.datasource;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -36,6 +37,7 @@ import java.util.Set;
 
 import org.n52.faroe.SettingDefinition;
 import org.n52.faroe.settings.BooleanSettingDefinition;
+import org.n52.faroe.settings.ChoiceSettingDefinition;
 import org.n52.faroe.settings.IntegerSettingDefinition;
 import org.n52.faroe.settings.StringSettingDefinition;
 import org.n52.shetland.util.JavaHelper;
@@ -70,6 +72,11 @@ public abstract class AbstractHibernateFullDBDatasource extends AbstractHibernat
             set.add(createSchemaDefinition(schemaDefault));
         }
         set.add(createBatchSizeDefinition(batchSizeDefault));
+        set.add(createConnectionPoolDefinition(CONNECTION_POOL_DEFAULT_VALUE));
+        set.add(createStatementCacheSizeDefinition(STATEMENT_CACHE_SIZE_DEFAULT_VALUE));
+        set.add(createQueryPlanCacheSizeDefinition(QUERY_PLAN_CACHE_SIZE_DEFAULT_VALUE));
+        set.add(createStatisticsDefinition(STATISTICS_DEFAULT_VALUE));
+        set.add(createReferenceCacheDefinition(REFERENCE_CACHE_DEFAULT_VALUE));
         set.add(createProvidedJdbcDriverDefinition(providedJdbc));
         set.add(getDatabaseConceptDefinition());
         set.add(getDatabaseExtensionDefinition());
@@ -90,6 +97,13 @@ public abstract class AbstractHibernateFullDBDatasource extends AbstractHibernat
                         createPortDefinition(JavaHelper.asInteger(settings.get(PORT_KEY))),
                         createMinPoolSizeDefinition(JavaHelper.asInteger(settings.get(MIN_POOL_SIZE_KEY))),
                         createMaxPoolSizeDefinition(JavaHelper.asInteger(settings.get(MAX_POOL_SIZE_KEY))),
+                        createConnectionPoolDefinition((String) settings.get(CONNECTION_POOL_KEY)),
+                        createStatementCacheSizeDefinition(
+                                JavaHelper.asInteger(settings.get(STATEMENT_CACHE_SIZE_KEY))),
+                        createQueryPlanCacheSizeDefinition(
+                                JavaHelper.asInteger(settings.get(QUERY_PLAN_CACHE_SIZE_KEY))),
+                        createStatisticsDefinition((Boolean) settings.get(STATISTICS_KEY)),
+                        createReferenceCacheDefinition((Boolean) settings.get(REFERENCE_CACHE_KEY)),
                         createBatchSizeDefinition(JavaHelper.asInteger(settings.get(BATCH_SIZE_KEY))),
                         createTimeZoneDefinition((String) settings.get(TIMEZONE_KEY)));
         if (supportsSchema) {
@@ -111,6 +125,100 @@ public abstract class AbstractHibernateFullDBDatasource extends AbstractHibernat
         return def;
     }
 
+    /**
+     * Create settings definition for the connection pool implementation
+     *
+     * @param defaultValue
+     *            the connection provider class
+     * @return Connection pool settings definition
+     */
+    protected ChoiceSettingDefinition createConnectionPoolDefinition(final String defaultValue) {
+        ChoiceSettingDefinition def = new ChoiceSettingDefinition();
+        def.setGroup(ADVANCED_GROUP);
+        def.setOrder(9);
+        def.setKey(CONNECTION_POOL_KEY);
+        def.setTitle(CONNECTION_POOL_TITLE);
+        def.setDescription(CONNECTION_POOL_DESCRIPTION);
+        def.addOption(C3P0_CONNECTION_POOL, "c3p0");
+        def.addOption(HIKARI_CONNECTION_POOL, "HikariCP");
+        def.setDefaultValue(defaultValue);
+        return def;
+    }
+
+    /**
+     * Create settings definition for the prepared statement cache size
+     *
+     * @param defaultValue
+     *            the number of cached statements per connection
+     * @return Prepared statement cache size settings definition
+     */
+    protected IntegerSettingDefinition createStatementCacheSizeDefinition(final Integer defaultValue) {
+        IntegerSettingDefinition def = new IntegerSettingDefinition();
+        def.setGroup(ADVANCED_GROUP);
+        def.setOrder(10);
+        def.setKey(STATEMENT_CACHE_SIZE_KEY);
+        def.setTitle(STATEMENT_CACHE_SIZE_TITLE);
+        def.setDescription(STATEMENT_CACHE_SIZE_DESCRIPTION);
+        def.setMinimum(0);
+        def.setDefaultValue(defaultValue);
+        return def;
+    }
+
+    /**
+     * Create settings definition for the Hibernate query plan cache size
+     *
+     * @param defaultValue
+     *            the number of cached query plans
+     * @return Query plan cache size settings definition
+     */
+    protected IntegerSettingDefinition createQueryPlanCacheSizeDefinition(final Integer defaultValue) {
+        IntegerSettingDefinition def = new IntegerSettingDefinition();
+        def.setGroup(ADVANCED_GROUP);
+        def.setOrder(13);
+        def.setKey(QUERY_PLAN_CACHE_SIZE_KEY);
+        def.setTitle(QUERY_PLAN_CACHE_SIZE_TITLE);
+        def.setDescription(QUERY_PLAN_CACHE_SIZE_DESCRIPTION);
+        def.setMinimum(1);
+        def.setDefaultValue(defaultValue);
+        return def;
+    }
+
+    /**
+     * Create settings definition for the Hibernate statistics
+     *
+     * @param defaultValue
+     *            if statistics should be collected
+     * @return Statistics settings definition
+     */
+    protected BooleanSettingDefinition createStatisticsDefinition(final Boolean defaultValue) {
+        BooleanSettingDefinition def = new BooleanSettingDefinition();
+        def.setGroup(ADVANCED_GROUP);
+        def.setOrder(14);
+        def.setKey(STATISTICS_KEY);
+        def.setTitle(STATISTICS_TITLE);
+        def.setDescription(STATISTICS_DESCRIPTION);
+        def.setDefaultValue(defaultValue);
+        return def;
+    }
+
+    /**
+     * Create settings definition for the reference entity cache
+     *
+     * @param defaultValue
+     *            if the reference entities should be cached
+     * @return Reference entity cache settings definition
+     */
+    protected BooleanSettingDefinition createReferenceCacheDefinition(final Boolean defaultValue) {
+        BooleanSettingDefinition def = new BooleanSettingDefinition();
+        def.setGroup(ADVANCED_GROUP);
+        def.setOrder(15);
+        def.setKey(REFERENCE_CACHE_KEY);
+        def.setTitle(REFERENCE_CACHE_TITLE);
+        def.setDescription(REFERENCE_CACHE_DESCRIPTION);
+        def.setDefaultValue(defaultValue);
+        return def;
+    }
+
     protected SettingDefinition<?> createProvidedJdbcDriverDefinition(final Boolean defaultValue) {
         BooleanSettingDefinition def = createProvidedJdbcDriverDefinition();
         def.setDefaultValue(defaultValue);
@@ -126,20 +234,48 @@ public abstract class AbstractHibernateFullDBDatasource extends AbstractHibernat
         p.put(HibernateConstants.CONNECTION_USERNAME, settings.get(USERNAME_KEY));
         p.put(HibernateConstants.CONNECTION_PASSWORD, settings.get(PASSWORD_KEY));
         p.put(HibernateConstants.CONNECTION_URL, toURL(settings));
-        p.put(HibernateConstants.CONNECTION_PROVIDER_CLASS, C3P0_CONNECTION_POOL);
         p.put(HibernateConstants.DIALECT, getDialectClass());
         p.put(HibernateConstants.DRIVER_CLASS, getDriverClass());
-        p.put(HibernateConstants.C3P0_MIN_SIZE, settings.get(MIN_POOL_SIZE_KEY).toString());
-        p.put(HibernateConstants.C3P0_MAX_SIZE, settings.get(MAX_POOL_SIZE_KEY).toString());
-        p.put(HibernateConstants.C3P0_IDLE_TEST_PERIOD, "30");
-        p.put(HibernateConstants.C3P0_ACQUIRE_INCREMENT, "1");
-        p.put(HibernateConstants.C3P0_TIMEOUT, "0");
-        p.put(HibernateConstants.C3P0_MAX_STATEMENTS, "0");
-        p.put(HibernateConstants.C3P0_PRIVILEGE_SPAWNED_THREAD, Boolean.TRUE.toString());
-        p.put(HibernateConstants.C3P0_CONTEXT_CLASS_LOADER_SOURCE, "library");
+        int statementCacheSize = getStatementCacheSize(settings);
+        Map<String, String> driverStatementCache = getDriverStatementCacheProperties(statementCacheSize);
+        p.put(STATEMENT_CACHE_SIZE_KEY, Integer.toString(statementCacheSize));
+        if (isHikariConnectionPool(settings)) {
+            p.put(HibernateConstants.CONNECTION_PROVIDER_CLASS, HIKARI_CONNECTION_POOL);
+            p.put(HibernateConstants.HIKARI_MIN_IDLE, settings.get(MIN_POOL_SIZE_KEY).toString());
+            p.put(HibernateConstants.HIKARI_MAX_SIZE, settings.get(MAX_POOL_SIZE_KEY).toString());
+            p.put(HibernateConstants.HIKARI_POOL_NAME, "52n-sos");
+            driverStatementCache.forEach((k, v) -> p.put(HibernateConstants.HIKARI_DATASOURCE_PREFIX + k, v));
+        } else {
+            p.put(HibernateConstants.CONNECTION_PROVIDER_CLASS, C3P0_CONNECTION_POOL);
+            p.put(HibernateConstants.C3P0_MIN_SIZE, settings.get(MIN_POOL_SIZE_KEY).toString());
+            p.put(HibernateConstants.C3P0_MAX_SIZE, settings.get(MAX_POOL_SIZE_KEY).toString());
+            p.put(HibernateConstants.C3P0_IDLE_TEST_PERIOD, "30");
+            p.put(HibernateConstants.C3P0_ACQUIRE_INCREMENT, "1");
+            p.put(HibernateConstants.C3P0_TIMEOUT, "0");
+            p.put(HibernateConstants.C3P0_MAX_STATEMENTS, "0");
+            // HikariCP has no statement cache, c3p0 only caches if the driver can't
+            p.put(HibernateConstants.C3P0_MAX_STATEMENTS_PER_CONNECTION,
+                    driverStatementCache.isEmpty() ? Integer.toString(statementCacheSize) : "0");
+            driverStatementCache.forEach((k, v) -> p.put(HibernateConstants.CONNECTION_PREFIX + k, v));
+            p.put(HibernateConstants.C3P0_PRIVILEGE_SPAWNED_THREAD, Boolean.TRUE.toString());
+            p.put(HibernateConstants.C3P0_CONTEXT_CLASS_LOADER_SOURCE, "library");
+        }
         if (settings.containsKey(BATCH_SIZE_KEY)) {
             p.put(HibernateConstants.JDBC_BATCH_SIZE, settings.get(BATCH_SIZE_KEY).toString());
         }
+        p.put(HibernateConstants.QUERY_PLAN_CACHE_MAX_SIZE, getSetting(settings, QUERY_PLAN_CACHE_SIZE_KEY,
+                QUERY_PLAN_CACHE_SIZE_DEFAULT_VALUE).toString());
+        p.put(HibernateConstants.GENERATE_STATISTICS,
+                getSetting(settings, STATISTICS_KEY, STATISTICS_DEFAULT_VALUE).toString());
+        boolean referenceCache = Boolean.parseBoolean(
+                getSetting(settings, REFERENCE_CACHE_KEY, REFERENCE_CACHE_DEFAULT_VALUE).toString());
+        p.put(HibernateConstants.USE_SECOND_LEVEL_CACHE, Boolean.toString(referenceCache));
+        p.put(HibernateConstants.USE_QUERY_CACHE, Boolean.toString(referenceCache));
+        if (referenceCache) {
+            p.put(HibernateConstants.CACHE_REGION_FACTORY, HibernateConstants.CACHE_REGION_FACTORY_JCACHE);
+            p.put(HibernateConstants.JCACHE_PROVIDER, HibernateConstants.JCACHE_PROVIDER_CAFFEINE);
+            p.put(HibernateConstants.JCACHE_MISSING_CACHE_STRATEGY, "create");
+        }
         p.put(HibernateConstants.CONNECTION_AUTO_RECONNECT, Boolean.TRUE.toString());
         p.put(HibernateConstants.CONNECTION_AUTO_RECONNECT_FOR_POOLS, Boolean.TRUE.toString());
         p.put(HibernateConstants.CONNECTION_TEST_ON_BORROW, Boolean.TRUE.toString());
@@ -169,11 +305,27 @@ public abstract class AbstractHibernateFullDBDatasource extends AbstractHibernat
         settings.put(HIBERNATE_DIRECTORY, current.get(HIBERNATE_DIRECTORY));
         settings.put(USERNAME_KEY, current.getProperty(HibernateConstants.CONNECTION_USERNAME));
         settings.put(PASSWORD_KEY, current.getProperty(HibernateConstants.CONNECTION_PASSWORD));
-        settings.put(MIN_POOL_SIZE_KEY, current.getProperty(HibernateConstants.C3P0_MIN_SIZE));
-        settings.put(MAX_POOL_SIZE_KEY, current.getProperty(HibernateConstants.C3P0_MAX_SIZE));
+        String connectionPool =
+                current.getProperty(HibernateConstants.CONNECTION_PROVIDER_CLASS, CONNECTION_POOL_DEFAULT_VALUE);
+        settings.put(CONNECTION_POOL_KEY, connectionPool);
+        if (HIKARI_CONNECTION_POOL.equals(connectionPool)) {
+            settings.put(MIN_POOL_SIZE_KEY, current.getProperty(HibernateConstants.HIKARI_MIN_IDLE));
+            settings.put(MAX_POOL_SIZE_KEY, current.getProperty(HibernateConstants.HIKARI_MAX_SIZE));
+        } else {
+            settings.put(MIN_POOL_SIZE_KEY, current.getProperty(HibernateConstants.C3P0_MIN_SIZE));
+            settings.put(MAX_POOL_SIZE_KEY, current.getProperty(HibernateConstants.C3P0_MAX_SIZE));
+        }
         if (current.containsKey(HibernateConstants.JDBC_BATCH_SIZE)) {
             settings.put(BATCH_SIZE_KEY, current.getProperty(HibernateConstants.JDBC_BATCH_SIZE));
         }
+        settings.put(STATEMENT_CACHE_SIZE_KEY,
+                current.getProperty(STATEMENT_CACHE_SIZE_KEY, STATEMENT_CACHE_SIZE_DEFAULT_VALUE.toString()));
+        settings.put(QUERY_PLAN_CACHE_SIZE_KEY, current.getProperty(HibernateConstants.QUERY_PLAN_CACHE_MAX_SIZE,
+                QUERY_PLAN_CACHE_SIZE_DEFAULT_VALUE.toString()));
+        settings.put(STATISTICS_KEY, Boolean.valueOf(
+                current.getProperty(HibernateConstants.GENERATE_STATISTICS, STATISTICS_DEFAULT_VALUE.toString())));
+        settings.put(REFERENCE_CACHE_KEY, Boolean.valueOf(current.getProperty(HibernateConstants.USE_SECOND_LEVEL_CACHE,
+                REFERENCE_CACHE_DEFAULT_VALUE.toString())));
         settings.put(DATABASE_CONCEPT_KEY,  current.getProperty(DATABASE_CONCEPT_KEY));
         settings.put(FEATURE_CONCEPT_KEY,  current.getProperty(FEATURE_CONCEPT_KEY));
         settings.put(PROVIDED_JDBC_DRIVER_KEY,
@@ -202,6 +354,34 @@ public abstract class AbstractHibernateFullDBDatasource extends AbstractHibernat
         return settings;
     }
 
+    /**
+     * Get the JDBC driver properties that enable the driver side prepared
+     * statement cache. If no properties are returned, the statement cache of
+     * the connection pool is used. Properties should only be returned for a
+     * size of 0 if the driver caches statements by default.
+     *
+     * @param statementCacheSize
+     *            the number of cached statements per connection, 0 to disable
+     *            the cache
+     * @return the driver properties without the Hibernate or pool prefix
+     */
+    protected Map<String, String> getDriverStatementCacheProperties(int statementCacheSize) {
+        return Collections.emptyMap();
+    }
+
+    private int getStatementCacheSize(Map<String, Object> settings) {
+        return JavaHelper.asInteger(getSetting(settings, STATEMENT_CACHE_SIZE_KEY, STATEMENT_CACHE_SIZE_DEFAULT_VALUE));
+    }
+
+    private Object getSetting(Map<String, Object> settings, String key, Object defaultValue) {
+        Object value = settings.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    protected boolean isHikariConnectionPool(Map<String, Object> settings) {
+        return HIKARI_CONNECTION_POOL.equals(settings.get(CONNECTION_POOL_KEY));
+    }
+
     private String getDialectClass() {
         return createDialect().getClass().getCanonicalName();
     }
@@ -93,6 +93,11 @@ public class AbstractHibernateFullDBDatasourceTest
         checkSettingKeys(settings.keySet(), false, false, false);
     }
 
+    public void testNoDriverStatementCacheProperties() {
+        assertTrue(ds.getDriverStatementCacheProperties(0).isEmpty());
+        assertTrue(ds.getDriverStatementCacheProperties(100).isEmpty());
+    }
+
     private void checkSettingDefinitionsTransactional(Set<SettingDefinition<?>> settings) {
         checkSettingDefinitions(settings, false, true, true);
     }
@@ -46,6 +46,7 @@ import org.n52.sos.ds.hibernate.util.HibernateConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 /**
@@ -222,4 +223,16 @@ public abstract class AbstractMySQLDatasource extends AbstractHibernateFullDBDat
         }
         return checkSchema;
     }
+
+    @Override
+    protected Map<String, String> getDriverStatementCacheProperties(int statementCacheSize) {
+        if (statementCacheSize <= 0) {
+            // keep the client side prepared statements of the driver default
+            return ImmutableMap.of();
+        }
+        return ImmutableMap.of("useServerPrepStmts", Boolean.TRUE.toString(),
+                "cachePrepStmts", Boolean.TRUE.toString(),
+                "prepStmtCacheSize", Integer.toString(statementCacheSize),
+                "prepStmtCacheSqlLimit", "4096");
+    }
 }
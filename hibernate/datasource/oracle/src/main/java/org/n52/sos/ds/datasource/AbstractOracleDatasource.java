@@ -49,6 +49,8 @@ import org.n52.sos.ds.hibernate.util.HibernateConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableMap;
+
 import oracle.jdbc.OracleDriver;
 
 /**
@@ -339,4 +341,13 @@ public abstract class AbstractOracleDatasource extends AbstractHibernateFullDBDa
                     "Oracle jar file (ojdbc6.jar) must be " + "included in the server classpath. ", e);
         }
     }
+
+    @Override
+    protected Map<String, String> getDriverStatementCacheProperties(int statementCacheSize) {
+        if (statementCacheSize <= 0) {
+            // the implicit statement cache is disabled by default
+            return ImmutableMap.of();
+        }
+        return ImmutableMap.of("oracle.jdbc.implicitStatementCacheSize", Integer.toString(statementCacheSize));
+    }
 }
@@ -29,6 +29,9 @@
 package org.n52.sos.ds.datasource;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
 
 import org.junit.Test;
 
@@ -79,6 +82,17 @@ public class AbstractOracleDatasourceTest {
         assertEquals(3, parseURL.length);
     }
 
+    @Test
+    public void test_implicit_statement_cache_enabled() {
+        assertEquals(Collections.singletonMap("oracle.jdbc.implicitStatementCacheSize", "100"),
+                datasource.getDriverStatementCacheProperties(100));
+    }
+
+    @Test
+    public void test_implicit_statement_cache_disabled() {
+        assertTrue(datasource.getDriverStatementCacheProperties(0).isEmpty());
+    }
+
     public class TestOracleDatasource extends AbstractOracleDatasource {
 
         private static final String DIALECT_NAME = "Oracle Spatial";
@@ -37,19 +37,25 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.hibernate.boot.Metadata;
 import org.hibernate.dialect.Dialect;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.PersistentClass;
 import org.hibernate.mapping.Table;
 import org.n52.faroe.ConfigurationError;
+import org.n52.faroe.SettingDefinition;
+import org.n52.faroe.settings.BooleanSettingDefinition;
 import org.n52.hibernate.spatial.dialect.postgis.TimestampWithTimeZonePostgisPG95Dialect;
 import org.n52.sos.ds.hibernate.util.HibernateConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 /**
@@ -89,6 +95,25 @@ public abstract class AbstractPostgresDatasource extends AbstractHibernateFullDB
 
     protected static final String TAB_SPATIAL_REF_SYS = "spatial_ref_sys";
 
+    protected static final String OBSERVATION_PARTITIONING_KEY = "sos.observation.partitioning";
+
+    protected static final String OBSERVATION_PARTITIONING_TITLE = "Partition observations by time";
+
+    protected static final String OBSERVATION_PARTITIONING_DESCRIPTION =
+            "Create the observation table as a table partitioned by the phenomenon time start (requires "
+            + "PostgreSQL 11 or later). The partitions are maintained by the SOS. Foreign keys referencing "
+            + "observations are not created and unique indexes of the observation table contain the phenomenon "
+            + "time start. Only applied when the schema is created, existing observation tables are not "
+            + "migrated.";
+
+    protected static final Boolean OBSERVATION_PARTITIONING_DEFAULT_VALUE = false;
+
+    private static final int PARTITIONING_MIN_VERSION = 11;
+
+    private static final String DATA_ENTITY = "org.n52.series.db.beans.DataEntity";
+
+    private static final String PROPERTY_SAMPLING_TIME_START = "samplingTimeStart";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractPostgresDatasource.class);
 
     public AbstractPostgresDatasource() {
@@ -107,6 +132,24 @@ public abstract class AbstractPostgresDatasource extends AbstractHibernateFullDB
         setSchemaDescription(SCHEMA_DESCRIPTION);
     }
 
+    @Override
+    public Set<SettingDefinition<?>> getSettingDefinitions() {
+        Set<SettingDefinition<?>> set = super.getSettingDefinitions();
+        set.add(createObservationPartitioningDefinition());
+        return set;
+    }
+
+    protected BooleanSettingDefinition createObservationPartitioningDefinition() {
+        BooleanSettingDefinition def = new BooleanSettingDefinition();
+        def.setGroup(ADVANCED_GROUP);
+        def.setOrder(12);
+        def.setKey(OBSERVATION_PARTITIONING_KEY);
+        def.setTitle(OBSERVATION_PARTITIONING_TITLE);
+        def.setDescription(OBSERVATION_PARTITIONING_DESCRIPTION);
+        def.setDefaultValue(OBSERVATION_PARTITIONING_DEFAULT_VALUE);
+        return def;
+    }
+
     @Override
     protected Dialect createDialect() {
         return new TimestampWithTimeZonePostgisPG95Dialect();
@@ -143,6 +186,20 @@ public abstract class AbstractPostgresDatasource extends AbstractHibernateFullDB
     protected void validatePrerequisites(Connection con, Metadata metadata, Map<String, Object> settings) {
         checkPostgis(con, settings);
         checkSpatialRefSys(con, metadata, settings);
+        if (isObservationPartitioning(settings)) {
+            checkPartitioningSupport(con);
+        }
+    }
+
+    protected void checkPartitioningSupport(Connection con) {
+        try {
+            if (con.getMetaData().getDatabaseMajorVersion() < PARTITIONING_MIN_VERSION) {
+                throw new ConfigurationError(String.format(
+                        "Partitioning of observations requires PostgreSQL %d or later.", PARTITIONING_MIN_VERSION));
+            }
+        } catch (SQLException ex) {
+            throw new ConfigurationError("Could not determine the PostgreSQL version.", ex);
+        }
     }
 
     protected void checkPostgis(Connection con, Map<String, Object> settings) {
@@ -260,11 +317,113 @@ public abstract class AbstractPostgresDatasource extends AbstractHibernateFullDB
         return checkScriptForGeneratedAndDuplicatedEntries(checkedSchema.toArray(new String[checkedSchema.size()]));
     }
 
+    @Override
+    public boolean isPostCreateSchema() {
+        return true;
+    }
+
+    @Override
+    public void executePostCreateSchema(Map<String, Object> databaseSettings) {
+        if (isObservationPartitioning(databaseSettings)) {
+            execute(new String[] { getPartitionObservationScript(databaseSettings) }, databaseSettings);
+        }
+    }
+
+    protected boolean isObservationPartitioning(Map<String, Object> settings) {
+        Object value = settings.get(OBSERVATION_PARTITIONING_KEY);
+        return value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(String.valueOf(value));
+    }
+
+    /**
+     * Create the script that converts the freshly created observation table
+     * into a table that is partitioned by range of the phenomenon time start
+     * with a default partition. Foreign keys referencing observations are
+     * dropped, as they would have to include the partition key. The rows
+     * referencing observations are deleted by the SOS when observations are
+     * purged or partitions are dropped. Unique indexes that do not contain the
+     * partition key are recreated with the partition key as last column.
+     * <p>
+     * The script is only executed when the schema is created, an existing
+     * observation table is not migrated. To partition an existing table
+     * create a new database with this option and copy the data.
+     *
+     * @param settings
+     *            Datasource settings
+     * @return the script as a single statement
+     */
+    protected String getPartitionObservationScript(Map<String, Object> settings) {
+        Dialect dialect = getDialectInternal();
+        PersistentClass observation = getMetadata(settings).getEntityBindings().stream()
+                .filter(pc -> DATA_ENTITY.equals(pc.getClassName())).findFirst()
+                .orElseThrow(() -> new ConfigurationError("The observation mapping could not be found."));
+        Table table = observation.getTable();
+        String schema = (String) settings.get(SCHEMA_KEY);
+        String name = table.getQuotedName(dialect);
+        String qualified = table.getQualifiedName(dialect, null, schema);
+        String partitioned = qualified.substring(0, qualified.length() - name.length())
+                + table.getName() + "_partitioned";
+        String key = ((Column) observation.getProperty(PROPERTY_SAMPLING_TIME_START).getColumnIterator().next())
+                .getQuotedName(dialect);
+        String id = ((Column) observation.getIdentifier().getColumnIterator().next()).getQuotedName(dialect);
+        String regclass = literal(qualified) + "::regclass";
+        String keyAttnum = "(SELECT attnum FROM pg_attribute WHERE attrelid = " + regclass + " AND attname = "
+                + literal(((Column) observation.getProperty(PROPERTY_SAMPLING_TIME_START).getColumnIterator().next())
+                        .getName())
+                + ")";
+        StringBuilder builder = new StringBuilder();
+        builder.append("DO $$ DECLARE r record; stmts text[]; stmt text; BEGIN ");
+        // foreign keys referencing observations, including the parent observation
+        builder.append("FOR r IN SELECT conrelid::regclass AS tbl, conname FROM pg_constraint WHERE contype = 'f' ")
+                .append("AND confrelid = ").append(regclass).append(" LOOP ")
+                .append("EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', r.tbl, r.conname); END LOOP; ");
+        builder.append("SELECT coalesce(array_agg(s), '{}') INTO stmts FROM (")
+                .append("SELECT format('ALTER TABLE %s ADD CONSTRAINT %I %s', ").append(regclass)
+                .append(", conname, pg_get_constraintdef(oid)) AS s FROM pg_constraint WHERE contype = 'f' ")
+                .append("AND conrelid = ").append(regclass)
+                .append(" UNION ALL SELECT pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = ")
+                .append(regclass).append(" AND NOT indisprimary AND (NOT indisunique OR ").append(keyAttnum)
+                .append(" = ANY (indkey))");
+        // unique indexes have to contain the partition key, append it instead of losing the constraint
+        builder.append(" UNION ALL SELECT format('CREATE UNIQUE INDEX %I ON %s (%s, %s)', c.relname, ")
+                .append(regclass).append(", (SELECT string_agg(pg_get_indexdef(i.indexrelid, k, true), ', ' ")
+                .append("ORDER BY k) FROM generate_series(1, i.indnkeyatts) k), ").append(literal(key))
+                .append(") || coalesce(' WHERE ' || pg_get_expr(i.indpred, i.indrelid), '') ")
+                .append("FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE i.indrelid = ")
+                .append(regclass).append(" AND NOT i.indisprimary AND i.indisunique AND NOT ").append(keyAttnum)
+                .append(" = ANY (i.indkey)) AS t; ");
+        builder.append("FOR r IN SELECT d.objid::regclass AS seq FROM pg_depend d JOIN pg_class c ON c.oid = d.objid ")
+                .append("WHERE d.refobjid = ").append(regclass).append(" AND d.deptype = 'a' AND c.relkind = 'S' ")
+                .append("LOOP EXECUTE format('ALTER SEQUENCE %s OWNED BY NONE', r.seq); END LOOP; ");
+        builder.append("CREATE TABLE ").append(partitioned).append(" (LIKE ").append(qualified)
+                .append(" INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (").append(key).append("); ");
+        builder.append("DROP TABLE ").append(qualified).append("; ");
+        builder.append("ALTER TABLE ").append(partitioned).append(" RENAME TO ").append(name).append("; ");
+        builder.append("ALTER TABLE ").append(qualified).append(" ADD PRIMARY KEY (").append(id).append(", ")
+                .append(key).append("); ");
+        builder.append("FOREACH stmt IN ARRAY stmts LOOP EXECUTE stmt; END LOOP; ");
+        builder.append("CREATE TABLE ").append(qualified.substring(0, qualified.length() - name.length()))
+                .append(table.getName()).append("_default PARTITION OF ").append(qualified).append(" DEFAULT; ");
+        builder.append("END $$");
+        return builder.toString();
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
     @Override
     public Properties getDatasourceProperties(Map<String, Object> settings) {
         Properties p = super.getDatasourceProperties(settings);
-        p.put(HibernateConstants.C3P0_PREFERRED_TEST_QUERY, "SELECT 1");
+        if (!isHikariConnectionPool(settings)) {
+            p.put(HibernateConstants.C3P0_PREFERRED_TEST_QUERY, "SELECT 1");
+        }
         return p;
     }
 
+    @Override
+    protected Map<String, String> getDriverStatementCacheProperties(int statementCacheSize) {
+        // statements are prepared on the server after being executed prepareThreshold times; the size is
+        // passed even if it is 0 because the driver caches 256 statements by default
+        return ImmutableMap.of("preparedStatementCacheQueries", Integer.toString(statementCacheSize));
+    }
 }
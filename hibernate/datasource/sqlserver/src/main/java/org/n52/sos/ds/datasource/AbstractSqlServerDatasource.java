@@ -53,6 +53,7 @@ import org.n52.sos.ds.hibernate.util.HibernateConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 
 /**
@@ -325,4 +326,13 @@ public abstract class AbstractSqlServerDatasource extends AbstractHibernateFullD
         }
     }
 
+    @Override
+    protected Map<String, String> getDriverStatementCacheProperties(int statementCacheSize) {
+        if (statementCacheSize <= 0) {
+            // statement pooling is disabled by default
+            return ImmutableMap.of();
+        }
+        return ImmutableMap.of("disableStatementPooling", Boolean.FALSE.toString(),
+                "statementPoolingCacheSize", Integer.toString(statementCacheSize));
+    }
 }
@@ -160,6 +160,19 @@ public class AbstractSqlServerDatasourceTest {
        MatcherAssert.assertThat(parsedValues[2], CoreMatchers.is(expectedDatabaseName));
     }
 
+    @Test
+    public void shouldEnableStatementPoolingForPositiveCacheSize() {
+        Map<String, String> properties = new AbstractSqlServerDatasourceSeam().getDriverStatementCacheProperties(100);
+        MatcherAssert.assertThat(properties.get("disableStatementPooling"), CoreMatchers.is("false"));
+        MatcherAssert.assertThat(properties.get("statementPoolingCacheSize"), CoreMatchers.is("100"));
+    }
+
+    @Test
+    public void shouldNotSetStatementPoolingPropertiesForDisabledCache() {
+        MatcherAssert.assertThat(new AbstractSqlServerDatasourceSeam().getDriverStatementCacheProperties(0).isEmpty(),
+                CoreMatchers.is(true));
+    }
+
     private class AbstractSqlServerDatasourceSeam extends AbstractSqlServerDatasource {
 
         @Override
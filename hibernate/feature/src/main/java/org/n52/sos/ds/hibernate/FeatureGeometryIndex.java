@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory spatial index of the feature geometries for datasources without
+ * spatial extension. The geometries are kept in an {@link STRtree} that is
+ * rebuilt after a number of changes. Changes since the last build are kept in
+ * a small delta that is searched linearly.
+ * <p>
+ * The geometries are stored in the datasource axis order as created by the
+ * {@link org.n52.sos.ds.hibernate.create.HibernateGeometryVisitor}.
+ *
+ * @since 5.2.3
+ */
+public class FeatureGeometryIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureGeometryIndex.class);
+
+    private static final int DEFAULT_REBUILD_THRESHOLD = 1000;
+
+    private static final int NODE_CAPACITY = 10;
+
+    private final int rebuildThreshold;
+
+    /**
+     * all indexed features, the geometry is {@code null} if the feature has
+     * no geometry
+     */
+    private final Map<String, Geometry> geometries = new HashMap<>();
+
+    /**
+     * features in the tree that were changed or removed since the last build
+     */
+    private final Set<String> stale = new HashSet<>();
+
+    /**
+     * features that were added or changed since the last build
+     */
+    private final Set<String> delta = new HashSet<>();
+
+    /**
+     * features that have to be reloaded from the datasource
+     */
+    private final Set<String> dirty = new LinkedHashSet<>();
+
+    private STRtree tree = new STRtree(NODE_CAPACITY);
+
+    private boolean built;
+
+    public FeatureGeometryIndex() {
+        this(DEFAULT_REBUILD_THRESHOLD);
+    }
+
+    /**
+     * @param rebuildThreshold
+     *            number of changes after which the tree is rebuilt
+     */
+    public FeatureGeometryIndex(int rebuildThreshold) {
+        this.rebuildThreshold = rebuildThreshold;
+    }
+
+    /**
+     * @return if the index was built and is up to date
+     */
+    public synchronized boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Replace the index content.
+     *
+     * @param features
+     *            the feature geometries
+     */
+    public synchronized void build(Map<String, Geometry> features) {
+        geometries.clear();
+        geometries.putAll(features);
+        dirty.clear();
+        rebuild();
+        built = true;
+    }
+
+    /**
+     * Add or replace the geometry of a feature.
+     *
+     * @param identifier
+     *            the feature identifier
+     * @param geometry
+     *            the geometry, may be {@code null}
+     */
+    public synchronized void put(String identifier, Geometry geometry) {
+        geometries.put(identifier, geometry);
+        stale.add(identifier);
+        delta.add(identifier);
+        dirty.remove(identifier);
+        checkRebuild();
+    }
+
+    /**
+     * Remove a feature.
+     *
+     * @param identifier
+     *            the feature identifier
+     */
+    public synchronized void remove(String identifier) {
+        if (geometries.containsKey(identifier)) {
+            geometries.remove(identifier);
+            stale.add(identifier);
+            delta.remove(identifier);
+            checkRebuild();
+        }
+        dirty.remove(identifier);
+    }
+
+    /**
+     * Mark features whose geometry may have changed, e.g. after an
+     * observation insertion with updated feature geometries.
+     *
+     * @param identifiers
+     *            the feature identifiers
+     */
+    public synchronized void markDirty(Collection<String> identifiers) {
+        dirty.addAll(identifiers);
+    }
+
+    /**
+     * @return the features that have to be reloaded, the set is cleared
+     */
+    public synchronized Set<String> pollDirty() {
+        if (dirty.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> polled = new LinkedHashSet<>(dirty);
+        dirty.clear();
+        return polled;
+    }
+
+    /**
+     * @return the identifiers of all indexed features
+     */
+    public synchronized Set<String> getIdentifiers() {
+        return new HashSet<>(geometries.keySet());
+    }
+
+    /**
+     * @param identifier
+     *            the feature identifier
+     * @return if the feature is indexed
+     */
+    public synchronized boolean contains(String identifier) {
+        return geometries.containsKey(identifier);
+    }
+
+    /**
+     * @param identifier
+     *            the feature identifier
+     * @return the geometry or {@code null}
+     */
+    public synchronized Geometry getGeometry(String identifier) {
+        return geometries.get(identifier);
+    }
+
+    /**
+     * Get the features whose envelope intersects the envelope. The result are
+     * candidates, the geometries have to be checked against the filter.
+     *
+     * @param envelope
+     *            the envelope to query
+     * @return the identifiers of the candidate features
+     */
+    public synchronized Set<String> query(Envelope envelope) {
+        Set<String> candidates = new HashSet<>();
+        for (Object item : tree.query(envelope)) {
+            String identifier = (String) item;
+            if (!stale.contains(identifier)) {
+                candidates.add(identifier);
+            }
+        }
+        for (String identifier : delta) {
+            Geometry geometry = geometries.get(identifier);
+            if (geometry != null && !geometry.isEmpty() && envelope.intersects(geometry.getEnvelopeInternal())) {
+                candidates.add(identifier);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Get the union of the envelopes of the features.
+     *
+     * @param identifiers
+     *            the feature identifiers
+     * @return the envelope, {@link Envelope#isNull()} if no feature has a
+     *         geometry
+     */
+    public synchronized Envelope getEnvelope(Collection<String> identifiers) {
+        Envelope envelope = new Envelope();
+        for (String identifier : identifiers) {
+            Geometry geometry = geometries.get(identifier);
+            if (geometry != null && !geometry.isEmpty()) {
+                envelope.expandToInclude(geometry.getEnvelopeInternal());
+            }
+        }
+        return envelope;
+    }
+
+    public synchronized int size() {
+        return geometries.size();
+    }
+
+    private void checkRebuild() {
+        if (stale.size() + delta.size() > rebuildThreshold) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        STRtree newTree = new STRtree(NODE_CAPACITY);
+        for (Map.Entry<String, Geometry> entry : geometries.entrySet()) {
+            Geometry geometry = entry.getValue();
+            if (geometry != null && !geometry.isEmpty()) {
+                newTree.insert(geometry.getEnvelopeInternal(), entry.getKey());
+            }
+        }
+        newTree.build();
+        tree = newTree;
+        stale.clear();
+        delta.clear();
+        LOGGER.debug("Feature geometry index with {} features built in {} ms", geometries.size(),
+                System.currentTimeMillis() - start);
+    }
+
+}
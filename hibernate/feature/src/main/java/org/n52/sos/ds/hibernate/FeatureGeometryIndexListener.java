@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.sos.event.events.FeatureInsertion;
+import org.n52.sos.event.events.ObservationInsertion;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Keeps the {@link FeatureGeometryIndex} up to date. Inserted features and the
+ * features of inserted observations are reloaded on the next use. Deleted
+ * features are removed by comparing the index with the features in the
+ * content cache when its update time changed.
+ *
+ * @since 5.2.3
+ */
+public class FeatureGeometryIndexListener implements EventListener {
+
+    @SuppressWarnings("unchecked")
+    private static final Set<Class<? extends Event>> TYPES = Sets.<Class<? extends Event>> newHashSet(
+            FeatureInsertion.class, ObservationInsertion.class);
+
+    private FeatureGeometryIndex featureGeometryIndex;
+
+    @Inject
+    public void setFeatureGeometryIndex(FeatureGeometryIndex featureGeometryIndex) {
+        this.featureGeometryIndex = featureGeometryIndex;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.unmodifiableSet(TYPES);
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (event instanceof FeatureInsertion) {
+            Set<String> features = new HashSet<>();
+            for (AbstractFeature feature : ((FeatureInsertion) event).getRequest().getFeatureMembers()) {
+                if (feature.isSetIdentifier()) {
+                    features.add(feature.getIdentifier());
+                }
+            }
+            featureGeometryIndex.markDirty(features);
+        } else if (event instanceof ObservationInsertion) {
+            Set<String> features = new HashSet<>();
+            for (OmObservation observation : ((ObservationInsertion) event).getRequest().getObservations()) {
+                String feature = observation.getObservationConstellation().getFeatureOfInterestIdentifier();
+                if (feature != null) {
+                    features.add(feature);
+                }
+            }
+            featureGeometryIndex.markDirty(features);
+        }
+    }
+
+}
@@ -32,10 +32,13 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -47,6 +50,7 @@ import org.hibernate.criterion.Restrictions;
 import org.hibernate.dialect.Dialect;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.spatial.criterion.SpatialProjections;
+import org.joda.time.DateTime;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.n52.faroe.annotation.Configurable;
@@ -86,6 +90,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
 
 @Configurable
 public class HibernateFeatureQueryHandler
@@ -109,6 +114,10 @@ public class HibernateFeatureQueryHandler
 
     private ContentCacheController contentCacheController;
 
+    private FeatureGeometryIndex featureGeometryIndex = new FeatureGeometryIndex();
+
+    private DateTime featureGeometryIndexUpdate;
+
     @Inject
     public void setDaoFactory(DaoFactory daoFactory) {
         this.daoFactory = daoFactory;
@@ -129,6 +138,11 @@ public class HibernateFeatureQueryHandler
         this.contentCacheController = ctrl;
     }
 
+    @Inject
+    public void setFeatureGeometryIndex(FeatureGeometryIndex featureGeometryIndex) {
+        this.featureGeometryIndex = featureGeometryIndex;
+    }
+
     @Setting(I18NSettings.I18N_DEFAULT_LANGUAGE)
     public void setDefaultLocale(String defaultLocale) {
         this.defaultLocale = LocaleHelper.decode(defaultLocale);
@@ -175,22 +189,15 @@ public class HibernateFeatureQueryHandler
                 }
                 return c.list();
             } else {
-                Criteria c = session.createCriteria(FeatureEntity.class);
-                if (queryObject.isSetFeatures()) {
-                    c.add(Restrictions.in(FeatureEntity.IDENTIFIER, queryObject.getFeatures()));
-                }
                 List<String> identifiers = new LinkedList<>();
                 if (queryObject.isSetSpatialFilters()) {
                     SpatialFilter filter = queryObject.getSpatialFitler();
-                    final List<AbstractFeatureEntity> features = daoFactory.getFeatureDAO().getFeatures(session);
                     final Geometry envelope = getGeometryHandler().getFilterForNonSpatialDatasource(filter);
-                    FeatureVisitorContext context = getDefaultContext()
-                            .setSession(session)
-                            .setRequestedLanguage(queryObject.getI18N());
-                    for (final AbstractFeatureEntity feature : features) {
-                        final Geometry geom = new HibernateGeometryVisitor(context).visit(feature);
+                    FeatureGeometryIndex index = getFeatureGeometryIndex(queryObject, session);
+                    for (String identifier : index.query(envelope.getEnvelopeInternal())) {
+                        final Geometry geom = index.getGeometry(identifier);
                         if (geom != null && !geom.isEmpty() && envelope.contains(geom)) {
-                            identifiers.add(feature.getIdentifier());
+                            identifiers.add(identifier);
                         }
                     }
                 }
@@ -254,9 +261,17 @@ public class HibernateFeatureQueryHandler
                         return new ReferencedEnvelope(geometry.getEnvelopeInternal(), srid);
                     }
                 } else {
-                    final Envelope envelope = new Envelope();
-                    final List<AbstractFeatureEntity> featuresOfInterest =
-                            daoFactory.getFeatureDAO().getFeatureOfInterestObjects(queryObject.getFeatures(), session);
+                    FeatureGeometryIndex index = getFeatureGeometryIndex(queryObject, session);
+                    final Envelope envelope = index.getEnvelope(queryObject.getFeatures());
+                    Set<String> notIndexed = new HashSet<>();
+                    for (String identifier : queryObject.getFeatures()) {
+                        if (!index.contains(identifier)) {
+                            notIndexed.add(identifier);
+                        }
+                    }
+                    final List<AbstractFeatureEntity> featuresOfInterest = notIndexed.isEmpty()
+                            ? Collections.emptyList()
+                            : daoFactory.getFeatureDAO().getFeatureOfInterestObjects(notIndexed, session);
                     for (final AbstractFeatureEntity feature : featuresOfInterest) {
                         try {
                             // TODO Check if prepareGeometryForResponse required
@@ -344,6 +359,7 @@ public class HibernateFeatureQueryHandler
     protected Map<String, AbstractFeature> createSosFeatures(final List<AbstractFeatureEntity> features,
             final FeatureQueryHandlerQueryObject queryObject, Session session) throws OwsExceptionReport {
         final Map<String, AbstractFeature> sosAbstractFois = new HashMap<>(features.size());
+        initializeParents(features, session);
         for (final AbstractFeatureEntity feature : features) {
             final AbstractFeature sosFeature = createSosAbstractFeature(feature, queryObject, session);
             sosAbstractFois.put(feature.getIdentifier(), sosFeature);
@@ -352,6 +368,35 @@ public class HibernateFeatureQueryHandler
         return sosAbstractFois;
     }
 
+    /**
+     * Initialize the parent features of the features in batches before the SOS
+     * features are created. The ancestors known by the content cache are
+     * loaded with the first query.
+     *
+     * @param features the features
+     * @param session the session
+     * @throws OwsExceptionReport If an error occurs
+     */
+    protected void initializeParents(final List<AbstractFeatureEntity> features, Session session)
+            throws OwsExceptionReport {
+        if (features == null || features.isEmpty()) {
+            return;
+        }
+        Set<String> identifiers = new HashSet<>(features.size());
+        for (AbstractFeatureEntity feature : features) {
+            identifiers.add(feature.getIdentifier());
+        }
+        Set<String> ancestors = new HashSet<>(
+                ((SosContentCache) contentCacheController.getCache()).getParentFeatures(identifiers, true, false));
+        ancestors.removeAll(identifiers);
+        try {
+            daoFactory.getFeatureDAO().initializeParents(features, ancestors, session);
+        } catch (final HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("An error occurred while querying parent features!");
+        }
+    }
+
     protected FeatureEntity getFeatureOfInterest(final String identifier, final Geometry geometry,
             final Session session) throws OwsExceptionReport {
         if (!identifier.startsWith(SosConstants.GENERATED_IDENTIFIER_PREFIX)) {
@@ -426,8 +471,25 @@ public class HibernateFeatureQueryHandler
                 envelopes.add(getGeometryHandler().getFilterForNonSpatialDatasource(filter));
             }
         }
+        Collection<String> featureIdentifiers = queryObject.getFeatures();
+        if (hasSpatialFilter) {
+            // only load the features whose envelope intersects a filter
+            FeatureGeometryIndex index = getFeatureGeometryIndex(queryObject, session);
+            Set<String> candidates = new HashSet<>();
+            for (Geometry envelope : envelopes) {
+                candidates.addAll(index.query(envelope.getEnvelopeInternal()));
+            }
+            if (queryObject.isSetFeatures()) {
+                candidates.retainAll(queryObject.getFeatures());
+            }
+            if (candidates.isEmpty()) {
+                return featureMap;
+            }
+            featureIdentifiers = candidates;
+        }
         final List<AbstractFeatureEntity> featuresOfInterest =
-                daoFactory.getFeatureDAO().getFeatureOfInterestObjects(queryObject.getFeatures(), session);
+                daoFactory.getFeatureDAO().getFeatureOfInterestObjects(featureIdentifiers, session);
+        initializeParents(featuresOfInterest, session);
         for (final AbstractFeatureEntity feature : featuresOfInterest) {
             final AbstractSamplingFeature sosAbstractFeature =
                     (AbstractSamplingFeature) createSosAbstractFeature(feature, queryObject, session);
@@ -465,6 +527,64 @@ public class HibernateFeatureQueryHandler
         }
     }
 
+    /**
+     * Get the feature geometry index for non spatial datasources. The index is
+     * built on first use. Afterwards it is synchronized with the features of
+     * the content cache whenever the cache update time changed, and the
+     * features marked by the {@link FeatureGeometryIndexListener} are
+     * reloaded.
+     *
+     * @param queryObject
+     *            the query object
+     * @param session
+     *            the session
+     * @return the feature geometry index
+     */
+    protected synchronized FeatureGeometryIndex getFeatureGeometryIndex(FeatureQueryHandlerQueryObject queryObject,
+            Session session) {
+        SosContentCache cache = (SosContentCache) contentCacheController.getCache();
+        DateTime lastUpdate = cache != null ? cache.getLastUpdateTime() : null;
+        FeatureVisitorContext context =
+                getDefaultContext().setSession(session).setRequestedLanguage(queryObject.getI18N());
+        if (!featureGeometryIndex.isBuilt()) {
+            Map<String, Geometry> geometries = new HashMap<>();
+            for (AbstractFeatureEntity feature : daoFactory.getFeatureDAO().getFeatures(session)) {
+                geometries.put(feature.getIdentifier(), createGeometry(feature, context));
+            }
+            featureGeometryIndex.build(geometries);
+        } else {
+            Set<String> reload = new HashSet<>(featureGeometryIndex.pollDirty());
+            if (cache != null && !Objects.equals(lastUpdate, featureGeometryIndexUpdate)) {
+                Set<String> cached = cache.getFeaturesOfInterest();
+                Set<String> indexed = featureGeometryIndex.getIdentifiers();
+                for (String removed : Sets.difference(indexed, cached)) {
+                    featureGeometryIndex.remove(removed);
+                }
+                reload.addAll(Sets.difference(cached, indexed));
+            }
+            if (!reload.isEmpty()) {
+                for (AbstractFeatureEntity feature : daoFactory.getFeatureDAO().getFeatureOfInterestObjects(reload,
+                        session)) {
+                    featureGeometryIndex.put(feature.getIdentifier(), createGeometry(feature, context));
+                    reload.remove(feature.getIdentifier());
+                }
+                reload.forEach(featureGeometryIndex::remove);
+            }
+        }
+        featureGeometryIndexUpdate = lastUpdate;
+        return featureGeometryIndex;
+    }
+
+    private Geometry createGeometry(AbstractFeatureEntity feature, FeatureVisitorContext context) {
+        try {
+            return new HibernateGeometryVisitor(context).visit(feature);
+        } catch (OwsExceptionReport owse) {
+            LOGGER.warn(String.format("Error while creating geometry of '%s' for feature index!",
+                    feature.getIdentifier()), owse);
+            return null;
+        }
+    }
+
     protected GeometryHandler getGeometryHandler() {
         return geometryHandler;
     }
@@ -33,6 +33,7 @@ import java.util.List;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.n52.iceland.i18n.I18NDAORepository;
 import org.n52.series.db.beans.DescribableEntity;
 import org.n52.series.db.beans.FeatureEntity;
 import org.n52.shetland.ogc.gml.CodeWithAuthority;
@@ -232,4 +233,9 @@ public abstract class AbstractFeatureCreator<T extends FeatureEntity>
     protected FeatureVisitorContext getContext() {
         return context;
     }
+
+    @Override
+    public I18NDAORepository getI18NDAORepository() {
+        return getContext().getI18NDAORepository();
+    }
 }
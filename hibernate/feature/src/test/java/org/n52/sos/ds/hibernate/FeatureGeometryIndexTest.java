@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+
+public class FeatureGeometryIndexTest {
+
+    private final GeometryFactory factory = new GeometryFactory();
+
+    private FeatureGeometryIndex index;
+
+    @Before
+    public void setUp() {
+        index = new FeatureGeometryIndex(2);
+        Map<String, Geometry> geometries = new HashMap<>();
+        geometries.put("a", point(1, 1));
+        geometries.put("b", point(5, 5));
+        geometries.put("c", null);
+        index.build(geometries);
+    }
+
+    private Geometry point(double x, double y) {
+        return factory.createPoint(new Coordinate(x, y));
+    }
+
+    private Set<String> set(String... identifiers) {
+        return new HashSet<>(Arrays.asList(identifiers));
+    }
+
+    @Test
+    public void should_query_built_index() {
+        assertEquals(set("a"), index.query(new Envelope(0, 2, 0, 2)));
+        assertEquals(set("a", "b"), index.query(new Envelope(0, 10, 0, 10)));
+        assertTrue(index.query(new Envelope(20, 30, 20, 30)).isEmpty());
+    }
+
+    @Test
+    public void should_query_added_and_changed_features() {
+        index.put("d", point(1.5, 1.5));
+        index.put("b", point(1.2, 1.2));
+        assertEquals(set("a", "b", "d"), index.query(new Envelope(0, 2, 0, 2)));
+        index.put("e", point(8, 8));
+        assertEquals(set("a", "b", "d"), index.query(new Envelope(0, 2, 0, 2)));
+        assertEquals(set("e"), index.query(new Envelope(7, 9, 7, 9)));
+    }
+
+    @Test
+    public void should_not_return_removed_features() {
+        index.remove("a");
+        assertEquals(set("b"), index.query(new Envelope(0, 10, 0, 10)));
+        assertFalse(index.contains("a"));
+        assertTrue(index.contains("c"));
+    }
+
+    @Test
+    public void should_create_envelope_of_features() {
+        Envelope envelope = index.getEnvelope(Arrays.asList("a", "b", "c"));
+        assertEquals(new Envelope(1, 5, 1, 5), envelope);
+        assertTrue(index.getEnvelope(Arrays.asList("c")).isNull());
+    }
+
+    @Test
+    public void should_poll_dirty_features_once() {
+        index.markDirty(Arrays.asList("a", "x"));
+        assertEquals(set("a", "x"), index.pollDirty());
+        assertTrue(index.pollDirty().isEmpty());
+    }
+
+}
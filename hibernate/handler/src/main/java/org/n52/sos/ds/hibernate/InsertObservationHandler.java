@@ -71,6 +71,7 @@ import org.n52.sos.ds.AbstractInsertObservationHandler;
 import org.n52.sos.ds.hibernate.dao.DaoFactory;
 import org.n52.sos.ds.hibernate.dao.observation.AbstractObservationDAO;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.request.MergedInsertObservationRequest;
 import org.n52.sos.service.SosSettings;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -180,9 +181,11 @@ public class InsertObservationHandler extends AbstractInsertObservationHandler i
 
             request.setOfferings(Lists.newArrayList(cache.getAllOfferings()));
 
-            // if no observationConstellation is valid, throw exception
+            // if no observationConstellation is valid, throw exception, merged
+            // requests are inserted all or nothing
             if (exceptions.size() == request.getObservations()
-                    .size()) {
+                    .size() || request instanceof MergedInsertObservationRequest && !exceptions.isEmpty()) {
+                transaction.rollback();
                 throw exceptions;
             }
 
@@ -28,6 +28,7 @@
  */
 package org.n52.sos.ds.hibernate.admin;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -36,6 +37,7 @@ import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.iceland.ds.ConnectionProvider;
@@ -61,6 +63,9 @@ public class DeleteDeletedDataHandler implements AbstractDeleteDeletedDataHandle
     @Inject
     private ConnectionProvider connectionProvider;
 
+    @Inject
+    private HibernateRetentionPurgeHandler retentionPurgeHandler;
+
     @Override
     public void init() {
         sessionHolder = new HibernateSessionHolder(connectionProvider);
@@ -68,22 +73,38 @@ public class DeleteDeletedDataHandler implements AbstractDeleteDeletedDataHandle
 
     @Override
     public synchronized void deleteDeletedData() throws OwsExceptionReport {
+        retentionPurgeHandler.purgeDeleted();
+        for (Long id : getDeletedDatasetIds()) {
+            deleteDataset(id);
+        }
+    }
+
+    private List<Long> getDeletedDatasetIds() {
         Session session = null;
-        Transaction transaction = null;
         try {
             session = getHibernateSessionHolder().getSession();
-            transaction = session.beginTransaction();
             Criteria c = daoFactory.getSeriesDAO()
                     .getDefaultAllSeriesCriteria(session)
                     .add(Restrictions.eq(DatasetEntity.PROPERTY_DELETED, true))
-                    .add(Restrictions.eq(DatasetEntity.PROPERTY_PUBLISHED, false));
-            List<DatasetEntity> list = c.list();
-            if (list != null && !list.isEmpty()) {
-                for (DatasetEntity dataset : list) {
-                    deleteDataset(dataset, session);
-                }
+                    .add(Restrictions.eq(DatasetEntity.PROPERTY_PUBLISHED, false))
+                    .setProjection(Projections.id());
+            List<Long> list = c.list();
+            return list != null ? list : Collections.emptyList();
+        } finally {
+            getHibernateSessionHolder().returnSession(session);
+        }
+    }
+
+    private void deleteDataset(Long id) throws OwsExceptionReport {
+        Session session = null;
+        Transaction transaction = null;
+        try {
+            session = getHibernateSessionHolder().getSession();
+            transaction = session.beginTransaction();
+            DatasetEntity dataset = session.get(DatasetEntity.class, id);
+            if (dataset != null) {
+                deleteDataset(dataset, session);
             }
-            deleteDeletedObservations(session);
             session.flush();
             transaction.commit();
         } catch (HibernateException he) {
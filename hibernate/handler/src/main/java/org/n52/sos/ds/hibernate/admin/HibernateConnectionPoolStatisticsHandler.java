@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.n52.iceland.ds.ConnectionProvider;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.ConnectionPoolStatistics;
+import org.n52.sos.ds.ConnectionPoolStatisticsHandler;
+import org.n52.sos.ds.ConnectionPoolStatisticsProvider;
+import org.n52.sos.ds.hibernate.HibernateSessionHolder;
+import org.n52.sos.ds.hibernate.jdbc.SlowQueryConnectionProvider;
+
+/**
+ * Queries the Hibernate connection provider of the session factory for its
+ * pool statistics.
+ *
+ * @since 5.2.3
+ */
+public class HibernateConnectionPoolStatisticsHandler implements ConnectionPoolStatisticsHandler {
+
+    private HibernateSessionHolder sessionHolder;
+
+    @Inject
+    public void setConnectionProvider(ConnectionProvider connectionProvider) {
+        this.sessionHolder = new HibernateSessionHolder(connectionProvider);
+    }
+
+    @Override
+    public Optional<ConnectionPoolStatistics> getConnectionPoolStatistics() throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = this.sessionHolder.getSession();
+            org.hibernate.engine.jdbc.connections.spi.ConnectionProvider provider = SlowQueryConnectionProvider
+                    .undecorate(session.getSessionFactory().getSessionFactoryOptions().getServiceRegistry()
+                            .getService(org.hibernate.engine.jdbc.connections.spi.ConnectionProvider.class));
+            if (provider instanceof ConnectionPoolStatisticsProvider) {
+                return Optional.of(((ConnectionPoolStatisticsProvider) provider).getConnectionPoolStatistics());
+            }
+            return Optional.empty();
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while querying the connection pool statistics!");
+        } finally {
+            this.sessionHolder.returnSession(session);
+        }
+    }
+}
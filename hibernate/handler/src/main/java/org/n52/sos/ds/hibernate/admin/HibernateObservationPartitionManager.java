@@ -0,0 +1,518 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.n52.faroe.ConfigurationError;
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.iceland.ds.ConnectionProvider;
+import org.n52.janmayen.lifecycle.Constructable;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.PartitioningSettings;
+import org.n52.sos.ds.hibernate.HibernateSessionHolder;
+import org.n52.sos.ds.hibernate.cache.proxy.HibernateDataSourceHarvesterScheduler;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Maintains the partitions of an observation table that is partitioned by
+ * range of the phenomenon time start (PostgreSQL declarative partitioning).
+ * Partitions are created in advance for the upcoming intervals and
+ * observations stored in the default partition are moved to newly created
+ * partitions. Expired partitions can be dropped as a whole by the retention
+ * purge, the rows referencing the observations of a dropped partition are
+ * deleted before. If the observation table is not partitioned the manager
+ * does nothing. Only observation tables that were created partitioned are
+ * supported, see the datasource option to partition observations.
+ *
+ * @since 5.2.3
+ */
+@Configurable
+public class HibernateObservationPartitionManager implements Constructable, Destroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HibernateObservationPartitionManager.class);
+
+    private static final String GROUP = "partitioning";
+
+    private static final JobKey JOB_KEY = JobKey.jobKey("partitionMaintenance", GROUP);
+
+    private static final TriggerKey TRIGGER_KEY = TriggerKey.triggerKey("partitionMaintenanceTrigger", GROUP);
+
+    private static final String DEFAULT_PARTITION = "_default";
+
+    private static final String PARTITION = "_p";
+
+    private static final String TABLE = "table";
+
+    private static final DateTimeFormatter BOUND_FORMAT =
+            DateTimeFormat.forPattern("yyyy-MM-dd HH:mm:ssZZ").withZoneUTC();
+
+    @Inject
+    private DaoFactory daoFactory;
+
+    @Inject
+    private ConnectionProvider connectionProvider;
+
+    @Inject
+    private HibernateDataSourceHarvesterScheduler dataSourceScheduler;
+
+    private HibernateSessionHolder sessionHolder;
+
+    private Scheduler scheduler;
+
+    private Interval interval = Interval.MONTH;
+
+    private int premake = 3;
+
+    private String cronExpression;
+
+    @Override
+    public void init() {
+        sessionHolder = new HibernateSessionHolder(connectionProvider);
+        Scheduler s = dataSourceScheduler != null ? dataSourceScheduler.getScheduler() : null;
+        if (s == null) {
+            LOG.warn("No scheduler available, the partition maintenance is not scheduled");
+            return;
+        }
+        try {
+            s.addJob(JobBuilder.newJob(ObservationPartitionJob.class).withIdentity(JOB_KEY)
+                    .usingJobData(new JobDataMap(Collections.singletonMap(ObservationPartitionJob.MANAGER, this)))
+                    .storeDurably().build(), true);
+            synchronized (this) {
+                this.scheduler = s;
+                reschedule();
+            }
+            s.triggerJob(JOB_KEY);
+        } catch (SchedulerException e) {
+            throw new ConfigurationError("Could not add the partition maintenance job", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            if (scheduler != null && !scheduler.isShutdown()) {
+                scheduler.deleteJob(JOB_KEY);
+            }
+        } catch (SchedulerException e) {
+            LOG.error("Could not remove the partition maintenance job", e);
+        }
+    }
+
+    @Setting(PartitioningSettings.PARTITIONING_INTERVAL)
+    public void setInterval(String interval) {
+        Validation.notNullOrEmpty("Partition interval", interval);
+        try {
+            this.interval = Interval.valueOf(interval.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationError("Unsupported partition interval: " + interval, e);
+        }
+    }
+
+    @Setting(PartitioningSettings.PARTITIONING_PREMAKE)
+    public void setPremake(int premake) {
+        Validation.greaterZero("Number of future partitions", premake);
+        this.premake = premake;
+    }
+
+    @Setting(PartitioningSettings.PARTITIONING_CRON_EXPRESSION)
+    public synchronized void setCronExpression(String cronExpression) {
+        Validation.notNullOrEmpty("Cron expression for partition maintenance", cronExpression);
+        this.cronExpression = cronExpression;
+        reschedule();
+    }
+
+    private synchronized void reschedule() {
+        if (scheduler == null) {
+            return;
+        }
+        try {
+            scheduler.unscheduleJob(TRIGGER_KEY);
+            if (cronExpression != null) {
+                Trigger trigger = TriggerBuilder.newTrigger().withIdentity(TRIGGER_KEY).forJob(JOB_KEY)
+                        .withSchedule(CronScheduleBuilder.cronSchedule(cronExpression)).build();
+                scheduler.scheduleJob(trigger);
+            }
+        } catch (SchedulerException | RuntimeException e) {
+            throw new ConfigurationError("Could not schedule the partition maintenance", e);
+        }
+    }
+
+    /**
+     * Create the partitions for the current and the upcoming intervals and
+     * for the intervals of observations that are stored in the default
+     * partition. Each partition is created in its own transaction.
+     *
+     * @throws OwsExceptionReport
+     *             if the partitions could not be queried
+     */
+    public synchronized void maintain() throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = sessionHolder.getSession();
+            PartitionedTable table = getPartitionedTable(session);
+            if (table == null) {
+                return;
+            }
+            Set<String> partitions = getPartitions(table, session);
+            boolean hasDefault = partitions.contains(table.getPartition(DEFAULT_PARTITION));
+            DateTime current = interval.start(DateTime.now(DateTimeZone.UTC));
+            DateTime from = current;
+            if (hasDefault) {
+                Date min = (Date) session.createNativeQuery("select min(" + table.getKey() + ") from "
+                        + table.getPartition(DEFAULT_PARTITION)).uniqueResult();
+                if (min != null && min.getTime() < from.getMillis()) {
+                    from = interval.start(new DateTime(min, DateTimeZone.UTC));
+                }
+            }
+            DateTime to = current;
+            for (int i = 0; i < premake; i++) {
+                to = interval.next(to);
+            }
+            int created = 0;
+            for (DateTime start = from; start.isBefore(to); start = interval.next(start)) {
+                String partition = table.getPartition(PARTITION + interval.format(start));
+                if (!partitions.contains(partition)
+                        && createPartition(table, partition, start, interval.next(start), hasDefault, session)) {
+                    created++;
+                }
+            }
+            if (created > 0) {
+                LOG.info("{} partitions of {} were created", created, table.getName());
+            }
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while maintaining the observation partitions!");
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private boolean createPartition(PartitionedTable table, String partition, DateTime from, DateTime to,
+            boolean hasDefault, Session session) {
+        String lower = "'" + BOUND_FORMAT.print(from) + "'";
+        String upper = "'" + BOUND_FORMAT.print(to) + "'";
+        Transaction transaction = null;
+        try {
+            transaction = session.beginTransaction();
+            execute(session, "create table " + partition + " (like " + table.getName()
+                    + " including defaults including constraints)");
+            if (hasDefault) {
+                // move the observations of the interval out of the default
+                // partition, otherwise the partition can not be attached
+                String where = " where " + table.getKey() + " >= " + lower + " and " + table.getKey() + " < " + upper;
+                String defaultPartition = table.getPartition(DEFAULT_PARTITION);
+                int moved = execute(session, "insert into " + partition + " select * from " + defaultPartition + where);
+                if (moved > 0) {
+                    execute(session, "delete from " + defaultPartition + where);
+                    LOG.info("{} observations were moved from {} to {}", moved, defaultPartition, partition);
+                }
+            }
+            execute(session, "alter table " + table.getName() + " attach partition " + partition + " for values from ("
+                    + lower + ") to (" + upper + ")");
+            transaction.commit();
+            LOG.debug("Partition {} for [{},{}) was created", partition, from, to);
+            return true;
+        } catch (HibernateException he) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            LOG.warn("Could not create partition {} for [{},{})", partition, from, to, he);
+            return false;
+        }
+    }
+
+    /**
+     * Drop the partitions that only contain observations whose phenomenon time
+     * ended before the cutoff. Each partition is dropped in its own
+     * transaction.
+     *
+     * @param cutoff
+     *            the cutoff
+     * @param datasets
+     *            receives the ids of the datasets that had observations in the
+     *            dropped partitions
+     * @return the number of dropped observations
+     * @throws OwsExceptionReport
+     *             if the partitions could not be queried
+     */
+    public synchronized long dropPartitionsBefore(Date cutoff, Set<Long> datasets) throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = sessionHolder.getSession();
+            PartitionedTable table = getPartitionedTable(session);
+            if (table == null) {
+                return 0;
+            }
+            long dropped = 0;
+            for (String partition : getPartitions(table, session)) {
+                DateTime end = getPartitionEnd(table, partition);
+                if (end != null && !end.isAfter(cutoff.getTime())) {
+                    dropped += dropPartition(table, partition, cutoff, datasets, session);
+                }
+            }
+            return dropped;
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while dropping expired observation partitions!");
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private long dropPartition(PartitionedTable table, String partition, Date cutoff, Set<Long> datasets,
+            Session session) {
+        Transaction transaction = null;
+        try {
+            transaction = session.beginTransaction();
+            Object[] result = (Object[]) session.createNativeQuery(
+                    "select max(" + table.getEnd() + "), count(*) from " + partition).uniqueResult();
+            Date max = (Date) result[0];
+            long count = ((Number) result[1]).longValue();
+            if (max != null && !max.before(cutoff)) {
+                transaction.rollback();
+                return 0;
+            }
+            List<?> ids = session.createNativeQuery(
+                    "select distinct " + table.getDataset() + " from " + partition).getResultList();
+            ids.stream().map(id -> ((Number) id).longValue()).forEach(datasets::add);
+            // there are no foreign keys referencing the partitioned table, so
+            // the referencing rows have to be deleted explicitly
+            ObservationReferences references = table.getReferences();
+            String observations = "select " + references.getId() + " from " + partition;
+            references.release(session, observations, null);
+            if (references.getParent() != null) {
+                execute(session, "delete from " + table.getName() + " where " + references.getParent() + " in ("
+                        + observations + ")");
+            }
+            execute(session, "alter table " + table.getName() + " detach partition " + partition);
+            execute(session, "drop table " + partition);
+            transaction.commit();
+            LOG.info("Partition {} with {} observations was dropped", partition, count);
+            return count;
+        } catch (HibernateException he) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            LOG.warn("Could not drop partition {}", partition, he);
+            return 0;
+        }
+    }
+
+    private DateTime getPartitionEnd(PartitionedTable table, String partition) {
+        return getPartitionEnd(table.getName(), partition);
+    }
+
+    /**
+     * @param table
+     *            the partitioned table
+     * @param partition
+     *            the partition
+     * @return the exclusive upper bound of the partition or {@code null} if
+     *         the partition is not named after its interval
+     */
+    static DateTime getPartitionEnd(String table, String partition) {
+        String prefix = table + PARTITION;
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        String suffix = partition.substring(prefix.length());
+        for (Interval i : Interval.values()) {
+            DateTime start = i.parse(suffix);
+            if (start != null) {
+                return i.next(start);
+            }
+        }
+        return null;
+    }
+
+    private int execute(Session session, String sql) {
+        LOG.trace("Execute: {}", sql);
+        return session.createNativeQuery(sql).executeUpdate();
+    }
+
+    private Set<String> getPartitions(PartitionedTable table, Session session) {
+        List<?> names = session.createNativeQuery("select cast(c.relname as text) from pg_inherits i "
+                + "join pg_class c on c.oid = i.inhrelid where i.inhparent = to_regclass(:" + TABLE + ")")
+                .setParameter(TABLE, table.getName()).getResultList();
+        return names.stream().map(name -> table.getSchemaPrefix() + name)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private PartitionedTable getPartitionedTable(Session session) {
+        SessionFactoryImplementor factory = session.getSessionFactory().unwrap(SessionFactoryImplementor.class);
+        if (!(factory.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect)) {
+            return null;
+        }
+        AbstractEntityPersister persister = (AbstractEntityPersister) factory.getMetamodel().entityPersister(
+                daoFactory.getObservationDAO().getObservationFactory().observationClass());
+        String name = persister.getTableName();
+        Number partitioned = (Number) session
+                .createNativeQuery("select count(*) from pg_partitioned_table where partrelid = to_regclass(:"
+                        + TABLE + ")")
+                .setParameter(TABLE, name).uniqueResult();
+        if (partitioned == null || partitioned.intValue() == 0) {
+            return null;
+        }
+        return new PartitionedTable(name,
+                persister.getPropertyColumnNames(DataEntity.PROPERTY_SAMPLING_TIME_START)[0],
+                persister.getPropertyColumnNames(DataEntity.PROPERTY_SAMPLING_TIME_END)[0],
+                persister.getPropertyColumnNames(DataEntity.PROPERTY_DATASET)[0],
+                ObservationReferences.of(factory, persister.getMappedClass()));
+    }
+
+    enum Interval {
+        MONTH("yyyyMM") {
+            @Override
+            DateTime start(DateTime time) {
+                return time.withDayOfMonth(1).withTimeAtStartOfDay();
+            }
+
+            @Override
+            DateTime next(DateTime start) {
+                return start.plusMonths(1);
+            }
+        },
+        YEAR("yyyy") {
+            @Override
+            DateTime start(DateTime time) {
+                return time.withDayOfYear(1).withTimeAtStartOfDay();
+            }
+
+            @Override
+            DateTime next(DateTime start) {
+                return start.plusYears(1);
+            }
+        };
+
+        private final String pattern;
+
+        private final DateTimeFormatter formatter;
+
+        Interval(String pattern) {
+            this.pattern = pattern;
+            this.formatter = DateTimeFormat.forPattern(pattern).withZoneUTC();
+        }
+
+        abstract DateTime start(DateTime time);
+
+        abstract DateTime next(DateTime start);
+
+        String format(DateTime start) {
+            return formatter.print(start);
+        }
+
+        DateTime parse(String suffix) {
+            if (suffix.length() != pattern.length() || !suffix.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            return formatter.parseDateTime(suffix);
+        }
+    }
+
+    private static final class PartitionedTable {
+        private final String name;
+        private final String schemaPrefix;
+        private final String key;
+        private final String end;
+        private final String dataset;
+        private final ObservationReferences references;
+
+        PartitionedTable(String name, String key, String end, String dataset, ObservationReferences references) {
+            this.name = name;
+            this.schemaPrefix = name.substring(0, name.lastIndexOf('.') + 1);
+            this.key = key;
+            this.end = end;
+            this.dataset = dataset;
+            this.references = references;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getSchemaPrefix() {
+            return schemaPrefix;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getEnd() {
+            return end;
+        }
+
+        String getDataset() {
+            return dataset;
+        }
+
+        ObservationReferences getReferences() {
+            return references;
+        }
+
+        String getPartition(String suffix) {
+            return name + suffix;
+        }
+    }
+}
@@ -0,0 +1,573 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.Query;
+import org.joda.time.DateTime;
+import org.n52.faroe.ConfigurationError;
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.iceland.ds.ConnectionProvider;
+import org.n52.janmayen.lifecycle.Constructable;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.RetentionProgress;
+import org.n52.sos.ds.RetentionProgress.State;
+import org.n52.sos.ds.RetentionPurgeHandler;
+import org.n52.sos.ds.RetentionSettings;
+import org.n52.sos.ds.hibernate.DeleteObservationHelper;
+import org.n52.sos.ds.hibernate.HibernateSessionHolder;
+import org.n52.sos.ds.hibernate.cache.proxy.HibernateDataSourceHarvesterScheduler;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+
+/**
+ * {@link RetentionPurgeHandler} that physically deletes deleted and expired
+ * observations in chunks of observation id ranges. Each chunk is purged in
+ * its own short transaction, chunks that deleted observations are separated
+ * by a configurable pause and ranges without purgeable observations are
+ * skipped. A cancelled or failed purge continues after the last purged chunk;
+ * this position is only kept in memory, after a restart the purge starts from
+ * the lowest observation id again. Expired partitions of a time partitioned
+ * observation table are dropped as a whole first. The purge is scheduled on
+ * the shared Quartz scheduler of the {@link HibernateDataSourceHarvesterScheduler}.
+ *
+ * @since 5.2.3
+ */
+@Configurable
+public class HibernateRetentionPurgeHandler
+        implements RetentionPurgeHandler, DeleteObservationHelper, Constructable, Destroyable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HibernateRetentionPurgeHandler.class);
+
+    private static final String GROUP = "retention";
+
+    private static final JobKey JOB_KEY = JobKey.jobKey("retentionPurge", GROUP);
+
+    private static final TriggerKey TRIGGER_KEY = TriggerKey.triggerKey("retentionPurgeTrigger", GROUP);
+
+    private static final String PROPERTY_FIRST_OBSERVATION = "firstObservation";
+
+    private static final String PROPERTY_LAST_OBSERVATION = "lastObservation";
+
+    private static final String PROPERTY_FIRST_VALUE_AT = "firstValueAt";
+
+    private static final String PROPERTY_LAST_VALUE_AT = "lastValueAt";
+
+    private static final String LOWER = "lower";
+
+    private static final String UPPER = "upper";
+
+    private static final String CUTOFF = "cutoff";
+
+    private static final String IDS = "ids";
+
+    private static final int LIMIT_EXPRESSION_DEPTH = 1000;
+
+    private DaoFactory daoFactory;
+
+    private ConnectionProvider connectionProvider;
+
+    private HibernateObservationPartitionManager partitionManager;
+
+    private HibernateSessionHolder sessionHolder;
+
+    private HibernateDataSourceHarvesterScheduler dataSourceScheduler;
+
+    private Scheduler scheduler;
+
+    private boolean enabled;
+
+    private String cronExpression;
+
+    private int maxAgeDays;
+
+    private int chunkSize = 10000;
+
+    private long chunkPause = 100;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile boolean cancelled;
+
+    private volatile RetentionProgress progress = RetentionProgress.idle();
+
+    /**
+     * Upper bound of the last purged chunk of an unfinished purge, guarded by
+     * {@link #running}.
+     */
+    private Long resumeId;
+
+    private boolean resumeExpired;
+
+    private volatile ObservationReferences references;
+
+    @Override
+    public void init() {
+        sessionHolder = new HibernateSessionHolder(connectionProvider);
+        Scheduler s = dataSourceScheduler != null ? dataSourceScheduler.getScheduler() : null;
+        if (s == null) {
+            LOG.warn("No scheduler available, the retention purge is not scheduled");
+            return;
+        }
+        try {
+            s.addJob(JobBuilder.newJob(RetentionPurgeJob.class).withIdentity(JOB_KEY)
+                    .usingJobData(new JobDataMap(Collections.singletonMap(RetentionPurgeJob.HANDLER, this)))
+                    .storeDurably().build(), true);
+            synchronized (this) {
+                this.scheduler = s;
+                reschedule();
+            }
+        } catch (SchedulerException e) {
+            throw new ConfigurationError("Could not add the retention purge job", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        cancel();
+        try {
+            if (scheduler != null && !scheduler.isShutdown()) {
+                scheduler.deleteJob(JOB_KEY);
+            }
+        } catch (SchedulerException e) {
+            LOG.error("Could not remove the retention purge job", e);
+        }
+    }
+
+    @Inject
+    public void setDaoFactory(DaoFactory daoFactory) {
+        this.daoFactory = daoFactory;
+    }
+
+    @Inject
+    public void setConnectionProvider(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    @Inject
+    public void setDataSourceScheduler(HibernateDataSourceHarvesterScheduler dataSourceScheduler) {
+        this.dataSourceScheduler = dataSourceScheduler;
+    }
+
+    @Inject
+    public void setPartitionManager(HibernateObservationPartitionManager partitionManager) {
+        this.partitionManager = partitionManager;
+    }
+
+    @Setting(RetentionSettings.RETENTION_ENABLED)
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        reschedule();
+    }
+
+    @Setting(RetentionSettings.RETENTION_CRON_EXPRESSION)
+    public synchronized void setCronExpression(String cronExpression) {
+        Validation.notNullOrEmpty("Cron expression for retention purge", cronExpression);
+        this.cronExpression = cronExpression;
+        reschedule();
+    }
+
+    @Setting(RetentionSettings.RETENTION_MAX_AGE_DAYS)
+    public void setMaxAgeDays(int maxAgeDays) {
+        this.maxAgeDays = Math.max(0, maxAgeDays);
+    }
+
+    @Setting(RetentionSettings.RETENTION_CHUNK_SIZE)
+    public void setChunkSize(int chunkSize) {
+        Validation.greaterZero("Retention chunk size", chunkSize);
+        this.chunkSize = chunkSize;
+    }
+
+    @Setting(RetentionSettings.RETENTION_CHUNK_PAUSE)
+    public void setChunkPause(int chunkPause) {
+        this.chunkPause = Math.max(0, chunkPause);
+    }
+
+    private synchronized void reschedule() {
+        if (scheduler == null) {
+            return;
+        }
+        try {
+            scheduler.unscheduleJob(TRIGGER_KEY);
+            if (enabled && cronExpression != null) {
+                Trigger trigger = TriggerBuilder.newTrigger().withIdentity(TRIGGER_KEY).forJob(JOB_KEY)
+                        .withSchedule(CronScheduleBuilder.cronSchedule(cronExpression)).build();
+                Date next = scheduler.scheduleJob(trigger);
+                LOG.info("Retention purge will be executed at '{}'", new DateTime(next));
+            }
+        } catch (SchedulerException | RuntimeException e) {
+            throw new ConfigurationError("Could not schedule the retention purge", e);
+        }
+    }
+
+    @Override
+    public void purge() throws OwsExceptionReport {
+        run(maxAgeDays > 0 ? DateTime.now().minusDays(maxAgeDays).toDate() : null);
+    }
+
+    /**
+     * Purge only the observations flagged as deleted.
+     *
+     * @throws OwsExceptionReport
+     *             if the purge fails or another purge is running
+     */
+    public void purgeDeleted() throws OwsExceptionReport {
+        run(null);
+    }
+
+    @Override
+    public boolean trigger() {
+        if (running.get() || scheduler == null) {
+            return false;
+        }
+        try {
+            scheduler.triggerJob(JOB_KEY);
+            return true;
+        } catch (SchedulerException e) {
+            LOG.error("Could not trigger the retention purge", e);
+            return false;
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (running.get()) {
+            this.cancelled = true;
+        }
+    }
+
+    @Override
+    public RetentionProgress getProgress() {
+        return progress;
+    }
+
+    private void run(Date cutoff) throws OwsExceptionReport {
+        if (!running.compareAndSet(false, true)) {
+            throw new NoApplicableCodeException()
+                    .withMessage("A retention purge is already running, please try again after it has finished!");
+        }
+        this.cancelled = false;
+        boolean expired = cutoff != null;
+        try {
+            DateTime start = DateTime.now();
+            this.progress = new RetentionProgress(State.RUNNING, start, null, 0, 0, 0, 0, null);
+            long dropped = expired ? dropExpiredPartitions(cutoff) : 0;
+            long[] bounds = getIdBounds();
+            long lower = bounds[0];
+            if (resumeId != null && resumeExpired == expired && resumeId >= lower) {
+                LOG.info("Resuming retention purge after observation id {}", resumeId);
+                lower = resumeId + 1;
+            }
+            this.progress = new RetentionProgress(State.RUNNING, start, null, 0, dropped, lower - 1, bounds[1], null);
+            while (lower <= bounds[1] && !cancelled) {
+                long upper = lower + chunkSize;
+                long deleted = purgeChunk(lower, upper, cutoff);
+                this.progress = progress.withChunk(upper - 1, deleted);
+                this.resumeExpired = expired;
+                LOG.debug("Retention purge deleted {} observations with id in [{},{})", deleted, lower, upper);
+                if (deleted > 0) {
+                    lower = upper;
+                    pause();
+                } else {
+                    // skip the following chunks without purgeable observations
+                    Long next = getNextId(upper, cutoff);
+                    lower = next != null ? next : bounds[1] + 1;
+                }
+                this.resumeId = lower - 1;
+            }
+            if (cancelled) {
+                this.progress = progress.finish(State.CANCELLED, null);
+            } else {
+                this.resumeId = null;
+                this.progress = progress.finish(State.COMPLETED, null);
+            }
+            LOG.info("Retention purge {}: {} observations deleted in {} chunks", progress.getState(),
+                    progress.getDeleted(), progress.getChunks());
+        } catch (OwsExceptionReport | RuntimeException e) {
+            this.progress = progress.finish(State.FAILED, e.getMessage());
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Pause between two chunks that deleted observations.
+     */
+    void pause() {
+        if (chunkPause > 0 && !cancelled) {
+            try {
+                Thread.sleep(chunkPause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.cancelled = true;
+            }
+        }
+    }
+
+    /**
+     * @return the minimum and maximum observation id, the minimum is greater
+     *         than the maximum if there are no observations
+     */
+    private long[] getIdBounds() throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = sessionHolder.getSession();
+            Object[] result = (Object[]) session.createQuery("select min(" + DataEntity.PROPERTY_ID + "), max("
+                    + DataEntity.PROPERTY_ID + ")" + FROM_PARAMETER + getObservationEntityName()).uniqueResult();
+            if (result == null || result[0] == null || result[1] == null) {
+                return new long[] { 1, 0 };
+            }
+            return new long[] { ((Number) result[0]).longValue(), ((Number) result[1]).longValue() };
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while querying the observation id range!");
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    /**
+     * Drop the expired partitions of a time partitioned observation table and
+     * update the first and last values of the affected datasets.
+     */
+    private long dropExpiredPartitions(Date cutoff) throws OwsExceptionReport {
+        Set<Long> datasets = new LinkedHashSet<>();
+        long dropped = partitionManager.dropPartitionsBefore(cutoff, datasets);
+        if (datasets.isEmpty()) {
+            return dropped;
+        }
+        Session session = null;
+        Transaction transaction = null;
+        try {
+            session = sessionHolder.getSession();
+            transaction = session.beginTransaction();
+            for (List<Long> part : Lists.partition(new ArrayList<>(datasets), LIMIT_EXPRESSION_DEPTH)) {
+                Query<?> update = session.createQuery("update " + DatasetEntity.class.getSimpleName() + " set "
+                        + PROPERTY_FIRST_OBSERVATION + " = null, " + PROPERTY_FIRST_VALUE_AT + " = null, "
+                        + PROPERTY_LAST_OBSERVATION + " = null, " + PROPERTY_LAST_VALUE_AT + " = null"
+                        + WHERE_PARAMETER + DatasetEntity.PROPERTY_ID + IN_PARAMETER + IDS);
+                update.setParameter(IDS, part);
+                update.executeUpdate();
+                checkSeriesForFirstLatest(part, session);
+            }
+            transaction.commit();
+            return dropped;
+        } catch (HibernateException he) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while updating datasets of dropped observation partitions!");
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private long purgeChunk(long lower, long upper, Date cutoff) throws OwsExceptionReport {
+        Session session = null;
+        Transaction transaction = null;
+        try {
+            session = sessionHolder.getSession();
+            transaction = session.beginTransaction();
+            long deleted = 0;
+            List<Long> ids = getChunkIds(lower, upper, cutoff, session);
+            if (!ids.isEmpty()) {
+                Set<Long> datasets = new LinkedHashSet<>();
+                for (List<Long> part : Lists.partition(ids, LIMIT_EXPRESSION_DEPTH)) {
+                    datasets.addAll(releaseFirstLastObservation(part, session));
+                    getReferences(session).release(session, ":" + IDS, part);
+                    deleted += deleteByIds(DataEntity.PROPERTY_PARENT, part, session);
+                    deleted += deleteByIds(DataEntity.PROPERTY_ID, part, session);
+                }
+                session.flush();
+                checkSeriesForFirstLatest(datasets, session);
+            }
+            transaction.commit();
+            return deleted;
+        } catch (HibernateException he) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while purging observations with id in [%d,%d)!", lower, upper);
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private List<Long> getChunkIds(long lower, long upper, Date cutoff, Session session) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("select ").append(DataEntity.PROPERTY_ID).append(FROM_PARAMETER)
+                .append(getObservationEntityName());
+        builder.append(WHERE_PARAMETER).append(DataEntity.PROPERTY_ID).append(" >= :").append(LOWER);
+        builder.append(AND_PARAMETER).append(DataEntity.PROPERTY_ID).append(" < :").append(UPPER);
+        appendPurgeable(builder, cutoff);
+        Query<Long> q = session.createQuery(builder.toString(), Long.class);
+        q.setParameter(LOWER, lower);
+        q.setParameter(UPPER, upper);
+        setPurgeable(q, cutoff);
+        return q.list();
+    }
+
+    /**
+     * @return the lowest id of a purgeable observation that is not less than
+     *         the lower bound or {@code null} if there is none
+     */
+    private Long getNextId(long lower, Date cutoff) throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = sessionHolder.getSession();
+            StringBuilder builder = new StringBuilder();
+            builder.append("select min(").append(DataEntity.PROPERTY_ID).append(")").append(FROM_PARAMETER)
+                    .append(getObservationEntityName());
+            builder.append(WHERE_PARAMETER).append(DataEntity.PROPERTY_ID).append(" >= :").append(LOWER);
+            appendPurgeable(builder, cutoff);
+            Query<Long> q = session.createQuery(builder.toString(), Long.class);
+            q.setParameter(LOWER, lower);
+            setPurgeable(q, cutoff);
+            return q.uniqueResult();
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while querying the next purgeable observation!");
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private void appendPurgeable(StringBuilder builder, Date cutoff) {
+        builder.append(AND_PARAMETER).append("(").append(DataEntity.PROPERTY_DELETED).append(EQUAL_PARAMETER)
+                .append(DataEntity.PROPERTY_DELETED);
+        if (cutoff != null) {
+            // the redundant restriction of the start lets time partitions be pruned
+            builder.append(" or (").append(DataEntity.PROPERTY_SAMPLING_TIME_START).append(" < :").append(CUTOFF);
+            builder.append(AND_PARAMETER).append(DataEntity.PROPERTY_SAMPLING_TIME_END).append(" < :").append(CUTOFF)
+                    .append(")");
+        }
+        builder.append(")");
+    }
+
+    private void setPurgeable(Query<?> q, Date cutoff) {
+        q.setParameter(DataEntity.PROPERTY_DELETED, true);
+        if (cutoff != null) {
+            q.setParameter(CUTOFF, cutoff);
+        }
+    }
+
+    /**
+     * Remove the references of datasets to the first or last observation if
+     * these observations are purged. The first and last values are restored
+     * by {@link #checkSeriesForFirstLatest(Collection, Session)}.
+     */
+    private List<Long> releaseFirstLastObservation(Collection<Long> ids, Session session) {
+        String entity = DatasetEntity.class.getSimpleName();
+        Query<Long> q = session.createQuery("select " + DatasetEntity.PROPERTY_ID + FROM_PARAMETER + entity
+                + WHERE_PARAMETER + PROPERTY_FIRST_OBSERVATION + ".id in :" + IDS + " or "
+                + PROPERTY_LAST_OBSERVATION + ".id in :" + IDS, Long.class);
+        q.setParameter(IDS, ids);
+        List<Long> datasets = q.list();
+        if (!datasets.isEmpty()) {
+            for (String[] property : new String[][] { { PROPERTY_FIRST_OBSERVATION, PROPERTY_FIRST_VALUE_AT },
+                { PROPERTY_LAST_OBSERVATION, PROPERTY_LAST_VALUE_AT } }) {
+                Query<?> update = session.createQuery("update " + entity + " set " + property[0] + " = null, "
+                        + property[1] + " = null" + WHERE_PARAMETER + property[0] + ".id in :" + IDS);
+                update.setParameter(IDS, ids);
+                update.executeUpdate();
+            }
+        }
+        return datasets;
+    }
+
+    private int deleteByIds(String property, Collection<Long> ids, Session session) {
+        Query<?> q = session.createQuery(DELETE_PARAMETER + getObservationEntityName() + WHERE_PARAMETER + property
+                + IN_PARAMETER + IDS);
+        q.setParameter(IDS, ids);
+        return q.executeUpdate();
+    }
+
+    private ObservationReferences getReferences(Session session) {
+        if (references == null) {
+            references = ObservationReferences.of(
+                    session.getSessionFactory().unwrap(SessionFactoryImplementor.class),
+                    daoFactory.getObservationDAO().getObservationFactory().observationClass());
+        }
+        return references;
+    }
+
+    private String getObservationEntityName() {
+        return daoFactory.getObservationDAO().getObservationFactory().observationClass().getSimpleName();
+    }
+
+    @Override
+    public DaoFactory getDaoFactory() {
+        return daoFactory;
+    }
+
+    @Override
+    public Logger getLogger() {
+        return LOG;
+    }
+
+    @Override
+    public boolean isDeletePhysically() {
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.n52.iceland.ds.ConnectionProvider;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.StatementCacheStatistics;
+import org.n52.sos.ds.StatementCacheStatisticsHandler;
+import org.n52.sos.ds.hibernate.HibernateSessionHolder;
+
+/**
+ * Reads the statement and query plan cache usage from the statistics of the
+ * Hibernate session factory. These are only collected if
+ * {@code hibernate.generate_statistics} is enabled in the datasource settings.
+ *
+ * @since 5.2.3
+ */
+public class HibernateStatementCacheStatisticsHandler implements StatementCacheStatisticsHandler {
+
+    private HibernateSessionHolder sessionHolder;
+
+    @Inject
+    public void setConnectionProvider(ConnectionProvider connectionProvider) {
+        this.sessionHolder = new HibernateSessionHolder(connectionProvider);
+    }
+
+    @Override
+    public Optional<StatementCacheStatistics> getStatementCacheStatistics() throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = this.sessionHolder.getSession();
+            Statistics statistics = session.getSessionFactory().getStatistics();
+            if (!statistics.isStatisticsEnabled()) {
+                return Optional.empty();
+            }
+            return Optional.of(new StatementCacheStatistics(statistics.getQueryPlanCacheHitCount(),
+                    statistics.getQueryPlanCacheMissCount(), statistics.getPrepareStatementCount(),
+                    statistics.getQueryExecutionCount(), statistics.getEntityLoadCount()));
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while querying the statement cache statistics!");
+        } finally {
+            this.sessionHolder.returnSession(session);
+        }
+    }
+
+    @Override
+    public void reset() throws OwsExceptionReport {
+        Session session = null;
+        try {
+            session = this.sessionHolder.getSession();
+            session.getSessionFactory().getStatistics().clear();
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while resetting the statement cache statistics!");
+        } finally {
+            this.sessionHolder.returnSession(session);
+        }
+    }
+}
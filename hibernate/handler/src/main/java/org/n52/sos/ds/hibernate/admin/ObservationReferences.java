@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.ManyToOneType;
+import org.hibernate.type.Type;
+import org.n52.series.db.beans.DataEntity;
+
+/**
+ * The tables and columns that reference observations, derived from the
+ * Hibernate mapping. Rows that depend on observations (joined value tables,
+ * collection tables like the parameters, child observations) have to be
+ * deleted and references of other entities (e.g. the first and last
+ * observation of a dataset) have to be released before observations are
+ * deleted by a bulk statement or a partition of the observation table is
+ * dropped. The foreign keys of these references can not be relied on, as a
+ * time partitioned observation table can not be referenced by foreign keys
+ * on the observation id.
+ *
+ * @since 5.2.3
+ */
+final class ObservationReferences {
+
+    private static final String IDS = "ids";
+
+    private final String table;
+
+    private final String id;
+
+    private final String parent;
+
+    private final Set<Reference> dependents;
+
+    private final Set<Reference> links;
+
+    ObservationReferences(String table, String id, String parent, Set<Reference> dependents,
+            Set<Reference> links) {
+        this.table = table;
+        this.id = id;
+        this.parent = parent;
+        this.dependents = Collections.unmodifiableSet(dependents);
+        this.links = Collections.unmodifiableSet(links);
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * @return the column of the observation table that references the parent
+     *         observation, may be {@code null}
+     */
+    String getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the references whose rows are deleted with the observation
+     */
+    Set<Reference> getDependents() {
+        return dependents;
+    }
+
+    /**
+     * @return the nullable references of other entities that are set to
+     *         {@code null}
+     */
+    Set<Reference> getLinks() {
+        return links;
+    }
+
+    /**
+     * Delete the dependent rows and release the references of the selected
+     * observations and of their child observations. The observations
+     * themselves are not deleted.
+     *
+     * @param session
+     *            the session
+     * @param ids
+     *            SQL expression that selects the observation ids, may use the
+     *            parameter {@code :ids}
+     * @param parameter
+     *            the value of the parameter {@code :ids}, may be {@code null}
+     * @return the number of affected rows
+     */
+    int release(Session session, String ids, Collection<Long> parameter) {
+        int affected = 0;
+        if (parent != null) {
+            affected += release(session, "select " + id + " from " + table + " where " + parent + " in (" + ids + ")",
+                    parameter);
+        }
+        for (Reference reference : dependents) {
+            affected += execute(session, "delete from " + reference.getTable() + " where " + reference.in(ids),
+                    parameter);
+        }
+        for (Reference reference : links) {
+            affected += execute(session, "update " + reference.getTable() + " set " + reference.getColumn()
+                    + " = null where " + reference.in(ids), parameter);
+        }
+        return affected;
+    }
+
+    private static int execute(Session session, String sql, Collection<Long> parameter) {
+        NativeQuery<?> query = session.createNativeQuery(sql);
+        if (parameter != null) {
+            query.setParameterList(IDS, parameter);
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Derive the references of the observation table from the mapping.
+     *
+     * @param factory
+     *            the session factory
+     * @param observationClass
+     *            the mapped observation class
+     * @return the references
+     */
+    static ObservationReferences of(SessionFactoryImplementor factory, Class<?> observationClass) {
+        AbstractEntityPersister observation =
+                (AbstractEntityPersister) factory.getMetamodel().entityPersister(observationClass);
+        String table = observation.getTableName();
+        String parent = null;
+        Set<Reference> dependents = new LinkedHashSet<>();
+        Set<Reference> links = new LinkedHashSet<>();
+        for (EntityPersister persister : factory.getMetamodel().entityPersisters().values()) {
+            if (!(persister instanceof AbstractEntityPersister)) {
+                continue;
+            }
+            AbstractEntityPersister entity = (AbstractEntityPersister) persister;
+            if (DataEntity.class.isAssignableFrom(entity.getMappedClass())) {
+                // joined subclass tables
+                String[] tables = entity.getConstraintOrderedTableNameClosure();
+                String[][] keys = entity.getContraintOrderedTableKeyColumnClosure();
+                for (int i = 0; i < tables.length; i++) {
+                    if (!tables[i].equals(table)) {
+                        dependents.add(new Reference(tables[i], keys[i][0]));
+                    }
+                }
+            }
+            for (String property : entity.getPropertyNames()) {
+                Type type = entity.getPropertyType(property);
+                if (type instanceof ManyToOneType && DataEntity.class.isAssignableFrom(type.getReturnedClass())) {
+                    String column = entity.getPropertyColumnNames(property)[0];
+                    String referencing = entity.getPropertyTableName(property);
+                    if (referencing.equals(table) && DataEntity.PROPERTY_PARENT.equals(property)) {
+                        parent = column;
+                    } else {
+                        links.add(new Reference(referencing, column));
+                    }
+                }
+            }
+        }
+        for (CollectionPersister persister : factory.getMetamodel().collectionPersisters().values()) {
+            if (!(persister instanceof AbstractCollectionPersister)
+                    || !DataEntity.class.isAssignableFrom(persister.getOwnerEntityPersister().getMappedClass())) {
+                continue;
+            }
+            AbstractCollectionPersister collection = (AbstractCollectionPersister) persister;
+            Reference reference = new Reference(collection.getTableName(), collection.getKeyColumnNames()[0]);
+            if (reference.getTable().equals(table)) {
+                // the child observations
+                continue;
+            }
+            if (collection.isOneToMany() && collection.getElementPersister() instanceof AbstractEntityPersister) {
+                // joined subclass tables of the elements, these have to be
+                // deleted before the element table
+                AbstractEntityPersister element = (AbstractEntityPersister) collection.getElementPersister();
+                String[] tables = element.getConstraintOrderedTableNameClosure();
+                String[][] keys = element.getContraintOrderedTableKeyColumnClosure();
+                for (int i = 0; i < tables.length; i++) {
+                    if (!tables[i].equals(reference.getTable())) {
+                        dependents.add(new Reference(tables[i], keys[i][0], reference,
+                                element.getIdentifierColumnNames()[0]));
+                    }
+                }
+            }
+            dependents.add(reference);
+        }
+        links.removeAll(dependents);
+        return new ObservationReferences(table, observation.getIdentifierColumnNames()[0], parent, dependents,
+                links);
+    }
+
+    /**
+     * A column of a table that references the observation id.
+     */
+    static final class Reference {
+        private final String table;
+
+        private final String column;
+
+        private final Reference via;
+
+        private final String viaColumn;
+
+        Reference(String table, String column) {
+            this(table, column, null, null);
+        }
+
+        /**
+         * @param table
+         *            the table
+         * @param column
+         *            the column that references the {@code viaColumn} of the
+         *            rows of the {@code via} reference
+         * @param via
+         *            the reference that references the observation
+         * @param viaColumn
+         *            the referenced column of the {@code via} table
+         */
+        Reference(String table, String column, Reference via, String viaColumn) {
+            this.table = table;
+            this.column = column;
+            this.via = via;
+            this.viaColumn = viaColumn;
+        }
+
+        String getTable() {
+            return table;
+        }
+
+        String getColumn() {
+            return column;
+        }
+
+        /**
+         * @param ids
+         *            SQL expression that selects the observation ids
+         * @return the condition that selects the rows that reference the
+         *         observations
+         */
+        String in(String ids) {
+            if (via == null) {
+                return column + " in (" + ids + ")";
+            }
+            return column + " in (select " + viaColumn + " from " + via.getTable() + " where " + via.in(ids) + ")";
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(table, column, via);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Reference)) {
+                return false;
+            }
+            Reference other = (Reference) obj;
+            return Objects.equals(table, other.table) && Objects.equals(column, other.column)
+                    && Objects.equals(via, other.via);
+        }
+
+        @Override
+        public String toString() {
+            return table + "." + column;
+        }
+    }
+}
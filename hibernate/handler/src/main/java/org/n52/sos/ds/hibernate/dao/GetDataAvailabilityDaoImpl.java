@@ -28,11 +28,16 @@
  */
 package org.n52.sos.ds.hibernate.dao;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -40,6 +45,7 @@ import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.n52.faroe.annotation.Configurable;
@@ -64,6 +70,7 @@ import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityRequest;
 import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.DataAvailability;
 import org.n52.sos.ds.hibernate.HibernateSessionHolder;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
+import org.n52.sos.ds.hibernate.util.QueryHelper;
 import org.n52.sos.ds.hibernate.util.SosTemporalRestrictions;
 import org.n52.sos.ds.hibernate.util.TemporalRestrictions;
 import org.n52.sos.exception.ows.concrete.UnsupportedOperatorException;
@@ -72,6 +79,7 @@ import org.n52.sos.exception.ows.concrete.UnsupportedValueReferenceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
 @Configurable
@@ -79,6 +87,18 @@ public class GetDataAvailabilityDaoImpl implements org.n52.sos.ds.dao.GetDataAva
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GetDataAvailabilityDaoImpl.class);
 
+    private static final int RESULT_TIME_BATCH_SIZE = 500;
+
+    private static final String DATASET_ALIAS = "ds";
+
+    private static final String PROCEDURE_ALIAS = "p";
+
+    private static final String PHENOMENON_ALIAS = "ph";
+
+    private static final String FEATURE_ALIAS = "f";
+
+    private static final String OFFERING_ALIAS = "o";
+
     private HibernateSessionHolder sessionHolder;
 
     private Locale defaultLanguage;
@@ -117,6 +137,32 @@ public class GetDataAvailabilityDaoImpl implements org.n52.sos.ds.dao.GetDataAva
         return getMetadata(dataAvailability);
     }
 
+    @Override
+    public void setMetadata(Collection<DataAvailability> dataAvailabilities, Object connection)
+            throws OwsExceptionReport {
+        if (checkConnection(connection)) {
+            queryMetadata(dataAvailabilities, HibernateSessionHolder.getSession(connection));
+            return;
+        }
+        Session session = null;
+        try {
+            session = sessionHolder.getSession();
+            queryMetadata(dataAvailabilities, session);
+        } catch (final HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while querying metadata for GetDataAvailability!")
+                    .setStatus(HTTPStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            sessionHolder.returnSession(session);
+        }
+    }
+
+    private void queryMetadata(Collection<DataAvailability> dataAvailabilities, Session session) {
+        for (DataAvailability dataAvailability : dataAvailabilities) {
+            dataAvailability.setMetadata(queryMetadata(dataAvailability, session));
+        }
+    }
+
     private Map<String, NamedValue<?>> queryMetadata(DataAvailability dataAvailability, Session session) {
         Map<String, NamedValue<?>> map = new HashMap<>();
         // if (HibernateHelper.isEntitySupported(SeriesMetadata.class)) {
@@ -159,6 +205,101 @@ public class GetDataAvailabilityDaoImpl implements org.n52.sos.ds.dao.GetDataAva
         return getResultTimes(dataAvailability, request);
     }
 
+    @Override
+    public void setResultTimes(Collection<DataAvailability> dataAvailabilities, GetDataAvailabilityRequest request,
+            Object connection) throws OwsExceptionReport {
+        boolean external = checkConnection(connection);
+        Session session = null;
+        try {
+            session = external ? HibernateSessionHolder.getSession(connection) : sessionHolder.getSession();
+            queryResultTimes(dataAvailabilities, request, session);
+        } catch (final HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("Error while querying result time for GetDataAvailability!")
+                    .setStatus(HTTPStatus.INTERNAL_SERVER_ERROR);
+        } finally {
+            if (!external) {
+                sessionHolder.returnSession(session);
+            }
+        }
+    }
+
+    /**
+     * Query the result times for batches of {@link DataAvailability}s. Each
+     * batch is queried at once for all procedure, observed property and
+     * feature combinations and assigned in memory.
+     *
+     * @param dataAvailabilities
+     *            the {@link DataAvailability}s to set the result times for
+     * @param request
+     *            the request
+     * @param session
+     *            Hibernate session
+     * @throws OwsExceptionReport
+     *             If the temporal filter is not supported
+     */
+    @SuppressWarnings("unchecked")
+    private void queryResultTimes(Collection<DataAvailability> dataAvailabilities,
+            GetDataAvailabilityRequest request, Session session) throws OwsExceptionReport {
+        for (List<DataAvailability> batch : Iterables.partition(dataAvailabilities, RESULT_TIME_BATCH_SIZE)) {
+            Set<String> procedures = new HashSet<>();
+            Set<String> observedProperties = new HashSet<>();
+            Set<String> features = new HashSet<>();
+            for (DataAvailability dataAvailability : batch) {
+                procedures.add(dataAvailability.getProcedure().getHref());
+                observedProperties.add(dataAvailability.getObservedProperty().getHref());
+                features.add(dataAvailability.getFeatureOfInterest().getHref());
+            }
+            Criteria c = session.createCriteria(DataEntity.class)
+                    .add(Restrictions.eq(DataEntity.PROPERTY_DELETED, false))
+                    .createAlias(DataEntity.PROPERTY_DATASET, DATASET_ALIAS)
+                    .createAlias(getPath(DATASET_ALIAS, DatasetEntity.PROPERTY_PROCEDURE), PROCEDURE_ALIAS)
+                    .createAlias(getPath(DATASET_ALIAS, DatasetEntity.PROPERTY_PHENOMENON), PHENOMENON_ALIAS)
+                    .createAlias(getPath(DATASET_ALIAS, DatasetEntity.PROPERTY_FEATURE), FEATURE_ALIAS)
+                    .add(QueryHelper.getCriterionForObjects(getPath(PROCEDURE_ALIAS, ProcedureEntity.IDENTIFIER),
+                            procedures))
+                    .add(QueryHelper.getCriterionForObjects(getPath(PHENOMENON_ALIAS, PhenomenonEntity.IDENTIFIER),
+                            observedProperties))
+                    .add(QueryHelper.getCriterionForObjects(getPath(FEATURE_ALIAS, DatasetEntity.IDENTIFIER),
+                            features));
+            if (request.isSetOfferings()) {
+                c.createAlias(getPath(DATASET_ALIAS, DatasetEntity.PROPERTY_OFFERING), OFFERING_ALIAS)
+                        .add(Restrictions.in(getPath(OFFERING_ALIAS, OfferingEntity.IDENTIFIER),
+                                request.getOfferings()));
+            }
+            if (hasPhenomenonTimeFilter(request.getExtensions())) {
+                c.add(SosTemporalRestrictions.filter(getPhenomenonTimeFilter(request.getExtensions())));
+            }
+            ProjectionList projections = Projections.projectionList()
+                    .add(Projections.property(getPath(PROCEDURE_ALIAS, ProcedureEntity.IDENTIFIER)))
+                    .add(Projections.property(getPath(PHENOMENON_ALIAS, PhenomenonEntity.IDENTIFIER)))
+                    .add(Projections.property(getPath(FEATURE_ALIAS, DatasetEntity.IDENTIFIER)))
+                    .add(Projections.property(DataEntity.PROPERTY_RESULT_TIME));
+            c.setProjection(Projections.distinct(projections));
+            c.addOrder(Order.asc(DataEntity.PROPERTY_RESULT_TIME));
+            LOGGER.trace("QUERY queryResultTimes(): {}", HibernateHelper.getSqlString(c));
+            Map<String, List<TimeInstant>> resultTimes = new HashMap<>();
+            for (Object[] row : (List<Object[]>) c.list()) {
+                resultTimes.computeIfAbsent(getKey((String) row[0], (String) row[1], (String) row[2]),
+                        k -> new ArrayList<>()).add(new TimeInstant((Date) row[3]));
+            }
+            for (DataAvailability dataAvailability : batch) {
+                List<TimeInstant> times = resultTimes.getOrDefault(getKey(dataAvailability.getProcedure().getHref(),
+                        dataAvailability.getObservedProperty().getHref(),
+                        dataAvailability.getFeatureOfInterest().getHref()), Collections.emptyList());
+                dataAvailability.setResultTimes(new ArrayList<>(times));
+            }
+        }
+    }
+
+    private String getPath(String alias, String property) {
+        return alias + "." + property;
+    }
+
+    private String getKey(String procedure, String observedProperty, String feature) {
+        return procedure + "|" + observedProperty + "|" + feature;
+    }
+
     private List<TimeInstant> queryResultTime(DataAvailability dataAvailability, GetDataAvailabilityRequest request,
             Session session)
             throws UnsupportedTimeException, UnsupportedValueReferenceException, UnsupportedOperatorException {
@@ -28,8 +28,11 @@
  */
 package org.n52.sos.ds.hibernate.dao;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -41,6 +44,7 @@ import org.n52.iceland.ds.ConnectionProvider;
 import org.n52.iceland.i18n.I18NSettings;
 import org.n52.janmayen.http.HTTPStatus;
 import org.n52.janmayen.i18n.LocaleHelper;
+import org.n52.series.db.beans.AbstractFeatureEntity;
 import org.n52.shetland.ogc.gml.AbstractFeature;
 import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
@@ -56,8 +60,15 @@ public class GetFeatureOfInterestDaoImpl implements org.n52.sos.ds.dao.GetFeatur
 
     private FeatureQueryHandler featureQueryHandler;
 
+    private DaoFactory daoFactory;
+
     private Locale defaultLanguage;
 
+    @Inject
+    public void setDaoFactory(DaoFactory daoFactory) {
+        this.daoFactory = daoFactory;
+    }
+
     @Inject
     public void setConnectionProvider(ConnectionProvider connectionProvider) {
         this.sessionHolder = new HibernateSessionHolder(connectionProvider);
@@ -97,6 +108,21 @@ public class GetFeatureOfInterestDaoImpl implements org.n52.sos.ds.dao.GetFeatur
         return getFeatureOfInterest(request);
     }
 
+    @Override
+    public void initializeParents(Collection<?> features, Object connection) throws OwsExceptionReport {
+        if (features == null || features.isEmpty() || !checkConnection(connection)) {
+            return;
+        }
+        List<AbstractFeatureEntity> entities = features.stream().filter(AbstractFeatureEntity.class::isInstance)
+                .map(AbstractFeatureEntity.class::cast).collect(Collectors.toList());
+        try {
+            daoFactory.getFeatureDAO().initializeParents(entities, HibernateSessionHolder.getSession(connection));
+        } catch (HibernateException he) {
+            throw new NoApplicableCodeException().causedBy(he)
+                    .withMessage("An error occurred while querying parent features!");
+        }
+    }
+
     private Map<String, AbstractFeature> queryFeaturesOfInterest(GetFeatureOfInterestRequest request, Session session)
             throws OwsExceptionReport {
         FeatureQueryHandlerQueryObject queryObject =
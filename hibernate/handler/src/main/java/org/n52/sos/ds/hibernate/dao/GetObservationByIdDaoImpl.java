@@ -60,6 +60,7 @@ import org.n52.sos.ds.hibernate.HibernateSessionHolder;
 import org.n52.sos.ds.hibernate.util.HibernateHelper;
 import org.n52.sos.ds.hibernate.util.observation.HibernateObservationUtilities;
 import org.n52.sos.ds.hibernate.util.observation.OmObservationCreatorContext;
+import org.n52.sos.ds.hibernate.util.observation.OmObservationCreatorPrefetch;
 import org.n52.sos.ds.hibernate.values.series.HibernateChunkSeriesStreamingValue;
 import org.n52.sos.ds.hibernate.values.series.HibernateSeriesStreamingValue;
 import org.n52.svalbard.encode.Encoder;
@@ -215,11 +216,14 @@ public class GetObservationByIdDaoImpl extends AbstractObservationDao
         // get valid featureOfInterest identifier
         List<DatasetEntity> serieses = daoFactory.getSeriesDAO().getSeries(request, session);
         checkMaxNumberOfReturnedSeriesSize(serieses.size());
+        OmObservationCreatorPrefetch prefetch = OmObservationCreatorPrefetch.forDatasets(serieses, session);
         for (DatasetEntity series : serieses) {
             ObservationStream createSosObservationFromSeries =
                     HibernateObservationUtilities.createSosObservationFromSeries(series, request,
-                            getProcedureDescriptionFormat(request.getResponseFormat()), observationCreatorContext,
-                            session);
+                            LocaleHelper.decode(request.getRequestedLanguage(),
+                                    observationCreatorContext.getDefaultLanguage()),
+                            getProcedureDescriptionFormat(request.getResponseFormat()),
+                            observationCreatorContext, prefetch, session);
             OmObservation observationTemplate = createSosObservationFromSeries.next();
             HibernateSeriesStreamingValue streamingValue =
                     new HibernateChunkSeriesStreamingValue(sessionHolder.getConnectionProvider(), daoFactory, request,
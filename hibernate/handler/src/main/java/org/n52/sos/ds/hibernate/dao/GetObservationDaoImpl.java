@@ -66,6 +66,7 @@ import org.n52.sos.ds.hibernate.dao.observation.series.AbstractSeriesDAO;
 import org.n52.sos.ds.hibernate.util.ObservationTimeExtrema;
 import org.n52.sos.ds.hibernate.util.observation.HibernateObservationUtilities;
 import org.n52.sos.ds.hibernate.util.observation.OmObservationCreatorContext;
+import org.n52.sos.ds.hibernate.util.observation.OmObservationCreatorPrefetch;
 import org.n52.sos.ds.hibernate.values.series.HibernateChunkSeriesStreamingValue;
 import org.n52.sos.ds.hibernate.values.series.HibernateSeriesStreamingValue;
 import org.n52.sos.service.profile.ProfileHandler;
@@ -222,9 +223,11 @@ public class GetObservationDaoImpl extends AbstractObservationDao implements org
             // now we're left with the series without matching observations in
             // the check map,
             // add "result" observations for them
+            OmObservationCreatorPrefetch prefetch =
+                    OmObservationCreatorPrefetch.forDatasets(seriesToCheckMap.values(), session);
             for (DatasetEntity series : seriesToCheckMap.values()) {
                 HibernateObservationUtilities.createSosObservationFromSeries(series, request, requestedLocale, pdf,
-                        observationCreatorContext, session).forEachRemaining(result::add);
+                        observationCreatorContext, prefetch, session).forEachRemaining(result::add);
             }
         }
 
@@ -292,11 +295,12 @@ public class GetObservationDaoImpl extends AbstractObservationDao implements org
         List<DatasetEntity> serieses = daoFactory.getSeriesDAO().getSeries(request, features, session);
         checkMaxNumberOfReturnedSeriesSize(serieses.size());
         int maxNumberOfValuesPerSeries = getMaxNumberOfValuesPerSeries(serieses.size());
+        OmObservationCreatorPrefetch prefetch = OmObservationCreatorPrefetch.forDatasets(serieses, session);
         for (DatasetEntity series : serieses) {
             ObservationStream createSosObservationFromSeries =
                     HibernateObservationUtilities.createSosObservationFromSeries(series, request,
                             getRequestedLocale(request), getProcedureDescriptionFormat(request.getResponseFormat()),
-                            observationCreatorContext, session);
+                            observationCreatorContext, prefetch, session);
             OmObservation observationTemplate = createSosObservationFromSeries.next();
             HibernateSeriesStreamingValue streamingValue =
                     new HibernateChunkSeriesStreamingValue(sessionHolder.getConnectionProvider(), daoFactory, request,
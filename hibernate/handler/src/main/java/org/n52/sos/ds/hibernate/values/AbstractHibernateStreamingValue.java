@@ -86,6 +86,8 @@ import org.n52.sos.ds.hibernate.util.observation.ObservationValueCreator;
 import org.n52.sos.ds.hibernate.util.observation.ParameterAdder;
 import org.n52.sos.ds.hibernate.util.observation.RelatedObservationAdder;
 import org.n52.sos.ds.hibernate.util.observation.SpatialFilteringProfileCreator;
+import org.n52.sos.statistics.RequestStage;
+import org.n52.sos.statistics.StageTimer;
 import org.n52.svalbard.util.GmlHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -157,20 +159,25 @@ public abstract class AbstractHibernateStreamingValue extends StreamingValue<Dat
         Map<String, OmObservation> observations = Maps.newHashMap();
         while (hasNext()) {
             DataEntity<?> nextEntity = nextEntity();
-            boolean mergableObservationValue = checkForMergability(nextEntity);
-            OmObservation observation = null;
-            if (observations.containsKey(getDiscriminator(nextEntity)) && mergableObservationValue) {
-                observation = observations.get(getDiscriminator(nextEntity));
-            } else {
-                observation = getObservationTemplate().cloneTemplate();
-                addSpecificValuesToObservation(observation, nextEntity, request.getExtensions());
-                if (!mergableObservationValue && getDiscriminator(nextEntity) == null) {
-                    observations.put(Long.toString(nextEntity.getId()), observation);
+            long start = StageTimer.start();
+            try {
+                boolean mergableObservationValue = checkForMergability(nextEntity);
+                OmObservation observation = null;
+                if (observations.containsKey(getDiscriminator(nextEntity)) && mergableObservationValue) {
+                    observation = observations.get(getDiscriminator(nextEntity));
                 } else {
-                    observations.put(getDiscriminator(nextEntity), observation);
+                    observation = getObservationTemplate().cloneTemplate();
+                    addSpecificValuesToObservation(observation, nextEntity, request.getExtensions());
+                    if (!mergableObservationValue && getDiscriminator(nextEntity) == null) {
+                        observations.put(Long.toString(nextEntity.getId()), observation);
+                    } else {
+                        observations.put(getDiscriminator(nextEntity), observation);
+                    }
                 }
+                mergeValueToObservation(nextEntity, observation, getResponseFormat());
+            } finally {
+                StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
             }
-            mergeValueToObservation(nextEntity, observation, getResponseFormat());
             sessionHolder.getSession().evict(nextEntity);
         }
         return ObservationStream.of(observations.values());
@@ -46,6 +46,8 @@ import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.sos.request.AbstractObservationRequest;
 import org.n52.shetland.util.CollectionHelper;
 import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.statistics.RequestStage;
+import org.n52.sos.statistics.StageTimer;
 
 /**
  * Hibernate series streaming value implementation for chunk results
@@ -120,7 +122,13 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
         try {
             if (hasNext()) {
                 DataEntity<?> resultObject = seriesValuesResult.next();
-                TimeValuePair value = createTimeValuePairFrom(resultObject);
+                long start = StageTimer.start();
+                TimeValuePair value;
+                try {
+                    value = createTimeValuePairFrom(resultObject);
+                } finally {
+                    StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
+                }
                 getSession().evict(resultObject);
                 return value;
             }
@@ -136,10 +144,16 @@ public class HibernateChunkSeriesStreamingValue extends HibernateSeriesStreaming
     public OmObservation next() throws OwsExceptionReport {
         try {
             if (hasNext()) {
-                OmObservation observation = getObservationTemplate().cloneTemplate();
                 DataEntity<?> resultObject = seriesValuesResult.next();
-                addValuesToObservation(resultObject, observation, getResponseFormat());
-                checkForModifications(observation);
+                long start = StageTimer.start();
+                OmObservation observation;
+                try {
+                    observation = getObservationTemplate().cloneTemplate();
+                    addValuesToObservation(resultObject, observation, getResponseFormat());
+                    checkForModifications(observation);
+                } finally {
+                    StageTimer.stop(RequestStage.OBSERVATION_CREATION, start);
+                }
                 getSession().evict(resultObject);
                 return observation;
             }
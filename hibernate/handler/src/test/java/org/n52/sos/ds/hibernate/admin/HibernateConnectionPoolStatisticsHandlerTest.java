@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Optional;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.iceland.ds.ConnectionProviderException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.ConnectionPoolStatistics;
+import org.n52.sos.ds.ConnectionPoolStatisticsProvider;
+import org.n52.sos.ds.hibernate.jdbc.SlowQueryConnectionProvider;
+import org.n52.sos.statistics.SlowQueryLog;
+
+/**
+ * Test the lookup of the connection pool statistics of the session factory.
+ *
+ * @since 5.2.3
+ */
+public class HibernateConnectionPoolStatisticsHandlerTest {
+
+    private final ConnectionPoolStatistics statistics =
+            new ConnectionPoolStatistics("pool", 1, 2, 3, 10, 0, 5L, 0L, 0.5, 2.0);
+
+    private final org.n52.iceland.ds.ConnectionProvider connectionProvider =
+            mock(org.n52.iceland.ds.ConnectionProvider.class);
+
+    private final Session session = mock(Session.class);
+
+    private final StandardServiceRegistry serviceRegistry = mock(StandardServiceRegistry.class);
+
+    private final HibernateConnectionPoolStatisticsHandler handler = new HibernateConnectionPoolStatisticsHandler();
+
+    @Before
+    public void setUp() throws ConnectionProviderException {
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        SessionFactoryOptions options = mock(SessionFactoryOptions.class);
+        when(connectionProvider.getConnection()).thenReturn(session);
+        when(session.getSessionFactory()).thenReturn(sessionFactory);
+        when(sessionFactory.getSessionFactoryOptions()).thenReturn(options);
+        when(options.getServiceRegistry()).thenReturn(serviceRegistry);
+        handler.setConnectionProvider(connectionProvider);
+    }
+
+    @Test
+    public void shouldReturnStatisticsOfPool() throws OwsExceptionReport {
+        when(serviceRegistry.getService(ConnectionProvider.class)).thenReturn(createPool());
+        assertStatistics(handler.getConnectionPoolStatistics());
+        verify(connectionProvider).returnConnection(session);
+    }
+
+    @Test
+    public void shouldReturnStatisticsOfDecoratedPool() throws OwsExceptionReport {
+        when(serviceRegistry.getService(ConnectionProvider.class))
+                .thenReturn(new SlowQueryConnectionProvider(createPool(), new SlowQueryLog()));
+        assertStatistics(handler.getConnectionPoolStatistics());
+    }
+
+    @Test
+    public void shouldReturnEmptyStatisticsForUnsupportedPool() throws OwsExceptionReport {
+        when(serviceRegistry.getService(ConnectionProvider.class)).thenReturn(mock(ConnectionProvider.class));
+        assertThat(handler.getConnectionPoolStatistics().isPresent(), is(false));
+        verify(connectionProvider).returnConnection(session);
+    }
+
+    @Test
+    public void shouldReturnSessionOnError() {
+        when(serviceRegistry.getService(ConnectionProvider.class)).thenThrow(new HibernateException("failed"));
+        try {
+            handler.getConnectionPoolStatistics();
+            throw new AssertionError("OwsExceptionReport expected");
+        } catch (OwsExceptionReport e) {
+            assertThat(e.getCause(), is(instanceOf(HibernateException.class)));
+        }
+        verify(connectionProvider).returnConnection(session);
+    }
+
+    private ConnectionProvider createPool() {
+        ConnectionProvider pool = mock(ConnectionProvider.class,
+                withSettings().extraInterfaces(ConnectionPoolStatisticsProvider.class));
+        when(((ConnectionPoolStatisticsProvider) pool).getConnectionPoolStatistics()).thenReturn(statistics);
+        return pool;
+    }
+
+    private void assertStatistics(Optional<ConnectionPoolStatistics> result) {
+        assertThat(result.isPresent(), is(true));
+        assertThat(result.get(), is(sameInstance(statistics)));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.n52.sos.ds.hibernate.admin.HibernateObservationPartitionManager.Interval;
+
+/**
+ * @since 5.2.3
+ */
+public class HibernateObservationPartitionManagerTest {
+
+    private static final String TABLE = "public.observation";
+
+    private static DateTime utc(int year, int month, int day) {
+        return new DateTime(year, month, day, 0, 0, DateTimeZone.UTC);
+    }
+
+    @Test
+    public void shouldStartMonthlyIntervalAtFirstDayOfMonth() {
+        DateTime time = new DateTime(2020, 2, 17, 13, 45, DateTimeZone.UTC);
+        assertThat(Interval.MONTH.start(time), is(utc(2020, 2, 1)));
+        assertThat(Interval.MONTH.next(utc(2020, 12, 1)), is(utc(2021, 1, 1)));
+        assertThat(Interval.MONTH.format(utc(2020, 2, 1)), is("202002"));
+    }
+
+    @Test
+    public void shouldStartYearlyIntervalAtFirstDayOfYear() {
+        DateTime time = new DateTime(2020, 7, 3, 8, 0, DateTimeZone.UTC);
+        assertThat(Interval.YEAR.start(time), is(utc(2020, 1, 1)));
+        assertThat(Interval.YEAR.next(utc(2020, 1, 1)), is(utc(2021, 1, 1)));
+        assertThat(Interval.YEAR.format(utc(2020, 1, 1)), is("2020"));
+    }
+
+    @Test
+    public void shouldParseOnlyMatchingSuffixes() {
+        assertThat(Interval.MONTH.parse("202002"), is(utc(2020, 2, 1)));
+        assertThat(Interval.MONTH.parse("2020"), is(nullValue()));
+        assertThat(Interval.YEAR.parse("2020"), is(utc(2020, 1, 1)));
+        assertThat(Interval.YEAR.parse("20xx"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldDerivePartitionEndFromName() {
+        assertThat(HibernateObservationPartitionManager.getPartitionEnd(TABLE, TABLE + "_p202012"),
+                is(utc(2021, 1, 1)));
+        assertThat(HibernateObservationPartitionManager.getPartitionEnd(TABLE, TABLE + "_p2019"),
+                is(utc(2020, 1, 1)));
+    }
+
+    @Test
+    public void shouldNotDeriveEndOfDefaultOrForeignPartitions() {
+        assertThat(HibernateObservationPartitionManager.getPartitionEnd(TABLE, TABLE + "_default"),
+                is(nullValue()));
+        assertThat(HibernateObservationPartitionManager.getPartitionEnd(TABLE, "public.other_p202012"),
+                is(nullValue()));
+        assertThat(HibernateObservationPartitionManager.getPartitionEnd(TABLE, TABLE + "_p20201"),
+                is(nullValue()));
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.iceland.i18n.I18NDAORepository;
+import org.n52.series.db.beans.BooleanDataEntity;
+import org.n52.series.db.beans.CategoryEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.FormatEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.PlatformEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.RetentionProgress;
+import org.n52.sos.ds.RetentionProgress.State;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.HibernateTestCase;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+
+/**
+ * Test the chunked purge of deleted observations against the H2 schema.
+ *
+ * @since 5.2.3
+ */
+public class HibernateRetentionPurgeHandlerTest extends HibernateTestCase {
+
+    private static final int OBSERVATIONS = 20;
+
+    private static final int CHUNK_SIZE = 5;
+
+    private DaoFactory daoFactory;
+
+    private List<Long> ids;
+
+    @Before
+    public void setUp() throws OwsExceptionReport {
+        daoFactory = new DaoFactory();
+        daoFactory.setI18NDAORepository(new I18NDAORepository());
+        Session session = getSession();
+        try {
+            HibernateMetadataCache.init(session);
+            ids = createObservations(session);
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldPurgeDeletedObservationsInChunks() throws OwsExceptionReport {
+        List<Long> deleted = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += 2) {
+            deleted.add(ids.get(i));
+        }
+        markDeleted(deleted);
+        HibernateRetentionPurgeHandler handler = createHandler(new HibernateRetentionPurgeHandler());
+        try {
+            handler.purgeDeleted();
+            RetentionProgress progress = handler.getProgress();
+            assertThat(progress.getState(), is(State.COMPLETED));
+            assertThat(progress.getDeleted(), is((long) deleted.size()));
+            assertThat(progress.getChunks(), is((long) OBSERVATIONS / CHUNK_SIZE));
+            assertThat(count(false), is((long) OBSERVATIONS - deleted.size()));
+            assertThat(count(true), is(0L));
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    @Test
+    public void shouldSkipChunksWithoutPurgeableObservations() throws OwsExceptionReport {
+        markDeleted(ids.get(0), ids.get(ids.size() - 1));
+        HibernateRetentionPurgeHandler handler = createHandler(new HibernateRetentionPurgeHandler());
+        try {
+            handler.purgeDeleted();
+            RetentionProgress progress = handler.getProgress();
+            assertThat(progress.getState(), is(State.COMPLETED));
+            assertThat(progress.getDeleted(), is(2L));
+            // the first chunk, one empty chunk and the chunk of the last
+            // observation
+            assertThat(progress.getChunks(), is(3L));
+            assertThat(count(false), is((long) OBSERVATIONS - 2));
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    @Test
+    public void shouldResumeCancelledPurgeAfterLastChunk() throws OwsExceptionReport {
+        markDeleted(ids.subList(1, ids.size()));
+        HibernateRetentionPurgeHandler handler = createHandler(new HibernateRetentionPurgeHandler() {
+            private boolean cancel = true;
+
+            @Override
+            void pause() {
+                if (cancel) {
+                    cancel = false;
+                    cancel();
+                }
+            }
+        });
+        try {
+            handler.purgeDeleted();
+            assertThat(handler.getProgress().getState(), is(State.CANCELLED));
+            assertThat(handler.getProgress().getDeleted(), is((long) CHUNK_SIZE - 1));
+            assertThat(count(true), is((long) OBSERVATIONS - CHUNK_SIZE));
+
+            // the first observation is behind the resume position
+            markDeleted(ids.get(0));
+            handler.purgeDeleted();
+            assertThat(handler.getProgress().getState(), is(State.COMPLETED));
+            assertThat(handler.getProgress().getDeleted(), is((long) OBSERVATIONS - CHUNK_SIZE));
+            assertThat(count(true), is(1L));
+
+            // a completed purge starts from the lowest id again
+            handler.purgeDeleted();
+            assertThat(handler.getProgress().getDeleted(), is(1L));
+            assertThat(count(true), is(0L));
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    @Test
+    public void shouldRejectConcurrentPurge() throws OwsExceptionReport {
+        markDeleted(ids);
+        List<OwsExceptionReport> rejected = new ArrayList<>();
+        HibernateRetentionPurgeHandler handler = createHandler(new HibernateRetentionPurgeHandler() {
+            @Override
+            void pause() {
+                try {
+                    purgeDeleted();
+                } catch (OwsExceptionReport e) {
+                    rejected.add(e);
+                }
+            }
+        });
+        try {
+            handler.purgeDeleted();
+            assertThat(rejected, hasSize(OBSERVATIONS / CHUNK_SIZE));
+            assertThat(handler.getProgress().getState(), is(State.COMPLETED));
+            assertThat(count(true), is(0L));
+        } finally {
+            handler.destroy();
+        }
+    }
+
+    private HibernateRetentionPurgeHandler createHandler(HibernateRetentionPurgeHandler handler) {
+        handler.setDaoFactory(daoFactory);
+        handler.setConnectionProvider(this);
+        handler.setChunkSize(CHUNK_SIZE);
+        handler.setChunkPause(0);
+        handler.init();
+        return handler;
+    }
+
+    private Class<?> getObservationClass() {
+        return daoFactory.getObservationDAO().getObservationFactory().observationClass();
+    }
+
+    private long count(boolean deleted) {
+        Session session = getSession();
+        try {
+            return (Long) session.createCriteria(getObservationClass())
+                    .add(Restrictions.eq(DataEntity.PROPERTY_DELETED, deleted)).setProjection(Projections.rowCount())
+                    .uniqueResult();
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    private void markDeleted(Long... deleted) {
+        markDeleted(Arrays.asList(deleted));
+    }
+
+    private void markDeleted(List<Long> deleted) {
+        Session session = getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            session.createQuery("update " + getObservationClass().getSimpleName() + " set "
+                    + DataEntity.PROPERTY_DELETED + " = true where " + DataEntity.PROPERTY_ID + " in :ids")
+                    .setParameterList("ids", deleted).executeUpdate();
+            transaction.commit();
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    private List<Long> createObservations(Session session) throws OwsExceptionReport {
+        Transaction transaction = session.beginTransaction();
+        try {
+            DatasetEntity dataset = null;
+            List<Long> created = new ArrayList<>();
+            DateTime time = new DateTime(2020, 1, 1, 0, 0);
+            for (int i = 0; i < OBSERVATIONS; i++) {
+                BooleanDataEntity observation = daoFactory.getObservationDAO().getObservationFactory().truth();
+                if (dataset == null) {
+                    dataset = createDataset(session, observation);
+                }
+                observation.setDataset(dataset);
+                observation.setValue(true);
+                observation.setDeleted(false);
+                observation.setSamplingTimeStart(time.plusMinutes(i).toDate());
+                observation.setSamplingTimeEnd(time.plusMinutes(i).toDate());
+                observation.setResultTime(time.plusMinutes(i).toDate());
+                session.save(observation);
+                created.add(observation.getId());
+            }
+            transaction.commit();
+            Collections.sort(created);
+            return created;
+        } catch (RuntimeException | OwsExceptionReport e) {
+            transaction.rollback();
+            throw e;
+        }
+    }
+
+    private DatasetEntity createDataset(Session session, DataEntity<?> observation) throws OwsExceptionReport {
+        FormatEntity format = new FormatEntity();
+        format.setFormat("format");
+        session.save(format);
+        FeatureEntity feature = new FeatureEntity();
+        feature.setIdentifier("feature");
+        feature.setFeatureType(format);
+        session.save(feature);
+        PhenomenonEntity phenomenon = new PhenomenonEntity();
+        phenomenon.setIdentifier("phenomenon");
+        session.save(phenomenon);
+        CategoryEntity category = new CategoryEntity();
+        category.setIdentifier("category");
+        session.save(category);
+        PlatformEntity platform = new PlatformEntity();
+        platform.setIdentifier("platform");
+        session.save(platform);
+        ProcedureEntity procedure = new ProcedureEntity();
+        procedure.setIdentifier("procedure");
+        procedure.setFormat(format);
+        session.save(procedure);
+        OfferingEntity offering = new OfferingEntity();
+        offering.setIdentifier("offering");
+        session.save(offering);
+        DatasetEntity dataset = (DatasetEntity) daoFactory.getSeriesDAO().getDatasetFactory().visit(observation);
+        dataset.setFeature(feature);
+        dataset.setObservableProperty(phenomenon);
+        dataset.setCategory(category);
+        dataset.setPlatform(platform);
+        dataset.setProcedure(procedure);
+        dataset.setOffering(offering);
+        dataset.setDeleted(false);
+        dataset.setPublished(true);
+        session.save(dataset);
+        return dataset;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.admin;
+
+import java.util.Collections;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.iceland.i18n.I18NDAORepository;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.sos.ds.hibernate.HibernateTestCase;
+import org.n52.sos.ds.hibernate.admin.ObservationReferences.Reference;
+import org.n52.sos.ds.hibernate.dao.DaoFactory;
+
+/**
+ * Test the references to observations derived from the mapping against the
+ * H2 schema.
+ *
+ * @since 5.2.3
+ */
+public class ObservationReferencesTest extends HibernateTestCase {
+
+    private Session session;
+
+    private ObservationReferences references;
+
+    @Before
+    public void setUp() throws Exception {
+        DaoFactory daoFactory = new DaoFactory();
+        daoFactory.setI18NDAORepository(new I18NDAORepository());
+        session = getSession();
+        references = ObservationReferences.of(session.getSessionFactory().unwrap(SessionFactoryImplementor.class),
+                daoFactory.getObservationDAO().getObservationFactory().observationClass());
+    }
+
+    @After
+    public void tearDown() {
+        returnSession(session);
+    }
+
+    @Test
+    public void shouldFindParentObservationColumn() {
+        assertThat(references.getParent(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldReleaseFirstAndLastObservationOfDatasets() {
+        AbstractEntityPersister dataset = (AbstractEntityPersister) session.getSessionFactory()
+                .unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersister(DatasetEntity.class);
+        assertThat(references.getLinks(), hasItem(new Reference(dataset.getTableName(),
+                dataset.getPropertyColumnNames("firstObservation")[0])));
+        assertThat(references.getLinks(), hasItem(new Reference(dataset.getTableName(),
+                dataset.getPropertyColumnNames("lastObservation")[0])));
+    }
+
+    @Test
+    public void shouldNotDeleteFromObservationTable() {
+        for (Reference reference : references.getDependents()) {
+            assertThat(reference.getTable(), is(not(references.getTable())));
+        }
+    }
+
+    @Test
+    public void shouldExecuteAgainstSchema() {
+        Transaction transaction = session.beginTransaction();
+        try {
+            assertThat(references.release(session, ":ids", Collections.singleton(-1L)), is(0));
+            assertThat(references.release(session,
+                    "select " + references.getId() + " from " + references.getTable(), null),
+                    is(greaterThanOrEqualTo(0)));
+        } finally {
+            transaction.rollback();
+        }
+    }
+
+    @Test
+    public void shouldSelectReferencedRowsViaElementTable() {
+        Reference parameter = new Reference("parameter", "fk_observation_id");
+        Reference quantity = new Reference("parameter_quantity", "fk_parameter_id", parameter, "parameter_id");
+        assertThat(parameter.in("1, 2"), is("fk_observation_id in (1, 2)"));
+        assertThat(quantity.in("1, 2"), is("fk_parameter_id in (select parameter_id from parameter where "
+                + "fk_observation_id in (1, 2))"));
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.n52.iceland.i18n.I18NDAORepository;
+import org.n52.series.db.beans.BooleanDataEntity;
+import org.n52.series.db.beans.CategoryEntity;
+import org.n52.series.db.beans.DataEntity;
+import org.n52.series.db.beans.DatasetEntity;
+import org.n52.series.db.beans.FeatureEntity;
+import org.n52.series.db.beans.FormatEntity;
+import org.n52.series.db.beans.OfferingEntity;
+import org.n52.series.db.beans.PhenomenonEntity;
+import org.n52.series.db.beans.PlatformEntity;
+import org.n52.series.db.beans.ProcedureEntity;
+import org.n52.shetland.ogc.gml.ReferenceType;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityRequest;
+import org.n52.shetland.ogc.sos.gda.GetDataAvailabilityResponse.DataAvailability;
+import org.n52.sos.ds.hibernate.H2Configuration;
+import org.n52.sos.ds.hibernate.HibernateTestCase;
+import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
+
+/**
+ * Test the batched result time query of {@link GetDataAvailabilityDaoImpl}
+ * against the single {@link DataAvailability} query.
+ *
+ * @since 5.2.3
+ */
+public class GetDataAvailabilityDaoImplTest extends HibernateTestCase {
+
+    private static final String PROCEDURE_1 = "procedure-1";
+
+    private static final String PROCEDURE_2 = "procedure-2";
+
+    private static final String FEATURE_1 = "feature-1";
+
+    private static final String FEATURE_2 = "feature-2";
+
+    private static final String PHENOMENON = "phenomenon";
+
+    private static final String OFFERING = "offering";
+
+    private static final DateTime TIME = new DateTime(2020, 1, 1, 0, 0);
+
+    private DaoFactory daoFactory;
+
+    private GetDataAvailabilityDaoImpl dao;
+
+    @Before
+    public void setUp() throws OwsExceptionReport {
+        daoFactory = new DaoFactory();
+        daoFactory.setI18NDAORepository(new I18NDAORepository());
+        dao = new GetDataAvailabilityDaoImpl();
+        dao.setConnectionProvider(this);
+        Session session = getSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            HibernateMetadataCache.init(session);
+            FormatEntity format = new FormatEntity();
+            format.setFormat("format");
+            session.save(format);
+            PhenomenonEntity phenomenon = new PhenomenonEntity();
+            phenomenon.setIdentifier(PHENOMENON);
+            session.save(phenomenon);
+            CategoryEntity category = new CategoryEntity();
+            category.setIdentifier("category");
+            session.save(category);
+            PlatformEntity platform = new PlatformEntity();
+            platform.setIdentifier("platform");
+            session.save(platform);
+            OfferingEntity offering = new OfferingEntity();
+            offering.setIdentifier(OFFERING);
+            session.save(offering);
+
+            DatasetEntity first = createDataset(session, format, PROCEDURE_1, FEATURE_1, phenomenon, category,
+                    platform, offering);
+            // the same result time for two observations and a deleted one
+            createObservation(session, first, TIME, TIME.plusHours(1), false);
+            createObservation(session, first, TIME.plusMinutes(1), TIME.plusHours(1), false);
+            createObservation(session, first, TIME.plusMinutes(2), TIME, false);
+            createObservation(session, first, TIME.plusMinutes(3), TIME.plusHours(2), true);
+
+            DatasetEntity second = createDataset(session, format, PROCEDURE_2, FEATURE_2, phenomenon, category,
+                    platform, offering);
+            createObservation(session, second, TIME, TIME.plusHours(3), false);
+            transaction.commit();
+        } catch (RuntimeException | OwsExceptionReport e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        H2Configuration.truncate();
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        H2Configuration.recreate();
+    }
+
+    @Test
+    public void shouldSetDistinctOrderedResultTimes() throws OwsExceptionReport {
+        DataAvailability first = dataAvailability(PROCEDURE_1, FEATURE_1);
+        DataAvailability second = dataAvailability(PROCEDURE_2, FEATURE_2);
+        // procedure and feature exist but not in this combination
+        DataAvailability mixed = dataAvailability(PROCEDURE_1, FEATURE_2);
+        Session session = getSession();
+        try {
+            dao.setResultTimes(Arrays.asList(first, second, mixed), new GetDataAvailabilityRequest(), session);
+        } finally {
+            returnSession(session);
+        }
+        assertThat(first.getResultTimes(), contains(new TimeInstant(TIME.toDate()),
+                new TimeInstant(TIME.plusHours(1).toDate())));
+        assertThat(second.getResultTimes(), contains(new TimeInstant(TIME.plusHours(3).toDate())));
+        assertThat(mixed.getResultTimes(), is(empty()));
+    }
+
+    @Test
+    public void shouldSetTheSameResultTimesAsTheSingleQuery() throws OwsExceptionReport {
+        GetDataAvailabilityRequest request = new GetDataAvailabilityRequest();
+        List<DataAvailability> dataAvailabilities = Arrays.asList(dataAvailability(PROCEDURE_1, FEATURE_1),
+                dataAvailability(PROCEDURE_2, FEATURE_2), dataAvailability(PROCEDURE_2, FEATURE_1));
+        Session session = getSession();
+        try {
+            dao.setResultTimes(dataAvailabilities, request, session);
+            for (DataAvailability dataAvailability : dataAvailabilities) {
+                assertThat(dataAvailability.getResultTimes(),
+                        is(dao.getResultTimes(dataAvailability, request, session)));
+            }
+        } finally {
+            returnSession(session);
+        }
+    }
+
+    @Test
+    public void shouldQueryEachBatchOnce() throws OwsExceptionReport {
+        List<DataAvailability> dataAvailabilities = new ArrayList<>();
+        // one more than fits into a single batch
+        for (int i = 0; i <= 500; i++) {
+            dataAvailabilities.add(dataAvailability(i % 2 == 0 ? PROCEDURE_1 : PROCEDURE_2,
+                    i % 2 == 0 ? FEATURE_1 : FEATURE_2));
+        }
+        Session session = getSession();
+        Statistics statistics = session.getSessionFactory().getStatistics();
+        boolean enabled = statistics.isStatisticsEnabled();
+        try {
+            statistics.setStatisticsEnabled(true);
+            statistics.clear();
+            dao.setResultTimes(dataAvailabilities, new GetDataAvailabilityRequest(), session);
+            assertThat(statistics.getPrepareStatementCount(), is(2L));
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+            returnSession(session);
+        }
+        for (int i = 0; i < dataAvailabilities.size(); i++) {
+            assertThat(dataAvailabilities.get(i).getResultTimes(), hasSize(i % 2 == 0 ? 2 : 1));
+        }
+    }
+
+    @Test
+    public void shouldUseOwnSessionWithoutConnection() throws OwsExceptionReport {
+        DataAvailability dataAvailability = dataAvailability(PROCEDURE_2, FEATURE_2);
+        dao.setResultTimes(Collections.singletonList(dataAvailability), new GetDataAvailabilityRequest(), null);
+        assertThat(dataAvailability.getResultTimes(), contains(new TimeInstant(TIME.plusHours(3).toDate())));
+    }
+
+    private static DataAvailability dataAvailability(String procedure, String feature) {
+        return new DataAvailability(new ReferenceType(procedure), new ReferenceType(PHENOMENON),
+                new ReferenceType(feature), new ReferenceType(OFFERING), new TimePeriod(TIME, TIME.plusDays(1)));
+    }
+
+    private DatasetEntity createDataset(Session session, FormatEntity format, String procedureIdentifier,
+            String featureIdentifier, PhenomenonEntity phenomenon, CategoryEntity category, PlatformEntity platform,
+            OfferingEntity offering) throws OwsExceptionReport {
+        FeatureEntity feature = new FeatureEntity();
+        feature.setIdentifier(featureIdentifier);
+        feature.setFeatureType(format);
+        session.save(feature);
+        ProcedureEntity procedure = new ProcedureEntity();
+        procedure.setIdentifier(procedureIdentifier);
+        procedure.setFormat(format);
+        session.save(procedure);
+        DataEntity<?> observation = daoFactory.getObservationDAO().getObservationFactory().truth();
+        DatasetEntity dataset = (DatasetEntity) daoFactory.getSeriesDAO().getDatasetFactory().visit(observation);
+        dataset.setFeature(feature);
+        dataset.setObservableProperty(phenomenon);
+        dataset.setCategory(category);
+        dataset.setPlatform(platform);
+        dataset.setProcedure(procedure);
+        dataset.setOffering(offering);
+        dataset.setDeleted(false);
+        dataset.setPublished(true);
+        session.save(dataset);
+        return dataset;
+    }
+
+    private void createObservation(Session session, DatasetEntity dataset, DateTime phenomenonTime,
+            DateTime resultTime, boolean deleted) throws OwsExceptionReport {
+        BooleanDataEntity observation = daoFactory.getObservationDAO().getObservationFactory().truth();
+        observation.setDataset(dataset);
+        observation.setValue(true);
+        observation.setDeleted(deleted);
+        observation.setSamplingTimeStart(phenomenonTime.toDate());
+        observation.setSamplingTimeEnd(phenomenonTime.toDate());
+        observation.setResultTime(resultTime.toDate());
+        session.save(observation);
+    }
+}
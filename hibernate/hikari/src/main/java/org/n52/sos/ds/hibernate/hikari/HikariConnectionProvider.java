@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.hikari;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.ConnectionProviderInitiator;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+import org.n52.sos.ds.ConnectionPoolStatistics;
+import org.n52.sos.ds.ConnectionPoolStatisticsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Hibernate {@link ConnectionProvider} backed by a HikariCP pool. The JDBC
+ * connection properties are taken from the {@code hibernate.connection.*}
+ * settings, every {@code hibernate.hikari.*} setting is passed to the
+ * {@link HikariConfig} with the prefix removed. In addition to the statistics
+ * of the pool the time to acquire a connection is recorded.
+ *
+ * @since 5.2.3
+ */
+public class HikariConnectionProvider
+        implements ConnectionProvider, Configurable, Stoppable, ConnectionPoolStatisticsProvider {
+
+    public static final String HIKARI_PREFIX = "hibernate.hikari.";
+
+    private static final String DEFAULT_POOL_NAME = "52n-sos";
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HikariConnectionProvider.class);
+
+    private final LongAdder acquired = new LongAdder();
+
+    private final LongAdder acquireTime = new LongAdder();
+
+    private final AtomicLong acquireTimeMax = new AtomicLong();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private transient HikariDataSource dataSource;
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        try {
+            LOGGER.debug("Configuring HikariCP connection pool");
+            HikariConfig config = new HikariConfig(toHikariProperties(configurationValues));
+            if (config.getPoolName() == null) {
+                config.setPoolName(DEFAULT_POOL_NAME);
+            }
+            this.dataSource = new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            throw new HibernateException("Could not configure the HikariCP connection pool", e);
+        }
+    }
+
+    private Properties toHikariProperties(Map<?, ?> configurationValues) {
+        Properties properties = new Properties();
+        copy(configurationValues, AvailableSettings.DRIVER, "driverClassName", properties);
+        copy(configurationValues, AvailableSettings.URL, "jdbcUrl", properties);
+        copy(configurationValues, AvailableSettings.USER, "username", properties);
+        copy(configurationValues, AvailableSettings.PASS, "password", properties);
+        copy(configurationValues, AvailableSettings.AUTOCOMMIT, "autoCommit", properties);
+        Integer isolation = ConnectionProviderInitiator.extractIsolation(configurationValues);
+        if (isolation != null) {
+            properties.put("transactionIsolation", ConnectionProviderInitiator.toIsolationNiceName(isolation));
+        }
+        for (Map.Entry<?, ?> entry : configurationValues.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (key.startsWith(HIKARI_PREFIX) && entry.getValue() != null) {
+                properties.put(key.substring(HIKARI_PREFIX.length()), entry.getValue().toString());
+            }
+        }
+        return properties;
+    }
+
+    private void copy(Map<?, ?> configurationValues, String key, String hikariKey, Properties properties) {
+        Object value = configurationValues.get(key);
+        if (value != null) {
+            properties.put(hikariKey, value.toString());
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            Connection connection = dataSource.getConnection();
+            long time = System.nanoTime() - start;
+            acquired.increment();
+            acquireTime.add(time);
+            acquireTimeMax.accumulateAndGet(time, Math::max);
+            return connection;
+        } catch (SQLTransientConnectionException e) {
+            timeouts.increment();
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        long count = acquired.sum();
+        double mean = count == 0 ? 0 : toMillis(acquireTime.sum()) / count;
+        return new ConnectionPoolStatistics(dataSource.getPoolName(), pool.getActiveConnections(),
+                pool.getIdleConnections(), pool.getTotalConnections(), dataSource.getMaximumPoolSize(),
+                pool.getThreadsAwaitingConnection(), count, timeouts.sum(), mean, toMillis(acquireTimeMax.get()));
+    }
+
+    private double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || HikariConnectionProvider.class.isAssignableFrom(unwrapType)
+                || DataSource.class.equals(unwrapType)
+                || HikariDataSource.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (ConnectionProvider.class.equals(unwrapType)
+                || HikariConnectionProvider.class.isAssignableFrom(unwrapType)) {
+            return (T) this;
+        } else if (isUnwrappableAs(unwrapType)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            LOGGER.debug("Closing HikariCP connection pool");
+            dataSource.close();
+        }
+    }
+}
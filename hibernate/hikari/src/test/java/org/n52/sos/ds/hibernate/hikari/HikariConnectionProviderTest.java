@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.hikari;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.junit.After;
+import org.junit.Test;
+import org.n52.sos.ds.ConnectionPoolStatistics;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Test the configuration and the acquire statistics of the
+ * {@link HikariConnectionProvider} with an in-memory H2 database.
+ *
+ * @since 5.2.3
+ */
+public class HikariConnectionProviderTest {
+
+    private static final int MAXIMUM_POOL_SIZE = 2;
+
+    private static final long CONNECTION_TIMEOUT = 250L;
+
+    private final HikariConnectionProvider provider = new HikariConnectionProvider();
+
+    @After
+    public void stop() {
+        provider.stop();
+    }
+
+    @Test
+    public void shouldPassHikariProperties() {
+        Map<String, Object> configuration = configuration();
+        configuration.put(HikariConnectionProvider.HIKARI_PREFIX + "poolName", "test-pool");
+        provider.configure(configuration);
+        HikariDataSource dataSource = provider.unwrap(HikariDataSource.class);
+        assertThat(dataSource.getJdbcUrl(), is(configuration.get(AvailableSettings.URL)));
+        assertThat(dataSource.getUsername(), is("sa"));
+        assertThat(dataSource.getMaximumPoolSize(), is(MAXIMUM_POOL_SIZE));
+        assertThat(dataSource.getConnectionTimeout(), is(CONNECTION_TIMEOUT));
+        assertThat(dataSource.getPoolName(), is("test-pool"));
+    }
+
+    @Test
+    public void shouldUseDefaultPoolName() {
+        provider.configure(configuration());
+        assertThat(provider.getConnectionPoolStatistics().getPoolName(), is("52n-sos"));
+    }
+
+    @Test
+    public void shouldRecordAcquiredConnections() throws SQLException {
+        provider.configure(configuration());
+        Connection first = provider.getConnection();
+        Connection second = provider.getConnection();
+        ConnectionPoolStatistics statistics = provider.getConnectionPoolStatistics();
+        assertThat(statistics.getAcquired(), is(2L));
+        assertThat(statistics.getTimeouts(), is(0L));
+        assertThat(statistics.getActive(), is(2));
+        assertThat(statistics.getTotal(), is(2));
+        assertThat(statistics.getMaximum(), is(MAXIMUM_POOL_SIZE));
+        assertThat(statistics.getAcquireTimeMax(), is(greaterThanOrEqualTo(statistics.getAcquireTimeMean())));
+        provider.closeConnection(first);
+        provider.closeConnection(second);
+        statistics = provider.getConnectionPoolStatistics();
+        assertThat(statistics.getActive(), is(0));
+        assertThat(statistics.getIdle(), is(2));
+    }
+
+    @Test
+    public void shouldRecordTimeouts() throws SQLException {
+        provider.configure(configuration());
+        Connection first = provider.getConnection();
+        Connection second = provider.getConnection();
+        try {
+            provider.getConnection().close();
+            throw new AssertionError("SQLTransientConnectionException expected");
+        } catch (SQLTransientConnectionException e) {
+            // the pool is exhausted
+        } finally {
+            provider.closeConnection(first);
+            provider.closeConnection(second);
+        }
+        ConnectionPoolStatistics statistics = provider.getConnectionPoolStatistics();
+        assertThat(statistics.getAcquired(), is(2L));
+        assertThat(statistics.getTimeouts(), is(1L));
+    }
+
+    @Test
+    public void shouldUnwrapProviderAndDataSource() {
+        provider.configure(configuration());
+        assertThat(provider.isUnwrappableAs(ConnectionProvider.class), is(true));
+        assertThat(provider.isUnwrappableAs(DataSource.class), is(true));
+        assertThat(provider.isUnwrappableAs(String.class), is(false));
+        assertThat(provider.unwrap(ConnectionProvider.class), is(sameInstance(provider)));
+        assertThat(provider.unwrap(DataSource.class), is(sameInstance(provider.unwrap(HikariDataSource.class))));
+    }
+
+    @Test(expected = UnknownUnwrapTypeException.class)
+    public void shouldRejectUnknownUnwrapType() {
+        provider.configure(configuration());
+        provider.unwrap(String.class);
+    }
+
+    @Test(expected = HibernateException.class)
+    public void shouldFailOnInvalidConfiguration() {
+        Map<String, Object> configuration = configuration();
+        configuration.put(AvailableSettings.URL, "jdbc:unknown:test");
+        provider.configure(configuration);
+    }
+
+    private Map<String, Object> configuration() {
+        Map<String, Object> configuration = new HashMap<>();
+        configuration.put(AvailableSettings.DRIVER, "org.h2.Driver");
+        configuration.put(AvailableSettings.URL, "jdbc:h2:mem:hikari;DB_CLOSE_DELAY=-1");
+        configuration.put(AvailableSettings.USER, "sa");
+        configuration.put(AvailableSettings.PASS, "");
+        configuration.put(HikariConnectionProvider.HIKARI_PREFIX + "maximumPoolSize", MAXIMUM_POOL_SIZE);
+        configuration.put(HikariConnectionProvider.HIKARI_PREFIX + "connectionTimeout", CONNECTION_TIMEOUT);
+        return configuration;
+    }
+}
@@ -55,6 +55,7 @@ import org.n52.sos.ds.HibernateDatasourceConstants;
 //import org.n52.sos.ds.hibernate.type.IsoTimeStringType;
 //import org.n52.sos.ds.hibernate.type.UtcTimestampType;
 //import org.n52.sos.ds.hibernate.util.HibernateConstants;
+import org.n52.sos.ds.hibernate.jdbc.SlowQueryConnectionProviderInitiator;
 import org.n52.sos.ds.hibernate.util.HibernateMetadataCache;
 import org.n52.sos.service.DriverCleanupListener;
 
@@ -99,7 +100,10 @@ public abstract class UnspecifiedSessionFactoryProvider
                 return null;
             }
             Session session = sessionFactory.openSession();
-            session.setCacheMode(CacheMode.IGNORE);
+            // the second-level cache is only enabled for the reference entities
+            session.setCacheMode(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()
+                    ? CacheMode.NORMAL
+                    : CacheMode.IGNORE);
             session.setHibernateFlushMode(FlushMode.COMMIT);
             return session;
         } catch (HibernateException he) {
@@ -168,8 +172,9 @@ public abstract class UnspecifiedSessionFactoryProvider
              * queried in defined time zone
              */
 //            registerTimestampMapping(configuration, properties);
-            ServiceRegistry serviceRegistry =
-                    new StandardServiceRegistryBuilder().applySettings(configuration.getProperties()).build();
+            ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                    .addInitiator(SlowQueryConnectionProviderInitiator.INSTANCE)
+                    .applySettings(configuration.getProperties()).build();
             UnspecifiedSessionFactoryProvider.sessionFactory = configuration.buildSessionFactory(serviceRegistry);
             Session s = UnspecifiedSessionFactoryProvider.sessionFactory.openSession();
             try {
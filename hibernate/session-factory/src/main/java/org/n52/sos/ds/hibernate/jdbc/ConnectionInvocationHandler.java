@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import org.n52.sos.statistics.SlowQueryLog;
+
+/**
+ * Decorates the statements created by a {@link Connection}.
+ *
+ * @since 5.2.3
+ */
+class ConnectionInvocationHandler implements InvocationHandler {
+
+    private final Connection connection;
+
+    private final SlowQueryLog log;
+
+    ConnectionInvocationHandler(Connection connection, SlowQueryLog log) {
+        this.connection = connection;
+        this.log = log;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = forward(connection, method, args);
+        switch (method.getName()) {
+            case "createStatement":
+                return decorate(Statement.class, (Statement) result, null);
+            case "prepareStatement":
+                return decorate(PreparedStatement.class, (Statement) result, (String) args[0]);
+            case "prepareCall":
+                return decorate(CallableStatement.class, (Statement) result, (String) args[0]);
+            default:
+                return result;
+        }
+    }
+
+    private Object decorate(Class<? extends Statement> type, Statement statement, String sql) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type },
+                new StatementInvocationHandler(statement, sql, log));
+    }
+
+    static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
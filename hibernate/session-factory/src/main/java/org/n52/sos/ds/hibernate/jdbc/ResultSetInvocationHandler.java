@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+
+/**
+ * Counts the rows read from the {@link ResultSet} of a slow statement.
+ *
+ * @since 5.2.3
+ */
+class ResultSetInvocationHandler implements InvocationHandler {
+
+    private final ResultSet resultSet;
+
+    private final StatementInvocationHandler statement;
+
+    ResultSetInvocationHandler(ResultSet resultSet, StatementInvocationHandler statement) {
+        this.resultSet = resultSet;
+        this.statement = statement;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = ConnectionInvocationHandler.forward(resultSet, method, args);
+        switch (method.getName()) {
+            case "next":
+                if (Boolean.TRUE.equals(result)) {
+                    statement.addRow();
+                }
+                break;
+            case "close":
+                statement.finish();
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+}
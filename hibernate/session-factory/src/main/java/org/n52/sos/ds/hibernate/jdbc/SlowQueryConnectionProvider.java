@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+import org.n52.sos.statistics.SlowQueryLog;
+
+/**
+ * {@link ConnectionProvider} that decorates the connections of another
+ * provider to record slow statements in the {@link SlowQueryLog}. Connections
+ * are only decorated while the log is enabled.
+ *
+ * @since 5.2.3
+ */
+public class SlowQueryConnectionProvider
+        implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ConnectionProvider delegate;
+
+    private final transient SlowQueryLog log;
+
+    public SlowQueryConnectionProvider(ConnectionProvider delegate, SlowQueryLog log) {
+        this.delegate = delegate;
+        this.log = log;
+    }
+
+    public ConnectionProvider getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = delegate.getConnection();
+        if (!log.isEnabled()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                new ConnectionInvocationHandler(connection, log));
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        if (Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionInvocationHandler) {
+            delegate.closeConnection(((ConnectionInvocationHandler) Proxy.getInvocationHandler(connection))
+                    .getConnection());
+        } else {
+            delegate.closeConnection(connection);
+        }
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return delegate.supportsAggressiveRelease();
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || delegate.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return unwrapType.cast(this);
+        }
+        return delegate.unwrap(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void configure(Map configurationValues) {
+        if (delegate instanceof Configurable) {
+            ((Configurable) delegate).configure(configurationValues);
+        }
+    }
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        if (delegate instanceof ServiceRegistryAwareService) {
+            ((ServiceRegistryAwareService) delegate).injectServices(serviceRegistry);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (delegate instanceof Stoppable) {
+            ((Stoppable) delegate).stop();
+        }
+    }
+
+    /**
+     * Get the provider that is decorated by a {@code SlowQueryConnectionProvider}.
+     *
+     * @param provider
+     *            the provider
+     * @return the decorated provider or the provider itself
+     */
+    public static ConnectionProvider undecorate(ConnectionProvider provider) {
+        return provider instanceof SlowQueryConnectionProvider
+                ? ((SlowQueryConnectionProvider) provider).getDelegate()
+                : provider;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.jdbc;
+
+import java.util.Map;
+
+import org.hibernate.boot.registry.StandardServiceInitiator;
+import org.hibernate.engine.jdbc.connections.internal.ConnectionProviderInitiator;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.n52.sos.statistics.SlowQueryLog;
+
+/**
+ * Replaces the standard {@link ConnectionProviderInitiator} to decorate the
+ * configured connection provider with a {@link SlowQueryConnectionProvider}.
+ * Providers of a JNDI datasource depend on services injected by annotation and
+ * are not decorated.
+ *
+ * @since 5.2.3
+ */
+public final class SlowQueryConnectionProviderInitiator implements StandardServiceInitiator<ConnectionProvider> {
+
+    public static final SlowQueryConnectionProviderInitiator INSTANCE = new SlowQueryConnectionProviderInitiator();
+
+    private SlowQueryConnectionProviderInitiator() {
+    }
+
+    @Override
+    public Class<ConnectionProvider> getServiceInitiated() {
+        return ConnectionProvider.class;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public ConnectionProvider initiateService(Map configurationValues, ServiceRegistryImplementor registry) {
+        ConnectionProvider provider = ConnectionProviderInitiator.INSTANCE.initiateService(configurationValues,
+                registry);
+        if (provider == null || provider instanceof DatasourceConnectionProviderImpl) {
+            return provider;
+        }
+        return new SlowQueryConnectionProvider(provider, SlowQueryLog.getInstance());
+    }
+}
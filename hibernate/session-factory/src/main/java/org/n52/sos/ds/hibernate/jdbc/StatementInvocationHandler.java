@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.n52.sos.statistics.SlowQuery;
+import org.n52.sos.statistics.SlowQueryLog;
+import org.n52.sos.statistics.StageTimer;
+
+/**
+ * Times the executions of a {@link Statement} and records the slow ones in the
+ * {@link SlowQueryLog}. Only the types of the bound parameters are captured,
+ * never their values, so that statements that differ only in their values
+ * share the same shape. The rows of a query are counted until its result set
+ * or the statement is closed.
+ *
+ * @since 5.2.3
+ */
+class StatementInvocationHandler implements InvocationHandler {
+
+    private static final String PACKAGE = StatementInvocationHandler.class.getPackage().getName() + ".";
+
+    private static final String SET = "set";
+
+    private static final String NULL = "Null";
+
+    private final Statement statement;
+
+    private final SlowQueryLog log;
+
+    private final List<String> parameters = new ArrayList<>();
+
+    private String sql;
+
+    private SlowQuery pending;
+
+    private long rows;
+
+    StatementInvocationHandler(Statement statement, String sql, SlowQueryLog log) {
+        this.statement = statement;
+        this.sql = sql;
+        this.log = log;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.startsWith("execute")) {
+            return execute(method, args);
+        }
+        Object result = ConnectionInvocationHandler.forward(statement, method, args);
+        switch (name) {
+            case "addBatch":
+                if (args != null && args.length == 1) {
+                    sql = (String) args[0];
+                }
+                break;
+            case "clearParameters":
+                parameters.clear();
+                break;
+            case "getResultSet":
+                return pending == null ? result : count((ResultSet) result);
+            case "close":
+                finish();
+                break;
+            default:
+                if (name.startsWith(SET) && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bind((Integer) args[0], name, args[1]);
+                }
+                break;
+        }
+        return result;
+    }
+
+    void addRow() {
+        rows++;
+    }
+
+    void finish() {
+        if (pending != null) {
+            log.record(pending.withRows(rows));
+            pending = null;
+        }
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        finish();
+        if (args != null && args.length > 0 && args[0] instanceof String) {
+            sql = (String) args[0];
+        }
+        long time = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Object result = ConnectionInvocationHandler.forward(statement, method, args);
+        long duration = System.nanoTime() - start;
+        if (!log.isSlow(duration)) {
+            return result;
+        }
+        StageTimer timer = StageTimer.current().orElse(null);
+        SlowQuery query = new SlowQuery(time, duration, sql, shape(), -1, origin(),
+                timer == null ? null : timer.getOperation(), timer == null ? 0 : timer.getId());
+        if (result instanceof ResultSet) {
+            rows = 0;
+            pending = query;
+            return count((ResultSet) result);
+        } else if (result instanceof Number) {
+            log.record(query.withRows(((Number) result).longValue()));
+        } else if (result instanceof int[]) {
+            log.record(query.withRows(sum((int[]) result)));
+        } else if (result instanceof long[]) {
+            log.record(query.withRows(sum((long[]) result)));
+        } else if (Boolean.TRUE.equals(result)) {
+            rows = 0;
+            pending = query;
+        } else {
+            log.record(query);
+        }
+        return result;
+    }
+
+    private Object count(ResultSet resultSet) {
+        if (resultSet == null) {
+            return null;
+        }
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+                new ResultSetInvocationHandler(resultSet, this));
+    }
+
+    private void bind(int index, String method, Object value) {
+        String type;
+        if (method.equals("setNull")) {
+            type = NULL;
+        } else if (method.equals("setObject")) {
+            type = value == null ? NULL : value.getClass().getSimpleName();
+        } else {
+            type = method.substring(SET.length());
+        }
+        while (parameters.size() < index) {
+            parameters.add(null);
+        }
+        parameters.set(index - 1, type);
+    }
+
+    /**
+     * @return the parameter types, runs of the same type (e.g. the expanded
+     *         values of an {@code IN} list) collapsed into a single entry
+     */
+    private List<String> shape() {
+        List<String> shape = new ArrayList<>();
+        int i = 0;
+        while (i < parameters.size()) {
+            String type = parameters.get(i);
+            int n = 1;
+            while (i + n < parameters.size() && Objects.equals(type, parameters.get(i + n))) {
+                n++;
+            }
+            shape.add(n == 1 ? String.valueOf(type) : String.format("%s x %d", type, n));
+            i += n;
+        }
+        return shape;
+    }
+
+    private static long sum(int[] counts) {
+        long sum = 0;
+        for (int count : counts) {
+            sum += Math.max(count, 0);
+        }
+        return sum;
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (long count : counts) {
+            sum += Math.max(count, 0);
+        }
+        return sum;
+    }
+
+    /**
+     * @return the first DAO method in the current stack, or else the first
+     *         method of the service outside of this package
+     */
+    private static String origin() {
+        String fallback = null;
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith("org.n52.") && !className.startsWith(PACKAGE)) {
+                String origin = String.format("%s.%s:%d", className, element.getMethodName(),
+                        element.getLineNumber());
+                if (className.contains(".dao.")) {
+                    return origin;
+                }
+                if (fallback == null) {
+                    fallback = origin;
+                }
+            }
+        }
+        return fallback;
+    }
+}
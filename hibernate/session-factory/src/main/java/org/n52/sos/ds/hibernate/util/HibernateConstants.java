@@ -94,6 +94,14 @@ public interface HibernateConstants {
 
     String C3P0_PREFERRED_TEST_QUERY = "hibernate.c3p0.preferredTestQuery";
 
+    /*
+     * Default: 0
+     *
+     * The size of c3p0's per-connection PreparedStatement cache. Zero means
+     * statement caching is turned off.
+     */
+    String C3P0_MAX_STATEMENTS_PER_CONNECTION = "hibernate.c3p0.maxStatementsPerConnection";
+
     /*
      * Default: 0
      *
@@ -152,8 +160,49 @@ public interface HibernateConstants {
      */
     String C3P0_PRIVILEGE_SPAWNED_THREAD = "hibernate.c3p0.privilegeSpawnedThreads";
 
+    String HIKARI_MIN_IDLE = "hibernate.hikari.minimumIdle";
+
+    String HIKARI_MAX_SIZE = "hibernate.hikari.maximumPoolSize";
+
+    String HIKARI_POOL_NAME = "hibernate.hikari.poolName";
+
+    /*
+     * Properties with this prefix are passed to the JDBC driver by HikariCP.
+     */
+    String HIKARI_DATASOURCE_PREFIX = "hibernate.hikari.dataSource.";
+
+    /*
+     * Properties with this prefix are passed to the JDBC driver by the
+     * Hibernate connection providers.
+     */
+    String CONNECTION_PREFIX = AvailableSettings.CONNECTION_PREFIX + ".";
+
     String JDBC_BATCH_SIZE = AvailableSettings.STATEMENT_BATCH_SIZE;
 
+    String QUERY_PLAN_CACHE_MAX_SIZE = AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE;
+
+    String GENERATE_STATISTICS = AvailableSettings.GENERATE_STATISTICS;
+
+    String USE_SECOND_LEVEL_CACHE = AvailableSettings.USE_SECOND_LEVEL_CACHE;
+
+    String USE_QUERY_CACHE = AvailableSettings.USE_QUERY_CACHE;
+
+    String CACHE_REGION_FACTORY = AvailableSettings.CACHE_REGION_FACTORY;
+
+    String CACHE_REGION_FACTORY_JCACHE = "jcache";
+
+    String JCACHE_PROVIDER = "hibernate.javax.cache.provider";
+
+    String JCACHE_PROVIDER_CAFFEINE = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+    /*
+     * Default: create-warn
+     *
+     * How to handle a cache region that is not configured in the JCache
+     * provider: fail, create-warn or create.
+     */
+    String JCACHE_MISSING_CACHE_STRATEGY = "hibernate.javax.cache.missing_cache_strategy";
+
     //FIXME Not a valid property, remove?
     @Deprecated
     String CONNECTION_AUTO_RECONNECT = "hibernate.connection.autoReconnect";
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.util;
+
+import java.util.Set;
+
+import org.hibernate.Cache;
+import org.hibernate.Criteria;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.spi.CacheRegionDefinition;
+import org.hibernate.boot.spi.CacheRegionDefinition.CacheRegionType;
+import org.hibernate.boot.spi.MetadataBuilderInitializer;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Second-level and query cache of the rarely changing reference entities
+ * (units, formats, codespaces, phenomena, categories, offerings and
+ * procedures). The mapping files do not declare a cache, so the entities are
+ * assigned to the {@link #ENTITY_REGION} when the metadata is built if
+ * {@value HibernateConstants#USE_SECOND_LEVEL_CACHE} is enabled. Lookups
+ * marked with {@link #cacheable(Criteria)} are additionally cached in the
+ * {@link #QUERY_REGION}.
+ *
+ * @since 5.2.3
+ */
+public final class ReferenceEntityCache implements MetadataBuilderInitializer {
+
+    public static final String ENTITY_REGION = "sos-reference";
+
+    public static final String QUERY_REGION = "sos-reference-query";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceEntityCache.class);
+
+    private static final String READ_WRITE = "read-write";
+
+    private static final Set<String> ENTITIES = ImmutableSet.of("org.n52.series.db.beans.UnitEntity",
+            "org.n52.series.db.beans.FormatEntity", "org.n52.series.db.beans.CodespaceEntity",
+            "org.n52.series.db.beans.PhenomenonEntity", "org.n52.series.db.beans.CategoryEntity",
+            "org.n52.series.db.beans.OfferingEntity", "org.n52.series.db.beans.ProcedureEntity");
+
+    /**
+     * Discovered by Hibernate as {@link MetadataBuilderInitializer} service.
+     */
+    public ReferenceEntityCache() {
+    }
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder, StandardServiceRegistry serviceRegistry) {
+        boolean enabled = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(HibernateConstants.USE_SECOND_LEVEL_CACHE, StandardConverters.BOOLEAN, false);
+        if (enabled) {
+            LOGGER.debug("Caching reference entities in region {}", ENTITY_REGION);
+            for (String entity : ENTITIES) {
+                metadataBuilder.applyCacheRegionDefinition(
+                        new CacheRegionDefinition(CacheRegionType.ENTITY, entity, READ_WRITE, ENTITY_REGION, true));
+            }
+        }
+    }
+
+    /**
+     * Mark a lookup of reference entities as cacheable. Has no effect if the
+     * query cache is disabled.
+     *
+     * @param criteria
+     *            the lookup
+     * @return the criteria
+     */
+    public static Criteria cacheable(Criteria criteria) {
+        return criteria.setCacheable(true).setCacheRegion(QUERY_REGION);
+    }
+
+    /**
+     * Evict the cached reference entities and lookups, e.g. before the content
+     * cache update, as they may have been modified outside of the SOS. Changes
+     * made by sessions with {@link org.hibernate.CacheMode#NORMAL} update the
+     * cache on commit and need no eviction.
+     *
+     * @param sessionFactory
+     *            the session factory
+     */
+    public static void evict(SessionFactory sessionFactory) {
+        if (sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            Cache cache = sessionFactory.getCache();
+            ENTITIES.forEach(cache::evictEntityData);
+            cache.evictQueryRegion(QUERY_REGION);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.ds.hibernate.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.Cache;
+import org.hibernate.Criteria;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.spi.CacheRegionDefinition;
+import org.hibernate.boot.spi.CacheRegionDefinition.CacheRegionType;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Test the cache region assignment, the cacheable lookups and the eviction
+ * of the {@link ReferenceEntityCache}.
+ *
+ * @since 5.2.3
+ */
+public class ReferenceEntityCacheTest {
+
+    private static final int ENTITIES = 7;
+
+    @Test
+    public void shouldAssignEntityRegionIfCacheIsEnabled() {
+        MetadataBuilder metadataBuilder = mock(MetadataBuilder.class);
+        new ReferenceEntityCache().contribute(metadataBuilder, serviceRegistry(true));
+        ArgumentCaptor<CacheRegionDefinition> definitions = ArgumentCaptor.forClass(CacheRegionDefinition.class);
+        verify(metadataBuilder, times(ENTITIES)).applyCacheRegionDefinition(definitions.capture());
+        assertThat(definitions.getAllValues().stream().map(CacheRegionDefinition::getRegionType)
+                .collect(Collectors.toList()), everyItem(is(CacheRegionType.ENTITY)));
+        assertThat(definitions.getAllValues().stream().map(CacheRegionDefinition::getRegion)
+                .collect(Collectors.toList()), everyItem(is(ReferenceEntityCache.ENTITY_REGION)));
+        List<String> roles = definitions.getAllValues().stream().map(CacheRegionDefinition::getRole)
+                .collect(Collectors.toList());
+        assertThat(roles, hasSize(ENTITIES));
+        assertThat(roles, hasItems("org.n52.series.db.beans.UnitEntity", "org.n52.series.db.beans.FormatEntity",
+                "org.n52.series.db.beans.PhenomenonEntity", "org.n52.series.db.beans.ProcedureEntity"));
+    }
+
+    @Test
+    public void shouldNotAssignEntityRegionIfCacheIsDisabled() {
+        MetadataBuilder metadataBuilder = mock(MetadataBuilder.class);
+        new ReferenceEntityCache().contribute(metadataBuilder, serviceRegistry(false));
+        verify(metadataBuilder, never()).applyCacheRegionDefinition(any());
+    }
+
+    @Test
+    public void shouldMarkCriteriaCacheable() {
+        Criteria criteria = mock(Criteria.class, RETURNS_SELF);
+        assertThat(ReferenceEntityCache.cacheable(criteria), is(sameInstance(criteria)));
+        verify(criteria).setCacheable(true);
+        verify(criteria).setCacheRegion(ReferenceEntityCache.QUERY_REGION);
+    }
+
+    @Test
+    public void shouldEvictEntitiesAndLookups() {
+        Cache cache = mock(Cache.class);
+        ReferenceEntityCache.evict(sessionFactory(true, cache));
+        verify(cache, times(ENTITIES)).evictEntityData(any(String.class));
+        verify(cache).evictEntityData("org.n52.series.db.beans.OfferingEntity");
+        verify(cache).evictQueryRegion(ReferenceEntityCache.QUERY_REGION);
+    }
+
+    @Test
+    public void shouldNotEvictIfCacheIsDisabled() {
+        Cache cache = mock(Cache.class);
+        SessionFactory sessionFactory = sessionFactory(false, cache);
+        ReferenceEntityCache.evict(sessionFactory);
+        verify(sessionFactory, never()).getCache();
+    }
+
+    private StandardServiceRegistry serviceRegistry(boolean enabled) {
+        ConfigurationService configurationService = mock(ConfigurationService.class);
+        when(configurationService.getSetting(eq(HibernateConstants.USE_SECOND_LEVEL_CACHE),
+                eq(StandardConverters.BOOLEAN), anyBoolean())).thenReturn(enabled);
+        StandardServiceRegistry serviceRegistry = mock(StandardServiceRegistry.class);
+        when(serviceRegistry.getService(ConfigurationService.class)).thenReturn(configurationService);
+        return serviceRegistry;
+    }
+
+    private SessionFactory sessionFactory(boolean enabled, Cache cache) {
+        SessionFactoryOptions options = mock(SessionFactoryOptions.class);
+        when(options.isSecondLevelCacheEnabled()).thenReturn(enabled);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.getSessionFactoryOptions()).thenReturn(options);
+        when(sessionFactory.getCache()).thenReturn(cache);
+        return sessionFactory;
+    }
+}
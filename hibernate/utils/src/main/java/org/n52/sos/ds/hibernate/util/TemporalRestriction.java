@@ -48,6 +48,9 @@ import org.n52.sos.exception.ows.concrete.UnsupportedTimeException.TimeType;
  * <li>ISO 19108:2002, Geographic Information — Temporal schema, Section
  * 5.2.3.5</li>
  * </ul>
+ * As the begin of a stored period is never after its end, restrictions on the
+ * end are accompanied by the implied restriction on the begin. This lets the
+ * database prune partitions of observation tables partitioned by the begin.
  *
  * @author <a href="mailto:c.autermann@52north.org">Christian Autermann</a>
  * @since 4.0.0
@@ -45,8 +45,8 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
  * </tr>
  * <tr>
  * <td><b>Period</b></td>
- * <td>{@code self.end &lt; other.begin}</td>
- * <td>{@code self.end &lt; other.position}</td>
+ * <td>{@code self.begin &lt; other.begin AND self.end &lt; other.begin}</td>
+ * <td>{@code self.begin &lt; other.position AND self.end &lt; other.position}</td>
  * </tr>
  * <tr>
  * <td><b>Instant</b></td>
@@ -58,12 +58,13 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
 public class BeforeRestriction implements TemporalRestriction {
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Date otherBegin, Date otherEnd) {
-        return Restrictions.lt(selfEnd, otherBegin);
+        return Restrictions.and(Restrictions.lt(selfBegin, otherBegin), Restrictions.lt(selfEnd, otherBegin));
     }
 
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Integer count) {
-        return Restrictions.lt(selfEnd, getStartPlaceHolder(count));
+        return Restrictions.and(Restrictions.lt(selfBegin, getStartPlaceHolder(count)),
+                Restrictions.lt(selfEnd, getStartPlaceHolder(count)));
     }
 
     @Override
@@ -79,12 +80,13 @@ public class BeforeRestriction implements TemporalRestriction {
 
     @Override
     public Criterion filterPeriodWithInstant(String selfBegin, String selfEnd, Date otherPosition) {
-        return Restrictions.lt(selfEnd, otherPosition);
+        return Restrictions.and(Restrictions.lt(selfBegin, otherPosition), Restrictions.lt(selfEnd, otherPosition));
     }
 
     @Override
     public Criterion filterPeriodWithInstant(String selfBegin, String selfEnd, Integer count) {
-        return Restrictions.lt(selfEnd, getInstantPlaceHolder(count));
+        return Restrictions.and(Restrictions.lt(selfBegin, getInstantPlaceHolder(count)),
+                Restrictions.lt(selfEnd, getInstantPlaceHolder(count)));
     }
 
     @Override
@@ -45,7 +45,7 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
  * </tr>
  * <tr>
  * <td><b>Period</b></td>
- * <td>{@code self.begin &gt; other.begin AND self.end &lt; other.end}</td>
+ * <td>{@code self.begin &gt; other.begin AND self.begin &lt; other.end AND self.end &lt; other.end}</td>
  * <td><i>not defined</i></td>
  * </tr>
  * <tr>
@@ -58,12 +58,14 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
 public class DuringRestriction implements TemporalRestriction {
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Date otherBegin, Date otherEnd) {
-        return Restrictions.and(Restrictions.gt(selfBegin, otherBegin), Restrictions.lt(selfEnd, otherEnd));
+        return Restrictions.and(Restrictions.gt(selfBegin, otherBegin), Restrictions.lt(selfBegin, otherEnd),
+                Restrictions.lt(selfEnd, otherEnd));
     }
 
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Integer count) {
         return Restrictions.and(Restrictions.gt(selfBegin, getStartPlaceHolder(count)),
+                Restrictions.lt(selfBegin, getEndPlaceHolder(count)),
                 Restrictions.lt(selfEnd, getEndPlaceHolder(count)));
     }
 
@@ -46,7 +46,7 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
  * <tr>
  * <td><b>Period</b></td>
  * <td>{@code self.begin &lt; other.begin AND self.end = other.end}</td>
- * <td>{@code self.end = other.position}</td>
+ * <td>{@code self.begin &lt;= other.position AND self.end = other.position}</td>
  * </tr>
  * <tr>
  * <td><b>Instant</b></td>
@@ -70,11 +70,12 @@ public class EndedByRestriction implements TemporalRestriction {
 
     @Override
     public Criterion filterPeriodWithInstant(String selfBegin, String selfEnd, Date otherPosition) {
-        return Restrictions.eq(selfEnd, otherPosition);
+        return Restrictions.and(Restrictions.le(selfBegin, otherPosition), Restrictions.eq(selfEnd, otherPosition));
     }
 
     @Override
     public Criterion filterPeriodWithInstant(String selfBegin, String selfEnd, Integer count) {
-        return Restrictions.eq(selfEnd, getInstantPlaceHolder(count));
+        return Restrictions.and(Restrictions.le(selfBegin, getInstantPlaceHolder(count)),
+                Restrictions.eq(selfEnd, getInstantPlaceHolder(count)));
     }
 }
@@ -45,7 +45,7 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
  * </tr>
  * <tr>
  * <td><b>Period</b></td>
- * <td>{@code self.begin &gt; other.begin AND self.end = other.end}</td>
+ * <td>{@code self.begin &gt; other.begin AND self.begin &lt;= other.end AND self.end = other.end}</td>
  * <td><i>not defined</i></td>
  * </tr>
  * <tr>
@@ -59,12 +59,14 @@ public class EndsRestriction implements TemporalRestriction {
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Date otherBegin, Date otherEnd) {
         return Restrictions.and(Restrictions.gt(selfBegin, otherBegin),
+                                Restrictions.le(selfBegin, otherEnd),
                                 Restrictions.eq(selfEnd, otherEnd));
     }
 
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Integer count) {
         return Restrictions.and(Restrictions.gt(selfBegin, getStartPlaceHolder(count)),
+                                Restrictions.le(selfBegin, getEndPlaceHolder(count)),
                                 Restrictions.eq(selfEnd, getEndPlaceHolder(count)));
     }
 
@@ -45,7 +45,7 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
  * </tr>
  * <tr>
  * <td><b>Period</b></td>
- * <td>{@code self.end = other.begin}</td>
+ * <td>{@code self.begin &lt;= other.begin AND self.end = other.begin}</td>
  * <td><i>not defined</i></td>
  * </tr>
  * <tr>
@@ -58,12 +58,13 @@ import org.n52.sos.ds.hibernate.util.TemporalRestriction;
 public class MeetsRestriction implements TemporalRestriction {
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Date otherBegin, Date otherEnd) {
-        return Restrictions.eq(selfEnd, otherBegin);
+        return Restrictions.and(Restrictions.le(selfBegin, otherBegin), Restrictions.eq(selfEnd, otherBegin));
     }
 
     @Override
     public Criterion filterPeriodWithPeriod(String selfBegin, String selfEnd, Integer count) {
-        return Restrictions.eq(selfEnd, getStartPlaceHolder(count));
+        return Restrictions.and(Restrictions.le(selfBegin, getStartPlaceHolder(count)),
+                Restrictions.eq(selfEnd, getStartPlaceHolder(count)));
     }
 
 }
@@ -65,7 +65,7 @@ public class TemporalRestrictionHqlPeriodPeriodTest
             throws UnsupportedValueReferenceException, UnsupportedTimeException, UnsupportedOperatorException {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Before, PHENOMENON_TIME);
         Criterion filterHql = TestTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd<:start1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<:start1 and samplingTimeEnd<:start1"));
     }
 
     @Test
@@ -89,7 +89,7 @@ public class TemporalRestrictionHqlPeriodPeriodTest
             throws UnsupportedValueReferenceException, UnsupportedTimeException, UnsupportedOperatorException {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_During, PHENOMENON_TIME);
         Criterion filterHql = TestTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeStart>:start1 and samplingTimeEnd<:end1"));
+        assertThat(filterHql.toString(), equalTo("(samplingTimeStart>:start1 and samplingTimeStart<:end1 and samplingTimeEnd<:end1)"));
     }
 
     @Test
@@ -110,7 +110,7 @@ public class TemporalRestrictionHqlPeriodPeriodTest
     public void testEndsPhenomenonTime() throws OwsExceptionReport {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Ends, PHENOMENON_TIME);
         Criterion filterHql = TestTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeStart>:start1 and samplingTimeEnd=:end1"));
+        assertThat(filterHql.toString(), equalTo("(samplingTimeStart>:start1 and samplingTimeStart<=:end1 and samplingTimeEnd=:end1)"));
     }
 
     @Test
@@ -140,7 +140,7 @@ public class TemporalRestrictionHqlPeriodPeriodTest
     public void testMeetsPhenomenonTime() throws OwsExceptionReport {
         TemporalFilter tf = create(FilterConstants.TimeOperator.TM_Meets, PHENOMENON_TIME);
         Criterion filterHql = TestTemporalRestrictions.filterHql(tf, 1);
-        assertThat(filterHql.toString(), equalTo("samplingTimeEnd=:start1"));
+        assertThat(filterHql.toString(), equalTo("samplingTimeStart<=:start1 and samplingTimeEnd=:start1"));
     }
 
     @Test
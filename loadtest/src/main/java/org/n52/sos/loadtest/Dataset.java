@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generated dataset of {@code sensors} time series with {@code observations}
+ * measurements each. Every sensor has its own offering and feature of
+ * interest and observes the same property, the measurements are taken once
+ * per minute starting at {@link #START}. All identifiers and values are
+ * derived from the indices, so the dataset is reproducible and the load
+ * driver can build requests that hit existing data without querying the
+ * service.
+ */
+final class Dataset {
+
+    static final String PREFIX = "http://www.52north.org/loadtest/";
+
+    static final String OBSERVABLE_PROPERTY = PREFIX + "observableProperty/temperature";
+
+    static final String UNIT = "degC";
+
+    static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    static final Duration INTERVAL = Duration.ofMinutes(1);
+
+    private static final int GRID_SIZE = 100;
+
+    private static final double GRID_RESOLUTION = 0.01;
+
+    private final int sensors;
+
+    private final int observations;
+
+    Dataset(int sensors, int observations) {
+        if (sensors <= 0 || observations <= 0) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid dataset size: %d sensors, %d observations", sensors, observations));
+        }
+        this.sensors = sensors;
+        this.observations = observations;
+    }
+
+    int getSensors() {
+        return sensors;
+    }
+
+    int getObservations() {
+        return observations;
+    }
+
+    String getProcedure(int sensor) {
+        return PREFIX + "procedure/" + sensor;
+    }
+
+    String getOffering(int sensor) {
+        return PREFIX + "offering/" + sensor;
+    }
+
+    String getFeature(int sensor) {
+        return PREFIX + "featureOfInterest/" + sensor;
+    }
+
+    String getTemplate(int sensor) {
+        return PREFIX + "template/" + sensor;
+    }
+
+    String getLatitude(int sensor) {
+        return format(51.0 + (sensor % GRID_SIZE) * GRID_RESOLUTION);
+    }
+
+    String getLongitude(int sensor) {
+        return format(7.0 + (sensor / GRID_SIZE) * GRID_RESOLUTION);
+    }
+
+    Instant getTime(int observation) {
+        return START.plus(INTERVAL.multipliedBy(observation));
+    }
+
+    String getValue(int sensor, int observation) {
+        return format(10.0 + 5.0 * Math.sin((sensor + observation) / 60.0));
+    }
+
+    /**
+     * @return the time of the last measurement
+     */
+    Instant getEnd() {
+        return getTime(observations - 1);
+    }
+
+    int randomSensor(Random random) {
+        return random.nextInt(sensors);
+    }
+
+    /**
+     * Creates a random time window inside the dataset that contains
+     * {@code length} measurements (or all if the dataset is smaller).
+     *
+     * @param random
+     *            the random number generator
+     * @param length
+     *            the number of measurements
+     *
+     * @return the begin and end of the window
+     */
+    Instant[] randomWindow(Random random, int length) {
+        int size = Math.min(length, observations);
+        int first = random.nextInt(observations - size + 1);
+        return new Instant[] { getTime(first), getTime(first + size - 1) };
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+}
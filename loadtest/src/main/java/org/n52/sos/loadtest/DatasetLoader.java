@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Loads a {@link Dataset} into the service using the transactional and
+ * result handling operations: every sensor is registered with an
+ * InsertSensor request, the measurements are inserted with InsertResult
+ * requests of {@code batchSize} values based on a result template. The
+ * sensors are registered sequentially, the results are inserted by
+ * {@code threads} parallel clients.
+ */
+final class DatasetLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatasetLoader.class);
+
+    private static final String TOKEN_SEPARATOR = "#";
+
+    private static final String BLOCK_SEPARATOR = "@";
+
+    private static final Template INSERT_SENSOR = Template.load("InsertSensor.xml");
+
+    private static final Template INSERT_RESULT_TEMPLATE = Template.load("InsertResultTemplate.xml");
+
+    private static final Template INSERT_RESULT = Template.load("InsertResult.xml");
+
+    private final SosClient client;
+
+    private final Dataset dataset;
+
+    private final int batchSize;
+
+    private final int threads;
+
+    private final AtomicLong inserted = new AtomicLong();
+
+    DatasetLoader(SosClient client, Dataset dataset, int batchSize, int threads) {
+        this.client = client;
+        this.dataset = dataset;
+        this.batchSize = batchSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Inserts the dataset.
+     *
+     * @throws IOException
+     *             if a request failed on the transport level
+     * @throws InterruptedException
+     *             if interrupted while waiting for the inserts
+     * @throws IllegalStateException
+     *             if the service rejected a request
+     */
+    void load() throws IOException, InterruptedException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        for (int sensor = 0; sensor < dataset.getSensors(); sensor++) {
+            Map<String, String> values = sensorValues(sensor);
+            insert(INSERT_SENSOR.fill(values));
+            insert(INSERT_RESULT_TEMPLATE.fill(values));
+        }
+        LOG.info("Inserted {} sensors in {}", dataset.getSensors(), stopwatch);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int sensor = 0; sensor < dataset.getSensors(); sensor++) {
+                for (int first = 0; first < dataset.getObservations(); first += batchSize) {
+                    int s = sensor;
+                    int f = first;
+                    tasks.add(() -> {
+                        insertResults(s, f, Math.min(f + batchSize, dataset.getObservations()));
+                        return null;
+                    });
+                }
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        LOG.info("Inserted {} observations in {}", inserted.get(), stopwatch);
+    }
+
+    private void insertResults(int sensor, int first, int last) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(last - first).append(BLOCK_SEPARATOR);
+        for (int observation = first; observation < last; observation++) {
+            builder.append(dataset.getTime(observation)).append(TOKEN_SEPARATOR)
+                    .append(dataset.getValue(sensor, observation)).append(BLOCK_SEPARATOR);
+        }
+        insert(INSERT_RESULT.fill(ImmutableMap.of("template", dataset.getTemplate(sensor),
+                                                  "values", builder.toString())));
+        long count = inserted.addAndGet(last - first);
+        LOG.debug("Inserted {} observations", count);
+    }
+
+    private void insert(String document) throws IOException {
+        SosClient.Response response = client.execute(client.pox(document));
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(
+                    String.format("Insertion failed (%s): %s", response.getError(), response.getHead()));
+        }
+    }
+
+    private Map<String, String> sensorValues(int sensor) {
+        return ImmutableMap.<String, String> builder()
+                .put("procedure", dataset.getProcedure(sensor))
+                .put("offering", dataset.getOffering(sensor))
+                .put("feature", dataset.getFeature(sensor))
+                .put("template", dataset.getTemplate(sensor))
+                .put("latitude", dataset.getLatitude(sensor))
+                .put("longitude", dataset.getLongitude(sensor))
+                .put("observableProperty", Dataset.OBSERVABLE_PROPERTY)
+                .put("unit", Dataset.UNIT)
+                .put("tokenSeparator", TOKEN_SEPARATOR)
+                .put("blockSeparator", BLOCK_SEPARATOR)
+                .build();
+    }
+}
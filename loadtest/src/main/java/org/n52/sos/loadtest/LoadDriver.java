@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Closed-loop load generator: {@code concurrency} workers send requests of
+ * the {@link OperationMix} back to back, i.e. every worker sends the next
+ * request as soon as the previous response is consumed. Requests started
+ * during the warm-up are not recorded.
+ */
+final class LoadDriver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadDriver.class);
+
+    private final SosClient client;
+
+    private final Dataset dataset;
+
+    private final OperationMix mix;
+
+    private final int concurrency;
+
+    private final long seed;
+
+    LoadDriver(SosClient client, Dataset dataset, OperationMix mix, int concurrency, long seed) {
+        this.client = client;
+        this.dataset = dataset;
+        this.mix = mix;
+        this.concurrency = concurrency;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param warmup
+     *            the warm-up time
+     * @param duration
+     *            the measurement time
+     *
+     * @return the report of the measurement
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the workers
+     */
+    LoadReport run(Duration warmup, Duration duration) throws InterruptedException {
+        LOG.info("Running {} workers for {} after a warm-up of {}: {}", concurrency, duration, warmup,
+                 mix.getWeights());
+        long start = System.nanoTime();
+        long measurementStart = start + warmup.toNanos();
+        long end = measurementStart + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                new ThreadFactoryBuilder().setNameFormat("loadtest-worker-%d").build());
+        try {
+            List<Callable<Map<LoadOperation, OperationStatistics>>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                Random random = new Random(seed + i);
+                workers.add(() -> work(random, measurementStart, end));
+            }
+            Map<LoadOperation, OperationStatistics> statistics = new EnumMap<>(LoadOperation.class);
+            for (Future<Map<LoadOperation, OperationStatistics>> future : executor.invokeAll(workers)) {
+                future.get().forEach((operation, s) -> statistics
+                        .computeIfAbsent(operation, o -> new OperationStatistics()).merge(s));
+            }
+            return new LoadReport(statistics, Duration.ofNanos(System.nanoTime() - measurementStart),
+                                  concurrency);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<LoadOperation, OperationStatistics> work(Random random, long measurementStart, long end) {
+        Map<LoadOperation, OperationStatistics> statistics = new EnumMap<>(LoadOperation.class);
+        long now;
+        while ((now = System.nanoTime()) < end && !Thread.currentThread().isInterrupted()) {
+            LoadOperation operation = mix.next(random);
+            HttpUriRequest request = operation.create(client, dataset, random);
+            // requests of the warm-up are not recorded
+            OperationStatistics s = now >= measurementStart
+                    ? statistics.computeIfAbsent(operation, o -> new OperationStatistics())
+                    : null;
+            try {
+                SosClient.Response response = client.execute(request);
+                if (s != null) {
+                    if (response.isSuccess()) {
+                        s.success(System.nanoTime() - now, response.getLength());
+                    } else {
+                        s.error(response.getError());
+                        LOG.debug("{} failed: {}", operation.getName(), response.getHead());
+                    }
+                }
+            } catch (IOException e) {
+                if (s != null) {
+                    s.error(e.getClass().getSimpleName());
+                }
+                LOG.debug("{} failed", operation.getName(), e);
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.time.Instant;
+import java.util.Random;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The SOS requests replayed by the {@link LoadDriver}. Every request
+ * addresses a random sensor of the {@link Dataset}; the observation requests
+ * are restricted to a random window of {@value #WINDOW} measurements.
+ */
+enum LoadOperation {
+
+    KVP_GET_CAPABILITIES("kvp-get-capabilities") {
+        @Override
+        HttpUriRequest create(SosClient client, Dataset dataset, Random random) {
+            return client.kvp(ImmutableMap.of(SERVICE, SOS, REQUEST, "GetCapabilities",
+                                              "AcceptVersions", VERSION_20));
+        }
+    },
+    KVP_DESCRIBE_SENSOR("kvp-describe-sensor") {
+        @Override
+        HttpUriRequest create(SosClient client, Dataset dataset, Random random) {
+            return client.kvp(kvp("DescribeSensor")
+                    .put("procedure", dataset.getProcedure(dataset.randomSensor(random)))
+                    .put("procedureDescriptionFormat", "http://www.opengis.net/sensorML/1.0.1")
+                    .build());
+        }
+    },
+    KVP_GET_FEATURE_OF_INTEREST("kvp-get-feature-of-interest") {
+        @Override
+        HttpUriRequest create(SosClient client, Dataset dataset, Random random) {
+            return client.kvp(kvp("GetFeatureOfInterest")
+                    .put("featureOfInterest", dataset.getFeature(dataset.randomSensor(random)))
+                    .build());
+        }
+    },
+    KVP_GET_OBSERVATION("kvp-get-observation") {
+        @Override
+        HttpUriRequest create(SosClient client, Dataset dataset, Random random) {
+            int sensor = dataset.randomSensor(random);
+            Instant[] window = dataset.randomWindow(random, WINDOW);
+            return client.kvp(kvp("GetObservation")
+                    .put("offering", dataset.getOffering(sensor))
+                    .put("observedProperty", Dataset.OBSERVABLE_PROPERTY)
+                    .put("featureOfInterest", dataset.getFeature(sensor))
+                    .put("temporalFilter", String.format("om:phenomenonTime,%s/%s", window[0], window[1]))
+                    .build());
+        }
+    },
+    POX_GET_OBSERVATION("pox-get-observation") {
+        @Override
+        HttpUriRequest create(SosClient client, Dataset dataset, Random random) {
+            int sensor = dataset.randomSensor(random);
+            Instant[] window = dataset.randomWindow(random, WINDOW);
+            return client.pox(GET_OBSERVATION.fill(ImmutableMap.<String, String> builder()
+                    .put("procedure", dataset.getProcedure(sensor))
+                    .put("offering", dataset.getOffering(sensor))
+                    .put("feature", dataset.getFeature(sensor))
+                    .put("observableProperty", Dataset.OBSERVABLE_PROPERTY)
+                    .put("begin", window[0].toString())
+                    .put("end", window[1].toString())
+                    .build()));
+        }
+    },
+    POX_GET_DATA_AVAILABILITY("pox-get-data-availability") {
+        @Override
+        HttpUriRequest create(SosClient client, Dataset dataset, Random random) {
+            return client.pox(GET_DATA_AVAILABILITY.fill(ImmutableMap.of(
+                    "procedure", dataset.getProcedure(dataset.randomSensor(random)),
+                    "observableProperty", Dataset.OBSERVABLE_PROPERTY)));
+        }
+    };
+
+    /**
+     * Number of measurements requested by the observation requests.
+     */
+    static final int WINDOW = 60;
+
+    private static final String SERVICE = "service";
+
+    private static final String VERSION = "version";
+
+    private static final String REQUEST = "request";
+
+    private static final String SOS = "SOS";
+
+    private static final String VERSION_20 = "2.0.0";
+
+    private static final Template GET_OBSERVATION = Template.load("GetObservation.xml");
+
+    private static final Template GET_DATA_AVAILABILITY = Template.load("GetDataAvailability.xml");
+
+    private final String name;
+
+    LoadOperation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name used in the operation mix and in the report
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Creates a new request for this operation.
+     *
+     * @param client
+     *            the client
+     * @param dataset
+     *            the dataset to query
+     * @param random
+     *            the random number generator of the calling worker
+     *
+     * @return the request
+     */
+    abstract HttpUriRequest create(SosClient client, Dataset dataset, Random random);
+
+    static LoadOperation forName(String name) {
+        for (LoadOperation operation : values()) {
+            if (operation.getName().equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+
+    private static ImmutableMap.Builder<String, String> kvp(String request) {
+        return ImmutableMap.<String, String> builder().put(SERVICE, SOS).put(VERSION, VERSION_20)
+                .put(REQUEST, request);
+    }
+}
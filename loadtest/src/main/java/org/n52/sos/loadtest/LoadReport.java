@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Throughput, latency percentiles and errors of a load test run, per
+ * operation and in total. Latencies only cover successful requests.
+ */
+final class LoadReport {
+
+    static final double[] PERCENTILES = { 50.0, 90.0, 95.0, 99.0, 99.9 };
+
+    private static final String TOTAL = "total";
+
+    private static final String ROW_FORMAT = "%-28s %10s %8s %10s %10s %10s %10s %10s %10s %10s %10s%n";
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final Map<LoadOperation, OperationStatistics> operations;
+
+    private final OperationStatistics total = new OperationStatistics();
+
+    private final Duration duration;
+
+    private final int concurrency;
+
+    LoadReport(Map<LoadOperation, OperationStatistics> operations, Duration duration, int concurrency) {
+        this.operations = Collections.unmodifiableMap(operations);
+        this.duration = duration;
+        this.concurrency = concurrency;
+        operations.values().forEach(total::merge);
+    }
+
+    Map<LoadOperation, OperationStatistics> getOperations() {
+        return operations;
+    }
+
+    OperationStatistics getTotal() {
+        return total;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return the ratio of failed requests, between 0 and 1
+     */
+    double getErrorRate() {
+        return total.getRequests() == 0 ? 0.0 : (double) total.getErrors() / total.getRequests();
+    }
+
+    double getThroughput(OperationStatistics statistics) {
+        return statistics.getRequests() * NANOS_PER_SECOND / duration.toNanos();
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%nLoad test: %d workers, %.1f s%n%n", concurrency,
+                   duration.toNanos() / NANOS_PER_SECOND);
+        out.printf(Locale.ROOT, ROW_FORMAT, "operation", "requests", "errors", "req/s", "mean ms", "p50 ms",
+                   "p90 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        operations.forEach((operation, statistics) -> printRow(out, operation.getName(), statistics));
+        printRow(out, TOTAL, total);
+        if (total.getErrors() > 0) {
+            out.printf(Locale.ROOT, "%nErrors:%n");
+            operations.forEach((operation, statistics) -> {
+                for (Multiset.Entry<String> error : statistics.getErrorReasons().entrySet()) {
+                    out.printf(Locale.ROOT, "  %-26s %10d  %s%n", operation.getName(), error.getCount(),
+                               error.getElement());
+                }
+            });
+        }
+        out.println();
+    }
+
+    /**
+     * Writes the report as CSV file with one line per operation and a total
+     * line.
+     *
+     * @param file
+     *            the file
+     *
+     * @throws IOException
+     *             if the file can not be written
+     */
+    void writeCsv(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.print("operation,requests,errors,throughput,bytes,mean");
+            for (double percentile : PERCENTILES) {
+                writer.print(",p" + percentile);
+            }
+            writer.println(",max");
+            operations.forEach((operation, statistics) -> writeCsvRow(writer, operation.getName(), statistics));
+            writeCsvRow(writer, TOTAL, total);
+        }
+    }
+
+    private void printRow(PrintStream out, String name, OperationStatistics statistics) {
+        out.printf(Locale.ROOT, ROW_FORMAT, name, statistics.getRequests(), statistics.getErrors(),
+                   format(getThroughput(statistics)), format(statistics.getMean()),
+                   format(statistics.getPercentile(PERCENTILES[0])), format(statistics.getPercentile(PERCENTILES[1])),
+                   format(statistics.getPercentile(PERCENTILES[2])), format(statistics.getPercentile(PERCENTILES[3])),
+                   format(statistics.getPercentile(PERCENTILES[4])), format(statistics.getMax()));
+    }
+
+    private void writeCsvRow(PrintWriter writer, String name, OperationStatistics statistics) {
+        writer.print(String.join(",", name, Long.toString(statistics.getRequests()),
+                                 Long.toString(statistics.getErrors()), format(getThroughput(statistics)),
+                                 Long.toString(statistics.getBytes()), format(statistics.getMean())));
+        for (double percentile : PERCENTILES) {
+            writer.print("," + format(statistics.getPercentile(percentile)));
+        }
+        writer.println("," + format(statistics.getMax()));
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * End-to-end load test of a SOS endpoint. The test generates a
+ * {@link Dataset} of the configured size, inserts it through the
+ * transactional operations and replays a weighted {@link OperationMix} of
+ * KVP and POX requests with a fixed number of concurrent workers. The report
+ * lists throughput, latency percentiles and errors per operation.
+ *
+ * Run with {@code mvn -P loadtest verify} to start the webapp on an
+ * in-memory H2 database and run the test against it. The test is configured
+ * by {@code loadtest.*} system properties (see
+ * {@link LoadTestConfiguration}), e.g.
+ * {@code -Dloadtest.sensors=100 -Dloadtest.observations=10000 -Dloadtest.concurrency=32}.
+ */
+@SuppressWarnings("UncommentedMain")
+public final class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfiguration config = new LoadTestConfiguration(System.getProperties());
+        Dataset dataset = new Dataset(config.getSensors(), config.getObservations());
+        LoadReport report;
+        try (SosClient client = new SosClient(config.getUrl(), config.getConcurrency())) {
+            client.awaitAvailable(config.getStartupTimeout());
+            if (config.isSeedDataset()) {
+                LOG.info("Inserting {} sensors with {} observations each", dataset.getSensors(),
+                         dataset.getObservations());
+                new DatasetLoader(client, dataset, config.getBatchSize(), config.getConcurrency()).load();
+            }
+            report = new LoadDriver(client, dataset, config.getMix(), config.getConcurrency(),
+                                    config.getRandomSeed()).run(config.getWarmup(), config.getDuration());
+        }
+        report.print(System.out);
+        if (config.getReport() != null) {
+            report.writeCsv(config.getReport());
+            LOG.info("Report written to {}", config.getReport().toAbsolutePath());
+        }
+        if (report.getErrorRate() > config.getMaxErrorRate()) {
+            throw new IllegalStateException(String.format("Error rate %.4f exceeds the maximum of %.4f",
+                                                          report.getErrorRate(), config.getMaxErrorRate()));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Properties;
+
+import com.google.common.base.Strings;
+
+/**
+ * Configuration of a load test run, read from {@code loadtest.*} system
+ * properties.
+ */
+final class LoadTestConfiguration {
+
+    static final String URL = "loadtest.url";
+
+    static final String SENSORS = "loadtest.sensors";
+
+    static final String OBSERVATIONS = "loadtest.observations";
+
+    static final String BATCH_SIZE = "loadtest.batchSize";
+
+    static final String SEED_DATASET = "loadtest.seedDataset";
+
+    static final String CONCURRENCY = "loadtest.concurrency";
+
+    static final String WARMUP = "loadtest.warmup";
+
+    static final String DURATION = "loadtest.duration";
+
+    static final String MIX = "loadtest.mix";
+
+    static final String RANDOM_SEED = "loadtest.randomSeed";
+
+    static final String STARTUP_TIMEOUT = "loadtest.startupTimeout";
+
+    static final String MAX_ERROR_RATE = "loadtest.maxErrorRate";
+
+    static final String REPORT = "loadtest.report";
+
+    static final String DEFAULT_MIX = "kvp-get-capabilities:5,kvp-describe-sensor:10,kvp-get-feature-of-interest:10,"
+            + "kvp-get-observation:40,pox-get-observation:25,pox-get-data-availability:10";
+
+    private final URI url;
+
+    private final int sensors;
+
+    private final int observations;
+
+    private final int batchSize;
+
+    private final boolean seedDataset;
+
+    private final int concurrency;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private final OperationMix mix;
+
+    private final long randomSeed;
+
+    private final Duration startupTimeout;
+
+    private final double maxErrorRate;
+
+    private final Path report;
+
+    LoadTestConfiguration(Properties properties) {
+        this.url = URI.create(properties.getProperty(URL, "http://localhost:8080/52n-sos-webapp/service"));
+        this.sensors = getInt(properties, SENSORS, 10);
+        this.observations = getInt(properties, OBSERVATIONS, 1000);
+        this.batchSize = getInt(properties, BATCH_SIZE, 500);
+        this.seedDataset = Boolean.parseBoolean(properties.getProperty(SEED_DATASET, "true"));
+        this.concurrency = getInt(properties, CONCURRENCY, 16);
+        this.warmup = Duration.ofSeconds(getInt(properties, WARMUP, 10));
+        this.duration = Duration.ofSeconds(getInt(properties, DURATION, 60));
+        this.mix = OperationMix.parse(properties.getProperty(MIX, DEFAULT_MIX));
+        this.randomSeed = Long.parseLong(properties.getProperty(RANDOM_SEED, "52"));
+        this.startupTimeout = Duration.ofSeconds(getInt(properties, STARTUP_TIMEOUT, 300));
+        this.maxErrorRate = Double.parseDouble(properties.getProperty(MAX_ERROR_RATE, "0.01"));
+        String file = properties.getProperty(REPORT);
+        this.report = Strings.isNullOrEmpty(file) ? null : Paths.get(file);
+    }
+
+    /**
+     * @return the URL of the service endpoint
+     */
+    URI getUrl() {
+        return url;
+    }
+
+    /**
+     * @return the number of sensors in the generated dataset
+     */
+    int getSensors() {
+        return sensors;
+    }
+
+    /**
+     * @return the number of observations per sensor in the generated dataset
+     */
+    int getObservations() {
+        return observations;
+    }
+
+    /**
+     * @return the number of observations per InsertResult request
+     */
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return if the dataset should be inserted before the load test, set
+     *         to {@code false} to rerun a test against an already populated
+     *         service
+     */
+    boolean isSeedDataset() {
+        return seedDataset;
+    }
+
+    /**
+     * @return the number of concurrent workers
+     */
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    OperationMix getMix() {
+        return mix;
+    }
+
+    long getRandomSeed() {
+        return randomSeed;
+    }
+
+    Duration getStartupTimeout() {
+        return startupTimeout;
+    }
+
+    /**
+     * @return the ratio of failed requests above which the run fails
+     */
+    double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    /**
+     * @return the CSV report file or {@code null}
+     */
+    Path getReport() {
+        return report;
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        int parsed = Integer.parseInt(value.trim());
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(String.format("%s has to be positive: %d", key, parsed));
+        }
+        return parsed;
+    }
+}
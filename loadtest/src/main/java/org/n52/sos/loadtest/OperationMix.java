@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.base.Splitter;
+
+/**
+ * Weighted mix of {@link LoadOperation}s. The mix is specified as a comma
+ * separated list of {@code name:weight} pairs, e.g.
+ * {@code kvp-get-observation:3,pox-get-observation:1} replays three KVP
+ * GetObservation requests for every POX GetObservation request.
+ */
+final class OperationMix {
+
+    private static final Splitter ENTRY_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    private static final Splitter WEIGHT_SPLITTER = Splitter.on(':').trimResults();
+
+    private final Map<LoadOperation, Integer> weights;
+
+    private final LoadOperation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private OperationMix(Map<LoadOperation, Integer> weights) {
+        this.weights = Collections.unmodifiableMap(weights);
+        this.operations = weights.keySet().toArray(new LoadOperation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    Map<LoadOperation, Integer> getWeights() {
+        return weights;
+    }
+
+    /**
+     * Picks the next operation according to the weights.
+     *
+     * @param random
+     *            the random number generator of the calling worker
+     *
+     * @return the operation
+     */
+    LoadOperation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        return operations[index >= 0 ? index : -index - 1];
+    }
+
+    /**
+     * Parses a mix specification.
+     *
+     * @param specification
+     *            the comma separated {@code name:weight} pairs
+     *
+     * @return the mix
+     *
+     * @throws IllegalArgumentException
+     *             if the specification is empty, references an unknown
+     *             operation or contains a non-positive weight
+     */
+    static OperationMix parse(String specification) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String entry : ENTRY_SPLITTER.split(specification)) {
+            String[] pair = WEIGHT_SPLITTER.splitToList(entry).toArray(new String[0]);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Invalid weight for operation " + pair[0] + ": " + weight);
+            }
+            weights.merge(LoadOperation.forName(pair[0]), weight, Integer::sum);
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty operation mix: " + specification);
+        }
+        return new OperationMix(weights);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+/**
+ * Latencies, transferred bytes and errors recorded for one operation. An
+ * instance is only used by a single worker; the instances of all workers are
+ * {@linkplain #merge(OperationStatistics) merged} for the report.
+ */
+final class OperationStatistics {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] latencies = new long[INITIAL_CAPACITY];
+
+    private int count;
+
+    private long bytes;
+
+    private boolean sorted = true;
+
+    private final Multiset<String> errors = HashMultiset.create();
+
+    /**
+     * Records a successful request.
+     *
+     * @param nanos
+     *            the latency in nanoseconds
+     * @param length
+     *            the response length in bytes
+     */
+    void success(long nanos, long length) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        bytes += length;
+        sorted = false;
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @param reason
+     *            a short description of the error
+     */
+    void error(String reason) {
+        errors.add(reason);
+    }
+
+    void merge(OperationStatistics other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        bytes += other.bytes;
+        errors.addAll(other.errors);
+        sorted = false;
+    }
+
+    long getSuccesses() {
+        return count;
+    }
+
+    long getErrors() {
+        return errors.size();
+    }
+
+    long getRequests() {
+        return getSuccesses() + getErrors();
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    Multiset<String> getErrorReasons() {
+        return errors;
+    }
+
+    /**
+     * @return the mean latency of the successful requests in milliseconds
+     */
+    double getMean() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += latencies[i];
+        }
+        return toMillis((double) sum / count);
+    }
+
+    /**
+     * Calculates a latency percentile of the successful requests using the
+     * nearest-rank method.
+     *
+     * @param percentile
+     *            the percentile, between 0 (exclusive) and 100 (inclusive)
+     *
+     * @return the latency in milliseconds
+     */
+    double getPercentile(double percentile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (!sorted) {
+            Arrays.sort(latencies, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return toMillis(latencies[Math.max(0, Math.min(count, rank) - 1)]);
+    }
+
+    /**
+     * @return the maximum latency in milliseconds
+     */
+    double getMax() {
+        return getPercentile(100.0);
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Minimal HTTP client for the KVP and POX bindings of a SOS endpoint. The
+ * connection pool is sized to the number of concurrent callers, so the load
+ * is not throttled by the client.
+ */
+final class SosClient implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SosClient.class);
+
+    private static final String APPLICATION_XML = "application/xml";
+
+    private static final String EXCEPTION_REPORT = "ExceptionReport";
+
+    /**
+     * Number of leading response bytes that are searched for an OWS
+     * exception report.
+     */
+    private static final int HEAD_LENGTH = 1024;
+
+    private static final long POLL_INTERVAL = 1000L;
+
+    private final URI endpoint;
+
+    private final CloseableHttpClient client;
+
+    SosClient(URI endpoint, int connections) {
+        this.endpoint = endpoint;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(connections);
+        connectionManager.setDefaultMaxPerRoute(connections);
+        this.client = HttpClients.custom().setConnectionManager(connectionManager).disableCookieManagement()
+                .build();
+    }
+
+    URI getEndpoint() {
+        return endpoint;
+    }
+
+    HttpUriRequest kvp(Map<String, String> parameters) {
+        URIBuilder builder = new URIBuilder(endpoint);
+        parameters.forEach(builder::addParameter);
+        try {
+            HttpGet get = new HttpGet(builder.build());
+            get.setHeader(HttpHeaders.ACCEPT, APPLICATION_XML);
+            return get;
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    HttpUriRequest pox(String document) {
+        HttpPost post = new HttpPost(endpoint);
+        post.setHeader(HttpHeaders.ACCEPT, APPLICATION_XML);
+        post.setEntity(new StringEntity(document, ContentType.create(APPLICATION_XML, StandardCharsets.UTF_8)));
+        return post;
+    }
+
+    /**
+     * Executes the request and consumes the response.
+     *
+     * @param request
+     *            the request
+     *
+     * @return the response summary
+     *
+     * @throws IOException
+     *             if the request failed on the transport level
+     */
+    Response execute(HttpUriRequest request) throws IOException {
+        try (CloseableHttpResponse response = client.execute(request)) {
+            byte[] body = response.getEntity() == null ? new byte[0] : EntityUtils.toByteArray(response.getEntity());
+            return new Response(response, body);
+        }
+    }
+
+    /**
+     * Waits until the service answers a GetCapabilities request, i.e. the
+     * webapp has been deployed and the content cache is initialized.
+     *
+     * @param timeout
+     *            the maximum time to wait
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     * @throws IllegalStateException
+     *             if the service is not available after the timeout
+     */
+    void awaitAvailable(Duration timeout) throws InterruptedException {
+        HttpUriRequest request = kvp(ImmutableMap.of("service", "SOS", "request", "GetCapabilities"));
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String reason;
+        do {
+            try {
+                Response response = execute(request);
+                if (response.isSuccess()) {
+                    LOG.info("Service {} is available", endpoint);
+                    return;
+                }
+                reason = response.getError();
+            } catch (IOException e) {
+                reason = e.getMessage();
+            }
+            LOG.debug("Service {} is not yet available: {}", endpoint, reason);
+            Thread.sleep(POLL_INTERVAL);
+        } while (System.nanoTime() < deadline);
+        throw new IllegalStateException(
+                String.format("Service %s not available after %s: %s", endpoint, timeout, reason));
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    /**
+     * Summary of a consumed response.
+     */
+    static final class Response {
+        private final int status;
+
+        private final long length;
+
+        private final String head;
+
+        private Response(HttpResponse response, byte[] body) {
+            this.status = response.getStatusLine().getStatusCode();
+            this.length = body.length;
+            this.head = new String(body, 0, Math.min(body.length, HEAD_LENGTH), StandardCharsets.UTF_8);
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        String getHead() {
+            return head;
+        }
+
+        boolean isExceptionReport() {
+            return head.contains(EXCEPTION_REPORT);
+        }
+
+        boolean isSuccess() {
+            return status < 400 && !isExceptionReport();
+        }
+
+        /**
+         * @return a short description of the error, {@code null} for
+         *         successful responses
+         */
+        String getError() {
+            if (status >= 400) {
+                return "HTTP " + status;
+            } else if (isExceptionReport()) {
+                return EXCEPTION_REPORT;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.google.common.escape.Escaper;
+import com.google.common.io.ByteStreams;
+import com.google.common.xml.XmlEscapers;
+
+/**
+ * XML request template loaded from the classpath. Placeholders of the form
+ * {@code ${name}} are replaced by XML escaped values.
+ */
+final class Template {
+
+    private static final String PLACEHOLDER_START = "${";
+
+    private static final char PLACEHOLDER_END = '}';
+
+    private static final Escaper ESCAPER = XmlEscapers.xmlAttributeEscaper();
+
+    private final String name;
+
+    private final String content;
+
+    private Template(String name, String content) {
+        this.name = name;
+        this.content = content;
+    }
+
+    /**
+     * Fills the placeholders of this template.
+     *
+     * @param values
+     *            the placeholder values
+     *
+     * @return the request document
+     *
+     * @throws IllegalArgumentException
+     *             if a placeholder has no value
+     */
+    String fill(Map<String, String> values) {
+        StringBuilder builder = new StringBuilder(content.length() + 256);
+        int position = 0;
+        int start;
+        while ((start = content.indexOf(PLACEHOLDER_START, position)) >= 0) {
+            int end = content.indexOf(PLACEHOLDER_END, start);
+            String key = content.substring(start + PLACEHOLDER_START.length(), end);
+            String value = values.get(key);
+            if (value == null) {
+                throw new IllegalArgumentException(String.format("No value for %s in template %s", key, name));
+            }
+            builder.append(content, position, start).append(ESCAPER.escape(value));
+            position = end + 1;
+        }
+        return builder.append(content, position, content.length()).toString();
+    }
+
+    /**
+     * Loads the template with the given name from the package of this class.
+     *
+     * @param name
+     *            the file name of the template
+     *
+     * @return the template
+     */
+    static Template load(String name) {
+        try (InputStream in = Template.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Template not found: " + name);
+            }
+            return new Template(name, new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read template " + name, e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OperationMixTest {
+
+    @Test
+    public void shouldPickOperationsAccordingToTheirWeights() {
+        OperationMix mix = OperationMix.parse("kvp-get-observation:3, pox-get-observation:1");
+        Random random = new Random(52);
+        int kvp = 0;
+        int total = 100000;
+        for (int i = 0; i < total; i++) {
+            if (mix.next(random) == LoadOperation.KVP_GET_OBSERVATION) {
+                kvp++;
+            }
+        }
+        assertThat((double) kvp / total, is(closeTo(0.75, 0.01)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownOperations() {
+        OperationMix.parse("kvp-get-observation:3,get-everything:1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveWeights() {
+        OperationMix.parse("kvp-get-observation:0");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.loadtest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class OperationStatisticsTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void shouldCalculateNearestRankPercentiles() {
+        OperationStatistics statistics = new OperationStatistics();
+        // 1..100 ms in reverse order
+        for (int i = 100; i > 0; i--) {
+            statistics.success(TimeUnit.MILLISECONDS.toNanos(i), 10);
+        }
+        assertThat(statistics.getPercentile(50.0), is(closeTo(50.0, DELTA)));
+        assertThat(statistics.getPercentile(99.0), is(closeTo(99.0, DELTA)));
+        assertThat(statistics.getPercentile(99.9), is(closeTo(100.0, DELTA)));
+        assertThat(statistics.getMax(), is(closeTo(100.0, DELTA)));
+        assertThat(statistics.getMean(), is(closeTo(50.5, DELTA)));
+        assertThat(statistics.getBytes(), is(1000L));
+    }
+
+    @Test
+    public void shouldMergeStatistics() {
+        OperationStatistics first = new OperationStatistics();
+        OperationStatistics second = new OperationStatistics();
+        for (int i = 0; i < 2000; i++) {
+            first.success(TimeUnit.MILLISECONDS.toNanos(1), 1);
+            second.success(TimeUnit.MILLISECONDS.toNanos(3), 1);
+        }
+        first.error("HTTP 500");
+        second.error("HTTP 500");
+        second.error("ExceptionReport");
+        first.merge(second);
+        assertThat(first.getSuccesses(), is(4000L));
+        assertThat(first.getErrors(), is(3L));
+        assertThat(first.getRequests(), is(4003L));
+        assertThat(first.getErrorReasons().count("HTTP 500"), is(2));
+        assertThat(first.getMean(), is(closeTo(2.0, DELTA)));
+        assertThat(first.getPercentile(50.0), is(closeTo(1.0, DELTA)));
+        assertThat(first.getMax(), is(closeTo(3.0, DELTA)));
+    }
+}
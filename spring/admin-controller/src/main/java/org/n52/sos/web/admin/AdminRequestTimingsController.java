@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.admin;
+
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.n52.iceland.exception.ows.concrete.NoImplementationFoundException;
+import org.n52.janmayen.Json;
+import org.n52.sos.statistics.LatencyHistogram;
+import org.n52.sos.statistics.RequestStage;
+import org.n52.sos.statistics.RequestTimings;
+import org.n52.sos.statistics.StageTiming;
+import org.n52.sos.web.common.ControllerConstants;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Controller to inspect the latencies of the request processing stages per
+ * operation.
+ *
+ * @since 5.2.3
+ */
+@Controller
+@RequestMapping(ControllerConstants.Paths.ADMIN_REQUEST_TIMINGS)
+public class AdminRequestTimingsController extends AbstractAdminController {
+
+    @Inject
+    private Optional<RequestTimings> requestTimings;
+
+    private RequestTimings getRequestTimings() throws NoImplementationFoundException {
+        if (!requestTimings.isPresent()) {
+            throw new NoImplementationFoundException(RequestTimings.class);
+        }
+        return this.requestTimings.get();
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    @ExceptionHandler(NoImplementationFoundException.class)
+    public String onError(NoImplementationFoundException e) {
+        return "The operation is not supported by this SOS";
+    }
+
+    @ResponseBody
+    @RequestMapping(method = RequestMethod.GET, produces = "application/json; charset=UTF-8")
+    public String timings() throws NoImplementationFoundException {
+        RequestTimings timings = getRequestTimings();
+        Map<String, Long> failures = timings.getFailures();
+        ObjectNode json = Json.nodeFactory().objectNode();
+        ArrayNode bounds = json.putArray("bounds");
+        for (long bound : LatencyHistogram.getBounds()) {
+            bounds.add(bound);
+        }
+        ObjectNode operations = json.putObject("operations");
+        timings.getHistograms().forEach((operation, stages) -> {
+            ObjectNode op = operations.putObject(operation);
+            op.put("failures", failures.getOrDefault(operation, 0L));
+            ObjectNode stagesNode = op.putObject("stages");
+            for (Map.Entry<RequestStage, LatencyHistogram> entry : stages.entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                StageTiming timing = new StageTiming(operation, entry.getKey(), histogram);
+                ObjectNode stage = stagesNode.putObject(entry.getKey().name());
+                stage.put("count", timing.getCount());
+                stage.put("mean", timing.getMean());
+                stage.put("p50", timing.getP50());
+                stage.put("p90", timing.getP90());
+                stage.put("p99", timing.getP99());
+                stage.put("max", timing.getMax());
+                ArrayNode counts = stage.putArray("histogram");
+                for (long count : histogram.getCounts()) {
+                    counts.add(count);
+                }
+            }
+        });
+        return Json.print(json);
+    }
+
+    @RequestMapping(method = RequestMethod.DELETE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void reset() throws NoImplementationFoundException {
+        getRequestTimings().reset();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.admin;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.n52.janmayen.Json;
+import org.n52.sos.statistics.SlowQuery;
+import org.n52.sos.statistics.SlowQueryLog;
+import org.n52.sos.web.common.ControllerConstants;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Controller to inspect the statements recorded by the {@link SlowQueryLog}.
+ *
+ * @since 5.2.3
+ */
+@Controller
+public class AdminSlowQueryController extends AbstractAdminController {
+
+    @Inject
+    private SlowQueryLog slowQueryLog;
+
+    @RequestMapping(value = ControllerConstants.Paths.ADMIN_SLOW_QUERIES, method = RequestMethod.GET)
+    public String view() {
+        return ControllerConstants.Views.ADMIN_SLOW_QUERIES;
+    }
+
+    @ResponseBody
+    @RequestMapping(value = ControllerConstants.Paths.ADMIN_SLOW_QUERIES_JSON,
+                    method = RequestMethod.GET,
+                    produces = "application/json; charset=UTF-8")
+    public String queries() {
+        ObjectNode json = Json.nodeFactory().objectNode();
+        json.put("enabled", slowQueryLog.isEnabled());
+        json.put("threshold", TimeUnit.NANOSECONDS.toMillis(slowQueryLog.getThreshold()));
+        json.put("capacity", slowQueryLog.getCapacity());
+        json.put("count", slowQueryLog.getCount());
+        ArrayNode queries = json.putArray("queries");
+        for (SlowQuery query : slowQueryLog.getQueries()) {
+            ObjectNode node = queries.addObject();
+            node.put("time", Instant.ofEpochMilli(query.getTime()).toString());
+            node.put("duration", query.getDuration() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+            node.put("sql", query.getSql());
+            ArrayNode parameters = node.putArray("parameters");
+            query.getParameters().forEach(parameters::add);
+            if (query.getRows() >= 0) {
+                node.put("rows", query.getRows());
+            }
+            node.put("origin", query.getOrigin());
+            node.put("operation", query.getOperation());
+            if (query.getRequestId() > 0) {
+                node.put("request", query.getRequestId());
+            }
+        }
+        return Json.print(json);
+    }
+
+    @RequestMapping(value = ControllerConstants.Paths.ADMIN_SLOW_QUERIES_JSON, method = RequestMethod.DELETE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
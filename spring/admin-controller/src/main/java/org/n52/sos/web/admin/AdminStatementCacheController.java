@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.admin;
+
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.n52.iceland.exception.ows.concrete.NoImplementationFoundException;
+import org.n52.janmayen.Json;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.sos.ds.StatementCacheStatistics;
+import org.n52.sos.ds.StatementCacheStatisticsHandler;
+import org.n52.sos.web.common.ControllerConstants;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Controller to monitor the statement and query plan cache hit rate of the
+ * datasource.
+ *
+ * @since 5.2.3
+ */
+@Controller
+@RequestMapping(ControllerConstants.Paths.ADMIN_DATABASE_STATEMENT_CACHE)
+public class AdminStatementCacheController extends AbstractAdminController {
+
+    @Inject
+    private Optional<StatementCacheStatisticsHandler> handler;
+
+    private StatementCacheStatisticsHandler getHandler() throws NoImplementationFoundException {
+        if (!handler.isPresent()) {
+            throw new NoImplementationFoundException(StatementCacheStatisticsHandler.class);
+        }
+        return this.handler.get();
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    @ExceptionHandler(NoImplementationFoundException.class)
+    public String onError(NoImplementationFoundException e) {
+        return "The operation is not supported by this SOS";
+    }
+
+    @ResponseBody
+    @RequestMapping(method = RequestMethod.GET, produces = "application/json; charset=UTF-8")
+    public String statistics() throws NoImplementationFoundException, OwsExceptionReport {
+        Optional<StatementCacheStatistics> statistics = getHandler().getStatementCacheStatistics();
+        ObjectNode json = Json.nodeFactory().objectNode();
+        json.put("enabled", statistics.isPresent());
+        if (statistics.isPresent()) {
+            StatementCacheStatistics s = statistics.get();
+            json.put("queryPlanCacheHits", s.getQueryPlanCacheHits());
+            json.put("queryPlanCacheMisses", s.getQueryPlanCacheMisses());
+            json.put("queryPlanCacheHitRate", s.getQueryPlanCacheHitRate());
+            json.put("preparedStatements", s.getPreparedStatements());
+            json.put("queryExecutions", s.getQueryExecutions());
+            json.put("entityLoads", s.getEntityLoads());
+        }
+        return Json.print(json);
+    }
+
+    @RequestMapping(method = RequestMethod.DELETE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void reset() throws NoImplementationFoundException, OwsExceptionReport {
+        getHandler().reset();
+    }
+}
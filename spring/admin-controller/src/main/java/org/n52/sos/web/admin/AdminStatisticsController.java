@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.admin;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.n52.iceland.exception.ows.concrete.NoImplementationFoundException;
+import org.n52.janmayen.Json;
+import org.n52.sos.statistics.LatencyHistogram;
+import org.n52.sos.statistics.StatisticsBucket;
+import org.n52.sos.statistics.StatisticsBucket.Dimension;
+import org.n52.sos.statistics.StatisticsStore;
+import org.n52.sos.web.common.ControllerConstants;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Controller to show the request statistics of the local {@link StatisticsStore}.
+ *
+ * @since 5.2.3
+ */
+@Controller
+public class AdminStatisticsController extends AbstractAdminController {
+
+    private static final long DEFAULT_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    @Inject
+    private Optional<StatisticsStore> store;
+
+    private StatisticsStore getStore() throws NoImplementationFoundException {
+        if (!store.isPresent()) {
+            throw new NoImplementationFoundException(StatisticsStore.class);
+        }
+        return this.store.get();
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    @ExceptionHandler(NoImplementationFoundException.class)
+    public String onError(NoImplementationFoundException e) {
+        return "The local statistics are not supported by this SOS";
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(DateTimeParseException.class)
+    public String onError(DateTimeParseException e) {
+        return String.format("Invalid time '%s', expected an ISO 8601 instant", e.getParsedString());
+    }
+
+    @RequestMapping(value = ControllerConstants.Paths.ADMIN_STATISTICS, method = RequestMethod.GET)
+    public String view() {
+        return ControllerConstants.Views.ADMIN_STATISTICS;
+    }
+
+    @ResponseBody
+    @RequestMapping(value = ControllerConstants.Paths.ADMIN_STATISTICS_JSON,
+                    method = RequestMethod.GET,
+                    produces = "application/json; charset=UTF-8")
+    public String statistics(@RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", required = false, defaultValue = "20") int limit)
+            throws NoImplementationFoundException, IOException {
+        long end = to == null || to.isEmpty() ? System.currentTimeMillis() : Instant.parse(to).toEpochMilli();
+        long start = from == null || from.isEmpty() ? end - DEFAULT_INTERVAL : Instant.parse(from).toEpochMilli();
+        List<StatisticsBucket> buckets = getStore().getBuckets(start, end);
+
+        StatisticsBucket total = new StatisticsBucket(start, end);
+        ObjectNode json = Json.nodeFactory().objectNode();
+        json.put("from", Instant.ofEpochMilli(start).toString());
+        json.put("to", Instant.ofEpochMilli(end).toString());
+        ArrayNode timeline = json.putArray("timeline");
+        for (StatisticsBucket bucket : buckets) {
+            total.merge(bucket);
+            timeline.addObject().put("start", Instant.ofEpochMilli(bucket.getStart()).toString())
+                    .put("count", bucket.getCount()).put("failures", bucket.getFailures());
+        }
+        json.put("count", total.getCount());
+        json.put("failures", total.getFailures());
+        json.set("operations", encodeOperations(total));
+        json.set("dimensions", encodeDimensions(total, limit > 0 ? limit : DEFAULT_LIMIT));
+        return Json.print(json);
+    }
+
+    private ArrayNode encodeOperations(StatisticsBucket total) {
+        ArrayNode operations = Json.nodeFactory().arrayNode();
+        Map<String, Long> failures = total.getFailuresByOperation();
+        for (Entry<String, LatencyHistogram> entry : total.getLatencies().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            operations.addObject().put("operation", entry.getKey())
+                    .put("count", histogram.getCount())
+                    .put("failures", failures.getOrDefault(entry.getKey(), 0L))
+                    .put("mean", histogram.getMean())
+                    .put("p50", histogram.getPercentile(50))
+                    .put("p90", histogram.getPercentile(90))
+                    .put("p99", histogram.getPercentile(99))
+                    .put("max", (double) histogram.getMax() / TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return operations;
+    }
+
+    private ObjectNode encodeDimensions(StatisticsBucket total, int limit) {
+        ObjectNode dimensions = Json.nodeFactory().objectNode();
+        for (Dimension dimension : Dimension.values()) {
+            // the most requested values first
+            ArrayNode values = dimensions.putArray(dimension.name());
+            total.getCounts(dimension).entrySet().stream()
+                    .sorted(Entry.<String, Long> comparingByValue(Comparator.reverseOrder())).limit(limit)
+                    .forEach(e -> values.addObject().put("value", e.getKey()).put("count", e.getValue()));
+        }
+        return dimensions;
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.n52.iceland.cache.ContentCacheController;
+import org.n52.sos.cache.SosContentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.servlet.FrameworkServlet;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+
+/**
+ * Abstract servlet filter that keeps the encoded documents of KVP requests
+ * for one operation and serves them with ETag and Last-Modified headers.
+ * Conditional requests (If-None-Match, If-Modified-Since) are answered with
+ * 304 if the document is still valid. Documents are keyed by the request
+ * parameters and the Accept headers and are dropped as soon as the generation
+ * provided by the implementation changes. Concurrent requests for the same
+ * document wait for the first request to generate it instead of generating it
+ * again.
+ * <p>
+ * Init parameters:
+ * <ul>
+ * <li>{@code enabled}: enable the cache, default {@code true}</li>
+ * <li>{@code maxBytes}: memory limit for all documents, default 256 MB</li>
+ * <li>{@code maxDocumentBytes}: size limit for a single document, default 64
+ * MB</li>
+ * <li>{@code maxAge}: maximum age of a document in seconds to reflect setting
+ * changes, default 3600</li>
+ * <li>{@code lockTimeout}: seconds to wait for a concurrent generation of the
+ * same document, default 60</li>
+ * <li>{@code varyByClient}: include the client address and authorization in
+ * the key, required if responses differ between clients, default
+ * {@code true}</li>
+ * <li>{@code servletName}: name of the SOS dispatcher servlet, default
+ * {@code dispatcher}</li>
+ * </ul>
+ *
+ * @since 5.2.3
+ */
+public abstract class AbstractDocumentCacheFilter implements Filter {
+
+    protected static final long MB = 1024L * 1024L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractDocumentCacheFilter.class);
+
+    private static final String GET = "GET";
+
+    private static final String REQUEST = "request";
+
+    private static final String IF_NONE_MATCH = "If-None-Match";
+
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private static final String ETAG = "ETag";
+
+    private static final String LAST_MODIFIED = "Last-Modified";
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final List<String> VARY_HEADERS = Arrays.asList("Accept", "Accept-Encoding", "Accept-Language");
+
+    private static final List<String> CLIENT_HEADERS = Arrays.asList("Authorization", "X-Forwarded-For");
+
+    private static final Set<String> NOT_REPLAYED_HEADERS = new HashSet<>(Arrays.asList("content-length", "date",
+            "etag", "last-modified", "transfer-encoding", "content-type"));
+
+    private boolean enabled = true;
+
+    private long maxDocumentBytes = 64 * MB;
+
+    private long maxAge = TimeUnit.HOURS.toMillis(1);
+
+    private long lockTimeout = TimeUnit.MINUTES.toSeconds(1);
+
+    private boolean varyByClient = true;
+
+    private String servletName = "dispatcher";
+
+    private DocumentCache cache = new DocumentCache(256 * MB);
+
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+        this.enabled = getBoolean(config, "enabled", enabled);
+        this.varyByClient = getBoolean(config, "varyByClient", varyByClient);
+        this.maxDocumentBytes = getLong(config, "maxDocumentBytes", maxDocumentBytes);
+        this.maxAge = TimeUnit.SECONDS.toMillis(getLong(config, "maxAge", TimeUnit.MILLISECONDS.toSeconds(maxAge)));
+        this.lockTimeout = getLong(config, "lockTimeout", lockTimeout);
+        this.cache = new DocumentCache(getLong(config, "maxBytes", 256 * MB));
+        if (!Strings.isNullOrEmpty(config.getInitParameter("servletName"))) {
+            this.servletName = config.getInitParameter("servletName");
+        }
+    }
+
+    /**
+     * @return the name of the cached operation
+     */
+    protected abstract String getOperationName();
+
+    /**
+     * @return the lower case names of the parameters that are allowed in a
+     *         cacheable request
+     */
+    protected abstract Set<String> getParameters();
+
+    /**
+     * Get the generation of the data the document for this request depends
+     * on. Cached documents of another generation are dropped.
+     *
+     * @param context
+     *            the context of the SOS dispatcher servlet
+     * @param request
+     *            the request
+     * @return the generation or {@code null} if the request should not be
+     *         cached
+     */
+    protected abstract String getGeneration(WebApplicationContext context, HttpServletRequest request);
+
+    protected DocumentCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        if (!enabled || !(req instanceof HttpServletRequest) || !(res instanceof HttpServletResponse)
+                || !GET.equals(((HttpServletRequest) req).getMethod())) {
+            chain.doFilter(req, res);
+            return;
+        }
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+        String key = createKey(request);
+        String generation = key != null ? getGeneration(request) : null;
+        if (generation == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+        CachedDocument document = cache.get(key, generation);
+        if (isValid(document)) {
+            write(document, request, response);
+            return;
+        }
+        ReentrantLock lock = cache.getLock(key);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(lockTimeout, TimeUnit.SECONDS);
+            if (locked) {
+                document = cache.get(key, generation);
+                if (isValid(document)) {
+                    write(document, request, response);
+                    return;
+                }
+                generate(key, generation, request, response, chain);
+            } else {
+                LOGGER.debug("Timeout while waiting for {} generation, bypassing cache", getOperationName());
+                chain.doFilter(req, res);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chain.doFilter(req, res);
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+            cache.releaseLock(key, lock);
+        }
+    }
+
+    private String getGeneration(HttpServletRequest request) {
+        WebApplicationContext context = WebApplicationContextUtils.getWebApplicationContext(
+                request.getServletContext(), FrameworkServlet.SERVLET_CONTEXT_PREFIX + servletName);
+        if (context == null) {
+            return null;
+        }
+        String generation = getGeneration(context, request);
+        return generation == null ? null : context.getStartupDate() + "/" + generation;
+    }
+
+    private void generate(String key, String generation, HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws IOException, ServletException {
+        long lastModified = roundToSeconds(System.currentTimeMillis());
+        response.setDateHeader(LAST_MODIFIED, lastModified);
+        CapturingResponseWrapper wrapper = new CapturingResponseWrapper(response, maxDocumentBytes);
+        chain.doFilter(request, wrapper);
+        wrapper.flushBuffer();
+        if (wrapper.isCaptured()) {
+            byte[] content = wrapper.getContent();
+            if (content.length > 0) {
+                String etag = "\"" + Hashing.murmur3_128().hashBytes(content).toString() + "\"";
+                if (cache.put(key, new CachedDocument(generation, etag, lastModified, wrapper.getContentType(),
+                        wrapper.getHeaders(), content))) {
+                    LOGGER.debug("Cached {} document of {} bytes, {} documents with {} bytes in cache",
+                            getOperationName(), content.length, cache.size(), cache.getBytes());
+                }
+            }
+        }
+    }
+
+    private void write(CachedDocument document, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(ETAG, document.getETag());
+        response.setDateHeader(LAST_MODIFIED, document.getLastModified());
+        if (isNotModified(document, request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        for (Entry<String, List<String>> header : document.getHeaders().entrySet()) {
+            if (!NOT_REPLAYED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValue()) {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        if (document.getContentType() != null) {
+            response.setContentType(document.getContentType());
+        }
+        response.setContentLength(document.getSize());
+        response.getOutputStream().write(document.getContent());
+    }
+
+    private boolean isNotModified(CachedDocument document, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String trimmed = tag.trim();
+                if (trimmed.startsWith(WEAK_PREFIX)) {
+                    trimmed = trimmed.substring(WEAK_PREFIX.length());
+                }
+                if (ANY.equals(trimmed) || document.getETag().equals(trimmed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && ifModifiedSince >= document.getLastModified();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean isValid(CachedDocument document) {
+        return document != null && System.currentTimeMillis() - document.getLastModified() < maxAge;
+    }
+
+    /**
+     * Create the cache key from the request, {@code null} if the request is
+     * not a plain KVP request for the cached operation.
+     *
+     * @param request
+     *            the request
+     * @return the key or {@code null}
+     */
+    String createKey(HttpServletRequest request) {
+        Map<String, String[]> parameters = request.getParameterMap();
+        Map<String, String> normalized = new TreeMap<>();
+        for (Entry<String, String[]> parameter : parameters.entrySet()) {
+            String name = parameter.getKey().toLowerCase(Locale.ROOT);
+            if (!getParameters().contains(name) || normalized.containsKey(name)) {
+                return null;
+            }
+            normalized.put(name, String.join(",", parameter.getValue()));
+        }
+        if (!getOperationName().equalsIgnoreCase(normalized.get(REQUEST))) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(request.getRequestURI()).append('?').append(normalized);
+        for (String header : VARY_HEADERS) {
+            key.append('|').append(Strings.nullToEmpty(request.getHeader(header)));
+        }
+        if (varyByClient) {
+            key.append('|').append(request.getRemoteAddr());
+            for (String header : CLIENT_HEADERS) {
+                key.append('|').append(Strings.nullToEmpty(request.getHeader(header)));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get the value of a KVP parameter ignoring the case of the name.
+     *
+     * @param request
+     *            the request
+     * @param name
+     *            the parameter name
+     * @return the value or {@code null}
+     */
+    protected static String getParameter(HttpServletRequest request, String name) {
+        for (Entry<String, String[]> parameter : request.getParameterMap().entrySet()) {
+            if (parameter.getKey().equalsIgnoreCase(name) && parameter.getValue().length > 0) {
+                return parameter.getValue()[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the content cache of the SOS.
+     *
+     * @param context
+     *            the context of the SOS dispatcher servlet
+     * @return the content cache or {@code null}
+     */
+    protected static SosContentCache getContentCache(WebApplicationContext context) {
+        try {
+            for (ContentCacheController controller : context.getBeansOfType(ContentCacheController.class)
+                    .values()) {
+                if (controller.getCache() instanceof SosContentCache) {
+                    return (SosContentCache) controller.getCache();
+                }
+            }
+        } catch (BeansException | IllegalStateException e) {
+            LOGGER.trace("Content cache not available", e);
+        }
+        return null;
+    }
+
+    private static long roundToSeconds(long millis) {
+        return millis - millis % 1000;
+    }
+
+    private static boolean getBoolean(FilterConfig config, String name, boolean defaultValue) {
+        String value = config.getInitParameter(name);
+        return Strings.isNullOrEmpty(value) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    private static long getLong(FilterConfig config, String name, long defaultValue) throws ServletException {
+        String value = config.getInitParameter(name);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletException(String.format("Invalid value '%s' for init parameter '%s'", value, name), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        cache.clear();
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoded response document as written to the client.
+ *
+ * @since 5.2.3
+ */
+public class CachedDocument {
+
+    private final String generation;
+
+    private final String etag;
+
+    private final long lastModified;
+
+    private final String contentType;
+
+    private final Map<String, List<String>> headers;
+
+    private final byte[] content;
+
+    public CachedDocument(String generation, String etag, long lastModified, String contentType,
+            Map<String, List<String>> headers, byte[] content) {
+        this.generation = generation;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentType = contentType;
+        this.headers = headers == null ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+        this.content = content;
+    }
+
+    /**
+     * @return the generation of the data this document was created for
+     */
+    public String getGeneration() {
+        return generation;
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * @return the creation time of this document in milliseconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the additional response headers, e.g. Content-Encoding
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return content.length;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.joda.time.DateTime;
+import org.n52.sos.cache.SosContentCache;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Cache for encoded GetCapabilities documents. Section granularity is
+ * provided by the key: sections, version, language and acceptFormats are part
+ * of it, so each combination is cached on its own. All documents are dropped
+ * when the content cache is updated.
+ * <p>
+ * The capabilities do not depend on the client address or authorization, so
+ * the webapp configures {@code varyByClient=false} and all harvesters share
+ * one document per key.
+ * <p>
+ * Development snapshots of 5.2.3 shipped this filter as
+ * {@code org.n52.sos.web.capabilities.CapabilitiesCacheFilter}, together
+ * with {@code CapabilitiesDocumentCache} and {@code CapabilitiesDocument}.
+ * These classes moved to this package as {@link DocumentCache} and
+ * {@link CachedDocument} when the DescribeSensor cache was added. A
+ * customized {@code web.xml} that still names the old filter class has to be
+ * updated to this class.
+ *
+ * @since 5.2.3
+ */
+public class CapabilitiesCacheFilter extends AbstractDocumentCacheFilter {
+
+    private static final Set<String> PARAMETERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "service", "request", "version", "acceptversions", "sections", "acceptformats", "language", "crs",
+            "updatesequence", "capabilitiesid", "returnhumanreadableidentifier")));
+
+    private volatile String lastGeneration;
+
+    @Override
+    protected String getOperationName() {
+        return "GetCapabilities";
+    }
+
+    @Override
+    protected Set<String> getParameters() {
+        return PARAMETERS;
+    }
+
+    @Override
+    protected String getGeneration(WebApplicationContext context, HttpServletRequest request) {
+        SosContentCache contentCache = getContentCache(context);
+        DateTime lastUpdate = contentCache != null ? contentCache.getLastUpdateTime() : null;
+        if (lastUpdate == null) {
+            return null;
+        }
+        String generation = context.getStartupDate() + "/" + lastUpdate.getMillis();
+        if (!generation.equals(lastGeneration)) {
+            lastGeneration = generation;
+            getCache().clear();
+        }
+        return generation;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import com.google.common.base.Strings;
+
+/**
+ * Response wrapper that passes the written content through to the client and
+ * keeps a copy of it, as long as it does not exceed the configured limit.
+ *
+ * @since 5.2.3
+ */
+class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+
+    private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    private final long maxBytes;
+
+    private boolean overflow;
+
+    private int status = SC_OK;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    CapturingResponseWrapper(HttpServletResponse response, long maxBytes) {
+        super(response);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        this.status = sc;
+        super.setStatus(sc);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        this.status = sc;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        this.status = sc;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        this.status = SC_FOUND;
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        headers.computeIfAbsent(name, n -> new ArrayList<>(1)).add(value);
+        super.addHeader(name, value);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            String encoding = Strings.isNullOrEmpty(getCharacterEncoding()) ? "ISO-8859-1" : getCharacterEncoding();
+            writer = new PrintWriter(new OutputStreamWriter(new CapturingOutputStream(super.getOutputStream()),
+                    Charset.forName(encoding)));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        copy.reset();
+        overflow = false;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        headers.clear();
+        copy.reset();
+        overflow = false;
+        status = SC_OK;
+    }
+
+    /**
+     * @return if the complete content was captured
+     */
+    boolean isCaptured() {
+        return !overflow && status == SC_OK;
+    }
+
+    byte[] getContent() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return copy.toByteArray();
+    }
+
+    Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (!overflow) {
+            if (copy.size() + len > maxBytes) {
+                overflow = true;
+                copy.reset();
+            } else {
+                copy.write(b, off, len);
+            }
+        }
+    }
+
+    private class CapturingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            capture(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.n52.shetland.util.ReferencedEnvelope;
+import org.n52.sos.cache.SosContentCache;
+import org.springframework.beans.BeansException;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Cache for encoded DescribeSensor documents. The key contains the procedure,
+ * the procedure description format, the valid time and the language. A
+ * document is dropped if the procedure was inserted, updated or deleted (see
+ * {@link ProcedureDescriptionInvalidator}) or if the content cache information
+ * the description is enriched with (offerings and their envelopes, phenomenon
+ * time, observable properties, related procedures) changed.
+ *
+ * @since 5.2.3
+ */
+public class DescribeSensorCacheFilter extends AbstractDocumentCacheFilter {
+
+    private static final String PROCEDURE = "procedure";
+
+    private static final Set<String> PARAMETERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "service", "request", "version", PROCEDURE, "proceduredescriptionformat", "outputformat", "validtime",
+            "language", "crs", "returnhumanreadableidentifier")));
+
+    @Override
+    protected String getOperationName() {
+        return "DescribeSensor";
+    }
+
+    @Override
+    protected Set<String> getParameters() {
+        return PARAMETERS;
+    }
+
+    @Override
+    protected String getGeneration(WebApplicationContext context, HttpServletRequest request) {
+        String procedure = getParameter(request, PROCEDURE);
+        SosContentCache contentCache = getContentCache(context);
+        ProcedureDescriptionInvalidator invalidator = getInvalidator(context);
+        if (procedure == null || contentCache == null || invalidator == null) {
+            return null;
+        }
+        if (!contentCache.hasProcedure(procedure)) {
+            procedure = contentCache.getProcedureIdentifierForHumanReadableName(procedure);
+            if (procedure == null || !contentCache.hasProcedure(procedure)) {
+                return null;
+            }
+        }
+        return invalidator.getGeneration(procedure) + "/" + getFingerprint(contentCache, procedure);
+    }
+
+    private int getFingerprint(SosContentCache cache, String procedure) {
+        int hash = Objects.hash(cache.getObservablePropertiesForProcedure(procedure),
+                cache.getMinPhenomenonTimeForProcedure(procedure), cache.getMaxPhenomenonTimeForProcedure(procedure),
+                cache.getParentProcedures(procedure, false, false), cache.getChildProcedures(procedure, false, false));
+        for (String offering : new TreeSet<>(cache.getOfferingsForProcedure(procedure))) {
+            ReferencedEnvelope envelope = cache.getEnvelopeForOffering(offering);
+            hash = 31 * hash + Objects.hash(offering, envelope != null ? envelope.getEnvelope() : null,
+                    envelope != null ? envelope.getSrid() : null);
+        }
+        return hash;
+    }
+
+    private ProcedureDescriptionInvalidator getInvalidator(WebApplicationContext context) {
+        try {
+            return context.getBeansOfType(ProcedureDescriptionInvalidator.class).values().stream().findFirst()
+                    .orElse(null);
+        } catch (BeansException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+}
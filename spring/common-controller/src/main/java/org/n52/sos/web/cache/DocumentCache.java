@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size bounded LRU cache for encoded response documents. Documents are stored
+ * per request key, e.g. version, sections, language and accepted formats of a
+ * GetCapabilities request, so each parameter combination is cached on its
+ * own.
+ *
+ * @since 5.2.3
+ */
+public class DocumentCache {
+
+    private final LinkedHashMap<String, CachedDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ConcurrentMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    private final long maxBytes;
+
+    private long bytes;
+
+    /**
+     * @param maxBytes
+     *            the maximum number of bytes to keep in memory
+     */
+    public DocumentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the document for the key if it belongs to the generation
+     *
+     * @param key
+     *            the request key
+     * @param generation
+     *            the current generation
+     * @return the document or {@code null}
+     */
+    public synchronized CachedDocument get(String key, String generation) {
+        CachedDocument document = documents.get(key);
+        if (document != null && !document.getGeneration().equals(generation)) {
+            remove(key);
+            return null;
+        }
+        return document;
+    }
+
+    /**
+     * Add the document, least recently used documents are removed if the
+     * size limit is exceeded.
+     *
+     * @param key
+     *            the request key
+     * @param document
+     *            the document
+     * @return {@code true} if the document was added
+     */
+    public synchronized boolean put(String key, CachedDocument document) {
+        if (document.getSize() > maxBytes) {
+            return false;
+        }
+        remove(key);
+        documents.put(key, document);
+        bytes += document.getSize();
+        Iterator<Map.Entry<String, CachedDocument>> it = documents.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, CachedDocument> eldest = it.next();
+            if (!eldest.getKey().equals(key)) {
+                bytes -= eldest.getValue().getSize();
+                it.remove();
+            }
+        }
+        return true;
+    }
+
+    private void remove(String key) {
+        CachedDocument removed = documents.remove(key);
+        if (removed != null) {
+            bytes -= removed.getSize();
+        }
+    }
+
+    /**
+     * Remove all documents
+     */
+    public synchronized void clear() {
+        documents.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the lock to ensure that a document is only generated once even if
+     * several clients request it concurrently. Every call has to be followed
+     * by {@link #releaseLock(String, ReentrantLock)}.
+     *
+     * @param key
+     *            the request key
+     * @return the lock for the key
+     */
+    public ReentrantLock getLock(String key) {
+        return locks.compute(key, (k, keyLock) -> {
+            KeyLock result = keyLock != null ? keyLock : new KeyLock();
+            result.users++;
+            return result;
+        }).lock;
+    }
+
+    /**
+     * Release the lock for the key. The lock is removed once no client uses
+     * it anymore, including clients that got it but did not lock it yet.
+     *
+     * @param key
+     *            the request key
+     * @param lock
+     *            the lock returned by {@link #getLock(String)}
+     */
+    public void releaseLock(String key, ReentrantLock lock) {
+        locks.computeIfPresent(key, (k, keyLock) -> {
+            if (keyLock.lock != lock) {
+                return keyLock;
+            }
+            return --keyLock.users > 0 ? keyLock : null;
+        });
+    }
+
+    /**
+     * The lock of a key and the number of clients using it. The count is only
+     * changed inside the atomic map operations.
+     */
+    private static final class KeyLock {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int users;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.joda.time.DateTime;
+import org.n52.iceland.cache.ContentCacheController;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.sos.cache.SosContentCache;
+import org.n52.sos.event.events.SensorDeletion;
+import org.n52.sos.event.events.SensorInsertion;
+import org.n52.sos.event.events.SensorModification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Keeps a generation per procedure that is incremented if the procedure is
+ * inserted, updated or deleted. The parent procedures are invalidated too as
+ * their descriptions may contain the changed procedure. All procedures are
+ * invalidated when the update time of the content cache moves forward, e.g.
+ * after a scheduled cache update.
+ *
+ * @since 5.2.3
+ */
+public class ProcedureDescriptionInvalidator implements EventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcedureDescriptionInvalidator.class);
+
+    @SuppressWarnings("unchecked")
+    private static final Set<Class<? extends Event>> TYPES = Sets.<Class<? extends Event>> newHashSet(
+            SensorInsertion.class, SensorModification.class, SensorDeletion.class);
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private DateTime lastUpdate;
+
+    private ContentCacheController contentCacheController;
+
+    @Inject
+    public void setContentCacheController(ContentCacheController contentCacheController) {
+        this.contentCacheController = contentCacheController;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.unmodifiableSet(TYPES);
+    }
+
+    @Override
+    public void handle(Event event) {
+        if (event instanceof SensorInsertion) {
+            invalidate(((SensorInsertion) event).getResponse().getAssignedProcedure());
+        } else if (event instanceof SensorModification) {
+            invalidate(((SensorModification) event).getRequest().getProcedureIdentifier());
+        } else if (event instanceof SensorDeletion) {
+            invalidate(((SensorDeletion) event).getRequest().getProcedureIdentifier());
+        }
+    }
+
+    /**
+     * Invalidate the descriptions of all procedures.
+     */
+    public void invalidate() {
+        LOGGER.debug("Invalidating all procedure descriptions");
+        generation.incrementAndGet();
+        generations.clear();
+    }
+
+    /**
+     * Invalidate the description of the procedure and its parents.
+     *
+     * @param procedure
+     *            the procedure identifier
+     */
+    public void invalidate(String procedure) {
+        if (procedure == null) {
+            invalidate();
+            return;
+        }
+        LOGGER.debug("Invalidating procedure description of {}", procedure);
+        increment(procedure);
+        if (contentCacheController != null && contentCacheController.getCache() instanceof SosContentCache) {
+            ((SosContentCache) contentCacheController.getCache()).getParentProcedures(procedure, true, false)
+                    .forEach(this::increment);
+        }
+    }
+
+    private void increment(String procedure) {
+        generations.computeIfAbsent(procedure, p -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * @param procedure
+     *            the procedure identifier
+     * @return the current generation of the procedure description
+     */
+    public String getGeneration(String procedure) {
+        checkCacheUpdate();
+        AtomicLong procedureGeneration = generations.get(procedure);
+        return generation.get() + "." + (procedureGeneration == null ? 0L : procedureGeneration.get());
+    }
+
+    private void checkCacheUpdate() {
+        if (contentCacheController == null || !(contentCacheController.getCache() instanceof SosContentCache)) {
+            return;
+        }
+        DateTime update = ((SosContentCache) contentCacheController.getCache()).getLastUpdateTime();
+        if (update == null) {
+            return;
+        }
+        synchronized (this) {
+            if (lastUpdate == null || update.isAfter(lastUpdate)) {
+                if (lastUpdate != null) {
+                    invalidate();
+                }
+                lastUpdate = update;
+            }
+        }
+    }
+
+}
@@ -125,6 +125,10 @@ public interface ControllerConstants {
 
         String ADMIN_CACHE = "admin/cache";
 
+        String ADMIN_STATISTICS = "admin/statistics";
+
+        String ADMIN_SLOW_QUERIES = "admin/slow-queries";
+
         String ADMIN_SENSOR_DESCRIPTIONS = "admin/sensors";
 
         String ADMIN_CAPABILITIES_SETTINGS = "admin/capabilities";
@@ -205,6 +209,16 @@ public interface ControllerConstants {
 
         String ADMIN_RELOAD_CAPABILITIES_CACHE = "/admin/cache/reload";
 
+        String ADMIN_STATISTICS = "/admin/statistics";
+
+        String ADMIN_STATISTICS_JSON = "/admin/statistics/json";
+
+        String ADMIN_REQUEST_TIMINGS = "/admin/statistics/timings";
+
+        String ADMIN_SLOW_QUERIES = "/admin/slowQueries";
+
+        String ADMIN_SLOW_QUERIES_JSON = "/admin/slowQueries/json";
+
         String ADMIN_DATABASE_UPDATE_SCRIPT = "/admin/datasource/updatescript";
 
         String ADMIN_DATABASE_REMOVE_TEST_DATA = "/admin/datasource/testdata/remove";
@@ -217,6 +231,12 @@ public interface ControllerConstants {
 
         String ADMIN_DATABASE_DELETE_DELETED_DATA = "/admin/datasource/deleteDeletedData";
 
+        String ADMIN_DATABASE_RETENTION = "/admin/datasource/retention";
+
+        String ADMIN_DATABASE_CONNECTION_POOL = "/admin/datasource/connectionPool";
+
+        String ADMIN_DATABASE_STATEMENT_CACHE = "/admin/datasource/statementCache";
+
         String ADMIN_DATABASE_LOAD_PREDEFINED_UNITS = "/admin/datasource/loadPredefinedUnits";
 
         String ADMIN_DATABASE_LOAD_PREDEFINED_PHENOMENA = "/admin/datasource/loadPredefinedPhenomena";
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Test;
+
+public class DocumentCacheTest {
+
+    private static final String GENERATION = "1";
+
+    private CachedDocument document(String generation, int size) {
+        return new CachedDocument(generation, "\"etag\"", 0L, "application/xml", Collections.emptyMap(),
+                new byte[size]);
+    }
+
+    @Test
+    public void should_return_document_of_same_generation() {
+        DocumentCache cache = new DocumentCache(100);
+        assertTrue(cache.put("a", document(GENERATION, 10)));
+        assertNotNull(cache.get("a", GENERATION));
+        assertEquals(10, cache.getBytes());
+    }
+
+    @Test
+    public void should_drop_document_of_old_generation() {
+        DocumentCache cache = new DocumentCache(100);
+        cache.put("a", document(GENERATION, 10));
+        assertNull(cache.get("a", "2"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void should_evict_least_recently_used_documents() {
+        DocumentCache cache = new DocumentCache(100);
+        cache.put("a", document(GENERATION, 40));
+        cache.put("b", document(GENERATION, 40));
+        cache.get("a", GENERATION);
+        cache.put("c", document(GENERATION, 40));
+        assertNotNull(cache.get("a", GENERATION));
+        assertNull(cache.get("b", GENERATION));
+        assertNotNull(cache.get("c", GENERATION));
+        assertEquals(80, cache.getBytes());
+    }
+
+    @Test
+    public void should_reject_too_large_document() {
+        DocumentCache cache = new DocumentCache(100);
+        assertFalse(cache.put("a", document(GENERATION, 101)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void should_replace_document_for_same_key() {
+        DocumentCache cache = new DocumentCache(100);
+        cache.put("a", document(GENERATION, 40));
+        cache.put("a", document(GENERATION, 20));
+        assertEquals(1, cache.size());
+        assertEquals(20, cache.getBytes());
+    }
+
+    @Test
+    public void should_keep_lock_while_it_is_used() {
+        DocumentCache cache = new DocumentCache(100);
+        ReentrantLock holder = cache.getLock("a");
+        // another client got the lock but did not lock it yet
+        ReentrantLock waiting = cache.getLock("a");
+        assertSame(holder, waiting);
+        holder.lock();
+        holder.unlock();
+        cache.releaseLock("a", holder);
+        assertSame(waiting, cache.getLock("a"));
+    }
+
+    @Test
+    public void should_remove_lock_after_last_release() {
+        DocumentCache cache = new DocumentCache(100);
+        ReentrantLock first = cache.getLock("a");
+        ReentrantLock second = cache.getLock("a");
+        cache.releaseLock("a", first);
+        cache.releaseLock("a", second);
+        assertNotSame(first, cache.getLock("a"));
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+ * Software GmbH
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 as published
+ * by the Free Software Foundation.
+ *
+ * If the program is linked with libraries which are licensed under one of
+ * the following licenses, the combination of the program with the linked
+ * library is not considered a "derivative work" of the program:
+ *
+ *     - Apache License, version 2.0
+ *     - Apache Software License, version 1.0
+ *     - GNU Lesser General Public License, version 3
+ *     - Mozilla Public License, versions 1.0, 1.1 and 2.0
+ *     - Common Development and Distribution License (CDDL), version 1.0
+ *
+ * Therefore the distribution of the program linked with libraries licensed
+ * under the aforementioned licenses, is permitted by the copyright holders
+ * if the distribution is compliant with both the GNU General Public
+ * License version 2 and the aforementioned licenses.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ */
+package org.n52.sos.web.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.n52.iceland.cache.ContentCacheController;
+import org.n52.sos.cache.SosContentCache;
+
+public class ProcedureDescriptionInvalidatorTest {
+
+    private static final String PROCEDURE = "http://www.52north.org/test/procedure/1";
+
+    private static final String OTHER_PROCEDURE = "http://www.52north.org/test/procedure/2";
+
+    @Test
+    public void should_change_generation_of_invalidated_procedure_only() {
+        ProcedureDescriptionInvalidator invalidator = new ProcedureDescriptionInvalidator();
+        String generation = invalidator.getGeneration(PROCEDURE);
+        String otherGeneration = invalidator.getGeneration(OTHER_PROCEDURE);
+        invalidator.invalidate(PROCEDURE);
+        assertNotEquals(generation, invalidator.getGeneration(PROCEDURE));
+        assertEquals(otherGeneration, invalidator.getGeneration(OTHER_PROCEDURE));
+    }
+
+    @Test
+    public void should_change_generation_of_all_procedures() {
+        ProcedureDescriptionInvalidator invalidator = new ProcedureDescriptionInvalidator();
+        invalidator.invalidate(PROCEDURE);
+        String generation = invalidator.getGeneration(PROCEDURE);
+        String otherGeneration = invalidator.getGeneration(OTHER_PROCEDURE);
+        invalidator.invalidate();
+        assertNotEquals(generation, invalidator.getGeneration(PROCEDURE));
+        assertNotEquals(otherGeneration, invalidator.getGeneration(OTHER_PROCEDURE));
+    }
+
+    @Test
+    public void should_change_generation_of_all_procedures_after_cache_update() {
+        DateTime update = new DateTime(2020, 1, 1, 0, 0);
+        SosContentCache cache = mock(SosContentCache.class);
+        when(cache.getLastUpdateTime()).thenReturn(update);
+        ContentCacheController controller = mock(ContentCacheController.class);
+        when(controller.getCache()).thenReturn(cache);
+        ProcedureDescriptionInvalidator invalidator = new ProcedureDescriptionInvalidator();
+        invalidator.setContentCacheController(controller);
+
+        String generation = invalidator.getGeneration(PROCEDURE);
+        assertEquals(generation, invalidator.getGeneration(PROCEDURE));
+
+        // a scheduled cache update without any event
+        when(cache.getLastUpdateTime()).thenReturn(update.plusMinutes(5));
+        String updated = invalidator.getGeneration(PROCEDURE);
+        assertNotEquals(generation, updated);
+        assertEquals(updated, invalidator.getGeneration(PROCEDURE));
+        assertEquals(updated, invalidator.getGeneration(OTHER_PROCEDURE));
+    }
+
+}
@@ -0,0 +1,131 @@
+<%--
+
+    Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+    Software GmbH
+
+    This program is free software; you can redistribute it and/or modify it
+    under the terms of the GNU General Public License version 2 as published
+    by the Free Software Foundation.
+
+    If the program is linked with libraries which are licensed under one of
+    the following licenses, the combination of the program with the linked
+    library is not considered a "derivative work" of the program:
+
+        - Apache License, version 2.0
+        - Apache Software License, version 1.0
+        - GNU Lesser General Public License, version 3
+        - Mozilla Public License, versions 1.0, 1.1 and 2.0
+        - Common Development and Distribution License (CDDL), version 1.0
+
+    Therefore the distribution of the program linked with libraries licensed
+    under the aforementioned licenses, is permitted by the copyright holders
+    if the distribution is compliant with both the GNU General Public
+    License version 2 and the aforementioned licenses.
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+    Public License for more details.
+
+--%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<jsp:include page="../common/header.jsp">
+    <jsp:param name="activeMenu" value="admin" />
+</jsp:include>
+<jsp:include page="../common/logotitle.jsp">
+	<jsp:param name="title" value="Slow Queries" />
+	<jsp:param name="leadParagraph" value="Database statements that exceeded the threshold of the slow query log. The log has to be enabled in the settings. Only the types of the parameters are recorded. Statements of the same shape issued many times by a single request usually point to a lazy loading (N+1) problem." />
+</jsp:include>
+
+<p>
+    <button type="button" class="btn" id="slowQueriesRefresh">Refresh</button>
+    <button type="button" class="btn btn-danger" id="slowQueriesClear">Clear</button>
+</p>
+
+<script type="text/javascript">
+    var loadSlowQueries = function() {
+        $.ajax({
+            url: "<c:url value="/admin/slowQueries/json"/>",
+            type: "GET",
+            dataType: "json"
+        }).done(function(data) {
+            var $summary = $("#slowQueriesSummary").empty();
+            $("<p />").appendTo($summary).text((data.enabled ? "Enabled" : "Disabled") + ", threshold "
+                    + data.threshold + " ms, " + data.count + " slow statements (the last "
+                    + data.capacity + " are kept).");
+
+            var shapes = {};
+            $.each(data.queries, function(i, q) {
+                var key = q.sql + " " + q.parameters.join(",");
+                var shape = shapes[key] || (shapes[key] = { sql: q.sql, parameters: q.parameters, count: 0,
+                        duration: 0, requests: {}, origin: q.origin });
+                shape.count++;
+                shape.duration += q.duration;
+                if (q.request) {
+                    shape.requests[q.request] = (shape.requests[q.request] || 0) + 1;
+                }
+            });
+            var $shapes = $("#slowQueriesShapes").empty();
+            var $st = $("<table class=\"table table-striped table-condensed\" />").appendTo($shapes);
+            var $sh = $("<tr />").appendTo($("<thead />").appendTo($st));
+            $.each(["Statement", "Parameters", "Count", "Total ms", "Max per request", "Origin"], function(i, title) {
+                $("<th />").appendTo($sh).text(title);
+            });
+            var $sb = $("<tbody />").appendTo($st);
+            $.each(Object.keys(shapes).map(function(k) { return shapes[k]; })
+                    .sort(function(a, b) { return b.duration - a.duration; }), function(i, s) {
+                var perRequest = 0;
+                $.each(s.requests, function(r, n) { perRequest = Math.max(perRequest, n); });
+                var $tr = $("<tr />").appendTo($sb);
+                $("<td />").appendTo($tr).append($("<code />").text(s.sql));
+                $("<td />").appendTo($tr).text(s.parameters.join(", "));
+                $("<td />").appendTo($tr).text(s.count);
+                $("<td />").appendTo($tr).text(s.duration.toFixed(1));
+                $("<td />").appendTo($tr).text(perRequest);
+                $("<td />").appendTo($tr).text(s.origin || "");
+            });
+
+            var $queries = $("#slowQueriesList").empty();
+            var $table = $("<table class=\"table table-condensed\" />").appendTo($queries);
+            var $head = $("<tr />").appendTo($("<thead />").appendTo($table));
+            $.each(["Time", "ms", "Rows", "Request", "Operation", "Origin", "Statement"], function(i, title) {
+                $("<th />").appendTo($head).text(title);
+            });
+            var $body = $("<tbody />").appendTo($table);
+            $.each(data.queries, function(i, q) {
+                var $tr = $("<tr />").appendTo($body);
+                $("<td />").appendTo($tr).text(q.time);
+                $("<td />").appendTo($tr).text(q.duration.toFixed(1));
+                $("<td />").appendTo($tr).text(q.rows === undefined ? "" : q.rows);
+                $("<td />").appendTo($tr).text(q.request || "");
+                $("<td />").appendTo($tr).text(q.operation || "");
+                $("<td />").appendTo($tr).text(q.origin || "");
+                $("<td />").appendTo($tr).append($("<code />").text(q.sql));
+            });
+        }).fail(function(error){
+            showError("Slow query request failed: " + error.responseText);
+        });
+    };
+
+    //document ready
+    $(function() {
+        $("#slowQueriesRefresh").on("click", loadSlowQueries);
+        $("#slowQueriesClear").on("click", function() {
+            $.ajax({
+                url: "<c:url value="/admin/slowQueries/json"/>",
+                type: "DELETE"
+            }).done(loadSlowQueries).fail(function(error){
+                showError("Clearing the slow query log failed: " + error.responseText);
+            });
+        });
+        loadSlowQueries();
+    });
+</script>
+
+<div id="slowQueriesSummary" class="row"></div>
+<h3>By statement</h3>
+<div id="slowQueriesShapes" class="row"></div>
+<h3>Recent statements</h3>
+<div id="slowQueriesList" class="row"></div>
+
+<jsp:include page="../common/footer.jsp" />
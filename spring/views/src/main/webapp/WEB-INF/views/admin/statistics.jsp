@@ -0,0 +1,132 @@
+<%--
+
+    Copyright (C) 2012-2020 52°North Initiative for Geospatial Open Source
+    Software GmbH
+
+    This program is free software; you can redistribute it and/or modify it
+    under the terms of the GNU General Public License version 2 as published
+    by the Free Software Foundation.
+
+    If the program is linked with libraries which are licensed under one of
+    the following licenses, the combination of the program with the linked
+    library is not considered a "derivative work" of the program:
+
+        - Apache License, version 2.0
+        - Apache Software License, version 1.0
+        - GNU Lesser General Public License, version 3
+        - Mozilla Public License, versions 1.0, 1.1 and 2.0
+        - Common Development and Distribution License (CDDL), version 1.0
+
+    Therefore the distribution of the program linked with libraries licensed
+    under the aforementioned licenses, is permitted by the copyright holders
+    if the distribution is compliant with both the GNU General Public
+    License version 2 and the aforementioned licenses.
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+    Public License for more details.
+
+--%>
+<%@ taglib prefix="c" uri="http://java.sun.com/jsp/jstl/core"%>
+<jsp:include page="../common/header.jsp">
+    <jsp:param name="activeMenu" value="admin" />
+</jsp:include>
+<jsp:include page="../common/logotitle.jsp">
+	<jsp:param name="title" value="Request Statistics" />
+	<jsp:param name="leadParagraph" value="Statistics of the processed requests collected by the local statistics store. The collection has to be enabled in the settings. Latencies are the processing times of the operations in milliseconds and do not include the encoding of the response." />
+</jsp:include>
+
+<form class="form-inline" id="statisticsForm">
+    <label for="statisticsFrom">From</label>
+    <input type="text" class="input-large" id="statisticsFrom" placeholder="e.g. 2020-01-01T00:00:00Z" />
+    <label for="statisticsTo">To</label>
+    <input type="text" class="input-large" id="statisticsTo" placeholder="now" />
+    <button type="submit" class="btn">Show</button>
+</form>
+
+<script type="text/javascript">
+    var loadStatistics = function() {
+        $.ajax({
+            url: "<c:url value="/admin/statistics/json"/>",
+            type: "GET",
+            dataType: "json",
+            data: { from: $("#statisticsFrom").val(), to: $("#statisticsTo").val() }
+        }).done(function(data) {
+            var $summary = $("#statisticsSummary").empty();
+            $("<p />").appendTo($summary).text(data.count + " requests (" + data.failures + " failed) between "
+                    + data.from + " and " + data.to);
+
+            var $operations = $("#statisticsOperations").empty();
+            var $table = $("<table class=\"table table-striped table-condensed\" />").appendTo($operations);
+            var $head = $("<tr />").appendTo($("<thead />").appendTo($table));
+            $.each(["Operation", "Requests", "Failed", "Mean", "50%", "90%", "99%", "Max"], function(i, title) {
+                $("<th />").appendTo($head).text(title);
+            });
+            var $body = $("<tbody />").appendTo($table);
+            $.each(data.operations, function(i, op) {
+                var $tr = $("<tr />").appendTo($body);
+                $("<td />").appendTo($tr).text(op.operation);
+                $("<td />").appendTo($tr).text(op.count);
+                $("<td />").appendTo($tr).text(op.failures);
+                $.each([op.mean, op.p50, op.p90, op.p99, op.max], function(j, value) {
+                    $("<td />").appendTo($tr).text(value.toFixed(1));
+                });
+            });
+
+            var $dimensions = $("#statisticsDimensions").empty();
+            $.each(data.dimensions, function(dimension, values) {
+                if (values.length === 0) {
+                    return;
+                }
+                $("<h4 />").appendTo($dimensions).text(dimension.replace("_", " ").toLowerCase());
+                var $t = $("<table class=\"table table-condensed\" />").appendTo($dimensions);
+                $.each(values, function(i, v) {
+                    var $tr = $("<tr />").appendTo($t);
+                    $("<td />").appendTo($tr).text(v.value);
+                    $("<td />").appendTo($tr).text(v.count);
+                });
+            });
+
+            var $timeline = $("#statisticsTimeline").empty();
+            var max = 1;
+            $.each(data.timeline, function(i, b) { max = Math.max(max, b.count); });
+            var $tt = $("<table class=\"table table-condensed\" />").appendTo($timeline);
+            $.each(data.timeline, function(i, b) {
+                var $tr = $("<tr />").appendTo($tt);
+                $("<td />").appendTo($tr).text(b.start);
+                $("<td />").appendTo($tr).text(b.count + " / " + b.failures);
+                $("<div class=\"statistics-bar\" />").appendTo($("<td style=\"width: 60%\" />").appendTo($tr))
+                        .css("width", (100 * b.count / max) + "%");
+            });
+        }).fail(function(error){
+            showError("Request statistics request failed: " + error.responseText);
+        });
+    };
+
+    //document ready
+    $(function() {
+        $("#statisticsForm").on("submit", function(e) {
+            e.preventDefault();
+            loadStatistics();
+        });
+        loadStatistics();
+    });
+</script>
+
+<style>
+div.statistics-bar {
+  background-color: #0088cc;
+  height: 10px;
+}
+</style>
+
+<div id="statisticsSummary" class="row"></div>
+<h3>Operations</h3>
+<div id="statisticsOperations" class="row"></div>
+<h3>Most requested</h3>
+<div id="statisticsDimensions" class="row"></div>
+<h3>Timeline</h3>
+<div id="statisticsTimeline" class="row"></div>
+
+<jsp:include page="../common/footer.jsp" />
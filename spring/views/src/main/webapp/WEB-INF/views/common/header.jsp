@@ -197,6 +197,16 @@
                                                             <span class="menu-title">Cache Summary</span>
                                                         </a>
                                                     </li>
+                                                    <li>
+                                                        <a href="<c:url value="/admin/statistics" />">
+                                                            <span class="menu-title">Request Statistics</span>
+                                                        </a>
+                                                    </li>
+                                                    <li>
+                                                        <a href="<c:url value="/admin/slowQueries" />">
+                                                            <span class="menu-title">Slow Queries</span>
+                                                        </a>
+                                                    </li>
                                                     <li>
                                                         <a href="<c:url value="/admin/reset" />">
                                                             <span class="menu-title">Reset</span>